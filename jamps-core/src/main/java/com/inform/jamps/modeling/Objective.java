@@ -23,4 +23,20 @@ public interface Objective extends Comparable<Objective> {
 
   Expression getExpression ();
 
+  int getPriority ();
+
+  void setPriority (int priority);
+
+  double getWeight ();
+
+  void setWeight (double weight);
+
+  double getAbsoluteTolerance ();
+
+  void setAbsoluteTolerance (double absoluteTolerance);
+
+  double getRelativeTolerance ();
+
+  void setRelativeTolerance (double relativeTolerance);
+
 }
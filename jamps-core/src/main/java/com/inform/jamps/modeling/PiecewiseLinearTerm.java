@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.modeling;
+
+/**
+ * Piecewise-linear function of a variable, which is added to an objective. The function is defined by points with
+ * non-decreasing values of the variable and is extended linearly beyond the first and last point.
+ */
+public interface PiecewiseLinearTerm {
+
+  Objective getObjective ();
+
+  Variable getVariable ();
+
+  double[] getPoints ();
+
+  double[] getValues ();
+}
@@ -13,6 +13,8 @@
 
 package com.inform.jamps.modeling;
 
+import java.util.List;
+
 public interface Program extends Comparable<Program> {
 
   String getName ();
@@ -25,6 +27,16 @@ public interface Program extends Comparable<Program> {
 
   int getConstraintsCount ();
 
+  List<? extends Variable> getVariables ();
+
+  List<? extends Objective> getObjectives ();
+
+  /**
+   * @throws UnsupportedOperationException for programs of mode {@link ProgramMode#DIRECT}, whose constraints cannot be
+   *           read back
+   */
+  List<? extends Constraint> getConstraints ();
+
   Variable addVariable (String name,
                         VariableType variableType,
                         double lowerBound,
@@ -41,6 +53,17 @@ public interface Program extends Comparable<Program> {
 
   Variable addVariable ();
 
+  void setBounds (Variable[] variables,
+                  double[] lowerBounds,
+                  double[] upperBounds);
+
+  void setInitialValues (Variable[] variables,
+                         double[] initialValues);
+
+  void setObjectiveCoefficients (Objective objective,
+                                 Variable[] variables,
+                                 double[] coefficients);
+
   Objective addObjective (String name,
                           ObjectiveSense sense);
 
@@ -55,4 +78,71 @@ public interface Program extends Comparable<Program> {
 
   Constraint addConstraint ();
 
+  /**
+   * Removes variables together with all their terms in objectives and constraints.
+   */
+  void removeVariables (Variable[] variables);
+
+  void removeConstraints (Constraint[] constraints);
+
+  List<? extends RangeConstraint> getRangeConstraints ();
+
+  /**
+   * Adds a two-sided constraint, whose terms are added to its expression afterwards. Range constraints are not part
+   * of {@link #getConstraints()}.
+   */
+  RangeConstraint addRangeConstraint (String name,
+                                      double lowerBound,
+                                      double upperBound);
+
+  RangeConstraint addRangeConstraint (double lowerBound,
+                                      double upperBound);
+
+  /**
+   * @return whether the program contains indicator, SOS or general constraints or piecewise-linear terms, which are
+   *         not part of {@link #getConstraints()} and {@link #getObjectives()}
+   */
+  boolean hasGeneralConstraints ();
+
+  List<? extends IndicatorConstraint> getIndicatorConstraints ();
+
+  List<? extends SOSConstraint> getSOSConstraints ();
+
+  List<? extends GeneralConstraint> getGeneralConstraints ();
+
+  List<? extends PiecewiseLinearTerm> getPiecewiseLinearTerms ();
+
+  /**
+   * Adds a constraint, whose terms are added to the left and right-hand side afterwards like for
+   * {@link #addConstraint(String, Operator)}. The constraint only applies if the binary indicator variable takes the
+   * indicator value.
+   */
+  IndicatorConstraint addIndicatorConstraint (String name,
+                                              Variable indicatorVariable,
+                                              boolean indicatorValue,
+                                              Operator operator);
+
+  SOSConstraint addSOSConstraint (String name,
+                                  SOSType type,
+                                  Variable[] variables,
+                                  double[] weights);
+
+  /**
+   * @param constant additional operand of MAX and MIN constraints, which is ignored for other types
+   */
+  GeneralConstraint addGeneralConstraint (String name,
+                                          GeneralConstraintType type,
+                                          Variable resultant,
+                                          Variable[] operands,
+                                          double constant);
+
+  /**
+   * Adds a piecewise-linear function of a variable to an objective, in addition to the linear term of the variable.
+   * Every variable may have at most one piecewise-linear term.
+   */
+  PiecewiseLinearTerm addPiecewiseLinearTerm (Objective objective,
+                                              Variable variable,
+                                              double[] points,
+                                              double[] values);
+
 }
@@ -14,6 +14,8 @@
 package com.inform.jamps.solver;
 
 import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.ProgramMode;
+import com.inform.jamps.solver.columngeneration.MasterProblem;
 
 public interface MathProgrammingSolverFactory<T extends MathProgrammingSolver, P extends SolverParameters>
                                              extends SolverFactory<T, P> {
@@ -21,4 +23,18 @@ public interface MathProgrammingSolverFactory<T extends MathProgrammingSolver, P
   Program createProgram ();
 
   Program createProgram (String name);
+
+  Program createProgram (ProgramMode mode);
+
+  Program createProgram (String name,
+                         ProgramMode mode);
+
+  Program createProgram (String name,
+                         ProgramMode mode,
+                         P parameters);
+
+  ScenarioRunner createScenarioRunner ();
+
+  MasterProblem createMasterProblem (P parameters,
+                                     Program program);
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Describes the changes of a scenario relative to a base program: right-hand sides of constraints, bounds of
+ * variables and objective coefficients. The right-hand side is the constant all variable terms of a constraint are
+ * compared against, after moving them to the left-hand side.
+ */
+public class Scenario {
+
+  protected final static int     INITIAL_CAPACITY   = 8;
+
+  private final String           name;
+
+  private final List<Constraint> constraints        = new ArrayList<Constraint> ();
+
+  private final List<Variable>   boundVariables     = new ArrayList<Variable> ();
+
+  private final List<Objective>  objectives         = new ArrayList<Objective> ();
+
+  private final List<Variable>   objectiveVariables = new ArrayList<Variable> ();
+
+  private double[]               rightHandSides     = new double[INITIAL_CAPACITY];
+
+  private double[]               lowerBounds        = new double[INITIAL_CAPACITY];
+
+  private double[]               upperBounds        = new double[INITIAL_CAPACITY];
+
+  private double[]               coefficients       = new double[INITIAL_CAPACITY];
+
+  public Scenario (final String name) {
+    if (name == null) {
+      throw new IllegalArgumentException ("Parameter name is mandatory and may not be null");
+    }
+
+    this.name = name;
+  }
+
+  public String getName () {
+    return name;
+  }
+
+  public Scenario setRightHandSide (final Constraint constraint,
+                                    final double rightHandSide) {
+    if (constraint == null) {
+      throw new IllegalArgumentException ("Parameter constraint is mandatory and may not be null");
+    }
+
+    rightHandSides = ensureCapacity (rightHandSides, constraints.size ());
+    rightHandSides[constraints.size ()] = rightHandSide;
+    constraints.add (constraint);
+    return this;
+  }
+
+  public Scenario setBounds (final Variable variable,
+                             final double lowerBound,
+                             final double upperBound) {
+    if (variable == null) {
+      throw new IllegalArgumentException ("Parameter variable is mandatory and may not be null");
+    }
+
+    lowerBounds = ensureCapacity (lowerBounds, boundVariables.size ());
+    upperBounds = ensureCapacity (upperBounds, boundVariables.size ());
+    lowerBounds[boundVariables.size ()] = lowerBound;
+    upperBounds[boundVariables.size ()] = upperBound;
+    boundVariables.add (variable);
+    return this;
+  }
+
+  public Scenario setObjectiveCoefficient (final Objective objective,
+                                           final Variable variable,
+                                           final double coefficient) {
+    if (objective == null) {
+      throw new IllegalArgumentException ("Parameter objective is mandatory and may not be null");
+    }
+    if (variable == null) {
+      throw new IllegalArgumentException ("Parameter variable is mandatory and may not be null");
+    }
+
+    coefficients = ensureCapacity (coefficients, objectiveVariables.size ());
+    coefficients[objectiveVariables.size ()] = coefficient;
+    objectives.add (objective);
+    objectiveVariables.add (variable);
+    return this;
+  }
+
+  protected static double[] ensureCapacity (final double[] values,
+                                            final int index) {
+    if (index < values.length) {
+      return values;
+    }
+    return Arrays.copyOf (values, values.length * 2);
+  }
+
+  public int getRightHandSideChangesCount () {
+    return constraints.size ();
+  }
+
+  public Constraint getConstraint (final int index) {
+    return constraints.get (index);
+  }
+
+  public double getRightHandSide (final int index) {
+    checkIndex (index, constraints.size ());
+    return rightHandSides[index];
+  }
+
+  public int getBoundChangesCount () {
+    return boundVariables.size ();
+  }
+
+  public Variable getBoundVariable (final int index) {
+    return boundVariables.get (index);
+  }
+
+  public double getLowerBound (final int index) {
+    checkIndex (index, boundVariables.size ());
+    return lowerBounds[index];
+  }
+
+  public double getUpperBound (final int index) {
+    checkIndex (index, boundVariables.size ());
+    return upperBounds[index];
+  }
+
+  public int getObjectiveChangesCount () {
+    return objectiveVariables.size ();
+  }
+
+  public Objective getObjective (final int index) {
+    return objectives.get (index);
+  }
+
+  public Variable getObjectiveVariable (final int index) {
+    return objectiveVariables.get (index);
+  }
+
+  public double getObjectiveCoefficient (final int index) {
+    checkIndex (index, objectiveVariables.size ());
+    return coefficients[index];
+  }
+
+  protected static void checkIndex (final int index,
+                                    final int size) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException ("Index " + index + " is out of range [0, " + size + ")");
+    }
+  }
+
+  @Override
+  public String toString () {
+    return name + " (" + constraints.size () + " right-hand sides, " + boundVariables.size () + " bounds, " +
+           objectiveVariables.size () + " objective coefficients)";
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver;
+
+import java.util.List;
+
+import com.inform.jamps.modeling.Variable;
+
+public interface ScenarioResults {
+
+  int getScenariosCount ();
+
+  Scenario getScenario (int index);
+
+  boolean hasSolution (int index);
+
+  boolean isOptimal (int index);
+
+  boolean isInfeasible (int index);
+
+  double getObjectiveValue (int index);
+
+  double getBestObjectiveBound (int index);
+
+  long getExecutionTimeMillis (int index);
+
+  List<Variable> getTrackedVariables ();
+
+  double getVariableValue (int index,
+                           Variable variable);
+}
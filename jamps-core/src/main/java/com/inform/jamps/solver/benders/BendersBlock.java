@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.benders;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.exception.SolverException;
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.MathProgrammingSolverFactory;
+import com.inform.jamps.solver.SolverParameters;
+import com.inform.jamps.solver.columngeneration.MasterProblem;
+import com.inform.jamps.solver.columngeneration.MasterSolution;
+import com.inform.jamps.solver.decomposition.ProgramComponent;
+
+/**
+ * Second-stage subproblem of a block. First-stage variables are copied as continuous variables whose bounds are fixed
+ * to the current first-stage solution, so the native model of the subproblem stays alive between iterations and only
+ * bounds are transferred. The cut gradient of a first-stage variable is the reduced cost of its fixed copy, derived
+ * from the dual values of the rows it appears in. An infeasible subproblem is followed by a phase one program with
+ * elastic rows, which is created on first use.
+ */
+public class BendersBlock<P extends SolverParameters> {
+
+  protected final static double                    FEASIBILITY_TOLERANCE = 1e-9;
+
+  private final int                                index;
+
+  private final String                             name;
+
+  private final MathProgrammingSolverFactory<?, P> factory;
+
+  private final P                                  parameters;
+
+  private final Objective                          objective;
+
+  private final ProgramComponent                   component;
+
+  private final Variable[]                         linkedVariables;
+
+  private final int[]                              linkedIndices;
+
+  private final int[]                              linkTermVariables;
+
+  private final int[]                              linkTermRows;
+
+  private final double[]                           linkTermCoefficients;
+
+  private final BlockModel                         recourseModel;
+
+  private BlockModel                               feasibilityModel;
+
+  private MasterSolution                           lastSolution;
+
+  protected BendersBlock (final int index,
+                          final String name,
+                          final MathProgrammingSolverFactory<?, P> factory,
+                          final P parameters,
+                          final Objective objective,
+                          final ProgramComponent component,
+                          final Map<Variable, Integer> firstStageIndices) {
+    this.index = index;
+    this.name = name;
+    this.factory = factory;
+    this.parameters = parameters;
+    this.objective = objective;
+    this.component = component;
+
+    final Map<Variable, Integer> linkedPositions = new IdentityHashMap<Variable, Integer> ();
+    final List<Variable> linked = new ArrayList<Variable> ();
+    final List<int[]> linkTerms = new ArrayList<int[]> ();
+    final List<Double> linkCoefficients = new ArrayList<Double> ();
+
+    final List<Constraint> constraints = component.getConstraints ();
+    for (int row = 0; row < constraints.size (); row++) {
+      final Constraint constraint = constraints.get (row);
+      checkLinear (constraint.getLhs (), constraint.getName ());
+      checkLinear (constraint.getRhs (), constraint.getName ());
+
+      // Coefficients are collected in the normalized form lhs - rhs, the form dual values refer to
+      for (int side = 0; side < 2; side++) {
+        final Expression expr = (side == 0) ? constraint.getLhs () : constraint.getRhs ();
+        for (final LinearTerm term: expr.getLinearTerms ()) {
+          final Variable var = term.getVariable ();
+          if (!firstStageIndices.containsKey (var)) {
+            continue;
+          }
+
+          Integer position = linkedPositions.get (var);
+          if (position == null) {
+            position = linked.size ();
+            linkedPositions.put (var, position);
+            linked.add (var);
+          }
+          linkTerms.add (new int[] {position, row});
+          linkCoefficients.add ((side == 0) ? term.getCoefficient () : -term.getCoefficient ());
+        }
+      }
+    }
+
+    this.linkedVariables = linked.toArray (new Variable[linked.size ()]);
+    this.linkedIndices = new int[linkedVariables.length];
+    for (int i = 0; i < linkedVariables.length; i++) {
+      linkedIndices[i] = firstStageIndices.get (linkedVariables[i]);
+    }
+
+    this.linkTermVariables = new int[linkTerms.size ()];
+    this.linkTermRows = new int[linkTerms.size ()];
+    this.linkTermCoefficients = new double[linkTerms.size ()];
+    for (int i = 0; i < linkTerms.size (); i++) {
+      linkTermVariables[i] = linkTerms.get (i)[0];
+      linkTermRows[i] = linkTerms.get (i)[1];
+      linkTermCoefficients[i] = linkCoefficients.get (i);
+    }
+
+    this.recourseModel = createModel (false);
+  }
+
+  private static void checkLinear (final Expression expr,
+                                   final String constraintName) {
+    if (!expr.getQuadraticTerms ().isEmpty ()) {
+      throw new IllegalArgumentException ("Quadratic terms of constraint " + constraintName +
+                                          " are not supported by Benders decomposition");
+    }
+  }
+
+  public int getIndex () {
+    return index;
+  }
+
+  public Program getProgram () {
+    return recourseModel.problem.getProgram ();
+  }
+
+  public List<Variable> getVariables () {
+    return component.getVariables ();
+  }
+
+  /**
+   * @return first-stage variables appearing in constraints of this block
+   */
+  public Variable[] getLinkedVariables () {
+    return linkedVariables.clone ();
+  }
+
+  /**
+   * Solves the subproblem for the given first-stage solution, indexed like the first-stage variables of the driver.
+   */
+  protected BendersCut solve (final double[] firstStageValues) {
+    final double[] fixedValues = new double[linkedIndices.length];
+    for (int i = 0; i < linkedIndices.length; i++) {
+      fixedValues[i] = firstStageValues[linkedIndices[i]];
+    }
+
+    recourseModel.fix (fixedValues);
+    final MasterSolution solution = recourseModel.problem.solve ();
+    if (solution.isOptimal ()) {
+      lastSolution = solution;
+      final double[] gradient = determineGradient (recourseModel, solution);
+      final double recourseValue = solution.getObjectiveValue ();
+      return new BendersCut (index, false, linkedVariables, gradient,
+                             determineConstant (recourseValue, gradient, fixedValues), recourseValue);
+    }
+    if (!solution.isInfeasible ()) {
+      throw new SolverException ("Subproblem " + name + " could not be solved to optimality");
+    }
+
+    if (feasibilityModel == null) {
+      feasibilityModel = createModel (true);
+    }
+
+    feasibilityModel.fix (fixedValues);
+    final MasterSolution phaseOne = feasibilityModel.problem.solve ();
+    if (!phaseOne.isOptimal ()) {
+      throw new SolverException ("Phase one program of subproblem " + name + " could not be solved to optimality");
+    }
+
+    final double infeasibility = phaseOne.getObjectiveValue ();
+    if (infeasibility <= FEASIBILITY_TOLERANCE) {
+      throw new SolverException ("Subproblem " + name + " is unbounded");
+    }
+
+    final double[] gradient = determineGradient (feasibilityModel, phaseOne);
+    return new BendersCut (index, true, linkedVariables, gradient,
+                           determineConstant (infeasibility, gradient, fixedValues), Double.NaN);
+  }
+
+  /**
+   * Copies the second-stage values of the last optimal subproblem solution.
+   */
+  protected void collectValues (final Map<Variable, Double> values) {
+    if (lastSolution == null) {
+      throw new IllegalStateException ("Subproblem " + name + " has not been solved to optimality yet");
+    }
+
+    for (final Variable var: component.getVariables ()) {
+      values.put (var, lastSolution.getVariableValue (recourseModel.copies.get (var)));
+    }
+  }
+
+  private double[] determineGradient (final BlockModel model,
+                                      final MasterSolution solution) {
+    final double[] dualValues = new double[model.constraints.length];
+    for (int i = 0; i < dualValues.length; i++) {
+      dualValues[i] = solution.getDualValue (model.constraints[i]);
+    }
+
+    final double[] gradient = new double[linkedVariables.length];
+    for (int i = 0; i < linkTermRows.length; i++) {
+      gradient[linkTermVariables[i]] -= dualValues[linkTermRows[i]] * linkTermCoefficients[i];
+    }
+    return gradient;
+  }
+
+  private static double determineConstant (final double value,
+                                           final double[] gradient,
+                                           final double[] fixedValues) {
+    double constant = value;
+    for (int i = 0; i < gradient.length; i++) {
+      constant -= gradient[i] * fixedValues[i];
+    }
+    return constant;
+  }
+
+  private BlockModel createModel (final boolean elastic) {
+    final Program program = factory.createProgram (elastic ? name + "_phaseOne" : name);
+    final Map<Variable, Variable> copies = new IdentityHashMap<Variable, Variable> ();
+
+    for (final Variable var: component.getVariables ()) {
+      copies.put (var, program.addVariable (var.getName (), var.getType (), var.getLowerBound (),
+                                            var.getUpperBound ()));
+    }
+
+    final Variable[] linkedCopies = new Variable[linkedVariables.length];
+    for (int i = 0; i < linkedVariables.length; i++) {
+      linkedCopies[i] = program.addVariable (linkedVariables[i].getName (), VariableType.CONTINUOUS, 0.0, 0.0);
+      copies.put (linkedVariables[i], linkedCopies[i]);
+    }
+
+    final Objective target;
+    if (elastic) {
+      target = program.addObjective ("infeasibility", ObjectiveSense.MINIMIZE);
+    } else {
+      target = program.addObjective (objective.getName (), objective.getObjectiveSense ());
+      for (final Variable var: component.getVariables ()) {
+        target.getExpression ().addTerm (objective.getExpression ().getCoefficient (var), copies.get (var));
+      }
+    }
+
+    final List<Constraint> constraints = component.getConstraints ();
+    final Constraint[] constraintCopies = new Constraint[constraints.size ()];
+    for (int i = 0; i < constraints.size (); i++) {
+      final Constraint constraint = constraints.get (i);
+      final Constraint copy = program.addConstraint (constraint.getName (), constraint.getOperator ());
+      copyTerms (constraint.getLhs (), copy.getLhs (), copies);
+      copyTerms (constraint.getRhs (), copy.getRhs (), copies);
+
+      if (elastic) {
+        addSlacks (program, copy, target);
+      }
+      constraintCopies[i] = copy;
+    }
+
+    return new BlockModel (factory.createMasterProblem (parameters, program), copies, linkedCopies, constraintCopies);
+  }
+
+  private static void copyTerms (final Expression source,
+                                 final Expression target,
+                                 final Map<Variable, Variable> copies) {
+    for (final LinearTerm term: source.getLinearTerms ()) {
+      target.addTerm (term.getCoefficient (), copies.get (term.getVariable ()));
+    }
+    target.addTerm (source.getConstant ());
+  }
+
+  private static void addSlacks (final Program program,
+                                 final Constraint constraint,
+                                 final Objective infeasibility) {
+    if (constraint.getOperator () != Operator.LESS_EQUALS) {
+      final Variable slack = program.addVariable (VariableType.CONTINUOUS, 0.0, Double.POSITIVE_INFINITY);
+      constraint.getLhs ().addTerm (1.0, slack);
+      infeasibility.getExpression ().addTerm (1.0, slack);
+    }
+    if (constraint.getOperator () != Operator.GREATER_EQUALS) {
+      final Variable slack = program.addVariable (VariableType.CONTINUOUS, 0.0, Double.POSITIVE_INFINITY);
+      constraint.getLhs ().addTerm (-1.0, slack);
+      infeasibility.getExpression ().addTerm (1.0, slack);
+    }
+  }
+
+  private static class BlockModel {
+
+    private final MasterProblem           problem;
+
+    private final Map<Variable, Variable> copies;
+
+    private final Variable[]              linkedCopies;
+
+    private final Constraint[]            constraints;
+
+    private BlockModel (final MasterProblem problem,
+                        final Map<Variable, Variable> copies,
+                        final Variable[] linkedCopies,
+                        final Constraint[] constraints) {
+      this.problem = problem;
+      this.copies = copies;
+      this.linkedCopies = linkedCopies;
+      this.constraints = constraints;
+    }
+
+    private void fix (final double[] values) {
+      if (linkedCopies.length > 0) {
+        problem.getProgram ().setBounds (linkedCopies, values, values);
+      }
+    }
+  }
+}
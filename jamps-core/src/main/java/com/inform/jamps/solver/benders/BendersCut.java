@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.benders;
+
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Linear approximation <code>constant + sum(gradient * x)</code> of the recourse function of a block in the first-stage
+ * variables x. An optimality cut bounds the recourse estimate of the block by the approximation, a feasibility cut
+ * forces the approximated infeasibility to be at most zero.
+ */
+public class BendersCut {
+
+  private final int        blockIndex;
+
+  private final boolean    feasibilityCut;
+
+  private final Variable[] variables;
+
+  private final double[]   gradient;
+
+  private final double     constant;
+
+  private final double     recourseValue;
+
+  protected BendersCut (final int blockIndex,
+                        final boolean feasibilityCut,
+                        final Variable[] variables,
+                        final double[] gradient,
+                        final double constant,
+                        final double recourseValue) {
+    if (variables == null) {
+      throw new IllegalArgumentException ("Parameter variables is mandatory and may not be null");
+    }
+    if (gradient == null) {
+      throw new IllegalArgumentException ("Parameter gradient is mandatory and may not be null");
+    }
+    if (variables.length != gradient.length) {
+      throw new IllegalArgumentException ("Parameters variables and gradient must have the same length");
+    }
+
+    this.blockIndex = blockIndex;
+    this.feasibilityCut = feasibilityCut;
+    this.variables = variables;
+    this.gradient = gradient;
+    this.constant = constant;
+    this.recourseValue = recourseValue;
+  }
+
+  public int getBlockIndex () {
+    return blockIndex;
+  }
+
+  public boolean isFeasibilityCut () {
+    return feasibilityCut;
+  }
+
+  public int getTermsCount () {
+    return variables.length;
+  }
+
+  public Variable getVariable (final int index) {
+    return variables[index];
+  }
+
+  public double getGradient (final int index) {
+    return gradient[index];
+  }
+
+  public double getConstant () {
+    return constant;
+  }
+
+  /**
+   * @return optimal objective value of the block at the first-stage solution the cut has been derived from, or NaN for
+   *         a feasibility cut
+   */
+  public double getRecourseValue () {
+    return recourseValue;
+  }
+}
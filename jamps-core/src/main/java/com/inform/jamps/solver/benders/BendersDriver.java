@@ -0,0 +1,482 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.benders;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.inform.jamps.exception.SolverException;
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.MathProgrammingSolverFactory;
+import com.inform.jamps.solver.Solution;
+import com.inform.jamps.solver.SolverParameters;
+import com.inform.jamps.solver.decomposition.ComponentAnalyzer;
+import com.inform.jamps.solver.decomposition.ProgramComponent;
+
+/**
+ * Benders decomposition of a two-stage program. Constraints with first-stage variables only form the master program,
+ * the remaining constraints split into independent blocks of continuous second-stage variables, e.g. one per scenario.
+ * The master program estimates the recourse of every block by a separate variable which is bounded by optimality cuts
+ * from the block subproblems. Cuts are either added by {@link #run()} between master solves, or by the generator of
+ * {@link #createLazyConstraintGenerator()} while a solver with lazy constraint support solves the master program once.
+ */
+public class BendersDriver<P extends SolverParameters> {
+
+  protected final static double                    DEFAULT_RECOURSE_BOUND       = 1e9;
+
+  protected final static double                    DEFAULT_OPTIMALITY_TOLERANCE = 1e-6;
+
+  private final MathProgrammingSolverFactory<?, P> factory;
+
+  private final P                                  parameters;
+
+  private final ObjectiveSense                     sense;
+
+  private final Variable[]                         firstStageVariables;
+
+  private final Map<Variable, Integer>             firstStageIndices;
+
+  private final Program                            masterProgram;
+
+  private final Variable[]                         masterVariables;
+
+  private final Variable[]                         recourseVariables;
+
+  private final List<BendersBlock<P>>              blocks                       = new ArrayList<BendersBlock<P>> ();
+
+  private double                                   optimalityTolerance          = DEFAULT_OPTIMALITY_TOLERANCE;
+
+  private int                                      maxIterations                = Integer.MAX_VALUE;
+
+  private int                                      workersCount;
+
+  private int                                      cutsCount;
+
+  public BendersDriver (final MathProgrammingSolverFactory<?, P> factory,
+                        final P parameters,
+                        final Program program,
+                        final Collection<? extends Variable> firstStageVariables) {
+    if (factory == null) {
+      throw new IllegalArgumentException ("Parameter factory is mandatory and may not be null");
+    }
+    if (parameters == null) {
+      throw new IllegalArgumentException ("Parameter parameters is mandatory and may not be null");
+    }
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (firstStageVariables == null) {
+      throw new IllegalArgumentException ("Parameter firstStageVariables is mandatory and may not be null");
+    }
+    if (program.getObjectivesCount () != 1) {
+      throw new IllegalArgumentException ("Benders decomposition requires a program with exactly one objective");
+    }
+    if (program.getConstraints ().size () != program.getConstraintsCount ()) {
+      throw new IllegalArgumentException ("Program " + program.getName () + " does not provide its constraints");
+    }
+    if (program.hasGeneralConstraints () || !program.getRangeConstraints ().isEmpty ()) {
+      throw new IllegalArgumentException ("Benders decomposition does not support range and general constraints of " +
+                                          "program " + program.getName ());
+    }
+
+    this.factory = factory;
+    this.parameters = parameters;
+    this.workersCount = Runtime.getRuntime ().availableProcessors ();
+
+    final Objective objective = program.getObjectives ().get (0);
+    if (!objective.getExpression ().getQuadraticTerms ().isEmpty ()) {
+      throw new IllegalArgumentException ("Quadratic objectives are not supported by Benders decomposition");
+    }
+    this.sense = objective.getObjectiveSense ();
+
+    // Variables are compared by identity, as their hash codes depend on their bounds
+    final Set<Variable> firstStage = Collections.newSetFromMap (new IdentityHashMap<Variable, Boolean> ());
+    firstStage.addAll (firstStageVariables);
+    this.firstStageIndices = new IdentityHashMap<Variable, Integer> (firstStage.size ());
+    final List<Variable> secondStageVariables = new ArrayList<Variable> ();
+    for (final Variable var: program.getVariables ()) {
+      if (firstStage.contains (var)) {
+        firstStageIndices.put (var, firstStageIndices.size ());
+      } else if (var.getType () != VariableType.CONTINUOUS) {
+        throw new IllegalArgumentException ("Second-stage variable " + var.getName () + " must be continuous");
+      } else {
+        secondStageVariables.add (var);
+      }
+    }
+    if (firstStageIndices.size () != firstStage.size ()) {
+      throw new IllegalArgumentException ("First-stage variables must be variables of the program");
+    }
+
+    this.firstStageVariables = new Variable[firstStageIndices.size ()];
+    for (final Entry<Variable, Integer> entry: firstStageIndices.entrySet ()) {
+      this.firstStageVariables[entry.getValue ()] = entry.getKey ();
+    }
+
+    final List<Constraint> masterConstraints = new ArrayList<Constraint> ();
+    final List<Constraint> blockConstraints = new ArrayList<Constraint> ();
+    for (final Constraint constraint: program.getConstraints ()) {
+      if (containsOnly (constraint.getLhs (), firstStageIndices) &&
+          containsOnly (constraint.getRhs (), firstStageIndices)) {
+        masterConstraints.add (constraint);
+      } else {
+        blockConstraints.add (constraint);
+      }
+    }
+
+    final List<ProgramComponent> components = new ComponentAnalyzer ().analyze (secondStageVariables,
+                                                                               blockConstraints);
+
+    this.masterProgram = factory.createProgram (program.getName () + "_master");
+    this.masterVariables = new Variable[this.firstStageVariables.length];
+    this.recourseVariables = new Variable[components.size ()];
+    createMasterProgram (objective, masterConstraints);
+
+    for (int i = 0; i < components.size (); i++) {
+      blocks.add (new BendersBlock<P> (i, program.getName () + "_block" + i, factory, parameters, objective,
+                                       components.get (i), firstStageIndices));
+    }
+  }
+
+  private static boolean containsOnly (final Expression expr,
+                                       final Map<Variable, Integer> firstStageIndices) {
+    if (!expr.getQuadraticTerms ().isEmpty ()) {
+      throw new IllegalArgumentException ("Quadratic constraints are not supported by Benders decomposition");
+    }
+
+    for (final LinearTerm term: expr.getLinearTerms ()) {
+      if (!firstStageIndices.containsKey (term.getVariable ())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void createMasterProgram (final Objective objective,
+                                    final List<Constraint> masterConstraints) {
+    final Map<Variable, Variable> copies = new IdentityHashMap<Variable, Variable> ();
+    for (int i = 0; i < firstStageVariables.length; i++) {
+      final Variable var = firstStageVariables[i];
+      masterVariables[i] = masterProgram.addVariable (var.getName (), var.getType (), var.getLowerBound (),
+                                                      var.getUpperBound ());
+      if (var.hasInitialValue ()) {
+        masterVariables[i].setInitialValue (var.getInitialValue ());
+      }
+      copies.put (var, masterVariables[i]);
+    }
+
+    final Objective masterObjective = masterProgram.addObjective (objective.getName (), sense);
+    final Expression masterExpr = masterObjective.getExpression ();
+    for (final LinearTerm term: objective.getExpression ().getLinearTerms ()) {
+      final Variable copy = copies.get (term.getVariable ());
+      if (copy != null) {
+        masterExpr.addTerm (term.getCoefficient (), copy);
+      }
+    }
+    masterExpr.addTerm (objective.getExpression ().getConstant ());
+
+    final boolean minimize = (sense == ObjectiveSense.MINIMIZE);
+    for (int i = 0; i < recourseVariables.length; i++) {
+      recourseVariables[i] = masterProgram.addVariable ("recourse" + i, VariableType.CONTINUOUS,
+                                                        minimize ? -DEFAULT_RECOURSE_BOUND : Double.NEGATIVE_INFINITY,
+                                                        minimize ? Double.POSITIVE_INFINITY : DEFAULT_RECOURSE_BOUND);
+      masterExpr.addTerm (1.0, recourseVariables[i]);
+    }
+
+    for (final Constraint constraint: masterConstraints) {
+      final Constraint copy = masterProgram.addConstraint (constraint.getName (), constraint.getOperator ());
+      for (final LinearTerm term: constraint.getLhs ().getLinearTerms ()) {
+        copy.getLhs ().addTerm (term.getCoefficient (), copies.get (term.getVariable ()));
+      }
+      for (final LinearTerm term: constraint.getRhs ().getLinearTerms ()) {
+        copy.getRhs ().addTerm (term.getCoefficient (), copies.get (term.getVariable ()));
+      }
+      copy.getLhs ().addTerm (constraint.getLhs ().getConstant ());
+      copy.getRhs ().addTerm (constraint.getRhs ().getConstant ());
+    }
+  }
+
+  public Program getMasterProgram () {
+    return masterProgram;
+  }
+
+  public List<BendersBlock<P>> getBlocks () {
+    return new ArrayList<BendersBlock<P>> (blocks);
+  }
+
+  /**
+   * @return copy of the given first-stage variable in the master program
+   */
+  public Variable getMasterVariable (final Variable firstStageVariable) {
+    final Integer index = firstStageIndices.get (firstStageVariable);
+    if (index == null) {
+      throw new IllegalArgumentException ("Variable " + firstStageVariable + " is not a first-stage variable");
+    }
+    return masterVariables[index];
+  }
+
+  /**
+   * Bounds the recourse estimate of every block until its first optimality cut, from below for minimization and from
+   * above for maximization. A tight bound, e.g. 0 for nonnegative second-stage costs, speeds up the first iterations.
+   */
+  public void setRecourseBound (final double recourseBound) {
+    final double[] lowerBounds = new double[recourseVariables.length];
+    final double[] upperBounds = new double[recourseVariables.length];
+    for (int i = 0; i < recourseVariables.length; i++) {
+      lowerBounds[i] = (sense == ObjectiveSense.MINIMIZE) ? recourseBound : Double.NEGATIVE_INFINITY;
+      upperBounds[i] = (sense == ObjectiveSense.MINIMIZE) ? Double.POSITIVE_INFINITY : recourseBound;
+    }
+
+    if (recourseVariables.length > 0) {
+      masterProgram.setBounds (recourseVariables, lowerBounds, upperBounds);
+    }
+  }
+
+  public double getOptimalityTolerance () {
+    return optimalityTolerance;
+  }
+
+  /**
+   * Relative tolerance for the gap between best bound and best solution, and for the violation of optimality cuts.
+   */
+  public void setOptimalityTolerance (final double optimalityTolerance) {
+    if (optimalityTolerance < 0.0) {
+      throw new IllegalArgumentException ("Parameter optimalityTolerance may not be negative");
+    }
+
+    this.optimalityTolerance = optimalityTolerance;
+  }
+
+  public int getMaxIterations () {
+    return maxIterations;
+  }
+
+  public void setMaxIterations (final int maxIterations) {
+    if (maxIterations < 0) {
+      throw new IllegalArgumentException ("Parameter maxIterations may not be negative");
+    }
+
+    this.maxIterations = maxIterations;
+  }
+
+  public int getWorkersCount () {
+    return workersCount;
+  }
+
+  public void setWorkersCount (final int workersCount) {
+    if (workersCount < 1) {
+      throw new IllegalArgumentException ("Parameter workersCount must be positive");
+    }
+
+    this.workersCount = workersCount;
+  }
+
+  public BendersLazyConstraintGenerator createLazyConstraintGenerator () {
+    return new BendersLazyConstraintGenerator (this);
+  }
+
+  public BendersResult run () {
+    final boolean minimize = (sense == ObjectiveSense.MINIMIZE);
+    final int initialCutsCount = cutsCount;
+    Map<Variable, Double> bestValues = null;
+    double bestValue = minimize ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+    double bestBound = minimize ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+    int iteration = 0;
+
+    while (iteration < maxIterations) {
+      iteration++;
+
+      final ExecutionResult<Program> masterResult = factory.createSolver ().solve (parameters, masterProgram);
+      if (masterResult.isProblemInfeasible () && !masterResult.isProblemUnbounded ()) {
+        return new BendersResult (null, Double.NaN, Double.NaN, iteration, cutsCount - initialCutsCount, false, true);
+      }
+      if (!masterResult.hasOptimalSolution ()) {
+        throw new SolverException ("Master program could not be solved to optimality");
+      }
+
+      final Solution masterSolution = masterResult.getBestSolution ();
+      final double[] firstStageValues = getValues (masterSolution, masterVariables);
+      final double[] recourseValues = getValues (masterSolution, recourseVariables);
+      bestBound = masterSolution.getObjectiveValue ();
+
+      final List<BendersCut> cuts = solveBlocks (firstStageValues);
+      boolean feasible = true;
+      double candidateValue = bestBound;
+      for (final BendersCut cut: cuts) {
+        feasible &= !cut.isFeasibilityCut ();
+        candidateValue += cut.getRecourseValue () - recourseValues[cut.getBlockIndex ()];
+      }
+
+      if (feasible && (minimize ? candidateValue < bestValue : candidateValue > bestValue)) {
+        bestValue = candidateValue;
+        bestValues = new IdentityHashMap<Variable, Double> ();
+        for (int i = 0; i < firstStageVariables.length; i++) {
+          bestValues.put (firstStageVariables[i], firstStageValues[i]);
+        }
+        for (final BendersBlock<P> block: blocks) {
+          block.collectValues (bestValues);
+        }
+      }
+
+      boolean violated = false;
+      for (final BendersCut cut: cuts) {
+        if (isViolated (cut, recourseValues)) {
+          final Constraint constraint = masterProgram.addConstraint ("bendersCut" + cutsCount, getOperator (cut));
+          fillExpression (cut, constraint.getLhs ());
+          constraint.getRhs ().addTerm (cut.getConstant ());
+          cutsCount++;
+          violated = true;
+        }
+      }
+
+      if (!violated || isWithinTolerance (bestValue, bestBound)) {
+        return new BendersResult (bestValues, bestValue, bestBound, iteration, cutsCount - initialCutsCount,
+                                  bestValues != null, false);
+      }
+    }
+
+    return new BendersResult (bestValues, bestValue, bestBound, iteration, cutsCount - initialCutsCount, false, false);
+  }
+
+  private boolean isWithinTolerance (final double value,
+                                     final double bound) {
+    return Math.abs (value - bound) <= optimalityTolerance * Math.max (1.0, Math.abs (value));
+  }
+
+  private static double[] getValues (final Solution solution,
+                                     final Variable[] variables) {
+    final double[] values = new double[variables.length];
+    for (int i = 0; i < variables.length; i++) {
+      values[i] = solution.getVariableValue (variables[i]);
+    }
+    return values;
+  }
+
+  protected Variable[] getMasterVariables () {
+    return masterVariables;
+  }
+
+  protected Variable[] getRecourseVariables () {
+    return recourseVariables;
+  }
+
+  /**
+   * @return whether the cut cuts off the master solution with the given recourse estimates
+   */
+  protected boolean isViolated (final BendersCut cut,
+                                final double[] recourseValues) {
+    if (cut.isFeasibilityCut ()) {
+      return true;
+    }
+
+    final double recourseValue = cut.getRecourseValue ();
+    final double tolerance = optimalityTolerance * Math.max (1.0, Math.abs (recourseValue));
+    if (sense == ObjectiveSense.MINIMIZE) {
+      return recourseValue > recourseValues[cut.getBlockIndex ()] + tolerance;
+    } else {
+      return recourseValue < recourseValues[cut.getBlockIndex ()] - tolerance;
+    }
+  }
+
+  /**
+   * Cuts are stated as <code>recourse - sum(gradient * x) operator constant</code>, feasibility cuts without the
+   * recourse variable.
+   */
+  protected Operator getOperator (final BendersCut cut) {
+    if (cut.isFeasibilityCut () || sense == ObjectiveSense.MINIMIZE) {
+      return Operator.GREATER_EQUALS;
+    }
+    return Operator.LESS_EQUALS;
+  }
+
+  protected Expression fillExpression (final BendersCut cut,
+                                       final Expression expr) {
+    if (!cut.isFeasibilityCut ()) {
+      expr.addTerm (1.0, recourseVariables[cut.getBlockIndex ()]);
+    }
+    for (int i = 0; i < cut.getTermsCount (); i++) {
+      expr.addTerm (-cut.getGradient (i), getMasterVariable (cut.getVariable (i)));
+    }
+    return expr;
+  }
+
+  /**
+   * Solves the subproblems of all blocks for the given first-stage solution, in parallel if more than one worker is
+   * configured.
+   */
+  protected List<BendersCut> solveBlocks (final double[] firstStageValues) {
+    final List<BendersCut> cuts = new ArrayList<BendersCut> (blocks.size ());
+    if (workersCount == 1 || blocks.size () < 2) {
+      for (final BendersBlock<P> block: blocks) {
+        cuts.add (block.solve (firstStageValues));
+      }
+      return cuts;
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool (Math.min (workersCount, blocks.size ()));
+    try {
+      final List<Future<BendersCut>> futures = new ArrayList<Future<BendersCut>> (blocks.size ());
+      for (final BendersBlock<P> block: blocks) {
+        futures.add (executor.submit (new Callable<BendersCut> () {
+
+          @Override
+          public BendersCut call () {
+            return block.solve (firstStageValues);
+          }
+        }));
+      }
+
+      for (final Future<BendersCut> future: futures) {
+        cuts.add (awaitBlock (future));
+      }
+      return cuts;
+    } finally {
+      executor.shutdownNow ();
+    }
+  }
+
+  private static BendersCut awaitBlock (final Future<BendersCut> future) {
+    try {
+      return future.get ();
+    } catch (InterruptedException e) {
+      Thread.currentThread ().interrupt ();
+      throw new SolverException ("Interrupted while solving subproblems", e);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause ();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new SolverException ("Unable to solve subproblem", cause);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.benders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.lazy.CandidateSolution;
+import com.inform.jamps.solver.lazy.LazyConstraint;
+import com.inform.jamps.solver.lazy.LazyConstraintGenerator;
+
+/**
+ * Separates Benders cuts for every integer feasible candidate of the master program, so the master program is solved
+ * only once in a single branch-and-bound tree.
+ */
+public class BendersLazyConstraintGenerator implements LazyConstraintGenerator {
+
+  private final BendersDriver<?> driver;
+
+  private int                    cutsCount;
+
+  protected BendersLazyConstraintGenerator (final BendersDriver<?> driver) {
+    if (driver == null) {
+      throw new IllegalArgumentException ("Parameter driver is mandatory and may not be null");
+    }
+
+    this.driver = driver;
+  }
+
+  @Override
+  public boolean isSeparatingNodeRelaxations () {
+    return false;
+  }
+
+  @Override
+  public List<LazyConstraint> separate (final CandidateSolution candidate) {
+    final double[] firstStageValues = getValues (candidate, driver.getMasterVariables ());
+    final double[] recourseValues = getValues (candidate, driver.getRecourseVariables ());
+
+    final List<LazyConstraint> constraints = new ArrayList<LazyConstraint> ();
+    for (final BendersCut cut: driver.solveBlocks (firstStageValues)) {
+      if (driver.isViolated (cut, recourseValues)) {
+        constraints.add (new LazyConstraint (driver.fillExpression (cut, candidate.createExpression ()),
+                                             driver.getOperator (cut), cut.getConstant ()));
+      }
+    }
+
+    cutsCount += constraints.size ();
+    return constraints;
+  }
+
+  public int getCutsCount () {
+    return cutsCount;
+  }
+
+  private static double[] getValues (final CandidateSolution candidate,
+                                     final Variable[] variables) {
+    final double[] values = new double[variables.length];
+    for (int i = 0; i < variables.length; i++) {
+      values[i] = candidate.getVariableValue (variables[i]);
+    }
+    return values;
+  }
+}
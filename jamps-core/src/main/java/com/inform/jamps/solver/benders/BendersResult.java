@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.benders;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Variable;
+
+public class BendersResult {
+
+  private final Map<Variable, Double> values;
+
+  private final double                objectiveValue;
+
+  private final double                bestBound;
+
+  private final int                   iterationsCount;
+
+  private final int                   cutsCount;
+
+  private final boolean               converged;
+
+  private final boolean               infeasible;
+
+  protected BendersResult (final Map<Variable, Double> values,
+                           final double objectiveValue,
+                           final double bestBound,
+                           final int iterationsCount,
+                           final int cutsCount,
+                           final boolean converged,
+                           final boolean infeasible) {
+    this.values = (values == null) ? null
+                                   : Collections.unmodifiableMap (new IdentityHashMap<Variable, Double> (values));
+    this.objectiveValue = objectiveValue;
+    this.bestBound = bestBound;
+    this.iterationsCount = iterationsCount;
+    this.cutsCount = cutsCount;
+    this.converged = converged;
+    this.infeasible = infeasible;
+  }
+
+  public boolean hasSolution () {
+    return values != null;
+  }
+
+  /**
+   * @return value of a first- or second-stage variable of the original program in the best solution found
+   */
+  public double getVariableValue (final Variable variable) {
+    if (values == null) {
+      throw new IllegalStateException ("There is no solution available");
+    }
+
+    final Double value = values.get (variable);
+    if (value == null) {
+      throw new IllegalArgumentException ("Variable " + variable + " is not part of the program");
+    }
+    return value;
+  }
+
+  public double getObjectiveValue () {
+    return objectiveValue;
+  }
+
+  /**
+   * @return objective value of the last master program, which bounds the optimal objective value of the program
+   */
+  public double getBestBound () {
+    return bestBound;
+  }
+
+  public int getIterationsCount () {
+    return iterationsCount;
+  }
+
+  public int getCutsCount () {
+    return cutsCount;
+  }
+
+  /**
+   * @return whether the best solution is optimal within the optimality tolerance of the driver
+   */
+  public boolean isConverged () {
+    return converged;
+  }
+
+  /**
+   * @return whether the master program has become infeasible, which proves the program to be infeasible
+   */
+  public boolean isInfeasible () {
+    return infeasible;
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.columngeneration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.inform.jamps.modeling.Constraint;
+
+/**
+ * Continuous variable proposed by a pricing callback, given by its objective coefficient, its bounds and its
+ * coefficients in constraints of the master program. The objective coefficient refers to the first objective of the
+ * master program.
+ */
+public class Column {
+
+  private final static int       INITIAL_CAPACITY = 8;
+
+  private final String           name;
+
+  private final List<Constraint> constraints      = new ArrayList<Constraint> ();
+
+  private double[]               coefficients     = new double[INITIAL_CAPACITY];
+
+  private double                 objectiveCoefficient;
+
+  private double                 lowerBound;
+
+  private double                 upperBound       = Double.POSITIVE_INFINITY;
+
+  public Column () {
+    this.name = null;
+  }
+
+  public Column (final String name) {
+    if (name == null) {
+      throw new IllegalArgumentException ("Parameter name is mandatory and may not be null");
+    }
+
+    this.name = name;
+  }
+
+  /**
+   * @return the name of the column or <code>null</code> if the solver should generate one
+   */
+  public String getName () {
+    return name;
+  }
+
+  public double getObjectiveCoefficient () {
+    return objectiveCoefficient;
+  }
+
+  public Column setObjectiveCoefficient (final double objectiveCoefficient) {
+    this.objectiveCoefficient = objectiveCoefficient;
+    return this;
+  }
+
+  public double getLowerBound () {
+    return lowerBound;
+  }
+
+  public double getUpperBound () {
+    return upperBound;
+  }
+
+  public Column setBounds (final double lowerBound,
+                           final double upperBound) {
+    this.lowerBound = lowerBound;
+    this.upperBound = upperBound;
+    return this;
+  }
+
+  public Column addCoefficient (final Constraint constraint,
+                                final double coefficient) {
+    if (constraint == null) {
+      throw new IllegalArgumentException ("Parameter constraint is mandatory and may not be null");
+    }
+
+    if (constraints.size () == coefficients.length) {
+      coefficients = Arrays.copyOf (coefficients, coefficients.length * 2);
+    }
+    coefficients[constraints.size ()] = coefficient;
+    constraints.add (constraint);
+    return this;
+  }
+
+  public int getCoefficientsCount () {
+    return constraints.size ();
+  }
+
+  public Constraint getConstraint (final int index) {
+    return constraints.get (index);
+  }
+
+  public double getCoefficient (final int index) {
+    if (index < 0 || index >= constraints.size ()) {
+      throw new IndexOutOfBoundsException ("Index " + index + " is out of range [0, " + constraints.size () + ")");
+    }
+    return coefficients[index];
+  }
+
+  @Override
+  public String toString () {
+    return (name == null ? "column" : name) + " (" + constraints.size () + " coefficients)";
+  }
+}
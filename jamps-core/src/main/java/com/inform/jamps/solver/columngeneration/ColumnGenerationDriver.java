@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.columngeneration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Solves the restricted master program, passes its dual values to the pricing callback and adds the returned columns
+ * with improving reduced cost to the master program until no such column is found anymore. The master problem keeps
+ * its native model alive, so every iteration re-solves from the basis of the previous one.
+ */
+public class ColumnGenerationDriver {
+
+  protected final static double DEFAULT_REDUCED_COST_TOLERANCE = 1e-6;
+
+  private final MasterProblem   masterProblem;
+
+  private final PricingCallback pricingCallback;
+
+  private double                reducedCostTolerance           = DEFAULT_REDUCED_COST_TOLERANCE;
+
+  private int                   maxIterations                  = Integer.MAX_VALUE;
+
+  public ColumnGenerationDriver (final MasterProblem masterProblem,
+                                 final PricingCallback pricingCallback) {
+    if (masterProblem == null) {
+      throw new IllegalArgumentException ("Parameter masterProblem is mandatory and may not be null");
+    }
+    if (pricingCallback == null) {
+      throw new IllegalArgumentException ("Parameter pricingCallback is mandatory and may not be null");
+    }
+
+    this.masterProblem = masterProblem;
+    this.pricingCallback = pricingCallback;
+  }
+
+  public double getReducedCostTolerance () {
+    return reducedCostTolerance;
+  }
+
+  public void setReducedCostTolerance (final double reducedCostTolerance) {
+    if (reducedCostTolerance < 0.0) {
+      throw new IllegalArgumentException ("Parameter reducedCostTolerance may not be negative");
+    }
+
+    this.reducedCostTolerance = reducedCostTolerance;
+  }
+
+  public int getMaxIterations () {
+    return maxIterations;
+  }
+
+  public void setMaxIterations (final int maxIterations) {
+    if (maxIterations < 0) {
+      throw new IllegalArgumentException ("Parameter maxIterations may not be negative");
+    }
+
+    this.maxIterations = maxIterations;
+  }
+
+  public ColumnGenerationResult run () {
+    final ObjectiveSense sense = masterProblem.getObjectiveSense ();
+    final List<Variable> generatedVariables = new ArrayList<Variable> ();
+
+    MasterSolution solution = masterProblem.solve ();
+    int iteration = 0;
+
+    while (solution.isOptimal () && iteration < maxIterations) {
+      iteration++;
+
+      final List<Column> columns = pricingCallback.price (solution, iteration);
+      final List<Column> improvingColumns = new ArrayList<Column> ();
+      if (columns != null) {
+        for (final Column column: columns) {
+          if (isImproving (determineReducedCost (column, solution), sense)) {
+            improvingColumns.add (column);
+          }
+        }
+      }
+
+      if (improvingColumns.isEmpty ()) {
+        return new ColumnGenerationResult (solution, iteration, generatedVariables, true);
+      }
+
+      generatedVariables.addAll (masterProblem.addColumns (improvingColumns));
+      solution = masterProblem.solve ();
+    }
+
+    return new ColumnGenerationResult (solution, iteration, generatedVariables, false);
+  }
+
+  protected double determineReducedCost (final Column column,
+                                         final MasterSolution solution) {
+    double reducedCost = column.getObjectiveCoefficient ();
+    for (int i = 0; i < column.getCoefficientsCount (); i++) {
+      reducedCost -= column.getCoefficient (i) * solution.getDualValue (column.getConstraint (i));
+    }
+    return reducedCost;
+  }
+
+  private boolean isImproving (final double reducedCost,
+                               final ObjectiveSense sense) {
+    if (sense == ObjectiveSense.MINIMIZE) {
+      return reducedCost < -reducedCostTolerance;
+    } else {
+      return reducedCost > reducedCostTolerance;
+    }
+  }
+}
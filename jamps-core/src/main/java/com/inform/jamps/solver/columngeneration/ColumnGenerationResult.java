@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.columngeneration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.inform.jamps.modeling.Variable;
+
+public class ColumnGenerationResult {
+
+  private final MasterSolution lastSolution;
+
+  private final int            iterationsCount;
+
+  private final List<Variable> generatedVariables;
+
+  private final boolean        converged;
+
+  protected ColumnGenerationResult (final MasterSolution lastSolution,
+                                    final int iterationsCount,
+                                    final List<Variable> generatedVariables,
+                                    final boolean converged) {
+    if (lastSolution == null) {
+      throw new IllegalArgumentException ("Parameter lastSolution is mandatory and may not be null");
+    }
+    if (generatedVariables == null) {
+      throw new IllegalArgumentException ("Parameter generatedVariables is mandatory and may not be null");
+    }
+
+    this.lastSolution = lastSolution;
+    this.iterationsCount = iterationsCount;
+    this.generatedVariables = Collections.unmodifiableList (new ArrayList<Variable> (generatedVariables));
+    this.converged = converged;
+  }
+
+  public MasterSolution getLastSolution () {
+    return lastSolution;
+  }
+
+  public int getIterationsCount () {
+    return iterationsCount;
+  }
+
+  public List<Variable> getGeneratedVariables () {
+    return generatedVariables;
+  }
+
+  /**
+   * @return whether pricing found no improving column anymore, so the last solution is optimal for the full master
+   *         program
+   */
+  public boolean isConverged () {
+    return converged;
+  }
+}
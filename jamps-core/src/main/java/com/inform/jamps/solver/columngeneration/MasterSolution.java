@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.columngeneration;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Variable;
+
+public interface MasterSolution {
+
+  boolean isOptimal ();
+
+  boolean isInfeasible ();
+
+  double getObjectiveValue ();
+
+  double getVariableValue (Variable variable);
+
+  /**
+   * Dual values follow the convention that the reduced cost of a column is its objective coefficient minus the sum of
+   * its constraint coefficients multiplied by the dual values.
+   */
+  double getDualValue (Constraint constraint);
+
+  long getExecutionTimeMillis ();
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.columngeneration;
+
+import java.util.List;
+
+public interface PricingCallback {
+
+  /**
+   * Proposes new columns for the master program based on the dual values of its last solution. Columns without
+   * improving reduced cost are ignored, so returning an empty list or no improving column ends the column generation.
+   */
+  List<Column> price (MasterSolution solution,
+                      int iteration);
+}
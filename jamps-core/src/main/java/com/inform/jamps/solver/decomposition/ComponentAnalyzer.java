@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.decomposition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.QuadraticTerm;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Determines the connected components of the variable-constraint graph of a program with a single union-find pass over
+ * the terms of all constraints. Quadratic objective terms join their variables as well, so the objectives of a program
+ * can be split along the components whenever they are blended.
+ */
+public class ComponentAnalyzer {
+
+  public ComponentAnalyzer () {
+    super ();
+  }
+
+  /**
+   * @return components in the order of their first variable, constraints without any variable belong to the first
+   *         component
+   */
+  public List<ProgramComponent> analyze (final Program program) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+
+    final List<? extends Constraint> constraints = program.getConstraints ();
+    if (constraints.size () != program.getConstraintsCount ()) {
+      throw new IllegalArgumentException ("Program " + program.getName () + " does not provide its constraints");
+    }
+
+    return analyze (program.getVariables (), constraints, program.getObjectives (), true);
+  }
+
+  /**
+   * Analyzes the subgraph of the given variables and constraints. Terms of other variables are ignored, so e.g. fixed
+   * variables do not join components.
+   */
+  public List<ProgramComponent> analyze (final List<? extends Variable> variables,
+                                         final List<? extends Constraint> constraints) {
+    if (variables == null) {
+      throw new IllegalArgumentException ("Parameter variables is mandatory and may not be null");
+    }
+    if (constraints == null) {
+      throw new IllegalArgumentException ("Parameter constraints is mandatory and may not be null");
+    }
+
+    return analyze (variables, constraints, Collections.<Objective> emptyList (), false);
+  }
+
+  private List<ProgramComponent> analyze (final List<? extends Variable> variables,
+                                          final List<? extends Constraint> constraints,
+                                          final List<? extends Objective> objectives,
+                                          final boolean strict) {
+    final Map<Variable, Integer> indices = new IdentityHashMap<Variable, Integer> (variables.size ());
+    for (int i = 0; i < variables.size (); i++) {
+      indices.put (variables.get (i), i);
+    }
+
+    final int[] parents = new int[variables.size ()];
+    final int[] sizes = new int[variables.size ()];
+    for (int i = 0; i < parents.length; i++) {
+      parents[i] = i;
+      sizes[i] = 1;
+    }
+
+    final int[] anchors = new int[constraints.size ()];
+    for (int i = 0; i < constraints.size (); i++) {
+      final Constraint constraint = constraints.get (i);
+      final int anchor = join (constraint.getLhs (), indices, parents, sizes, -1, strict);
+      anchors[i] = join (constraint.getRhs (), indices, parents, sizes, anchor, strict);
+    }
+
+    for (final Objective objective: objectives) {
+      for (final QuadraticTerm term: objective.getExpression ().getQuadraticTerms ()) {
+        final int anchor = join (parents, sizes, -1, indexOf (term.getVariable1 (), indices, strict));
+        join (parents, sizes, anchor, indexOf (term.getVariable2 (), indices, strict));
+      }
+    }
+
+    final List<ProgramComponent> components = new ArrayList<ProgramComponent> ();
+    final int[] componentIndices = new int[variables.size ()];
+    Arrays.fill (componentIndices, -1);
+
+    for (int i = 0; i < variables.size (); i++) {
+      final int root = find (parents, i);
+      if (componentIndices[root] < 0) {
+        componentIndices[root] = components.size ();
+        components.add (new ProgramComponent ());
+      }
+      components.get (componentIndices[root]).addVariable (variables.get (i));
+    }
+
+    for (int i = 0; i < constraints.size (); i++) {
+      if (anchors[i] >= 0) {
+        components.get (componentIndices[find (parents, anchors[i])]).addConstraint (constraints.get (i));
+      } else {
+        if (components.isEmpty ()) {
+          components.add (new ProgramComponent ());
+        }
+        components.get (0).addConstraint (constraints.get (i));
+      }
+    }
+
+    return components;
+  }
+
+  /**
+   * Blended objectives are a weighted sum over all variables and can be optimized per component. Objectives with
+   * different priorities are optimized one after another over the whole program, so they are not separable.
+   */
+  public boolean isObjectiveSeparable (final Program program) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+
+    final List<? extends Objective> objectives = program.getObjectives ();
+    for (int i = 1; i < objectives.size (); i++) {
+      if (objectives.get (i).getPriority () != objectives.get (0).getPriority ()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int join (final Expression expr,
+                           final Map<Variable, Integer> indices,
+                           final int[] parents,
+                           final int[] sizes,
+                           final int anchor,
+                           final boolean strict) {
+    int result = anchor;
+    for (final LinearTerm term: expr.getLinearTerms ()) {
+      result = join (parents, sizes, result, indexOf (term.getVariable (), indices, strict));
+    }
+
+    for (final QuadraticTerm term: expr.getQuadraticTerms ()) {
+      result = join (parents, sizes, result, indexOf (term.getVariable1 (), indices, strict));
+      result = join (parents, sizes, result, indexOf (term.getVariable2 (), indices, strict));
+    }
+    return result;
+  }
+
+  private static int join (final int[] parents,
+                           final int[] sizes,
+                           final int anchor,
+                           final int index) {
+    if (index < 0) {
+      return anchor;
+    }
+    if (anchor >= 0) {
+      union (parents, sizes, anchor, index);
+      return anchor;
+    }
+    return index;
+  }
+
+  private static int indexOf (final Variable variable,
+                              final Map<Variable, Integer> indices,
+                              final boolean strict) {
+    final Integer index = indices.get (variable);
+    if (index != null) {
+      return index;
+    }
+    if (strict) {
+      throw new IllegalArgumentException ("Variable " + variable.getName () + " is not part of the program");
+    }
+    return -1;
+  }
+
+  protected static int find (final int[] parents,
+                             final int index) {
+    int current = index;
+    while (parents[current] != current) {
+      // Path halving keeps the trees flat without a second pass
+      parents[current] = parents[parents[current]];
+      current = parents[current];
+    }
+    return current;
+  }
+
+  protected static void union (final int[] parents,
+                               final int[] sizes,
+                               final int index1,
+                               final int index2) {
+    final int root1 = find (parents, index1);
+    final int root2 = find (parents, index2);
+    if (root1 == root2) {
+      return;
+    }
+
+    if (sizes[root1] < sizes[root2]) {
+      parents[root1] = root2;
+      sizes[root2] += sizes[root1];
+    } else {
+      parents[root2] = root1;
+      sizes[root1] += sizes[root2];
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.decomposition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.Solution;
+import com.inform.jamps.solver.TerminationReason;
+
+/**
+ * Execution result of a decomposed program merged from the results of its sub programs. A solution is only available
+ * if every sub program has one, and only the combination of the best solutions is provided.
+ */
+public class DecomposedExecutionResult implements ExecutionResult<Program> {
+
+  private final Program          program;
+
+  private final List<SubProgram> subPrograms;
+
+  private final List<Solution>   solutions = new ArrayList<Solution> ();
+
+  private final long             executionTime;
+
+  protected DecomposedExecutionResult (final Program program,
+                                       final List<SubProgram> subPrograms,
+                                       final long executionTime) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (subPrograms == null) {
+      throw new IllegalArgumentException ("Parameter subPrograms is mandatory and may not be null");
+    }
+
+    this.program = program;
+    this.subPrograms = Collections.unmodifiableList (new ArrayList<SubProgram> (subPrograms));
+    this.executionTime = executionTime;
+
+    final Map<Variable, SubProgram> owners = new IdentityHashMap<Variable, SubProgram> (program.getVariablesCount ());
+    boolean hasSolutions = true;
+    for (final SubProgram subProgram: this.subPrograms) {
+      hasSolutions &= subProgram.getResult ().hasSolution ();
+      for (final Variable var: subProgram.getOriginalVariables ()) {
+        owners.put (var, subProgram);
+      }
+    }
+
+    if (hasSolutions) {
+      solutions.add (new DecomposedSolution (this.subPrograms, owners));
+    }
+  }
+
+  public List<SubProgram> getSubPrograms () {
+    return subPrograms;
+  }
+
+  @Override
+  public Program getProblem () {
+    return program;
+  }
+
+  @Override
+  public boolean isProblemInfeasible () {
+    for (final SubProgram subProgram: subPrograms) {
+      if (subProgram.getResult ().isProblemInfeasible ()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean isProblemUnbounded () {
+    for (final SubProgram subProgram: subPrograms) {
+      if (subProgram.getResult ().isProblemUnbounded ()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean hasExecutionTerminated () {
+    return getTerminationReason () != TerminationReason.NONE;
+  }
+
+  @Override
+  public TerminationReason getTerminationReason () {
+    for (final SubProgram subProgram: subPrograms) {
+      if (subProgram.getResult ().hasExecutionTerminated ()) {
+        return subProgram.getResult ().getTerminationReason ();
+      }
+    }
+    return TerminationReason.NONE;
+  }
+
+  @Override
+  public boolean hasSolution () {
+    return !solutions.isEmpty ();
+  }
+
+  @Override
+  public boolean hasOptimalSolution () {
+    return hasSolution () && getBestSolution ().isOptimal ();
+  }
+
+  @Override
+  public int getSolutionsCount () {
+    return solutions.size ();
+  }
+
+  @Override
+  public Solution getBestSolution () {
+    if (!hasSolution ()) {
+      throw new IllegalStateException ("There is no best solution available");
+    }
+    return solutions.get (0);
+  }
+
+  @Override
+  public Solution getSolution (final int index) {
+    if (index >= solutions.size ()) {
+      throw new IllegalArgumentException ("There is no solution with index " + index + " available");
+    }
+    return solutions.get (index);
+  }
+
+  @Override
+  public List<Solution> getSolutions () {
+    return new ArrayList<Solution> (solutions);
+  }
+
+  /**
+   * @return wall-clock time of solving all sub programs in parallel
+   */
+  @Override
+  public long getExecutionTimeMillis () {
+    return executionTime;
+  }
+}
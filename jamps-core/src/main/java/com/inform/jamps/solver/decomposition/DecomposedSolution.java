@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.decomposition;
+
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.Solution;
+
+/**
+ * Combination of the best solutions of all sub programs of a decomposed program. Objective values are summed up, which
+ * is exact for blended objectives.
+ */
+public class DecomposedSolution implements Solution {
+
+  private final List<SubProgram>          subPrograms;
+
+  private final Map<Variable, SubProgram> owners;
+
+  protected DecomposedSolution (final List<SubProgram> subPrograms,
+                                final Map<Variable, SubProgram> owners) {
+    if (subPrograms == null) {
+      throw new IllegalArgumentException ("Parameter subPrograms is mandatory and may not be null");
+    }
+    if (owners == null) {
+      throw new IllegalArgumentException ("Parameter owners is mandatory and may not be null");
+    }
+
+    this.subPrograms = subPrograms;
+    this.owners = owners;
+  }
+
+  @Override
+  public boolean isOptimal () {
+    for (final SubProgram subProgram: subPrograms) {
+      if (!subProgram.getResult ().getBestSolution ().isOptimal ()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public double getVariableValue (final Variable variable) {
+    final SubProgram owner = getOwner (variable);
+    return owner.getResult ().getBestSolution ().getVariableValue (owner.getVariable (variable));
+  }
+
+  @Override
+  public boolean getBinaryValue (final Variable variable) {
+    final SubProgram owner = getOwner (variable);
+    return owner.getResult ().getBestSolution ().getBinaryValue (owner.getVariable (variable));
+  }
+
+  @Override
+  public long getIntegerValue (final Variable variable) {
+    final SubProgram owner = getOwner (variable);
+    return owner.getResult ().getBestSolution ().getIntegerValue (owner.getVariable (variable));
+  }
+
+  @Override
+  public double getObjectiveValue () {
+    double value = 0.0;
+    for (final SubProgram subProgram: subPrograms) {
+      value += subProgram.getResult ().getBestSolution ().getObjectiveValue ();
+    }
+    return value;
+  }
+
+  @Override
+  public double getObjectiveValue (final Objective objective) {
+    double value = 0.0;
+    for (final SubProgram subProgram: subPrograms) {
+      final Objective copy = subProgram.getObjective (objective);
+      if (copy == null) {
+        throw new IllegalArgumentException ("Objective " + objective.getName () + " is not part of the program");
+      }
+      value += subProgram.getResult ().getBestSolution ().getObjectiveValue (copy);
+    }
+    return value;
+  }
+
+  /**
+   * @return largest gap of all sub programs, which bounds the gap of the combined solution as long as all sub programs
+   *         have objective values of the same sign
+   */
+  @Override
+  public double getRelativeOptimalityGap () {
+    double gap = 0.0;
+    for (final SubProgram subProgram: subPrograms) {
+      gap = Math.max (gap, subProgram.getResult ().getBestSolution ().getRelativeOptimalityGap ());
+    }
+    return gap;
+  }
+
+  private SubProgram getOwner (final Variable variable) {
+    final SubProgram owner = owners.get (variable);
+    if (owner == null) {
+      throw new IllegalArgumentException ("Variable " + variable.getName () + " is not part of the program");
+    }
+    return owner;
+  }
+
+  @Override
+  public int compareTo (final Solution o) {
+    if (o == null) {
+      return -1;
+    }
+
+    return Double.compare (getObjectiveValue (), o.getObjectiveValue ());
+  }
+}
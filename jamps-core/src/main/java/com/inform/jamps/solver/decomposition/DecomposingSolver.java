@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.decomposition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.inform.jamps.exception.SolverException;
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.QuadraticTerm;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.MathProgrammingSolver;
+import com.inform.jamps.solver.MathProgrammingSolverFactory;
+import com.inform.jamps.solver.SolverParameters;
+
+/**
+ * Solver which splits a program into its independent components and solves them as separate programs in parallel.
+ * Components are distributed over at most one sub program per worker, balanced by their number of variables and
+ * constraints. Programs with a single component or hierarchical objectives are solved as a whole.
+ */
+public class DecomposingSolver implements MathProgrammingSolver {
+
+  private final MathProgrammingSolverFactory<?, ?> factory;
+
+  private final ComponentAnalyzer                  analyzer     = new ComponentAnalyzer ();
+
+  private int                                      workersCount = Runtime.getRuntime ().availableProcessors ();
+
+  public DecomposingSolver (final MathProgrammingSolverFactory<?, ?> factory) {
+    if (factory == null) {
+      throw new IllegalArgumentException ("Parameter factory is mandatory and may not be null");
+    }
+
+    this.factory = factory;
+  }
+
+  public int getWorkersCount () {
+    return workersCount;
+  }
+
+  public void setWorkersCount (final int workersCount) {
+    if (workersCount < 1) {
+      throw new IllegalArgumentException ("Parameter workersCount must be positive");
+    }
+
+    this.workersCount = workersCount;
+  }
+
+  @Override
+  public ExecutionResult<Program> solve (final SolverParameters parameters,
+                                         final Program program) {
+    if (parameters == null) {
+      throw new IllegalArgumentException ("Parameter parameters is mandatory and may not be null");
+    }
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+
+    // Range and general constraints couple their variables beyond the rows, so such programs are solved as a whole
+    if (program.hasGeneralConstraints () || !program.getRangeConstraints ().isEmpty ()) {
+      return factory.createSolver ().solve (parameters, program);
+    }
+
+    final List<ProgramComponent> components = analyzer.analyze (program);
+    if (components.size () < 2 || !analyzer.isObjectiveSeparable (program)) {
+      return factory.createSolver ().solve (parameters, program);
+    }
+
+    final List<List<ProgramComponent>> groups = groupComponents (components, workersCount);
+    final List<SubProgram> subPrograms = new ArrayList<SubProgram> (groups.size ());
+    for (int i = 0; i < groups.size (); i++) {
+      subPrograms.add (createSubProgram (program, groups.get (i), i));
+    }
+
+    final long startTime = System.currentTimeMillis ();
+    solveSubPrograms (parameters, subPrograms);
+    return new DecomposedExecutionResult (program, subPrograms, System.currentTimeMillis () - startTime);
+  }
+
+  /**
+   * Distributes the components over at most the given number of groups, largest component first into the group with
+   * the smallest size so far.
+   */
+  public static List<List<ProgramComponent>> groupComponents (final List<ProgramComponent> components,
+                                                              final int groupsCount) {
+    final List<ProgramComponent> sortedComponents = new ArrayList<ProgramComponent> (components);
+    Collections.sort (sortedComponents, new Comparator<ProgramComponent> () {
+
+      @Override
+      public int compare (final ProgramComponent o1,
+                          final ProgramComponent o2) {
+        return Integer.valueOf (o2.getSize ()).compareTo (o1.getSize ());
+      }
+    });
+
+    final int count = Math.min (groupsCount, components.size ());
+    final List<List<ProgramComponent>> groups = new ArrayList<List<ProgramComponent>> (count);
+    final long[] sizes = new long[count];
+    for (int i = 0; i < count; i++) {
+      groups.add (new ArrayList<ProgramComponent> ());
+    }
+
+    for (final ProgramComponent component: sortedComponents) {
+      int smallest = 0;
+      for (int i = 1; i < count; i++) {
+        if (sizes[i] < sizes[smallest]) {
+          smallest = i;
+        }
+      }
+
+      groups.get (smallest).add (component);
+      sizes[smallest] += component.getSize ();
+    }
+    return groups;
+  }
+
+  protected SubProgram createSubProgram (final Program program,
+                                         final List<ProgramComponent> components,
+                                         final int index) {
+    final SubProgram subProgram = new SubProgram (factory.createProgram (program.getName () + "_component" + index));
+    final Program target = subProgram.getProgram ();
+
+    for (final ProgramComponent component: components) {
+      for (final Variable var: component.getVariables ()) {
+        final Variable copy = target.addVariable (var.getName (), var.getType (), var.getLowerBound (),
+                                                  var.getUpperBound ());
+        if (var.hasInitialValue ()) {
+          copy.setInitialValue (var.getInitialValue ());
+        }
+        subProgram.addVariable (var, copy);
+      }
+    }
+
+    // Constants of the objectives are part of the first sub program only
+    for (final Objective objective: program.getObjectives ()) {
+      final Objective copy = target.addObjective (objective.getName (), objective.getObjectiveSense ());
+      copy.setPriority (objective.getPriority ());
+      copy.setWeight (objective.getWeight ());
+      copy.setAbsoluteTolerance (objective.getAbsoluteTolerance ());
+      copy.setRelativeTolerance (objective.getRelativeTolerance ());
+      copyTerms (objective.getExpression (), copy.getExpression (), subProgram, index == 0);
+      subProgram.addObjective (objective, copy);
+    }
+
+    for (final ProgramComponent component: components) {
+      for (final Constraint constraint: component.getConstraints ()) {
+        final Constraint copy = target.addConstraint (constraint.getName (), constraint.getOperator ());
+        copyTerms (constraint.getLhs (), copy.getLhs (), subProgram, true);
+        copyTerms (constraint.getRhs (), copy.getRhs (), subProgram, true);
+      }
+    }
+
+    return subProgram;
+  }
+
+  private static void copyTerms (final Expression source,
+                                 final Expression target,
+                                 final SubProgram subProgram,
+                                 final boolean withConstant) {
+    // Objective terms of variables in other sub programs are skipped
+    for (final LinearTerm term: source.getLinearTerms ()) {
+      final Variable var = subProgram.getVariable (term.getVariable ());
+      if (var != null) {
+        target.addTerm (term.getCoefficient (), var);
+      }
+    }
+
+    for (final QuadraticTerm term: source.getQuadraticTerms ()) {
+      final Variable var1 = subProgram.getVariable (term.getVariable1 ());
+      if (var1 != null) {
+        target.addTerm (term.getCoefficient (), var1, subProgram.getVariable (term.getVariable2 ()));
+      }
+    }
+
+    if (withConstant) {
+      target.addTerm (source.getConstant ());
+    }
+  }
+
+  protected void solveSubPrograms (final SolverParameters parameters,
+                                   final List<SubProgram> subPrograms) {
+    final ExecutorService executor = Executors.newFixedThreadPool (Math.min (workersCount, subPrograms.size ()));
+
+    try {
+      final List<Future<ExecutionResult<Program>>> futures = new ArrayList<Future<ExecutionResult<Program>>> ();
+
+      for (final SubProgram subProgram: subPrograms) {
+        futures.add (executor.submit (new Callable<ExecutionResult<Program>> () {
+
+          @Override
+          public ExecutionResult<Program> call () {
+            return factory.createSolver ().solve (parameters, subProgram.getProgram ());
+          }
+        }));
+      }
+
+      for (int i = 0; i < subPrograms.size (); i++) {
+        subPrograms.get (i).setResult (awaitSubProgram (futures.get (i)));
+      }
+    } finally {
+      executor.shutdownNow ();
+    }
+  }
+
+  private static ExecutionResult<Program> awaitSubProgram (final Future<ExecutionResult<Program>> future) {
+    try {
+      return future.get ();
+    } catch (InterruptedException e) {
+      Thread.currentThread ().interrupt ();
+      throw new SolverException ("Interrupted while solving sub programs", e);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause ();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new SolverException ("Unable to solve sub program", cause);
+    }
+  }
+}
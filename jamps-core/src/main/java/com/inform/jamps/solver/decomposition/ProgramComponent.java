@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.decomposition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Connected component of the variable-constraint graph of a program. No constraint of a component shares a variable
+ * with another component.
+ */
+public class ProgramComponent {
+
+  private final List<Variable>   variables   = new ArrayList<Variable> ();
+
+  private final List<Constraint> constraints = new ArrayList<Constraint> ();
+
+  protected ProgramComponent () {
+    super ();
+  }
+
+  public List<Variable> getVariables () {
+    return Collections.unmodifiableList (variables);
+  }
+
+  public List<Constraint> getConstraints () {
+    return Collections.unmodifiableList (constraints);
+  }
+
+  public int getSize () {
+    return variables.size () + constraints.size ();
+  }
+
+  protected void addVariable (final Variable variable) {
+    variables.add (variable);
+  }
+
+  protected void addConstraint (final Constraint constraint) {
+    constraints.add (constraint);
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.decomposition;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.ExecutionResult;
+
+/**
+ * Program built from one or more components of a decomposed program, together with the mapping of the original
+ * variables and objectives to their copies.
+ */
+public class SubProgram {
+
+  private final Program                   program;
+
+  private final Map<Variable, Variable>   variables  = new IdentityHashMap<Variable, Variable> ();
+
+  private final Map<Objective, Objective> objectives = new IdentityHashMap<Objective, Objective> ();
+
+  private ExecutionResult<Program>        result;
+
+  protected SubProgram (final Program program) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+
+    this.program = program;
+  }
+
+  public Program getProgram () {
+    return program;
+  }
+
+  public ExecutionResult<Program> getResult () {
+    if (result == null) {
+      throw new IllegalStateException ("Sub program " + program.getName () + " has not been solved yet");
+    }
+    return result;
+  }
+
+  protected void setResult (final ExecutionResult<Program> result) {
+    this.result = result;
+  }
+
+  /**
+   * @return copy of the original variable or null if the variable belongs to another sub program
+   */
+  public Variable getVariable (final Variable original) {
+    return variables.get (original);
+  }
+
+  protected Set<Variable> getOriginalVariables () {
+    return variables.keySet ();
+  }
+
+  public Objective getObjective (final Objective original) {
+    return objectives.get (original);
+  }
+
+  protected void addVariable (final Variable original,
+                              final Variable copy) {
+    variables.put (original, copy);
+  }
+
+  protected void addObjective (final Objective original,
+                               final Objective copy) {
+    objectives.put (original, copy);
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.lagrangian;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.exception.SolverException;
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.MathProgrammingSolverFactory;
+import com.inform.jamps.solver.Solution;
+import com.inform.jamps.solver.SolverParameters;
+import com.inform.jamps.solver.decomposition.ProgramComponent;
+
+/**
+ * Independent part of the relaxed program with its own program, which is solved again in every iteration. Only
+ * objective coefficients of variables in dualized constraints change between iterations, so the native model of the
+ * block stays alive.
+ */
+public class LagrangianBlock<P extends SolverParameters> {
+
+  private final String                             name;
+
+  private final MathProgrammingSolverFactory<?, P> factory;
+
+  private final P                                  parameters;
+
+  private final Program                            program;
+
+  private final Objective                          objective;
+
+  private final List<Variable>                     variables = new ArrayList<Variable> ();
+
+  private final Variable[]                         copies;
+
+  private final int[]                              indices;
+
+  private final Variable[]                         linkedCopies;
+
+  private final int[]                              linkedIndices;
+
+  private final double[]                           linkedCosts;
+
+  private final double[]                           values;
+
+  private double                                   objectiveValue;
+
+  protected LagrangianBlock (final String name,
+                             final MathProgrammingSolverFactory<?, P> factory,
+                             final P parameters,
+                             final ObjectiveSense sense,
+                             final List<ProgramComponent> components,
+                             final Map<Variable, Integer> variableIndices,
+                             final double[] costs,
+                             final boolean[] linked) {
+    this.name = name;
+    this.factory = factory;
+    this.parameters = parameters;
+    this.program = factory.createProgram (name);
+    this.objective = program.addObjective ("lagrangian", sense);
+
+    final List<Constraint> constraints = new ArrayList<Constraint> ();
+    for (final ProgramComponent component: components) {
+      variables.addAll (component.getVariables ());
+      constraints.addAll (component.getConstraints ());
+    }
+
+    this.copies = new Variable[variables.size ()];
+    this.indices = new int[variables.size ()];
+    this.values = new double[variables.size ()];
+
+    final Map<Variable, Variable> copiesByVariable = new IdentityHashMap<Variable, Variable> (variables.size ());
+    final Expression objectiveExpr = objective.getExpression ();
+    int linkedCount = 0;
+    for (int i = 0; i < copies.length; i++) {
+      final Variable var = variables.get (i);
+      copies[i] = program.addVariable (var.getName (), var.getType (), var.getLowerBound (), var.getUpperBound ());
+      if (var.hasInitialValue ()) {
+        copies[i].setInitialValue (var.getInitialValue ());
+      }
+      copiesByVariable.put (var, copies[i]);
+
+      indices[i] = variableIndices.get (var);
+      objectiveExpr.addTerm (costs[indices[i]], copies[i]);
+      if (linked[indices[i]]) {
+        linkedCount++;
+      }
+    }
+
+    this.linkedCopies = new Variable[linkedCount];
+    this.linkedIndices = new int[linkedCount];
+    this.linkedCosts = new double[linkedCount];
+    for (int i = 0, j = 0; i < copies.length; i++) {
+      if (linked[indices[i]]) {
+        linkedCopies[j] = copies[i];
+        linkedIndices[j] = indices[i];
+        linkedCosts[j] = costs[indices[i]];
+        j++;
+      }
+    }
+
+    for (final Constraint constraint: constraints) {
+      final Constraint copy = program.addConstraint (constraint.getName (), constraint.getOperator ());
+      copyTerms (constraint.getLhs (), copy.getLhs (), copiesByVariable);
+      copyTerms (constraint.getRhs (), copy.getRhs (), copiesByVariable);
+    }
+  }
+
+  private static void copyTerms (final Expression source,
+                                 final Expression target,
+                                 final Map<Variable, Variable> copiesByVariable) {
+    for (final LinearTerm term: source.getLinearTerms ()) {
+      target.addTerm (term.getCoefficient (), copiesByVariable.get (term.getVariable ()));
+    }
+    target.addTerm (source.getConstant ());
+  }
+
+  public String getName () {
+    return name;
+  }
+
+  public Program getProgram () {
+    return program;
+  }
+
+  /**
+   * @return variables of the original program in this block
+   */
+  public List<Variable> getVariables () {
+    return new ArrayList<Variable> (variables);
+  }
+
+  public double getObjectiveValue () {
+    return objectiveValue;
+  }
+
+  /**
+   * Solves the block with the given Lagrangian costs, indexed like the variables of the driver. Only costs which
+   * changed since the last solve are passed to the program.
+   *
+   * @return whether the block is feasible
+   */
+  protected boolean solve (final double[] costs) {
+    int changedCount = 0;
+    for (int i = 0; i < linkedCopies.length; i++) {
+      if (costs[linkedIndices[i]] != linkedCosts[i]) {
+        changedCount++;
+      }
+    }
+
+    if (changedCount > 0) {
+      final Variable[] changedCopies = new Variable[changedCount];
+      final double[] changedCosts = new double[changedCount];
+      for (int i = 0, j = 0; i < linkedCopies.length; i++) {
+        if (costs[linkedIndices[i]] != linkedCosts[i]) {
+          linkedCosts[i] = costs[linkedIndices[i]];
+          changedCopies[j] = linkedCopies[i];
+          changedCosts[j] = linkedCosts[i];
+          j++;
+        }
+      }
+      program.setObjectiveCoefficients (objective, changedCopies, changedCosts);
+    }
+
+    final ExecutionResult<Program> result = factory.createSolver ().solve (parameters, program);
+    if (result.isProblemInfeasible () && !result.isProblemUnbounded ()) {
+      return false;
+    }
+    if (result.isProblemUnbounded ()) {
+      throw new SolverException ("Relaxed program of block " + name + " is unbounded, variables in dualized " +
+                                 "constraints require finite bounds");
+    }
+    if (!result.hasOptimalSolution ()) {
+      throw new SolverException ("Relaxed program of block " + name + " could not be solved to optimality");
+    }
+
+    final Solution solution = result.getBestSolution ();
+    for (int i = 0; i < copies.length; i++) {
+      values[i] = solution.getVariableValue (copies[i]);
+    }
+    objectiveValue = solution.getObjectiveValue ();
+    return true;
+  }
+
+  /**
+   * Copies the values of the last solve into the given array, which is indexed like the variables of the driver.
+   */
+  protected void collectValues (final double[] target) {
+    for (int i = 0; i < indices.length; i++) {
+      target[indices[i]] = values[i];
+    }
+  }
+}
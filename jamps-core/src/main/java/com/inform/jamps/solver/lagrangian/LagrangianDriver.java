@@ -0,0 +1,552 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.lagrangian;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.inform.jamps.exception.SolverException;
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.MathProgrammingSolverFactory;
+import com.inform.jamps.solver.SolverParameters;
+import com.inform.jamps.solver.decomposition.ComponentAnalyzer;
+import com.inform.jamps.solver.decomposition.DecomposingSolver;
+import com.inform.jamps.solver.decomposition.ProgramComponent;
+
+/**
+ * Lagrangian relaxation of a program with complicating constraints. The dualized constraints are moved into the
+ * objective, weighted by one multiplier each, and the remaining constraints usually split into independent blocks which
+ * are solved in parallel. Multipliers are updated by subgradient steps towards the best known objective value. Every
+ * relaxed solution which satisfies the dualized constraints is a solution of the program and kept if it improves the
+ * best one.
+ */
+public class LagrangianDriver<P extends SolverParameters> {
+
+  protected final static int                       DEFAULT_MAX_ITERATIONS          = 100;
+
+  protected final static double                    DEFAULT_OPTIMALITY_TOLERANCE    = 1e-6;
+
+  protected final static double                    DEFAULT_STEP_SIZE               = 2.0;
+
+  protected final static int                       DEFAULT_STEP_REDUCTION_INTERVAL = 5;
+
+  protected final static double                    FEASIBILITY_TOLERANCE           = 1e-6;
+
+  /**
+   * Relative distance of the estimated objective value to the current bound as long as no solution is known.
+   */
+  protected final static double                    ESTIMATED_GAP                   = 0.05;
+
+  private final MathProgrammingSolverFactory<?, P> factory;
+
+  private final P                                  parameters;
+
+  private final String                             name;
+
+  private final ObjectiveSense                     sense;
+
+  private final Variable[]                         variables;
+
+  private final Map<Variable, Integer>             variableIndices;
+
+  private final double[]                           costs;
+
+  private final double                             objectiveConstant;
+
+  private final Constraint[]                       dualizedConstraints;
+
+  private final int[]                              rowStarts;
+
+  private final int[]                              rowColumns;
+
+  private final double[]                           rowValues;
+
+  private final double[]                           rowConstants;
+
+  private final Operator[]                         rowOperators;
+
+  private final double[]                           multipliers;
+
+  private final List<ProgramComponent>             components;
+
+  private List<LagrangianBlock<P>>                 blocks;
+
+  private double                                   optimalityTolerance             = DEFAULT_OPTIMALITY_TOLERANCE;
+
+  private int                                      maxIterations                   = DEFAULT_MAX_ITERATIONS;
+
+  private double                                   stepSize                        = DEFAULT_STEP_SIZE;
+
+  private int                                      stepReductionInterval           = DEFAULT_STEP_REDUCTION_INTERVAL;
+
+  private int                                      workersCount;
+
+  public LagrangianDriver (final MathProgrammingSolverFactory<?, P> factory,
+                           final P parameters,
+                           final Program program,
+                           final Collection<? extends Constraint> dualizedConstraints) {
+    if (factory == null) {
+      throw new IllegalArgumentException ("Parameter factory is mandatory and may not be null");
+    }
+    if (parameters == null) {
+      throw new IllegalArgumentException ("Parameter parameters is mandatory and may not be null");
+    }
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (dualizedConstraints == null) {
+      throw new IllegalArgumentException ("Parameter dualizedConstraints is mandatory and may not be null");
+    }
+    if (program.getObjectivesCount () != 1) {
+      throw new IllegalArgumentException ("Lagrangian relaxation requires a program with exactly one objective");
+    }
+    if (program.getConstraints ().size () != program.getConstraintsCount ()) {
+      throw new IllegalArgumentException ("Program " + program.getName () + " does not provide its constraints");
+    }
+    if (program.hasGeneralConstraints () || !program.getRangeConstraints ().isEmpty ()) {
+      throw new IllegalArgumentException ("Lagrangian relaxation does not support range and general constraints of " +
+                                          "program " + program.getName ());
+    }
+
+    this.factory = factory;
+    this.parameters = parameters;
+    this.name = program.getName ();
+    this.workersCount = Runtime.getRuntime ().availableProcessors ();
+
+    final Objective objective = program.getObjectives ().get (0);
+    checkLinear (objective.getExpression ());
+    this.sense = objective.getObjectiveSense ();
+    this.objectiveConstant = objective.getExpression ().getConstant ();
+
+    final List<? extends Variable> programVariables = program.getVariables ();
+    this.variables = programVariables.toArray (new Variable[programVariables.size ()]);
+    this.variableIndices = new IdentityHashMap<Variable, Integer> (variables.length);
+    for (int i = 0; i < variables.length; i++) {
+      variableIndices.put (variables[i], i);
+    }
+
+    this.costs = new double[variables.length];
+    for (final LinearTerm term: objective.getExpression ().getLinearTerms ()) {
+      costs[variableIndices.get (term.getVariable ())] += term.getCoefficient ();
+    }
+
+    final Set<Constraint> dualized = Collections.newSetFromMap (new IdentityHashMap<Constraint, Boolean> ());
+    dualized.addAll (dualizedConstraints);
+    final List<Constraint> dualizedRows = new ArrayList<Constraint> (dualized.size ());
+    final List<Constraint> remainingRows = new ArrayList<Constraint> ();
+    for (final Constraint constraint: program.getConstraints ()) {
+      if (dualized.contains (constraint)) {
+        dualizedRows.add (constraint);
+      } else {
+        remainingRows.add (constraint);
+      }
+    }
+    if (dualizedRows.size () != dualized.size ()) {
+      throw new IllegalArgumentException ("Dualized constraints must be constraints of the program");
+    }
+
+    this.dualizedConstraints = dualizedRows.toArray (new Constraint[dualizedRows.size ()]);
+    this.multipliers = new double[dualizedRows.size ()];
+    this.rowStarts = new int[dualizedRows.size () + 1];
+    this.rowConstants = new double[dualizedRows.size ()];
+    this.rowOperators = new Operator[dualizedRows.size ()];
+
+    int nonZerosCount = 0;
+    for (final Constraint constraint: dualizedRows) {
+      checkLinear (constraint.getLhs ());
+      checkLinear (constraint.getRhs ());
+      nonZerosCount += constraint.getLhs ().getLinearTerms ().size () + constraint.getRhs ().getLinearTerms ().size ();
+    }
+
+    // Dualized rows are stored in the normalized form lhs - rhs operator constant
+    this.rowColumns = new int[nonZerosCount];
+    this.rowValues = new double[nonZerosCount];
+    for (int i = 0; i < dualizedRows.size (); i++) {
+      final Constraint constraint = dualizedRows.get (i);
+      int position = rowStarts[i];
+      for (final LinearTerm term: constraint.getLhs ().getLinearTerms ()) {
+        rowColumns[position] = variableIndices.get (term.getVariable ());
+        rowValues[position++] = term.getCoefficient ();
+      }
+      for (final LinearTerm term: constraint.getRhs ().getLinearTerms ()) {
+        rowColumns[position] = variableIndices.get (term.getVariable ());
+        rowValues[position++] = -term.getCoefficient ();
+      }
+
+      rowStarts[i + 1] = position;
+      rowConstants[i] = constraint.getRhs ().getConstant () - constraint.getLhs ().getConstant ();
+      rowOperators[i] = constraint.getOperator ();
+    }
+
+    this.components = new ComponentAnalyzer ().analyze (programVariables, remainingRows);
+  }
+
+  private static void checkLinear (final Expression expr) {
+    if (!expr.getQuadraticTerms ().isEmpty ()) {
+      throw new IllegalArgumentException ("Quadratic terms are not supported by Lagrangian relaxation");
+    }
+  }
+
+  /**
+   * @return blocks of the relaxed program, which are created with the first run
+   */
+  public List<LagrangianBlock<P>> getBlocks () {
+    return (blocks == null) ? new ArrayList<LagrangianBlock<P>> () : new ArrayList<LagrangianBlock<P>> (blocks);
+  }
+
+  /**
+   * @return number of independent components of the relaxed program, which are grouped into at most as many blocks as
+   *         workers are configured
+   */
+  public int getComponentsCount () {
+    return components.size ();
+  }
+
+  public double getMultiplier (final Constraint constraint) {
+    return multipliers[indexOf (constraint)];
+  }
+
+  /**
+   * Sets the start value of a multiplier, e.g. from a previous run on a similar program. Multipliers of less-equals
+   * constraints may not be negative, those of greater-equals constraints may not be positive.
+   */
+  public void setMultiplier (final Constraint constraint,
+                             final double multiplier) {
+    final int index = indexOf (constraint);
+    if (project (index, multiplier) != multiplier) {
+      throw new IllegalArgumentException ("Multiplier " + multiplier + " has the wrong sign for constraint " +
+                                          constraint);
+    }
+
+    multipliers[index] = multiplier;
+  }
+
+  private int indexOf (final Constraint constraint) {
+    for (int i = 0; i < dualizedConstraints.length; i++) {
+      if (dualizedConstraints[i] == constraint) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException ("Constraint " + constraint + " is not dualized");
+  }
+
+  public double getOptimalityTolerance () {
+    return optimalityTolerance;
+  }
+
+  /**
+   * Relative tolerance for the gap between best bound and best solution.
+   */
+  public void setOptimalityTolerance (final double optimalityTolerance) {
+    if (optimalityTolerance < 0.0) {
+      throw new IllegalArgumentException ("Parameter optimalityTolerance may not be negative");
+    }
+
+    this.optimalityTolerance = optimalityTolerance;
+  }
+
+  public int getMaxIterations () {
+    return maxIterations;
+  }
+
+  public void setMaxIterations (final int maxIterations) {
+    if (maxIterations < 0) {
+      throw new IllegalArgumentException ("Parameter maxIterations may not be negative");
+    }
+
+    this.maxIterations = maxIterations;
+  }
+
+  public double getStepSize () {
+    return stepSize;
+  }
+
+  /**
+   * Initial factor of the subgradient step, in range (0, 2]. The factor is halved whenever the bound has not improved
+   * for the number of iterations given by the step reduction interval.
+   */
+  public void setStepSize (final double stepSize) {
+    if (stepSize <= 0.0 || stepSize > 2.0) {
+      throw new IllegalArgumentException ("Parameter stepSize must be in range (0, 2]");
+    }
+
+    this.stepSize = stepSize;
+  }
+
+  public int getStepReductionInterval () {
+    return stepReductionInterval;
+  }
+
+  public void setStepReductionInterval (final int stepReductionInterval) {
+    if (stepReductionInterval < 1) {
+      throw new IllegalArgumentException ("Parameter stepReductionInterval must be positive");
+    }
+
+    this.stepReductionInterval = stepReductionInterval;
+  }
+
+  public int getWorkersCount () {
+    return workersCount;
+  }
+
+  public void setWorkersCount (final int workersCount) {
+    if (workersCount < 1) {
+      throw new IllegalArgumentException ("Parameter workersCount must be positive");
+    }
+
+    this.workersCount = workersCount;
+  }
+
+  public LagrangianResult run () {
+    if (blocks == null) {
+      blocks = createBlocks ();
+    }
+
+    final boolean minimize = (sense == ObjectiveSense.MINIMIZE);
+    final double senseFactor = minimize ? 1.0 : -1.0;
+    final double[] values = new double[variables.length];
+    final double[] subgradient = new double[multipliers.length];
+    double[] bestMultipliers = multipliers.clone ();
+    Map<Variable, Double> bestValues = null;
+    double bestValue = minimize ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+    double bestBound = minimize ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+    double factor = stepSize;
+    int iterationsWithoutImprovement = 0;
+    int iteration = 0;
+
+    while (iteration < maxIterations) {
+      iteration++;
+
+      if (!solveBlocks (calculateCosts (senseFactor))) {
+        return new LagrangianResult (null, Double.NaN, Double.NaN, createMultipliersMap (multipliers), iteration,
+                                     false, true);
+      }
+
+      double bound = objectiveConstant;
+      for (final LagrangianBlock<P> block: blocks) {
+        bound += block.getObjectiveValue ();
+        block.collectValues (values);
+      }
+
+      boolean feasible = true;
+      double stepNorm = 0.0;
+      for (int i = 0; i < multipliers.length; i++) {
+        double activity = -rowConstants[i];
+        for (int j = rowStarts[i]; j < rowStarts[i + 1]; j++) {
+          activity += rowValues[j] * values[rowColumns[j]];
+        }
+        bound -= senseFactor * multipliers[i] * rowConstants[i];
+        subgradient[i] = activity;
+        feasible &= isSatisfied (i, activity);
+
+        // Components which would leave the feasible multiplier range do not contribute to the step
+        if (project (i, multipliers[i] + activity) != multipliers[i]) {
+          stepNorm += activity * activity;
+        }
+      }
+
+      if (minimize ? bound > bestBound : bound < bestBound) {
+        bestBound = bound;
+        bestMultipliers = multipliers.clone ();
+        iterationsWithoutImprovement = 0;
+      } else if (++iterationsWithoutImprovement >= stepReductionInterval) {
+        factor /= 2.0;
+        iterationsWithoutImprovement = 0;
+      }
+
+      if (feasible) {
+        final double value = evaluateObjective (values);
+        if (minimize ? value < bestValue : value > bestValue) {
+          bestValue = value;
+          bestValues = new IdentityHashMap<Variable, Double> (variables.length);
+          for (int i = 0; i < variables.length; i++) {
+            bestValues.put (variables[i], values[i]);
+          }
+        }
+      }
+
+      if (bestValues != null && isWithinTolerance (bestValue, bestBound)) {
+        return new LagrangianResult (bestValues, bestValue, bestBound, createMultipliersMap (bestMultipliers),
+                                     iteration, true, false);
+      }
+      if (stepNorm == 0.0) {
+        // Multipliers are optimal for the Lagrangian dual, further steps cannot improve the bound
+        break;
+      }
+
+      double target = bestValue;
+      if (bestValues == null) {
+        target = bound + senseFactor * ESTIMATED_GAP * Math.max (1.0, Math.abs (bound));
+      }
+      final double step = factor * Math.max (0.0, senseFactor * (target - bound)) / stepNorm;
+      for (int i = 0; i < multipliers.length; i++) {
+        multipliers[i] = project (i, multipliers[i] + step * subgradient[i]);
+      }
+    }
+
+    return new LagrangianResult (bestValues, bestValue, bestBound, createMultipliersMap (bestMultipliers), iteration,
+                                 false, false);
+  }
+
+  private List<LagrangianBlock<P>> createBlocks () {
+    final boolean[] linked = new boolean[variables.length];
+    for (final int column: rowColumns) {
+      linked[column] = true;
+    }
+
+    final List<List<ProgramComponent>> groups = DecomposingSolver.groupComponents (components, workersCount);
+    final double[] initialCosts = calculateCosts ((sense == ObjectiveSense.MINIMIZE) ? 1.0 : -1.0);
+    final List<LagrangianBlock<P>> createdBlocks = new ArrayList<LagrangianBlock<P>> (groups.size ());
+    for (int i = 0; i < groups.size (); i++) {
+      createdBlocks.add (new LagrangianBlock<P> (name + "_block" + i, factory, parameters, sense, groups.get (i),
+                                                 variableIndices, initialCosts, linked));
+    }
+    return createdBlocks;
+  }
+
+  /**
+   * @return objective coefficients of the relaxed program for the current multipliers
+   */
+  private double[] calculateCosts (final double senseFactor) {
+    final double[] lagrangianCosts = costs.clone ();
+    for (int i = 0; i < multipliers.length; i++) {
+      if (multipliers[i] == 0.0) {
+        continue;
+      }
+      for (int j = rowStarts[i]; j < rowStarts[i + 1]; j++) {
+        lagrangianCosts[rowColumns[j]] += senseFactor * multipliers[i] * rowValues[j];
+      }
+    }
+    return lagrangianCosts;
+  }
+
+  private double evaluateObjective (final double[] values) {
+    double value = objectiveConstant;
+    for (int i = 0; i < values.length; i++) {
+      value += costs[i] * values[i];
+    }
+    return value;
+  }
+
+  private boolean isSatisfied (final int row,
+                               final double activity) {
+    final double tolerance = FEASIBILITY_TOLERANCE * Math.max (1.0, Math.abs (rowConstants[row]));
+    switch (rowOperators[row]) {
+      case LESS_EQUALS:
+        return activity <= tolerance;
+      case GREATER_EQUALS:
+        return activity >= -tolerance;
+      default:
+        return Math.abs (activity) <= tolerance;
+    }
+  }
+
+  /**
+   * @return multiplier moved into the range which keeps the relaxation a bound, nonnegative for less-equals and
+   *         nonpositive for greater-equals constraints
+   */
+  private double project (final int row,
+                          final double multiplier) {
+    switch (rowOperators[row]) {
+      case LESS_EQUALS:
+        return Math.max (0.0, multiplier);
+      case GREATER_EQUALS:
+        return Math.min (0.0, multiplier);
+      default:
+        return multiplier;
+    }
+  }
+
+  private boolean isWithinTolerance (final double value,
+                                     final double bound) {
+    return Math.abs (value - bound) <= optimalityTolerance * Math.max (1.0, Math.abs (value));
+  }
+
+  private Map<Constraint, Double> createMultipliersMap (final double[] values) {
+    final Map<Constraint, Double> map = new IdentityHashMap<Constraint, Double> (values.length);
+    for (int i = 0; i < values.length; i++) {
+      map.put (dualizedConstraints[i], values[i]);
+    }
+    return map;
+  }
+
+  /**
+   * Solves all blocks with the given costs, in parallel if more than one worker is configured.
+   *
+   * @return whether all blocks are feasible
+   */
+  protected boolean solveBlocks (final double[] lagrangianCosts) {
+    if (workersCount == 1 || blocks.size () < 2) {
+      boolean feasible = true;
+      for (final LagrangianBlock<P> block: blocks) {
+        feasible &= block.solve (lagrangianCosts);
+      }
+      return feasible;
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool (Math.min (workersCount, blocks.size ()));
+    try {
+      final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>> (blocks.size ());
+      for (final LagrangianBlock<P> block: blocks) {
+        futures.add (executor.submit (new Callable<Boolean> () {
+
+          @Override
+          public Boolean call () {
+            return block.solve (lagrangianCosts);
+          }
+        }));
+      }
+
+      boolean feasible = true;
+      for (final Future<Boolean> future: futures) {
+        feasible &= awaitBlock (future);
+      }
+      return feasible;
+    } finally {
+      executor.shutdownNow ();
+    }
+  }
+
+  private static boolean awaitBlock (final Future<Boolean> future) {
+    try {
+      return future.get ();
+    } catch (InterruptedException e) {
+      Thread.currentThread ().interrupt ();
+      throw new SolverException ("Interrupted while solving blocks", e);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause ();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new SolverException ("Unable to solve block", cause);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.lagrangian;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Variable;
+
+public class LagrangianResult {
+
+  private final Map<Variable, Double>   values;
+
+  private final double                  objectiveValue;
+
+  private final double                  bestBound;
+
+  private final Map<Constraint, Double> multipliers;
+
+  private final int                     iterationsCount;
+
+  private final boolean                 converged;
+
+  private final boolean                 infeasible;
+
+  protected LagrangianResult (final Map<Variable, Double> values,
+                              final double objectiveValue,
+                              final double bestBound,
+                              final Map<Constraint, Double> multipliers,
+                              final int iterationsCount,
+                              final boolean converged,
+                              final boolean infeasible) {
+    this.values = (values == null) ? null
+                                   : Collections.unmodifiableMap (new IdentityHashMap<Variable, Double> (values));
+    this.objectiveValue = objectiveValue;
+    this.bestBound = bestBound;
+    this.multipliers = Collections.unmodifiableMap (new IdentityHashMap<Constraint, Double> (multipliers));
+    this.iterationsCount = iterationsCount;
+    this.converged = converged;
+    this.infeasible = infeasible;
+  }
+
+  /**
+   * @return whether a relaxed solution satisfied all dualized constraints
+   */
+  public boolean hasSolution () {
+    return values != null;
+  }
+
+  public double getVariableValue (final Variable variable) {
+    if (values == null) {
+      throw new IllegalStateException ("There is no solution available");
+    }
+
+    final Double value = values.get (variable);
+    if (value == null) {
+      throw new IllegalArgumentException ("Variable " + variable + " is not part of the program");
+    }
+    return value;
+  }
+
+  /**
+   * @return objective value of the best solution in the original program
+   */
+  public double getObjectiveValue () {
+    return objectiveValue;
+  }
+
+  /**
+   * @return best Lagrangian bound, which bounds the optimal objective value of the program
+   */
+  public double getBestBound () {
+    return bestBound;
+  }
+
+  /**
+   * @return multiplier of a dualized constraint which yielded the best bound
+   */
+  public double getMultiplier (final Constraint constraint) {
+    final Double multiplier = multipliers.get (constraint);
+    if (multiplier == null) {
+      throw new IllegalArgumentException ("Constraint " + constraint + " is not dualized");
+    }
+    return multiplier;
+  }
+
+  public int getIterationsCount () {
+    return iterationsCount;
+  }
+
+  /**
+   * @return whether the best solution is optimal within the optimality tolerance of the driver
+   */
+  public boolean isConverged () {
+    return converged;
+  }
+
+  /**
+   * @return whether a block has become infeasible, which proves the program to be infeasible
+   */
+  public boolean isInfeasible () {
+    return infeasible;
+  }
+}
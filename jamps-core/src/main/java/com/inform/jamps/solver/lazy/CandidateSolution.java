@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.lazy;
+
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.Variable;
+
+public interface CandidateSolution {
+
+  /**
+   * @return <code>true</code> for a candidate incumbent, <code>false</code> for the relaxation of a fractional node
+   */
+  boolean isIntegral ();
+
+  double getVariableValue (Variable variable);
+
+  /**
+   * Creates an empty expression for the left-hand side of a lazy constraint.
+   */
+  Expression createExpression ();
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.lazy;
+
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.Operator;
+
+/**
+ * Constraint of the form <code>lhs operator rhs</code> separated during the solve. A user cut only tightens the
+ * relaxation and must not cut off integer feasible solutions, a lazy constraint is part of the program itself.
+ */
+public class LazyConstraint {
+
+  private final Expression lhs;
+
+  private final Operator   operator;
+
+  private final double     rhs;
+
+  private final boolean    userCut;
+
+  public LazyConstraint (final Expression lhs,
+                         final Operator operator,
+                         final double rhs) {
+    this (lhs, operator, rhs, false);
+  }
+
+  public LazyConstraint (final Expression lhs,
+                         final Operator operator,
+                         final double rhs,
+                         final boolean userCut) {
+    if (lhs == null) {
+      throw new IllegalArgumentException ("Parameter lhs is mandatory and may not be null");
+    }
+    if (operator == null) {
+      throw new IllegalArgumentException ("Parameter operator is mandatory and may not be null");
+    }
+
+    this.lhs = lhs;
+    this.operator = operator;
+    this.rhs = rhs;
+    this.userCut = userCut;
+  }
+
+  public Expression getLhs () {
+    return lhs;
+  }
+
+  public Operator getOperator () {
+    return operator;
+  }
+
+  public double getRhs () {
+    return rhs;
+  }
+
+  public boolean isUserCut () {
+    return userCut;
+  }
+
+  @Override
+  public String toString () {
+    return lhs + " " + operator + " " + rhs;
+  }
+}
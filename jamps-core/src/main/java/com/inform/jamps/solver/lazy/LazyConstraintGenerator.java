@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.lazy;
+
+import java.util.List;
+
+public interface LazyConstraintGenerator {
+
+  /**
+   * @return whether the generator should also be called with optimal relaxations of fractional nodes, in addition to
+   *         candidate incumbents
+   */
+  boolean isSeparatingNodeRelaxations ();
+
+  /**
+   * Returns constraints violated by the candidate, or an empty list if the candidate is feasible. Lazy constraints
+   * returned for a candidate incumbent reject it, user cuts are only added at fractional nodes.
+   */
+  List<LazyConstraint> separate (CandidateSolution candidate);
+}
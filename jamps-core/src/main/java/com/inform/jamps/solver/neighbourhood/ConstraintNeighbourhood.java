@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.neighbourhood;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.QuadraticTerm;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Frees all variables of randomly chosen constraints, so variables which interact with each other are optimized
+ * together.
+ */
+public class ConstraintNeighbourhood implements Neighbourhood {
+
+  private final int constraintsCount;
+
+  public ConstraintNeighbourhood (final int constraintsCount) {
+    if (constraintsCount < 1) {
+      throw new IllegalArgumentException ("Parameter constraintsCount must be positive");
+    }
+
+    this.constraintsCount = constraintsCount;
+  }
+
+  public int getConstraintsCount () {
+    return constraintsCount;
+  }
+
+  @Override
+  public Collection<? extends Variable> select (final Program program,
+                                                final Map<Variable, Double> incumbent,
+                                                final Random random) {
+    final List<? extends Constraint> constraints = program.getConstraints ();
+    if (constraints.size () != program.getConstraintsCount ()) {
+      throw new IllegalArgumentException ("Program " + program.getName () + " does not provide its constraints");
+    }
+
+    // Variables are compared by identity, as their hash codes depend on their bounds
+    final Set<Variable> selected = Collections.newSetFromMap (new IdentityHashMap<Variable, Boolean> ());
+    if (constraints.isEmpty ()) {
+      return selected;
+    }
+
+    for (int i = 0; i < constraintsCount; i++) {
+      final Constraint constraint = constraints.get (random.nextInt (constraints.size ()));
+      addVariables (constraint.getLhs (), selected);
+      addVariables (constraint.getRhs (), selected);
+    }
+    return selected;
+  }
+
+  private static void addVariables (final Expression expr,
+                                    final Set<Variable> selected) {
+    for (final LinearTerm term: expr.getLinearTerms ()) {
+      selected.add (term.getVariable ());
+    }
+    for (final QuadraticTerm term: expr.getQuadraticTerms ()) {
+      selected.add (term.getVariable1 ());
+      selected.add (term.getVariable2 ());
+    }
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.neighbourhood;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Random;
+
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Selects the part of a program which is optimized in the next step of a neighbourhood search. Implementations are
+ * called concurrently by several workers and must not change shared state besides the given random generator.
+ */
+public interface Neighbourhood {
+
+  /**
+   * @return variables of the program which stay free, all other integer variables are fixed to their incumbent value
+   */
+  Collection<? extends Variable> select (Program program,
+                                         Map<Variable, Double> incumbent,
+                                         Random random);
+
+}
@@ -0,0 +1,512 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.neighbourhood;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.inform.jamps.exception.SolverException;
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.GeneralConstraint;
+import com.inform.jamps.modeling.IndicatorConstraint;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.PiecewiseLinearTerm;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.QuadraticTerm;
+import com.inform.jamps.modeling.RangeConstraint;
+import com.inform.jamps.modeling.SOSConstraint;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.MathProgrammingSolverFactory;
+import com.inform.jamps.solver.Solution;
+import com.inform.jamps.solver.SolverParameters;
+
+/**
+ * Large neighbourhood search which improves an incumbent solution by fix-and-optimize steps. Every step selects a
+ * neighbourhood, fixes all other integer variables to their incumbent value by bound changes and solves the remaining
+ * sub-program, starting from the incumbent. The program keeps its native model, only bounds and initial values change
+ * between steps. Bounds are restored after every step, initial values keep the incumbent of the last step. The solver
+ * parameters should limit the runtime of a step, e.g. by a short time limit.
+ * <p>
+ * With more than one worker, every worker solves its own copy of the program and all workers run a step with
+ * different neighbourhoods concurrently. The best improvement of such a round becomes the new incumbent. The original
+ * program is not solved in this case and stays unchanged.
+ */
+public class NeighbourhoodSearch<P extends SolverParameters> {
+
+  protected final static int                       DEFAULT_MAX_ITERATIONS        = 100;
+
+  protected final static double                    DEFAULT_IMPROVEMENT_TOLERANCE = 1e-6;
+
+  private final MathProgrammingSolverFactory<?, P> factory;
+
+  private final P                                  parameters;
+
+  private final Program                            program;
+
+  private final ObjectiveSense                     sense;
+
+  private final Variable[]                         variables;
+
+  private final Map<Variable, Integer>             variableIndices;
+
+  private final List<Neighbourhood>                neighbourhoods                = new ArrayList<Neighbourhood> ();
+
+  private final List<Worker>                       workers                       = new ArrayList<Worker> ();
+
+  private final double[]                           incumbent;
+
+  private double                                   incumbentValue;
+
+  private int                                      maxIterations                 = DEFAULT_MAX_ITERATIONS;
+
+  private long                                     timeBudgetMillis;
+
+  private double                                   improvementTolerance          = DEFAULT_IMPROVEMENT_TOLERANCE;
+
+  private int                                      workersCount                  = 1;
+
+  private long                                     seed;
+
+  public NeighbourhoodSearch (final MathProgrammingSolverFactory<?, P> factory,
+                              final P parameters,
+                              final Program program,
+                              final Solution incumbent) {
+    if (factory == null) {
+      throw new IllegalArgumentException ("Parameter factory is mandatory and may not be null");
+    }
+    if (parameters == null) {
+      throw new IllegalArgumentException ("Parameter parameters is mandatory and may not be null");
+    }
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (incumbent == null) {
+      throw new IllegalArgumentException ("Parameter incumbent is mandatory and may not be null");
+    }
+    if (program.getObjectivesCount () == 0) {
+      throw new IllegalArgumentException ("Program " + program.getName () + " must contain at least one objective");
+    }
+
+    this.factory = factory;
+    this.parameters = parameters;
+    this.program = program;
+    this.sense = program.getObjectives ().get (0).getObjectiveSense ();
+
+    final List<? extends Variable> programVariables = program.getVariables ();
+    this.variables = programVariables.toArray (new Variable[programVariables.size ()]);
+    // Variables are compared by identity, as their hash codes depend on their bounds
+    this.variableIndices = new IdentityHashMap<Variable, Integer> (variables.length);
+    this.incumbent = new double[variables.length];
+    for (int i = 0; i < variables.length; i++) {
+      variableIndices.put (variables[i], i);
+      this.incumbent[i] = incumbent.getVariableValue (variables[i]);
+    }
+    this.incumbentValue = incumbent.getObjectiveValue ();
+  }
+
+  public NeighbourhoodSearch<P> addNeighbourhood (final Neighbourhood neighbourhood) {
+    if (neighbourhood == null) {
+      throw new IllegalArgumentException ("Parameter neighbourhood is mandatory and may not be null");
+    }
+
+    neighbourhoods.add (neighbourhood);
+    return this;
+  }
+
+  public List<Neighbourhood> getNeighbourhoods () {
+    return new ArrayList<Neighbourhood> (neighbourhoods);
+  }
+
+  public int getMaxIterations () {
+    return maxIterations;
+  }
+
+  /**
+   * Maximum number of rounds, each of which solves one sub-program per worker.
+   */
+  public void setMaxIterations (final int maxIterations) {
+    if (maxIterations < 0) {
+      throw new IllegalArgumentException ("Parameter maxIterations may not be negative");
+    }
+
+    this.maxIterations = maxIterations;
+  }
+
+  public long getTimeBudgetMillis () {
+    return timeBudgetMillis;
+  }
+
+  /**
+   * No further round is started once the time budget is used up. A value of 0 runs until the iteration limit.
+   */
+  public void setTimeBudgetMillis (final long timeBudgetMillis) {
+    if (timeBudgetMillis < 0) {
+      throw new IllegalArgumentException ("Parameter timeBudgetMillis may not be negative");
+    }
+
+    this.timeBudgetMillis = timeBudgetMillis;
+  }
+
+  public double getImprovementTolerance () {
+    return improvementTolerance;
+  }
+
+  /**
+   * Relative improvement of the objective value a solution needs to replace the incumbent.
+   */
+  public void setImprovementTolerance (final double improvementTolerance) {
+    if (improvementTolerance < 0.0) {
+      throw new IllegalArgumentException ("Parameter improvementTolerance may not be negative");
+    }
+
+    this.improvementTolerance = improvementTolerance;
+  }
+
+  public int getWorkersCount () {
+    return workersCount;
+  }
+
+  /**
+   * Number of concurrent steps. A single worker solves the program itself, several workers solve copies of it.
+   */
+  public void setWorkersCount (final int workersCount) {
+    if (workersCount < 1) {
+      throw new IllegalArgumentException ("Parameter workersCount must be positive");
+    }
+
+    this.workersCount = workersCount;
+  }
+
+  public long getSeed () {
+    return seed;
+  }
+
+  public void setSeed (final long seed) {
+    this.seed = seed;
+  }
+
+  public NeighbourhoodSearchResult run () {
+    if (neighbourhoods.isEmpty ()) {
+      throw new IllegalStateException ("At least one neighbourhood is required for the search");
+    }
+
+    // Concurrent workers only read the original program, so neighbourhoods can select from it while copies are solved
+    final boolean solveCopies = workersCount > 1;
+    if (!workers.isEmpty () && (workers.get (0).workerProgram == program) == solveCopies) {
+      workers.clear ();
+    }
+    while (workers.size () < workersCount) {
+      final int index = workers.size ();
+      if (solveCopies) {
+        final Variable[] copies = new Variable[variables.length];
+        workers.add (new Worker (copyProgram (index, copies), copies, new Random (seed + index)));
+      } else {
+        workers.add (new Worker (program, variables, new Random (seed)));
+      }
+    }
+
+    final long startTime = System.currentTimeMillis ();
+    final ExecutorService executor = (workersCount > 1) ? Executors.newFixedThreadPool (workersCount) : null;
+    int improvementsCount = 0;
+    int iteration = 0;
+
+    try {
+      while (iteration < maxIterations &&
+             (timeBudgetMillis == 0 || System.currentTimeMillis () - startTime < timeBudgetMillis)) {
+        final Map<Variable, Double> incumbentValues = createValuesMap (incumbent);
+        final List<Candidate> candidates = new ArrayList<Candidate> (workersCount);
+
+        if (executor == null) {
+          candidates.add (workers.get (0).search (neighbourhoods.get (iteration % neighbourhoods.size ()),
+                                                  incumbentValues));
+        } else {
+          final List<Future<Candidate>> futures = new ArrayList<Future<Candidate>> (workersCount);
+          for (int i = 0; i < workersCount; i++) {
+            final Worker worker = workers.get (i);
+            final Neighbourhood neighbourhood = neighbourhoods.get ((iteration * workersCount + i) %
+                                                                   neighbourhoods.size ());
+            futures.add (executor.submit (new Callable<Candidate> () {
+
+              @Override
+              public Candidate call () {
+                return worker.search (neighbourhood, incumbentValues);
+              }
+            }));
+          }
+
+          for (final Future<Candidate> future: futures) {
+            candidates.add (awaitWorker (future));
+          }
+        }
+        iteration++;
+
+        Candidate best = null;
+        for (final Candidate candidate: candidates) {
+          if (candidate != null && isImprovement (candidate.objectiveValue, (best == null) ? incumbentValue
+                                                                                          : best.objectiveValue)) {
+            best = candidate;
+          }
+        }
+
+        if (best != null) {
+          System.arraycopy (best.values, 0, incumbent, 0, incumbent.length);
+          incumbentValue = best.objectiveValue;
+          improvementsCount++;
+        }
+      }
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow ();
+      }
+    }
+
+    return new NeighbourhoodSearchResult (createValuesMap (incumbent), incumbentValue, iteration, improvementsCount);
+  }
+
+  /**
+   * @return whether variables of the given type only take integer values and are fixed outside of a neighbourhood
+   */
+  protected static boolean isIntegral (final VariableType type) {
+    return type == VariableType.BINARY || type == VariableType.INTEGER || type == VariableType.SEMI_INTEGER;
+  }
+
+  private boolean isImprovement (final double value,
+                                 final double reference) {
+    final double tolerance = improvementTolerance * Math.max (1.0, Math.abs (reference));
+    if (sense == ObjectiveSense.MINIMIZE) {
+      return value < reference - tolerance;
+    }
+    return value > reference + tolerance;
+  }
+
+  private Map<Variable, Double> createValuesMap (final double[] values) {
+    final Map<Variable, Double> map = new IdentityHashMap<Variable, Double> (values.length);
+    for (int i = 0; i < values.length; i++) {
+      map.put (variables[i], values[i]);
+    }
+    return Collections.unmodifiableMap (map);
+  }
+
+  /**
+   * @return copy of the program, with the copies of the variables in the given array
+   */
+  private Program copyProgram (final int index,
+                               final Variable[] variableCopies) {
+    final Program copy = factory.createProgram (program.getName () + "_worker" + index);
+    final Map<Variable, Variable> copies = new IdentityHashMap<Variable, Variable> (variables.length);
+    for (int i = 0; i < variables.length; i++) {
+      final Variable var = variables[i];
+      variableCopies[i] = copy.addVariable (var.getName (), var.getType (), var.getLowerBound (),
+                                            var.getUpperBound ());
+      if (var.hasInitialValue ()) {
+        variableCopies[i].setInitialValue (var.getInitialValue ());
+      }
+      copies.put (var, variableCopies[i]);
+    }
+
+    // Objectives are compared by identity, as their hash codes depend on their expressions
+    final Map<Objective, Objective> objectiveCopies = new IdentityHashMap<Objective, Objective> ();
+    for (final Objective objective: program.getObjectives ()) {
+      final Objective objectiveCopy = copy.addObjective (objective.getName (), objective.getObjectiveSense ());
+      objectiveCopy.setPriority (objective.getPriority ());
+      objectiveCopy.setWeight (objective.getWeight ());
+      objectiveCopy.setAbsoluteTolerance (objective.getAbsoluteTolerance ());
+      objectiveCopy.setRelativeTolerance (objective.getRelativeTolerance ());
+      copyTerms (objective.getExpression (), objectiveCopy.getExpression (), copies);
+      objectiveCopies.put (objective, objectiveCopy);
+    }
+
+    final List<? extends Constraint> constraints = program.getConstraints ();
+    if (constraints.size () != program.getConstraintsCount ()) {
+      throw new IllegalArgumentException ("Program " + program.getName () + " does not provide its constraints");
+    }
+    for (final Constraint constraint: constraints) {
+      final Constraint constraintCopy = copy.addConstraint (constraint.getName (), constraint.getOperator ());
+      copyTerms (constraint.getLhs (), constraintCopy.getLhs (), copies);
+      copyTerms (constraint.getRhs (), constraintCopy.getRhs (), copies);
+    }
+
+    for (final RangeConstraint constraint: program.getRangeConstraints ()) {
+      final RangeConstraint constraintCopy = copy.addRangeConstraint (constraint.getName (),
+                                                                      constraint.getLowerBound (),
+                                                                      constraint.getUpperBound ());
+      copyTerms (constraint.getExpression (), constraintCopy.getExpression (), copies);
+    }
+    if (program.hasGeneralConstraints ()) {
+      copyGeneralConstraints (copy, copies, objectiveCopies);
+    }
+    return copy;
+  }
+
+  private void copyGeneralConstraints (final Program copy,
+                                       final Map<Variable, Variable> copies,
+                                       final Map<Objective, Objective> objectiveCopies) {
+    for (final IndicatorConstraint constraint: program.getIndicatorConstraints ()) {
+      final Constraint constraintCopy = copy.addIndicatorConstraint (constraint.getName (),
+                                                                     copies.get (constraint.getIndicatorVariable ()),
+                                                                     constraint.getIndicatorValue (),
+                                                                     constraint.getOperator ());
+      copyTerms (constraint.getLhs (), constraintCopy.getLhs (), copies);
+      copyTerms (constraint.getRhs (), constraintCopy.getRhs (), copies);
+    }
+    for (final SOSConstraint constraint: program.getSOSConstraints ()) {
+      copy.addSOSConstraint (constraint.getName (), constraint.getType (),
+                             copyVariables (constraint.getVariables (), copies), constraint.getWeights ());
+    }
+    for (final GeneralConstraint constraint: program.getGeneralConstraints ()) {
+      copy.addGeneralConstraint (constraint.getName (), constraint.getType (), copies.get (constraint.getResultant ()),
+                                 copyVariables (constraint.getOperands (), copies), constraint.getConstant ());
+    }
+    for (final PiecewiseLinearTerm term: program.getPiecewiseLinearTerms ()) {
+      copy.addPiecewiseLinearTerm (objectiveCopies.get (term.getObjective ()), copies.get (term.getVariable ()),
+                                   term.getPoints (), term.getValues ());
+    }
+  }
+
+  private static Variable[] copyVariables (final List<? extends Variable> variables,
+                                           final Map<Variable, Variable> copies) {
+    final Variable[] result = new Variable[variables.size ()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = copies.get (variables.get (i));
+    }
+    return result;
+  }
+
+  private static void copyTerms (final Expression source,
+                                 final Expression target,
+                                 final Map<Variable, Variable> copies) {
+    for (final LinearTerm term: source.getLinearTerms ()) {
+      target.addTerm (term.getCoefficient (), copies.get (term.getVariable ()));
+    }
+    for (final QuadraticTerm term: source.getQuadraticTerms ()) {
+      target.addTerm (term.getCoefficient (), copies.get (term.getVariable1 ()), copies.get (term.getVariable2 ()));
+    }
+    target.addTerm (source.getConstant ());
+  }
+
+  private static Candidate awaitWorker (final Future<Candidate> future) {
+    try {
+      return future.get ();
+    } catch (InterruptedException e) {
+      Thread.currentThread ().interrupt ();
+      throw new SolverException ("Interrupted while solving sub-programs", e);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause ();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new SolverException ("Unable to solve sub-program", cause);
+    }
+  }
+
+  private static class Candidate {
+
+    private final double[] values;
+
+    private final double   objectiveValue;
+
+    private Candidate (final double[] values,
+                       final double objectiveValue) {
+      this.values = values;
+      this.objectiveValue = objectiveValue;
+    }
+  }
+
+  /**
+   * Solves steps on its own program, whose variables are aligned with the variables of the original program.
+   */
+  private class Worker {
+
+    private final Program    workerProgram;
+
+    private final Variable[] workerVariables;
+
+    private final Random     random;
+
+    private Worker (final Program workerProgram,
+                    final Variable[] workerVariables,
+                    final Random random) {
+      this.workerProgram = workerProgram;
+      this.workerVariables = workerVariables;
+      this.random = random;
+    }
+
+    private Candidate search (final Neighbourhood neighbourhood,
+                              final Map<Variable, Double> incumbentValues) {
+      final boolean[] free = new boolean[variables.length];
+      final Collection<? extends Variable> selected = neighbourhood.select (program, incumbentValues, random);
+      for (final Variable var: selected) {
+        final Integer index = variableIndices.get (var);
+        if (index == null) {
+          throw new IllegalArgumentException ("Neighbourhood selected variable " + var + " of a different program");
+        }
+        free[index] = true;
+      }
+
+      int fixedCount = 0;
+      for (int i = 0; i < variables.length; i++) {
+        if (!free[i] && isIntegral (variables[i].getType ())) {
+          fixedCount++;
+        }
+      }
+
+      final Variable[] fixedVariables = new Variable[fixedCount];
+      final double[] fixedValues = new double[fixedCount];
+      final double[] lowerBounds = new double[fixedCount];
+      final double[] upperBounds = new double[fixedCount];
+      for (int i = 0, j = 0; i < variables.length; i++) {
+        if (!free[i] && isIntegral (variables[i].getType ())) {
+          fixedVariables[j] = workerVariables[i];
+          fixedValues[j] = Math.round (incumbent[i]);
+          lowerBounds[j] = workerVariables[i].getLowerBound ();
+          upperBounds[j] = workerVariables[i].getUpperBound ();
+          j++;
+        }
+      }
+
+      workerProgram.setBounds (fixedVariables, fixedValues, fixedValues);
+      workerProgram.setInitialValues (workerVariables, incumbent.clone ());
+      try {
+        final ExecutionResult<Program> result = factory.createSolver ().solve (parameters, workerProgram);
+        if (!result.hasSolution ()) {
+          return null;
+        }
+
+        final Solution solution = result.getBestSolution ();
+        final double[] values = new double[workerVariables.length];
+        for (int i = 0; i < workerVariables.length; i++) {
+          values[i] = solution.getVariableValue (workerVariables[i]);
+        }
+        return new Candidate (values, solution.getObjectiveValue ());
+      } finally {
+        workerProgram.setBounds (fixedVariables, lowerBounds, upperBounds);
+      }
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.neighbourhood;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Frees a random share of the integer variables.
+ */
+public class RandomNeighbourhood implements Neighbourhood {
+
+  private final double fraction;
+
+  public RandomNeighbourhood (final double fraction) {
+    if (fraction <= 0.0 || fraction > 1.0) {
+      throw new IllegalArgumentException ("Parameter fraction must be in range (0, 1]");
+    }
+
+    this.fraction = fraction;
+  }
+
+  public double getFraction () {
+    return fraction;
+  }
+
+  @Override
+  public Collection<? extends Variable> select (final Program program,
+                                                final Map<Variable, Double> incumbent,
+                                                final Random random) {
+    final List<Variable> candidates = new ArrayList<Variable> ();
+    for (final Variable var: program.getVariables ()) {
+      if (NeighbourhoodSearch.isIntegral (var.getType ())) {
+        candidates.add (var);
+      }
+    }
+
+    // Partial shuffle, the selected variables end up at the front of the list
+    final int count = Math.max (1, (int) Math.round (fraction * candidates.size ()));
+    for (int i = 0; i < count && i < candidates.size (); i++) {
+      final int swap = i + random.nextInt (candidates.size () - i);
+      final Variable var = candidates.get (swap);
+      candidates.set (swap, candidates.get (i));
+      candidates.set (i, var);
+    }
+    return candidates.subList (0, Math.min (count, candidates.size ()));
+  }
+}
@@ -0,0 +1,438 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+
+/**
+ * Tightens variable bounds by the minimum and maximum activities of the linear constraints. Rows whose variables have
+ * changed bounds are revisited from a worklist until no bound improves significantly anymore, bounds of integer and
+ * binary variables are rounded. A constraint which cannot be satisfied within the bounds of its variables is reported
+ * as infeasibility without calling any solver.
+ * <p>
+ * Constraints with quadratic terms are ignored, bounds of semi-continuous and semi-integer variables are never
+ * tightened. The bounds of the program are only changed by {@link #applyBounds()}, so the propagator can be used for
+ * heuristics which try several bound changes. Once infeasibility has been detected, a new propagator is required.
+ */
+public class BoundPropagator {
+
+  protected final static double        DEFAULT_TOLERANCE = 1e-6;
+
+  protected final static double        MIN_IMPROVEMENT   = 1e-3;
+
+  protected final static int           MAX_PASSES_COUNT  = 20;
+
+  private final Variable[]             variables;
+
+  private final Map<Variable, Integer> variableIndices;
+
+  private final double[]               lowerBounds;
+
+  private final double[]               upperBounds;
+
+  private final Constraint[]           constraints;
+
+  private final int[][]                rowIndices;
+
+  private final double[][]             rowValues;
+
+  private final int[]                  rowLengths;
+
+  private final Operator[]             operators;
+
+  private final double[]               rightHandSides;
+
+  private final boolean[]              activeRows;
+
+  private final int[][]                columnRows;
+
+  private final boolean[]              queuedRows;
+
+  private final Queue<Integer>         worklist          = new ArrayDeque<Integer> ();
+
+  private double                       tolerance         = DEFAULT_TOLERANCE;
+
+  private int                          tightenedBoundsCount;
+
+  private String                       infeasibilityReason;
+
+  public BoundPropagator (final Program program) {
+    this (new ProgramRows (program));
+  }
+
+  private BoundPropagator (final ProgramRows rows) {
+    this (rows.getVariables (), rows.getVariableIndices (), rows.getLowerBounds (), rows.getUpperBounds (),
+          rows.getConstraints (), rows.getRowIndices (), rows.getRowValues (), rows.getRowLengths (),
+          rows.getOperators (), rows.getRightHandSides (), rows.getLinearRows (), rows.getColumnRows ());
+  }
+
+  /**
+   * Creates a propagator on rows of the form sum of coefficient * variable (operator) right-hand side, which share
+   * the given bound arrays. Only the first row length entries of a row are considered.
+   */
+  protected BoundPropagator (final Variable[] variables,
+                             final Map<Variable, Integer> variableIndices,
+                             final double[] lowerBounds,
+                             final double[] upperBounds,
+                             final Constraint[] constraints,
+                             final int[][] rowIndices,
+                             final double[][] rowValues,
+                             final int[] rowLengths,
+                             final Operator[] operators,
+                             final double[] rightHandSides,
+                             final boolean[] activeRows,
+                             final int[][] columnRows) {
+    this.variables = variables;
+    this.variableIndices = variableIndices;
+    this.lowerBounds = lowerBounds;
+    this.upperBounds = upperBounds;
+    this.constraints = constraints;
+    this.rowIndices = rowIndices;
+    this.rowValues = rowValues;
+    this.rowLengths = rowLengths;
+    this.operators = operators;
+    this.rightHandSides = rightHandSides;
+    this.activeRows = activeRows;
+    this.columnRows = columnRows;
+    this.queuedRows = new boolean[rowLengths.length];
+    enqueueActiveRows ();
+  }
+
+  private void enqueueActiveRows () {
+    for (int r = 0; r < activeRows.length; r++) {
+      if (activeRows[r]) {
+        queuedRows[r] = true;
+        worklist.add (r);
+      }
+    }
+  }
+
+  public double getTolerance () {
+    return tolerance;
+  }
+
+  /**
+   * Absolute tolerance for violated constraints and the rounding of integral bounds.
+   */
+  public void setTolerance (final double tolerance) {
+    if (tolerance < 0.0) {
+      throw new IllegalArgumentException ("Parameter tolerance may not be negative");
+    }
+
+    this.tolerance = tolerance;
+  }
+
+  public double getLowerBound (final Variable variable) {
+    return lowerBounds[getIndex (variable)];
+  }
+
+  public double getUpperBound (final Variable variable) {
+    return upperBounds[getIndex (variable)];
+  }
+
+  /**
+   * Changes the bounds of a variable for the next propagation, e.g. to fix a variable within a heuristic.
+   */
+  public void setBounds (final Variable variable,
+                         final double lowerBound,
+                         final double upperBound) {
+    final int j = getIndex (variable);
+    lowerBounds[j] = lowerBound;
+    upperBounds[j] = upperBound;
+    if (lowerBound > upperBound + tolerance) {
+      infeasibilityReason = "Variable " + variable.getName () + " has a lower bound above its upper bound";
+    }
+    enqueueRows (j);
+  }
+
+  public boolean isInfeasible () {
+    return infeasibilityReason != null;
+  }
+
+  public String getInfeasibilityReason () {
+    return infeasibilityReason;
+  }
+
+  public int getTightenedBoundsCount () {
+    return tightenedBoundsCount;
+  }
+
+  /**
+   * Propagates the bound changes of all rows on the worklist. The number of row visits is limited, so slowly
+   * converging bounds of continuous variables do not keep the propagation busy.
+   *
+   * @return false if a constraint cannot be satisfied within the bounds of its variables
+   */
+  public boolean propagate () {
+    int visitsCount = MAX_PASSES_COUNT * Math.max (1, rowLengths.length);
+    while (infeasibilityReason == null && !worklist.isEmpty () && visitsCount-- > 0) {
+      final int r = worklist.poll ();
+      queuedRows[r] = false;
+      propagateRow (r);
+    }
+    return infeasibilityReason == null;
+  }
+
+  /**
+   * Writes the tightened bounds to the variables of the program.
+   */
+  public void applyBounds () {
+    if (isInfeasible ()) {
+      throw new IllegalStateException ("Bounds of an infeasible program cannot be applied");
+    }
+
+    for (int j = 0; j < variables.length; j++) {
+      final Variable var = variables[j];
+      if (lowerBounds[j] != var.getLowerBound ()) {
+        var.setLowerBound (lowerBounds[j]);
+      }
+      if (upperBounds[j] != var.getUpperBound ()) {
+        var.setUpperBound (upperBounds[j]);
+      }
+    }
+  }
+
+  private int getIndex (final Variable variable) {
+    final Integer index = variableIndices.get (variable);
+    if (index == null) {
+      throw new IllegalArgumentException ("Variable " + variable.getName () + " is not part of the program");
+    }
+    return index;
+  }
+
+  private void enqueueRows (final int j) {
+    for (final int r: columnRows[j]) {
+      if (activeRows[r] && !queuedRows[r]) {
+        queuedRows[r] = true;
+        worklist.add (r);
+      }
+    }
+  }
+
+  private void propagateRow (final int r) {
+    final int[] indices = rowIndices[r];
+    final double[] values = rowValues[r];
+    final int length = rowLengths[r];
+
+    // Infinite contributions are counted separately, so the activity without a single variable stays available
+    double minActivity = 0.0;
+    double maxActivity = 0.0;
+    int minInfinitiesCount = 0;
+    int maxInfinitiesCount = 0;
+    for (int i = 0; i < length; i++) {
+      final double minContribution = getMinContribution (indices[i], values[i]);
+      final double maxContribution = getMaxContribution (indices[i], values[i]);
+      if (Double.isInfinite (minContribution)) {
+        minInfinitiesCount++;
+      } else {
+        minActivity += minContribution;
+      }
+      if (Double.isInfinite (maxContribution)) {
+        maxInfinitiesCount++;
+      } else {
+        maxActivity += maxContribution;
+      }
+    }
+
+    final double rhs = rightHandSides[r];
+    final boolean hasUpperLimit = operators[r] != Operator.GREATER_EQUALS;
+    final boolean hasLowerLimit = operators[r] != Operator.LESS_EQUALS;
+    if ((hasUpperLimit && minInfinitiesCount == 0 && minActivity > rhs + tolerance) ||
+        (hasLowerLimit && maxInfinitiesCount == 0 && maxActivity < rhs - tolerance)) {
+      infeasibilityReason = "Constraint " + constraints[r].getName () +
+                            " cannot be satisfied within the bounds of its variables";
+      return;
+    }
+
+    for (int i = 0; i < length && infeasibilityReason == null; i++) {
+      final int j = indices[i];
+      final double coefficient = values[i];
+      if (isSemi (j)) {
+        continue;
+      }
+
+      if (hasUpperLimit) {
+        final double residual = getResidualActivity (minActivity, minInfinitiesCount,
+                                                     getMinContribution (j, coefficient));
+        if (!Double.isInfinite (residual)) {
+          tightenBound (r, j, (rhs - residual) / coefficient, coefficient > 0.0);
+        }
+      }
+      if (hasLowerLimit && infeasibilityReason == null) {
+        final double residual = getResidualActivity (maxActivity, maxInfinitiesCount,
+                                                     getMaxContribution (j, coefficient));
+        if (!Double.isInfinite (residual)) {
+          tightenBound (r, j, (rhs - residual) / coefficient, coefficient < 0.0);
+        }
+      }
+    }
+  }
+
+  /**
+   * Tightens the coefficients of binary variables in inequalities, which is only valid for the current bounds. If an
+   * inequality is redundant for one value of a binary variable, its coefficient and the right-hand side are reduced
+   * until the inequality is just redundant, e.g. the big-M in x - M * y &lt;= 0 becomes the upper bound of x.
+   */
+  protected void tightenCoefficients (final CoefficientTighteningReport report) {
+    for (int r = 0; r < rowLengths.length; r++) {
+      if (activeRows[r] && operators[r] != Operator.EQUALS) {
+        tightenCoefficients (r, report);
+      }
+    }
+  }
+
+  private void tightenCoefficients (final int r,
+                                    final CoefficientTighteningReport report) {
+    // Greater-equal rows are negated, so the row is sum of sign * coefficient * variable <= sign * right-hand side
+    final double sign = (operators[r] == Operator.LESS_EQUALS) ? 1.0 : -1.0;
+    final int[] indices = rowIndices[r];
+    final double[] values = rowValues[r];
+
+    double maxActivity = 0.0;
+    for (int i = 0; i < rowLengths[r]; i++) {
+      maxActivity += getMaxContribution (indices[i], sign * values[i]);
+    }
+    if (Double.isInfinite (maxActivity) || Double.isNaN (maxActivity)) {
+      return;
+    }
+
+    for (int i = 0; i < rowLengths[r]; i++) {
+      final int j = indices[i];
+      if (variables[j].getType () != VariableType.BINARY || lowerBounds[j] != 0.0 || upperBounds[j] != 1.0) {
+        continue;
+      }
+
+      final double coefficient = sign * values[i];
+      final double rhs = sign * rightHandSides[r];
+      if (maxActivity <= rhs + tolerance) {
+        return;
+      }
+
+      // Maximum activity if the variable takes the value which contributes less
+      final double reducedActivity = maxActivity - Math.max (coefficient, 0.0) + Math.min (coefficient, 0.0);
+      final double slack = rhs - reducedActivity;
+      if (slack <= tolerance) {
+        continue;
+      }
+
+      if (coefficient > 0.0) {
+        values[i] = sign * (coefficient - slack);
+        rightHandSides[r] = sign * (rhs - slack);
+        maxActivity -= slack;
+      } else {
+        values[i] = sign * (coefficient + slack);
+      }
+      report.addChange (new CoefficientTighteningReport.CoefficientChange (constraints[r], variables[j],
+                                                                          sign * coefficient, values[i],
+                                                                          sign * rhs, rightHandSides[r]));
+    }
+  }
+
+  /**
+   * @return activity of the row without the given contribution, or infinity if it is unbounded
+   */
+  private static double getResidualActivity (final double activity,
+                                             final int infinitiesCount,
+                                             final double contribution) {
+    if (infinitiesCount == 0) {
+      return activity - contribution;
+    }
+    if (infinitiesCount == 1 && Double.isInfinite (contribution)) {
+      return activity;
+    }
+    return Double.POSITIVE_INFINITY;
+  }
+
+  private double getMinContribution (final int j,
+                                     final double coefficient) {
+    return coefficient * ((coefficient > 0.0) ? getActivityLowerBound (j) : getActivityUpperBound (j));
+  }
+
+  private double getMaxContribution (final int j,
+                                     final double coefficient) {
+    return coefficient * ((coefficient > 0.0) ? getActivityUpperBound (j) : getActivityLowerBound (j));
+  }
+
+  // Semi-continuous and semi-integer variables may be 0 outside of their bounds
+  private double getActivityLowerBound (final int j) {
+    return isSemi (j) ? Math.min (0.0, lowerBounds[j]) : lowerBounds[j];
+  }
+
+  private double getActivityUpperBound (final int j) {
+    return isSemi (j) ? Math.max (0.0, upperBounds[j]) : upperBounds[j];
+  }
+
+  private boolean isSemi (final int j) {
+    final VariableType type = variables[j].getType ();
+    return type == VariableType.SEMI_CONTINUOUS || type == VariableType.SEMI_INTEGER;
+  }
+
+  private boolean isIntegral (final int j) {
+    final VariableType type = variables[j].getType ();
+    return type == VariableType.INTEGER || type == VariableType.BINARY;
+  }
+
+  private void tightenBound (final int r,
+                             final int j,
+                             final double bound,
+                             final boolean upper) {
+    double value = bound;
+    if (isIntegral (j)) {
+      value = upper ? Math.floor (value + tolerance) : Math.ceil (value - tolerance);
+    }
+
+    final double opposite = upper ? lowerBounds[j] : upperBounds[j];
+    if (upper ? value < opposite - tolerance : value > opposite + tolerance) {
+      infeasibilityReason = "Constraint " + constraints[r].getName () + " requires variable " +
+                            variables[j].getName () + " to be " + (upper ? "at most " : "at least ") + value +
+                            ", which violates its " + (upper ? "lower" : "upper") + " bound";
+      return;
+    }
+
+    final double previous = upper ? upperBounds[j] : lowerBounds[j];
+    if (!(upper ? value < previous : value > previous) || !isImprovement (j, previous, value)) {
+      return;
+    }
+
+    // Bounds which cross within the tolerance are joined
+    if (upper) {
+      upperBounds[j] = Math.max (value, opposite);
+    } else {
+      lowerBounds[j] = Math.min (value, opposite);
+    }
+    tightenedBoundsCount++;
+    enqueueRows (j);
+  }
+
+  private boolean isImprovement (final int j,
+                                 final double previous,
+                                 final double value) {
+    if (Double.isInfinite (previous)) {
+      return true;
+    }
+
+    if (isIntegral (j)) {
+      return Math.abs (previous - value) > 0.5;
+    }
+    return Math.abs (previous - value) > Math.max (tolerance, MIN_IMPROVEMENT * Math.max (1.0, Math.abs (previous)));
+  }
+}
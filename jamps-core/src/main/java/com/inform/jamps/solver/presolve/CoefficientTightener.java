@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.solver.presolve.CoefficientTighteningReport.CoefficientChange;
+
+/**
+ * Reformulates a program in place by tightening big-M and knapsack coefficients of binary variables, see
+ * {@link BoundPropagator#tightenCoefficients(CoefficientTighteningReport)}. The tightened coefficients are only valid
+ * for the propagated bounds, so these bounds are applied to the program as well. Use
+ * {@link Presolver#setCoefficientTightening(boolean)} to keep the original program unchanged.
+ */
+public class CoefficientTightener {
+
+  private double tolerance = BoundPropagator.DEFAULT_TOLERANCE;
+
+  public double getTolerance () {
+    return tolerance;
+  }
+
+  public void setTolerance (final double tolerance) {
+    if (tolerance < 0.0) {
+      throw new IllegalArgumentException ("Parameter tolerance may not be negative");
+    }
+
+    this.tolerance = tolerance;
+  }
+
+  /**
+   * @return report of the changed coefficients, or of the infeasibility detected by bound propagation in which case
+   *         the program remains unchanged
+   */
+  public CoefficientTighteningReport tighten (final Program program) {
+    final BoundPropagator propagator = new BoundPropagator (program);
+    propagator.setTolerance (tolerance);
+
+    final CoefficientTighteningReport report = new CoefficientTighteningReport ();
+    if (!propagator.propagate ()) {
+      report.setInfeasibilityReason (propagator.getInfeasibilityReason ());
+      return report;
+    }
+
+    propagator.tightenCoefficients (report);
+    propagator.applyBounds ();
+
+    // Differences go to the left-hand side, so it does not matter on which side the variable has been
+    for (final CoefficientChange change: report.getChanges ()) {
+      final Constraint constraint = change.getConstraint ();
+      constraint.getLhs ().addTerm (change.getCoefficient () - change.getPreviousCoefficient (), change.getVariable ());
+      constraint.getRhs ().addTerm (change.getRightHandSide () - change.getPreviousRightHandSide ());
+    }
+    return report;
+  }
+}
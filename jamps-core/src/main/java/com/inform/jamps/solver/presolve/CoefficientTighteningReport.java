@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Coefficients changed by coefficient tightening. Coefficients and right-hand sides refer to the constraint in the
+ * form sum of coefficient * variable (operator) right-hand side, with all terms moved to the left-hand side.
+ */
+public class CoefficientTighteningReport {
+
+  private final List<CoefficientChange> changes = new ArrayList<CoefficientChange> ();
+
+  private String                        infeasibilityReason;
+
+  protected CoefficientTighteningReport () {
+    super ();
+  }
+
+  protected void addChange (final CoefficientChange change) {
+    changes.add (change);
+  }
+
+  protected void setInfeasibilityReason (final String infeasibilityReason) {
+    this.infeasibilityReason = infeasibilityReason;
+  }
+
+  public List<CoefficientChange> getChanges () {
+    return new ArrayList<CoefficientChange> (changes);
+  }
+
+  public int getChangesCount () {
+    return changes.size ();
+  }
+
+  /**
+   * @return true if bound propagation has proven the program to be infeasible, so no coefficients have been changed
+   */
+  public boolean isInfeasible () {
+    return infeasibilityReason != null;
+  }
+
+  public String getInfeasibilityReason () {
+    return infeasibilityReason;
+  }
+
+  @Override
+  public String toString () {
+    if (infeasibilityReason != null) {
+      return infeasibilityReason;
+    }
+
+    final StringBuilder sb = new StringBuilder (100 * (changes.size () + 1));
+    sb.append (changes.size ());
+    sb.append (" coefficients tightened");
+    for (final CoefficientChange change: changes) {
+      sb.append ('\n');
+      sb.append (change);
+    }
+    return sb.toString ();
+  }
+
+  public static class CoefficientChange {
+
+    private final Constraint constraint;
+
+    private final Variable   variable;
+
+    private final double     previousCoefficient;
+
+    private final double     coefficient;
+
+    private final double     previousRightHandSide;
+
+    private final double     rightHandSide;
+
+    protected CoefficientChange (final Constraint constraint,
+                                 final Variable variable,
+                                 final double previousCoefficient,
+                                 final double coefficient,
+                                 final double previousRightHandSide,
+                                 final double rightHandSide) {
+      this.constraint = constraint;
+      this.variable = variable;
+      this.previousCoefficient = previousCoefficient;
+      this.coefficient = coefficient;
+      this.previousRightHandSide = previousRightHandSide;
+      this.rightHandSide = rightHandSide;
+    }
+
+    public Constraint getConstraint () {
+      return constraint;
+    }
+
+    public Variable getVariable () {
+      return variable;
+    }
+
+    public double getPreviousCoefficient () {
+      return previousCoefficient;
+    }
+
+    public double getCoefficient () {
+      return coefficient;
+    }
+
+    public double getPreviousRightHandSide () {
+      return previousRightHandSide;
+    }
+
+    public double getRightHandSide () {
+      return rightHandSide;
+    }
+
+    @Override
+    public String toString () {
+      return "Constraint " + constraint.getName () + ": coefficient of " + variable.getName () + " " +
+             previousCoefficient + " -> " + coefficient + ", right-hand side " + previousRightHandSide + " -> " +
+             rightHandSide;
+    }
+  }
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Finds parallel constraints and variables by hashing normalized rows and columns in time linear in the number of
+ * coefficients. A row is normalized by dividing it by the coefficient of its first variable, which flips the operator
+ * of inequalities for negative coefficients. Rows with equal hash are compared with tolerance afterwards.
+ * <p>
+ * Within a group of parallel constraints, the tightest inequality of each direction or a single equality implies all
+ * others, which are reported as redundant. Parallel variables are only reported, merging them would require to split
+ * their values after solving.
+ */
+public class DuplicateDetector {
+
+  protected final static double DEFAULT_TOLERANCE = 1e-9;
+
+  protected final static double HASH_SCALE        = 1e6;
+
+  private final Program         program;
+
+  private final Variable[]      variables;
+
+  private final boolean[]       activeVariables;
+
+  private final double[][]      costs;
+
+  private final Constraint[]    constraints;
+
+  private final int[][]         rowIndices;
+
+  private final double[][]      rowValues;
+
+  private final int[]           rowLengths;
+
+  private final Operator[]      operators;
+
+  private final double[]        rightHandSides;
+
+  private final boolean[]       activeRows;
+
+  private double                tolerance         = DEFAULT_TOLERANCE;
+
+  public DuplicateDetector (final Program program) {
+    this (new ProgramRows (program));
+  }
+
+  private DuplicateDetector (final ProgramRows rows) {
+    this (rows.getProgram (), rows.getVariables (), rows.getUnprotectedVariables (), rows.getCosts (),
+          rows.getConstraints (), rows.getRowIndices (), rows.getRowValues (), rows.getRowLengths (),
+          rows.getOperators (), rows.getRightHandSides (), rows.getLinearRows ());
+  }
+
+  /**
+   * Creates a detector on rows of the form sum of coefficient * variable (operator) right-hand side with ascending
+   * variable indices. Only the first row length entries of a row are considered.
+   *
+   * @param program program whose redundant constraints may be removed, or null
+   * @param activeVariables variables considered for parallel columns, only required for {@link #detect()}
+   */
+  protected DuplicateDetector (final Program program,
+                               final Variable[] variables,
+                               final boolean[] activeVariables,
+                               final double[][] costs,
+                               final Constraint[] constraints,
+                               final int[][] rowIndices,
+                               final double[][] rowValues,
+                               final int[] rowLengths,
+                               final Operator[] operators,
+                               final double[] rightHandSides,
+                               final boolean[] activeRows) {
+    this.program = program;
+    this.variables = variables;
+    this.activeVariables = activeVariables;
+    this.costs = costs;
+    this.constraints = constraints;
+    this.rowIndices = rowIndices;
+    this.rowValues = rowValues;
+    this.rowLengths = rowLengths;
+    this.operators = operators;
+    this.rightHandSides = rightHandSides;
+    this.activeRows = activeRows;
+  }
+
+  public double getTolerance () {
+    return tolerance;
+  }
+
+  /**
+   * Relative tolerance for equal normalized coefficients and right-hand sides.
+   */
+  public void setTolerance (final double tolerance) {
+    if (tolerance < 0.0) {
+      throw new IllegalArgumentException ("Parameter tolerance may not be negative");
+    }
+
+    this.tolerance = tolerance;
+  }
+
+  public DuplicatesReport detect () {
+    final DuplicatesReport report = detectParallelRows ();
+    detectParallelColumns (report);
+    return report;
+  }
+
+  /**
+   * Removes all redundant constraints from the program, unless the report shows contradicting constraints.
+   */
+  public DuplicatesReport removeRedundantConstraints () {
+    if (program == null) {
+      throw new IllegalStateException ("Detector is not based on a program");
+    }
+
+    final DuplicatesReport report = detect ();
+    if (!report.isInfeasible () && !report.getRedundantConstraints ().isEmpty ()) {
+      final List<Constraint> redundantConstraints = report.getRedundantConstraints ();
+      program.removeConstraints (redundantConstraints.toArray (new Constraint[redundantConstraints.size ()]));
+    }
+    return report;
+  }
+
+  protected DuplicatesReport detectParallelRows () {
+    final DuplicatesReport report = new DuplicatesReport ();
+    final double[][] normalizedValues = new double[rowLengths.length][];
+    final Operator[] normalizedOperators = new Operator[rowLengths.length];
+    final double[] normalizedRightHandSides = new double[rowLengths.length];
+
+    final Map<Pattern, List<Integer>> buckets = new LinkedHashMap<Pattern, List<Integer>> ();
+    for (int r = 0; r < rowLengths.length; r++) {
+      if (!activeRows[r] || rowLengths[r] == 0) {
+        continue;
+      }
+
+      final double pivot = rowValues[r][0];
+      normalizedValues[r] = normalize (rowValues[r], rowLengths[r], pivot);
+      normalizedRightHandSides[r] = rightHandSides[r] / pivot;
+      normalizedOperators[r] = (pivot > 0.0) ? operators[r] : flip (operators[r]);
+      addToBucket (buckets, new Pattern (Arrays.copyOf (rowIndices[r], rowLengths[r]), normalizedValues[r], 0), r);
+    }
+
+    for (final List<Integer> bucket: buckets.values ()) {
+      for (final List<Integer> group: partition (bucket, normalizedValues)) {
+        final List<Constraint> groupConstraints = new ArrayList<Constraint> (group.size ());
+        for (final int r: group) {
+          groupConstraints.add (constraints[r]);
+        }
+        report.addParallelConstraints (groupConstraints);
+        reduceGroup (group, normalizedOperators, normalizedRightHandSides, report);
+      }
+    }
+    return report;
+  }
+
+  protected void detectParallelColumns (final DuplicatesReport report) {
+    // Objective coefficients come first with negative indices, followed by the rows in ascending order
+    final int[] counts = new int[variables.length];
+    for (int j = 0; j < variables.length; j++) {
+      for (int o = 0; o < costs.length; o++) {
+        if (costs[o][j] != 0.0) {
+          counts[j]++;
+        }
+      }
+    }
+    for (int r = 0; r < rowLengths.length; r++) {
+      if (activeRows[r]) {
+        for (int i = 0; i < rowLengths[r]; i++) {
+          counts[rowIndices[r][i]]++;
+        }
+      }
+    }
+
+    final int[][] columnIndices = new int[variables.length][];
+    final double[][] columnValues = new double[variables.length][];
+    for (int j = 0; j < variables.length; j++) {
+      columnIndices[j] = new int[counts[j]];
+      columnValues[j] = new double[counts[j]];
+      counts[j] = 0;
+      for (int o = 0; o < costs.length; o++) {
+        if (costs[o][j] != 0.0) {
+          columnIndices[j][counts[j]] = -1 - o;
+          columnValues[j][counts[j]++] = costs[o][j];
+        }
+      }
+    }
+    for (int r = 0; r < rowLengths.length; r++) {
+      if (activeRows[r]) {
+        for (int i = 0; i < rowLengths[r]; i++) {
+          final int j = rowIndices[r][i];
+          columnIndices[j][counts[j]] = r;
+          columnValues[j][counts[j]++] = rowValues[r][i];
+        }
+      }
+    }
+
+    final double[][] normalizedValues = new double[variables.length][];
+    final Map<Pattern, List<Integer>> buckets = new LinkedHashMap<Pattern, List<Integer>> ();
+    for (int j = 0; j < variables.length; j++) {
+      if (activeVariables[j] && counts[j] > 0) {
+        normalizedValues[j] = normalize (columnValues[j], counts[j], columnValues[j][0]);
+        addToBucket (buckets, new Pattern (columnIndices[j], normalizedValues[j], variables[j].getType ().ordinal ()),
+                     j);
+      }
+    }
+
+    for (final List<Integer> bucket: buckets.values ()) {
+      for (final List<Integer> group: partition (bucket, normalizedValues)) {
+        final List<Variable> groupVariables = new ArrayList<Variable> (group.size ());
+        for (final int j: group) {
+          groupVariables.add (variables[j]);
+        }
+        report.addParallelVariables (groupVariables);
+      }
+    }
+  }
+
+  private static double[] normalize (final double[] values,
+                                     final int length,
+                                     final double pivot) {
+    final double[] normalized = new double[length];
+    for (int i = 0; i < length; i++) {
+      normalized[i] = values[i] / pivot;
+    }
+    return normalized;
+  }
+
+  private static Operator flip (final Operator operator) {
+    switch (operator) {
+      case LESS_EQUALS:
+        return Operator.GREATER_EQUALS;
+      case GREATER_EQUALS:
+        return Operator.LESS_EQUALS;
+      default:
+        return operator;
+    }
+  }
+
+  private static void addToBucket (final Map<Pattern, List<Integer>> buckets,
+                                   final Pattern pattern,
+                                   final int index) {
+    List<Integer> bucket = buckets.get (pattern);
+    if (bucket == null) {
+      bucket = new ArrayList<Integer> (2);
+      buckets.put (pattern, bucket);
+    }
+    bucket.add (index);
+  }
+
+  /**
+   * Splits a bucket of equal hash patterns into groups of at least two parallel rows or columns.
+   */
+  private List<List<Integer>> partition (final List<Integer> bucket,
+                                         final double[][] normalizedValues) {
+    final List<List<Integer>> groups = new ArrayList<List<Integer>> ();
+    if (bucket.size () < 2) {
+      return groups;
+    }
+
+    final List<List<Integer>> candidates = new ArrayList<List<Integer>> ();
+    for (final int index: bucket) {
+      List<Integer> match = null;
+      for (final List<Integer> candidate: candidates) {
+        if (isEqual (normalizedValues[candidate.get (0)], normalizedValues[index])) {
+          match = candidate;
+          break;
+        }
+      }
+
+      if (match == null) {
+        match = new ArrayList<Integer> (2);
+        candidates.add (match);
+      }
+      match.add (index);
+    }
+
+    for (final List<Integer> candidate: candidates) {
+      if (candidate.size () > 1) {
+        groups.add (candidate);
+      }
+    }
+    return groups;
+  }
+
+  private boolean isEqual (final double[] values1,
+                           final double[] values2) {
+    for (int i = 0; i < values1.length; i++) {
+      if (!isEqual (values1[i], values2[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isEqual (final double value1,
+                           final double value2) {
+    return Math.abs (value1 - value2) <= tolerance * Math.max (1.0, Math.max (Math.abs (value1), Math.abs (value2)));
+  }
+
+  /**
+   * Keeps the first equality of a group, or otherwise the tightest inequality of each direction.
+   */
+  private void reduceGroup (final List<Integer> group,
+                            final Operator[] normalizedOperators,
+                            final double[] normalizedRightHandSides,
+                            final DuplicatesReport report) {
+    int equality = -1;
+    int lessEquals = -1;
+    int greaterEquals = -1;
+    for (final int r: group) {
+      final double rhs = normalizedRightHandSides[r];
+      switch (normalizedOperators[r]) {
+        case EQUALS:
+          if (equality < 0) {
+            equality = r;
+          } else if (!isEqual (rhs, normalizedRightHandSides[equality])) {
+            setInfeasible (report, equality, r);
+            return;
+          }
+          break;
+        case LESS_EQUALS:
+          if (lessEquals < 0 || rhs < normalizedRightHandSides[lessEquals]) {
+            lessEquals = r;
+          }
+          break;
+        case GREATER_EQUALS:
+          if (greaterEquals < 0 || rhs > normalizedRightHandSides[greaterEquals]) {
+            greaterEquals = r;
+          }
+          break;
+        default:
+          throw new IllegalStateException ("Constraints with operator " + normalizedOperators[r].name () +
+                                           " are not supported");
+      }
+    }
+
+    if (equality >= 0) {
+      final double rhs = normalizedRightHandSides[equality];
+      if (lessEquals >= 0 && rhs > normalizedRightHandSides[lessEquals] &&
+          !isEqual (rhs, normalizedRightHandSides[lessEquals])) {
+        setInfeasible (report, equality, lessEquals);
+        return;
+      }
+      if (greaterEquals >= 0 && rhs < normalizedRightHandSides[greaterEquals] &&
+          !isEqual (rhs, normalizedRightHandSides[greaterEquals])) {
+        setInfeasible (report, equality, greaterEquals);
+        return;
+      }
+    } else if (lessEquals >= 0 && greaterEquals >= 0 &&
+               normalizedRightHandSides[greaterEquals] > normalizedRightHandSides[lessEquals] &&
+               !isEqual (normalizedRightHandSides[greaterEquals], normalizedRightHandSides[lessEquals])) {
+      setInfeasible (report, lessEquals, greaterEquals);
+      return;
+    }
+
+    for (final int r: group) {
+      if (r != equality && (equality >= 0 || (r != lessEquals && r != greaterEquals))) {
+        report.addRedundantConstraint (r, constraints[r]);
+      }
+    }
+  }
+
+  private void setInfeasible (final DuplicatesReport report,
+                              final int r1,
+                              final int r2) {
+    report.setInfeasibilityReason ("Parallel constraints " + constraints[r1].getName () + " and " +
+                                   constraints[r2].getName () + " contradict each other");
+  }
+
+  /**
+   * Indices with normalized values rounded to a fixed precision, so nearly equal values usually share the hash.
+   */
+  private static class Pattern {
+
+    private final int[]  indices;
+
+    private final long[] values;
+
+    private final int    tag;
+
+    private final int    hashCode;
+
+    private Pattern (final int[] indices,
+                     final double[] normalizedValues,
+                     final int tag) {
+      this.indices = indices;
+      this.values = new long[normalizedValues.length];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = Math.round (normalizedValues[i] * HASH_SCALE);
+      }
+      this.tag = tag;
+      this.hashCode = 31 * (31 * Arrays.hashCode (indices) + Arrays.hashCode (values)) + tag;
+    }
+
+    @Override
+    public int hashCode () {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals (final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Pattern)) {
+        return false;
+      }
+      final Pattern other = (Pattern) obj;
+      return tag == other.tag && Arrays.equals (indices, other.indices) && Arrays.equals (values, other.values);
+    }
+  }
+}
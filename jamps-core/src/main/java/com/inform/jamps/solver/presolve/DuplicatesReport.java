@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Parallel constraints and variables found by the duplicate detector. Constraints are parallel if their coefficients
+ * are multiples of each other, variables are parallel if their coefficients in all constraints and objectives are
+ * multiples of each other. Redundant constraints are parallel constraints which are implied by another constraint of
+ * their group.
+ */
+public class DuplicatesReport {
+
+  private final List<List<Constraint>> parallelConstraints  = new ArrayList<List<Constraint>> ();
+
+  private final List<Constraint>       redundantConstraints = new ArrayList<Constraint> ();
+
+  private final List<Integer>          redundantRows        = new ArrayList<Integer> ();
+
+  private final List<List<Variable>>   parallelVariables    = new ArrayList<List<Variable>> ();
+
+  private String                       infeasibilityReason;
+
+  protected DuplicatesReport () {
+    super ();
+  }
+
+  protected void addParallelConstraints (final List<Constraint> constraints) {
+    parallelConstraints.add (constraints);
+  }
+
+  protected void addRedundantConstraint (final int row,
+                                         final Constraint constraint) {
+    redundantRows.add (row);
+    redundantConstraints.add (constraint);
+  }
+
+  protected void addParallelVariables (final List<Variable> variables) {
+    parallelVariables.add (variables);
+  }
+
+  protected void setInfeasibilityReason (final String infeasibilityReason) {
+    this.infeasibilityReason = infeasibilityReason;
+  }
+
+  protected List<Integer> getRedundantRows () {
+    return redundantRows;
+  }
+
+  public List<List<Constraint>> getParallelConstraints () {
+    return new ArrayList<List<Constraint>> (parallelConstraints);
+  }
+
+  public List<Constraint> getRedundantConstraints () {
+    return new ArrayList<Constraint> (redundantConstraints);
+  }
+
+  public List<List<Variable>> getParallelVariables () {
+    return new ArrayList<List<Variable>> (parallelVariables);
+  }
+
+  /**
+   * @return true if a group contains contradicting constraints
+   */
+  public boolean isInfeasible () {
+    return infeasibilityReason != null;
+  }
+
+  public String getInfeasibilityReason () {
+    return infeasibilityReason;
+  }
+
+  @Override
+  public String toString () {
+    final StringBuilder sb = new StringBuilder (200);
+    sb.append (parallelConstraints.size ());
+    sb.append (" groups of parallel constraints with ");
+    sb.append (redundantConstraints.size ());
+    sb.append (" redundant constraints, ");
+    sb.append (parallelVariables.size ());
+    sb.append (" groups of parallel variables");
+    if (infeasibilityReason != null) {
+      sb.append (", ");
+      sb.append (infeasibilityReason);
+    }
+    return sb.toString ();
+  }
+}
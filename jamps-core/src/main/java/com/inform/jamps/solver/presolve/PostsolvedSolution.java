@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.Solution;
+
+/**
+ * Solution of an original program restored from a solution of its reduced program. Objective values are taken from
+ * the reduced program, whose objective constants include the contributions of removed variables.
+ */
+public class PostsolvedSolution implements Solution {
+
+  private final PresolvedProgram presolvedProgram;
+
+  private final Solution         reducedSolution;
+
+  private final double[]         values;
+
+  protected PostsolvedSolution (final PresolvedProgram presolvedProgram,
+                                final Solution reducedSolution,
+                                final double[] values) {
+    if (presolvedProgram == null) {
+      throw new IllegalArgumentException ("Parameter presolvedProgram is mandatory and may not be null");
+    }
+    if (reducedSolution == null) {
+      throw new IllegalArgumentException ("Parameter reducedSolution is mandatory and may not be null");
+    }
+    if (values == null) {
+      throw new IllegalArgumentException ("Parameter values is mandatory and may not be null");
+    }
+
+    this.presolvedProgram = presolvedProgram;
+    this.reducedSolution = reducedSolution;
+    this.values = values;
+  }
+
+  public Solution getReducedSolution () {
+    return reducedSolution;
+  }
+
+  @Override
+  public boolean isOptimal () {
+    return reducedSolution.isOptimal ();
+  }
+
+  @Override
+  public double getVariableValue (final Variable variable) {
+    return values[presolvedProgram.getIndex (variable)];
+  }
+
+  @Override
+  public boolean getBinaryValue (final Variable variable) {
+    return getVariableValue (variable) > 0.5;
+  }
+
+  @Override
+  public long getIntegerValue (final Variable variable) {
+    return Math.round (getVariableValue (variable));
+  }
+
+  @Override
+  public double getObjectiveValue () {
+    return reducedSolution.getObjectiveValue ();
+  }
+
+  @Override
+  public double getObjectiveValue (final Objective objective) {
+    return reducedSolution.getObjectiveValue (presolvedProgram.getReducedObjective (objective));
+  }
+
+  @Override
+  public double getRelativeOptimalityGap () {
+    return reducedSolution.getRelativeOptimalityGap ();
+  }
+
+  @Override
+  public int compareTo (final Solution o) {
+    if (o == null) {
+      return -1;
+    }
+
+    return Double.compare (getObjectiveValue (), o.getObjectiveValue ());
+  }
+}
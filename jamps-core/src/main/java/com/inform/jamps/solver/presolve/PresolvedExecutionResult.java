@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.Solution;
+import com.inform.jamps.solver.TerminationReason;
+
+/**
+ * Execution result of a presolved program, whose solutions contain the values of all variables of the original
+ * program. If the presolver has proven the program to be infeasible, the reduced program has not been solved at all.
+ */
+public class PresolvedExecutionResult implements ExecutionResult<Program> {
+
+  private final Program                  program;
+
+  private final PresolvedProgram         presolvedProgram;
+
+  private final ExecutionResult<Program> reducedResult;
+
+  private final List<Solution>           solutions = new ArrayList<Solution> ();
+
+  private final Solution                 bestSolution;
+
+  private final long                     executionTime;
+
+  protected PresolvedExecutionResult (final PresolvedProgram presolvedProgram,
+                                      final ExecutionResult<Program> reducedResult,
+                                      final long executionTime) {
+    if (presolvedProgram == null) {
+      throw new IllegalArgumentException ("Parameter presolvedProgram is mandatory and may not be null");
+    }
+    if (reducedResult == null && !presolvedProgram.isInfeasible ()) {
+      throw new IllegalArgumentException ("Parameter reducedResult is mandatory for feasible programs");
+    }
+
+    this.program = presolvedProgram.getOriginalProgram ();
+    this.presolvedProgram = presolvedProgram;
+    this.reducedResult = reducedResult;
+    this.executionTime = executionTime;
+
+    if (reducedResult != null && reducedResult.hasSolution ()) {
+      for (final Solution solution: reducedResult.getSolutions ()) {
+        solutions.add (presolvedProgram.postsolve (solution));
+      }
+      this.bestSolution = presolvedProgram.postsolve (reducedResult.getBestSolution ());
+    } else {
+      this.bestSolution = null;
+    }
+  }
+
+  public PresolvedProgram getPresolvedProgram () {
+    return presolvedProgram;
+  }
+
+  /**
+   * @return result of the reduced program, or null if the presolver has proven the program to be infeasible
+   */
+  public ExecutionResult<Program> getReducedResult () {
+    return reducedResult;
+  }
+
+  @Override
+  public Program getProblem () {
+    return program;
+  }
+
+  @Override
+  public boolean isProblemInfeasible () {
+    return presolvedProgram.isInfeasible () || reducedResult.isProblemInfeasible ();
+  }
+
+  @Override
+  public boolean isProblemUnbounded () {
+    return reducedResult != null && reducedResult.isProblemUnbounded ();
+  }
+
+  @Override
+  public boolean hasExecutionTerminated () {
+    return reducedResult != null && reducedResult.hasExecutionTerminated ();
+  }
+
+  @Override
+  public TerminationReason getTerminationReason () {
+    return (reducedResult == null) ? TerminationReason.NONE : reducedResult.getTerminationReason ();
+  }
+
+  @Override
+  public boolean hasSolution () {
+    return bestSolution != null;
+  }
+
+  @Override
+  public boolean hasOptimalSolution () {
+    return hasSolution () && getBestSolution ().isOptimal ();
+  }
+
+  @Override
+  public int getSolutionsCount () {
+    return solutions.size ();
+  }
+
+  @Override
+  public Solution getBestSolution () {
+    if (!hasSolution ()) {
+      throw new IllegalStateException ("There is no best solution available");
+    }
+    return bestSolution;
+  }
+
+  @Override
+  public Solution getSolution (final int index) {
+    if (index >= solutions.size ()) {
+      throw new IllegalArgumentException ("There is no solution with index " + index + " available");
+    }
+    return solutions.get (index);
+  }
+
+  @Override
+  public List<Solution> getSolutions () {
+    return new ArrayList<Solution> (solutions);
+  }
+
+  /**
+   * @return time of presolving and solving the reduced program
+   */
+  @Override
+  public long getExecutionTimeMillis () {
+    return executionTime;
+  }
+}
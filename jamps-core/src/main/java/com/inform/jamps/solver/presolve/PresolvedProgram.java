@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.Solution;
+
+/**
+ * Reduced program created by the presolver together with the postsolve map, which restores the values of removed
+ * variables from a solution of the reduced program.
+ */
+public class PresolvedProgram {
+
+  private final Program                     originalProgram;
+
+  private final Program                     reducedProgram;
+
+  private final Map<Variable, Integer>      variableIndices;
+
+  private final Variable[]                  reducedVariables;
+
+  private final Map<Objective, Objective>   reducedObjectives;
+
+  private final List<PostsolveStep>         postsolveSteps;
+
+  private final int                         removedConstraintsCount;
+
+  private final CoefficientTighteningReport coefficientTighteningReport;
+
+  private final String                      infeasibilityReason;
+
+  protected PresolvedProgram (final Program originalProgram,
+                              final Program reducedProgram,
+                              final Map<Variable, Integer> variableIndices,
+                              final Variable[] reducedVariables,
+                              final Map<Objective, Objective> reducedObjectives,
+                              final List<PostsolveStep> postsolveSteps,
+                              final int removedConstraintsCount,
+                              final CoefficientTighteningReport coefficientTighteningReport,
+                              final String infeasibilityReason) {
+    if (originalProgram == null) {
+      throw new IllegalArgumentException ("Parameter originalProgram is mandatory and may not be null");
+    }
+    if (reducedProgram == null && infeasibilityReason == null) {
+      throw new IllegalArgumentException ("Parameter reducedProgram is mandatory for feasible programs");
+    }
+
+    this.originalProgram = originalProgram;
+    this.reducedProgram = reducedProgram;
+    this.variableIndices = variableIndices;
+    this.reducedVariables = reducedVariables;
+    this.reducedObjectives = reducedObjectives;
+    this.postsolveSteps = Collections.unmodifiableList (new ArrayList<PostsolveStep> (postsolveSteps));
+    this.removedConstraintsCount = removedConstraintsCount;
+    this.coefficientTighteningReport = coefficientTighteningReport;
+    this.infeasibilityReason = infeasibilityReason;
+  }
+
+  public Program getOriginalProgram () {
+    return originalProgram;
+  }
+
+  /**
+   * @return the reduced program, or null if the presolver has proven the original program to be infeasible
+   */
+  public Program getReducedProgram () {
+    return reducedProgram;
+  }
+
+  public boolean isInfeasible () {
+    return infeasibilityReason != null;
+  }
+
+  public String getInfeasibilityReason () {
+    return infeasibilityReason;
+  }
+
+  /**
+   * @return number of variables which have been fixed or substituted
+   */
+  public int getRemovedVariablesCount () {
+    return postsolveSteps.size ();
+  }
+
+  public int getRemovedConstraintsCount () {
+    return removedConstraintsCount;
+  }
+
+  public CoefficientTighteningReport getCoefficientTighteningReport () {
+    return coefficientTighteningReport;
+  }
+
+  /**
+   * @return the copy of an original variable in the reduced program, or null if the variable has been removed
+   */
+  public Variable getReducedVariable (final Variable variable) {
+    return reducedVariables[getIndex (variable)];
+  }
+
+  public Objective getReducedObjective (final Objective objective) {
+    final Objective reduced = reducedObjectives.get (objective);
+    if (reduced == null) {
+      throw new IllegalArgumentException ("Objective " + objective.getName () + " is not part of the program");
+    }
+    return reduced;
+  }
+
+  /**
+   * @return solution of the original program, which derives the values of all removed variables from the given
+   *         solution of the reduced program
+   */
+  public Solution postsolve (final Solution reducedSolution) {
+    if (reducedSolution == null) {
+      throw new IllegalArgumentException ("Parameter reducedSolution is mandatory and may not be null");
+    }
+    if (isInfeasible ()) {
+      throw new IllegalStateException ("Infeasible programs have no solution to postsolve");
+    }
+
+    final double[] values = new double[reducedVariables.length];
+    for (int i = 0; i < values.length; i++) {
+      if (reducedVariables[i] != null) {
+        values[i] = reducedSolution.getVariableValue (reducedVariables[i]);
+      }
+    }
+
+    // Later steps may have removed variables an earlier substitution depends on, so steps are undone in reverse
+    for (int i = postsolveSteps.size () - 1; i >= 0; i--) {
+      postsolveSteps.get (i).apply (values);
+    }
+
+    return new PostsolvedSolution (this, reducedSolution, values);
+  }
+
+  protected int getIndex (final Variable variable) {
+    final Integer index = variableIndices.get (variable);
+    if (index == null) {
+      throw new IllegalArgumentException ("Variable " + variable.getName () + " is not part of the program");
+    }
+    return index;
+  }
+
+  /**
+   * Value of a removed variable, which is (constant - sum of coefficient * value) / divisor. Fixed variables have no
+   * coefficients and a divisor of 1.
+   */
+  protected static class PostsolveStep {
+
+    private final int      variableIndex;
+
+    private final double   constant;
+
+    private final double   divisor;
+
+    private final int[]    indices;
+
+    private final double[] coefficients;
+
+    protected PostsolveStep (final int variableIndex,
+                             final double constant,
+                             final double divisor,
+                             final int[] indices,
+                             final double[] coefficients) {
+      this.variableIndex = variableIndex;
+      this.constant = constant;
+      this.divisor = divisor;
+      this.indices = indices;
+      this.coefficients = coefficients;
+    }
+
+    protected void apply (final double[] values) {
+      double value = constant;
+      for (int i = 0; i < indices.length; i++) {
+        value -= coefficients[i] * values[indices[i]];
+      }
+      values[variableIndex] = value / divisor;
+    }
+  }
+}
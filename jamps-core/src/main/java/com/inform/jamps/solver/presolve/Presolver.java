@@ -0,0 +1,578 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.GeneralConstraint;
+import com.inform.jamps.modeling.IndicatorConstraint;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.PiecewiseLinearTerm;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.QuadraticTerm;
+import com.inform.jamps.modeling.RangeConstraint;
+import com.inform.jamps.modeling.SOSConstraint;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.MathProgrammingSolverFactory;
+import com.inform.jamps.solver.presolve.PresolvedProgram.PostsolveStep;
+
+/**
+ * Removes trivially redundant parts of a program before it is transferred to a solver. The presolver repeats the
+ * following reductions until none of them applies anymore:
+ * <ul>
+ * <li>variables with equal bounds are fixed and substituted by their value</li>
+ * <li>constraints without variables are checked and dropped</li>
+ * <li>constraints with a single variable are converted into bounds of the variable</li>
+ * <li>duplicate and redundant parallel constraints are dropped, see {@link DuplicateDetector}</li>
+ * <li>free continuous variables of a single constraint are substituted by the constraint</li>
+ * <li>optionally, variable bounds are tightened by bound propagation</li>
+ * <li>optionally, big-M and knapsack coefficients of binary variables are tightened</li>
+ * </ul>
+ * The original program is not modified, the reductions result in a new program created by the factory. Variables of
+ * quadratic terms, semi-continuous and semi-integer variables are never removed, and constraints with quadratic terms
+ * are kept as they are. Range, indicator, SOS and general constraints and piecewise-linear terms are copied unchanged,
+ * their variables are never removed either.
+ */
+public class Presolver {
+
+  protected final static double                    DEFAULT_TOLERANCE = 1e-6;
+
+  protected final static int                       MAX_PASSES_COUNT  = 100;
+
+  private final MathProgrammingSolverFactory<?, ?> factory;
+
+  private double                                   tolerance         = DEFAULT_TOLERANCE;
+
+  private boolean                                  boundPropagation;
+
+  private boolean                                  coefficientTightening;
+
+  public Presolver (final MathProgrammingSolverFactory<?, ?> factory) {
+    if (factory == null) {
+      throw new IllegalArgumentException ("Parameter factory is mandatory and may not be null");
+    }
+
+    this.factory = factory;
+  }
+
+  public double getTolerance () {
+    return tolerance;
+  }
+
+  /**
+   * Absolute tolerance for equal bounds and violated constraints.
+   */
+  public void setTolerance (final double tolerance) {
+    if (tolerance < 0.0) {
+      throw new IllegalArgumentException ("Parameter tolerance may not be negative");
+    }
+
+    this.tolerance = tolerance;
+  }
+
+  public boolean isBoundPropagation () {
+    return boundPropagation;
+  }
+
+  /**
+   * Tightens variable bounds by the activities of the constraints in every pass, see {@link BoundPropagator}. This may
+   * fix further variables and detects infeasible programs early, but bounds of continuous variables become tighter
+   * than necessary for the solver.
+   */
+  public void setBoundPropagation (final boolean boundPropagation) {
+    this.boundPropagation = boundPropagation;
+  }
+
+  public boolean isCoefficientTightening () {
+    return coefficientTightening;
+  }
+
+  /**
+   * Tightens big-M and knapsack coefficients of binary variables in every pass, which implies bound propagation. The
+   * changes are reported by {@link PresolvedProgram#getCoefficientTighteningReport()}.
+   */
+  public void setCoefficientTightening (final boolean coefficientTightening) {
+    this.coefficientTightening = coefficientTightening;
+  }
+
+  public PresolvedProgram presolve (final Program program) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (program.getObjectivesCount () == 0) {
+      throw new IllegalArgumentException ("Program " + program.getName () + " must contain at least one objective");
+    }
+
+    final Reduction reduction = new Reduction (program);
+    reduction.reduce ();
+    return reduction.createPresolvedProgram ();
+  }
+
+  protected static boolean isReducible (final VariableType type) {
+    return type == VariableType.CONTINUOUS || type == VariableType.BINARY || type == VariableType.INTEGER;
+  }
+
+  /**
+   * Working copy of a program in row and column arrays. Rows are kept as sum of coefficient * variable (operator)
+   * right-hand side, with the variable indices of a row in ascending order.
+   */
+  private class Reduction {
+
+    private final ProgramRows                 rows;
+
+    private final Program                     program;
+
+    private final Variable[]                  variables;
+
+    private final Map<Variable, Integer>      variableIndices;
+
+    private final double[]                    lowerBounds;
+
+    private final double[]                    upperBounds;
+
+    private final boolean[]                   removedVariables;
+
+    private final boolean[]                   protectedVariables;
+
+    private final Objective[]                 objectives;
+
+    private final double[][]                  costs;
+
+    private final double[]                    objectiveConstants;
+
+    private final Constraint[]                constraints;
+
+    private final int[][]                     rowIndices;
+
+    private final double[][]                  rowValues;
+
+    private final int[]                       rowLengths;
+
+    private final Operator[]                  operators;
+
+    private final double[]                    rightHandSides;
+
+    private final boolean[]                   removedRows;
+
+    private final boolean[]                   quadraticRows;
+
+    private final int[][]                     columnRows;
+
+    private final List<PostsolveStep>         postsolveSteps              = new ArrayList<PostsolveStep> ();
+
+    private final CoefficientTighteningReport coefficientTighteningReport = new CoefficientTighteningReport ();
+
+    private int                               removedRowsCount;
+
+    private String                            infeasibilityReason;
+
+    private Reduction (final Program program) {
+      final ProgramRows rows = new ProgramRows (program);
+      this.rows = rows;
+      this.program = program;
+      this.variables = rows.getVariables ();
+      this.variableIndices = rows.getVariableIndices ();
+      this.lowerBounds = rows.getLowerBounds ();
+      this.upperBounds = rows.getUpperBounds ();
+      this.removedVariables = new boolean[variables.length];
+      this.protectedVariables = rows.getProtectedVariables ();
+      this.objectives = rows.getObjectives ();
+      this.costs = rows.getCosts ();
+      this.objectiveConstants = rows.getObjectiveConstants ();
+      this.constraints = rows.getConstraints ();
+      this.rowIndices = rows.getRowIndices ();
+      this.rowValues = rows.getRowValues ();
+      this.rowLengths = rows.getRowLengths ();
+      this.operators = rows.getOperators ();
+      this.rightHandSides = rows.getRightHandSides ();
+      this.removedRows = new boolean[constraints.length];
+      this.quadraticRows = rows.getQuadraticRows ();
+      this.columnRows = rows.getColumnRows ();
+    }
+
+    private void reduce () {
+      boolean changed = true;
+      for (int pass = 0; changed && infeasibilityReason == null && pass < MAX_PASSES_COUNT; pass++) {
+        changed = fixVariables ();
+        changed |= reduceSmallRows ();
+        changed |= removeDuplicateRows ();
+        changed |= substituteFreeColumnSingletons ();
+        if ((boundPropagation || coefficientTightening) && infeasibilityReason == null) {
+          changed |= propagateBounds ();
+        }
+      }
+    }
+
+    private boolean fixVariables () {
+      boolean changed = false;
+      for (int j = 0; j < variables.length && infeasibilityReason == null; j++) {
+        if (!removedVariables[j] && !protectedVariables[j] && isReducible (variables[j].getType ()) &&
+            upperBounds[j] - lowerBounds[j] <= tolerance) {
+          fixVariable (j, lowerBounds[j]);
+          changed = true;
+        }
+      }
+      return changed;
+    }
+
+    private void fixVariable (final int j,
+                              final double value) {
+      for (final int r: columnRows[j]) {
+        final int position = Arrays.binarySearch (rowIndices[r], 0, rowLengths[r], j);
+        if (position >= 0) {
+          rightHandSides[r] -= rowValues[r][position] * value;
+          removeEntry (r, position);
+        }
+      }
+
+      for (int o = 0; o < objectives.length; o++) {
+        objectiveConstants[o] += costs[o][j] * value;
+        costs[o][j] = 0.0;
+      }
+
+      removedVariables[j] = true;
+      postsolveSteps.add (new PostsolveStep (j, value, 1.0, new int[0], new double[0]));
+    }
+
+    private void removeEntry (final int r,
+                              final int position) {
+      System.arraycopy (rowIndices[r], position + 1, rowIndices[r], position, rowLengths[r] - position - 1);
+      System.arraycopy (rowValues[r], position + 1, rowValues[r], position, rowLengths[r] - position - 1);
+      rowLengths[r]--;
+    }
+
+    private void removeRow (final int r) {
+      removedRows[r] = true;
+      removedRowsCount++;
+    }
+
+    /**
+     * Checks and drops rows without variables and converts rows with a single variable into bounds.
+     */
+    private boolean reduceSmallRows () {
+      boolean changed = false;
+      for (int r = 0; r < rowLengths.length && infeasibilityReason == null; r++) {
+        if (removedRows[r] || quadraticRows[r]) {
+          continue;
+        }
+
+        if (rowLengths[r] == 0) {
+          if (isViolated (operators[r], rightHandSides[r])) {
+            infeasibilityReason = "Constraint " + constraints[r].getName () + " without variables is violated";
+          }
+          removeRow (r);
+          changed = true;
+        } else if (rowLengths[r] == 1 && isReducible (variables[rowIndices[r][0]].getType ())) {
+          applySingletonRow (r);
+          removeRow (r);
+          changed = true;
+        }
+      }
+      return changed;
+    }
+
+    private boolean isViolated (final Operator operator,
+                                final double rightHandSide) {
+      switch (operator) {
+        case EQUALS:
+          return Math.abs (rightHandSide) > tolerance;
+        case LESS_EQUALS:
+          return rightHandSide < -tolerance;
+        case GREATER_EQUALS:
+          return rightHandSide > tolerance;
+        default:
+          throw new IllegalStateException ("Constraints with operator " + operator.name () + " are not supported");
+      }
+    }
+
+    private void applySingletonRow (final int r) {
+      final int j = rowIndices[r][0];
+      final double coefficient = rowValues[r][0];
+      final double value = rightHandSides[r] / coefficient;
+
+      double lowerBound = Double.NEGATIVE_INFINITY;
+      double upperBound = Double.POSITIVE_INFINITY;
+      if (operators[r] == Operator.EQUALS) {
+        lowerBound = value;
+        upperBound = value;
+      } else if ((operators[r] == Operator.LESS_EQUALS) == (coefficient > 0.0)) {
+        upperBound = value;
+      } else {
+        lowerBound = value;
+      }
+
+      if (variables[j].getType () != VariableType.CONTINUOUS) {
+        lowerBound = Math.ceil (lowerBound - tolerance);
+        upperBound = Math.floor (upperBound + tolerance);
+      }
+
+      lowerBounds[j] = Math.max (lowerBounds[j], lowerBound);
+      upperBounds[j] = Math.min (upperBounds[j], upperBound);
+      if (lowerBounds[j] > upperBounds[j] + tolerance) {
+        infeasibilityReason = "Constraint " + constraints[r].getName () + " violates the bounds of variable " +
+                              variables[j].getName ();
+      } else if (lowerBounds[j] > upperBounds[j]) {
+        upperBounds[j] = lowerBounds[j];
+      }
+    }
+
+    private boolean propagateBounds () {
+      final BoundPropagator propagator = new BoundPropagator (variables, variableIndices, lowerBounds, upperBounds,
+                                                              constraints, rowIndices, rowValues, rowLengths,
+                                                              operators, rightHandSides, getActiveRows (),
+                                                              columnRows);
+      propagator.setTolerance (tolerance);
+      if (!propagator.propagate ()) {
+        infeasibilityReason = propagator.getInfeasibilityReason ();
+        return false;
+      }
+
+      final int changesCount = coefficientTighteningReport.getChangesCount ();
+      if (coefficientTightening) {
+        propagator.tightenCoefficients (coefficientTighteningReport);
+      }
+      return propagator.getTightenedBoundsCount () > 0 || coefficientTighteningReport.getChangesCount () > changesCount;
+    }
+
+    private boolean removeDuplicateRows () {
+      final DuplicateDetector detector = new DuplicateDetector (null, variables, null, costs, constraints, rowIndices,
+                                                                rowValues, rowLengths, operators, rightHandSides,
+                                                                getActiveRows ());
+      detector.setTolerance (tolerance);
+      final DuplicatesReport report = detector.detectParallelRows ();
+      if (report.isInfeasible ()) {
+        infeasibilityReason = report.getInfeasibilityReason ();
+        return false;
+      }
+
+      for (final int r: report.getRedundantRows ()) {
+        removeRow (r);
+      }
+      return !report.getRedundantRows ().isEmpty ();
+    }
+
+    private boolean[] getActiveRows () {
+      final boolean[] activeRows = new boolean[rowLengths.length];
+      for (int r = 0; r < activeRows.length; r++) {
+        activeRows[r] = !removedRows[r] && !quadraticRows[r];
+      }
+      return activeRows;
+    }
+
+    /**
+     * Substitutes free continuous variables which only occur in a single row. For an equality the variable takes the
+     * value which satisfies the row, so the row is dropped and the objective costs of the variable are distributed to
+     * the other variables of the row. An inequality is only dropped if the variable has no objective costs.
+     */
+    private boolean substituteFreeColumnSingletons () {
+      boolean changed = false;
+      for (int j = 0; j < variables.length; j++) {
+        if (removedVariables[j] || protectedVariables[j] || variables[j].getType () != VariableType.CONTINUOUS ||
+            lowerBounds[j] != Double.NEGATIVE_INFINITY || upperBounds[j] != Double.POSITIVE_INFINITY) {
+          continue;
+        }
+
+        final int r = findSingleRow (j);
+        if (r < 0 || quadraticRows[r] || (operators[r] != Operator.EQUALS && hasCosts (j))) {
+          continue;
+        }
+
+        final int position = Arrays.binarySearch (rowIndices[r], 0, rowLengths[r], j);
+        final double coefficient = rowValues[r][position];
+        removeEntry (r, position);
+
+        final int[] indices = Arrays.copyOf (rowIndices[r], rowLengths[r]);
+        final double[] coefficients = Arrays.copyOf (rowValues[r], rowLengths[r]);
+        for (int o = 0; o < objectives.length; o++) {
+          final double cost = costs[o][j];
+          if (cost != 0.0) {
+            for (int i = 0; i < indices.length; i++) {
+              costs[o][indices[i]] -= cost * coefficients[i] / coefficient;
+            }
+            objectiveConstants[o] += cost * rightHandSides[r] / coefficient;
+            costs[o][j] = 0.0;
+          }
+        }
+
+        removedVariables[j] = true;
+        postsolveSteps.add (new PostsolveStep (j, rightHandSides[r], coefficient, indices, coefficients));
+        removeRow (r);
+        changed = true;
+      }
+      return changed;
+    }
+
+    /**
+     * @return the only remaining row of the variable, or -1 if there is none or more than one
+     */
+    private int findSingleRow (final int j) {
+      int row = -1;
+      for (final int r: columnRows[j]) {
+        if (!removedRows[r]) {
+          if (row >= 0) {
+            return -1;
+          }
+          row = r;
+        }
+      }
+      return row;
+    }
+
+    private boolean hasCosts (final int j) {
+      for (int o = 0; o < objectives.length; o++) {
+        if (costs[o][j] != 0.0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private PresolvedProgram createPresolvedProgram () {
+      // Objectives are compared by identity, as their hash codes depend on their expressions
+      final Map<Objective, Objective> reducedObjectives = new IdentityHashMap<Objective, Objective> ();
+      final Variable[] reducedVariables = new Variable[variables.length];
+      if (infeasibilityReason != null) {
+        return new PresolvedProgram (program, null, variableIndices, reducedVariables, reducedObjectives,
+                                     postsolveSteps, removedRowsCount, coefficientTighteningReport,
+                                     infeasibilityReason);
+      }
+
+      final Program reduced = factory.createProgram (program.getName () + "_presolved");
+      for (int j = 0; j < variables.length; j++) {
+        if (!removedVariables[j]) {
+          final Variable var = variables[j];
+          reducedVariables[j] = reduced.addVariable (var.getName (), var.getType (), lowerBounds[j], upperBounds[j]);
+          if (var.hasInitialValue ()) {
+            reducedVariables[j].setInitialValue (var.getInitialValue ());
+          }
+        }
+      }
+
+      for (int o = 0; o < objectives.length; o++) {
+        final Objective objective = objectives[o];
+        final Objective copy = reduced.addObjective (objective.getName (), objective.getObjectiveSense ());
+        copy.setPriority (objective.getPriority ());
+        copy.setWeight (objective.getWeight ());
+        copy.setAbsoluteTolerance (objective.getAbsoluteTolerance ());
+        copy.setRelativeTolerance (objective.getRelativeTolerance ());
+
+        final Expression expr = copy.getExpression ();
+        for (int j = 0; j < variables.length; j++) {
+          if (costs[o][j] != 0.0) {
+            expr.addTerm (costs[o][j], reducedVariables[j]);
+          }
+        }
+        copyQuadraticTerms (objective.getExpression (), expr, reducedVariables, 1.0);
+        expr.addTerm (objectiveConstants[o]);
+        reducedObjectives.put (objective, copy);
+      }
+
+      for (int r = 0; r < rowLengths.length; r++) {
+        if (!removedRows[r]) {
+          final Constraint copy = reduced.addConstraint (constraints[r].getName (), operators[r]);
+          for (int i = 0; i < rowLengths[r]; i++) {
+            copy.getLhs ().addTerm (rowValues[r][i], reducedVariables[rowIndices[r][i]]);
+          }
+          copyQuadraticTerms (constraints[r].getLhs (), copy.getLhs (), reducedVariables, 1.0);
+          copyQuadraticTerms (constraints[r].getRhs (), copy.getLhs (), reducedVariables, -1.0);
+          copy.getRhs ().addTerm (rightHandSides[r]);
+        }
+      }
+      copyGeneralConstraints (reduced, reducedVariables, reducedObjectives);
+
+      return new PresolvedProgram (program, reduced, variableIndices, reducedVariables, reducedObjectives,
+                                   postsolveSteps, removedRowsCount, coefficientTighteningReport, null);
+    }
+
+    private void copyGeneralConstraints (final Program reduced,
+                                         final Variable[] reducedVariables,
+                                         final Map<Objective, Objective> reducedObjectives) {
+      for (final RangeConstraint constraint: program.getRangeConstraints ()) {
+        final RangeConstraint copy = reduced.addRangeConstraint (constraint.getName (), constraint.getLowerBound (),
+                                                                 constraint.getUpperBound ());
+        copyLinearTerms (constraint.getExpression (), copy.getExpression (), reducedVariables);
+      }
+
+      for (final IndicatorConstraint constraint: program.getIndicatorConstraints ()) {
+        final Variable indicatorVariable = getReducedVariable (constraint.getIndicatorVariable (), reducedVariables);
+        final Constraint copy = reduced.addIndicatorConstraint (constraint.getName (), indicatorVariable,
+                                                                constraint.getIndicatorValue (),
+                                                                constraint.getOperator ());
+        copyLinearTerms (constraint.getLhs (), copy.getLhs (), reducedVariables);
+        copyLinearTerms (constraint.getRhs (), copy.getRhs (), reducedVariables);
+      }
+
+      for (final SOSConstraint constraint: program.getSOSConstraints ()) {
+        reduced.addSOSConstraint (constraint.getName (), constraint.getType (),
+                                  getReducedVariables (constraint.getVariables (), reducedVariables),
+                                  constraint.getWeights ());
+      }
+
+      for (final GeneralConstraint constraint: program.getGeneralConstraints ()) {
+        reduced.addGeneralConstraint (constraint.getName (), constraint.getType (),
+                                      getReducedVariable (constraint.getResultant (), reducedVariables),
+                                      getReducedVariables (constraint.getOperands (), reducedVariables),
+                                      constraint.getConstant ());
+      }
+
+      for (final PiecewiseLinearTerm term: program.getPiecewiseLinearTerms ()) {
+        reduced.addPiecewiseLinearTerm (reducedObjectives.get (term.getObjective ()),
+                                        getReducedVariable (term.getVariable (), reducedVariables), term.getPoints (),
+                                        term.getValues ());
+      }
+    }
+
+    private void copyLinearTerms (final Expression source,
+                                  final Expression target,
+                                  final Variable[] reducedVariables) {
+      for (final LinearTerm term: source.getLinearTerms ()) {
+        target.addTerm (term.getCoefficient (), getReducedVariable (term.getVariable (), reducedVariables));
+      }
+      target.addTerm (source.getConstant ());
+    }
+
+    private Variable getReducedVariable (final Variable variable,
+                                         final Variable[] reducedVariables) {
+      return reducedVariables[rows.getIndex (variable)];
+    }
+
+    private Variable[] getReducedVariables (final List<? extends Variable> variables,
+                                            final Variable[] reducedVariables) {
+      final Variable[] result = new Variable[variables.size ()];
+      for (int i = 0; i < result.length; i++) {
+        result[i] = getReducedVariable (variables.get (i), reducedVariables);
+      }
+      return result;
+    }
+
+    private void copyQuadraticTerms (final Expression source,
+                                     final Expression target,
+                                     final Variable[] reducedVariables,
+                                     final double factor) {
+      for (final QuadraticTerm term: source.getQuadraticTerms ()) {
+        target.addTerm (factor * term.getCoefficient (), reducedVariables[rows.getIndex (term.getVariable1 ())],
+                        reducedVariables[rows.getIndex (term.getVariable2 ())]);
+      }
+    }
+  }
+}
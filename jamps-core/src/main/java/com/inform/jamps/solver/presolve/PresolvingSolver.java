@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.MathProgrammingSolver;
+import com.inform.jamps.solver.MathProgrammingSolverFactory;
+import com.inform.jamps.solver.SolverParameters;
+
+/**
+ * Solver which presolves a program and solves the reduced program with a solver of the factory. The solutions of the
+ * result refer to the variables of the original program.
+ */
+public class PresolvingSolver implements MathProgrammingSolver {
+
+  private final MathProgrammingSolverFactory<?, ?> factory;
+
+  private final Presolver                          presolver;
+
+  public PresolvingSolver (final MathProgrammingSolverFactory<?, ?> factory) {
+    if (factory == null) {
+      throw new IllegalArgumentException ("Parameter factory is mandatory and may not be null");
+    }
+
+    this.factory = factory;
+    this.presolver = new Presolver (factory);
+  }
+
+  public Presolver getPresolver () {
+    return presolver;
+  }
+
+  @Override
+  public ExecutionResult<Program> solve (final SolverParameters parameters,
+                                         final Program program) {
+    if (parameters == null) {
+      throw new IllegalArgumentException ("Parameter parameters is mandatory and may not be null");
+    }
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+
+    final long startTime = System.currentTimeMillis ();
+    final PresolvedProgram presolvedProgram = presolver.presolve (program);
+    if (presolvedProgram.isInfeasible ()) {
+      return new PresolvedExecutionResult (presolvedProgram, null, System.currentTimeMillis () - startTime);
+    }
+
+    final ExecutionResult<Program> reducedResult = factory.createSolver ().solve (parameters,
+                                                                                 presolvedProgram.getReducedProgram ());
+    return new PresolvedExecutionResult (presolvedProgram, reducedResult, System.currentTimeMillis () - startTime);
+  }
+}
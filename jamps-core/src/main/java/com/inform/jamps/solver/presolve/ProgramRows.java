@@ -0,0 +1,330 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.GeneralConstraint;
+import com.inform.jamps.modeling.IndicatorConstraint;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.PiecewiseLinearTerm;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.QuadraticTerm;
+import com.inform.jamps.modeling.RangeConstraint;
+import com.inform.jamps.modeling.SOSConstraint;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Copy of a program in row and column arrays, which are shared by the presolve passes. Each row is kept as sum of
+ * coefficient * variable (operator) right-hand side with all terms moved to the left-hand side and the variable
+ * indices in ascending order. Quadratic terms are not part of the rows, their constraints are marked instead. Range
+ * constraints, indicator, SOS and general constraints and piecewise-linear terms are not part of the rows either. The
+ * variables of all these elements are marked as protected, so the presolve passes keep them.
+ */
+public class ProgramRows {
+
+  private final Program                program;
+
+  private final Variable[]             variables;
+
+  private final Map<Variable, Integer> variableIndices;
+
+  private final double[]               lowerBounds;
+
+  private final double[]               upperBounds;
+
+  private final boolean[]              protectedVariables;
+
+  private final Objective[]            objectives;
+
+  private final double[][]             costs;
+
+  private final double[]               objectiveConstants;
+
+  private final Constraint[]           constraints;
+
+  private final int[][]                rowIndices;
+
+  private final double[][]             rowValues;
+
+  private final int[]                  rowLengths;
+
+  private final Operator[]             operators;
+
+  private final double[]               rightHandSides;
+
+  private final boolean[]              quadraticRows;
+
+  private final int[][]                columnRows;
+
+  protected ProgramRows (final Program program) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (program.getConstraints ().size () != program.getConstraintsCount ()) {
+      throw new IllegalArgumentException ("Program " + program.getName () + " does not provide its constraints");
+    }
+
+    this.program = program;
+
+    final List<? extends Variable> programVariables = program.getVariables ();
+    final int n = programVariables.size ();
+    this.variables = programVariables.toArray (new Variable[n]);
+    // Variables are compared by identity, as their hash codes depend on their bounds
+    this.variableIndices = new IdentityHashMap<Variable, Integer> (n);
+    this.lowerBounds = new double[n];
+    this.upperBounds = new double[n];
+    this.protectedVariables = new boolean[n];
+    for (int j = 0; j < n; j++) {
+      variableIndices.put (variables[j], j);
+      lowerBounds[j] = variables[j].getLowerBound ();
+      upperBounds[j] = variables[j].getUpperBound ();
+    }
+
+    final List<? extends Objective> programObjectives = program.getObjectives ();
+    this.objectives = programObjectives.toArray (new Objective[programObjectives.size ()]);
+    this.costs = new double[objectives.length][n];
+    this.objectiveConstants = new double[objectives.length];
+    for (int o = 0; o < objectives.length; o++) {
+      final Expression expr = objectives[o].getExpression ();
+      for (final LinearTerm term: expr.getLinearTerms ()) {
+        costs[o][getIndex (term.getVariable ())] += term.getCoefficient ();
+      }
+      markQuadraticVariables (expr);
+      objectiveConstants[o] = expr.getConstant ();
+    }
+
+    final List<? extends Constraint> programConstraints = program.getConstraints ();
+    final int m = programConstraints.size ();
+    this.constraints = programConstraints.toArray (new Constraint[m]);
+    this.rowIndices = new int[m][];
+    this.rowValues = new double[m][];
+    this.rowLengths = new int[m];
+    this.operators = new Operator[m];
+    this.rightHandSides = new double[m];
+    this.quadraticRows = new boolean[m];
+    for (int r = 0; r < m; r++) {
+      createRow (r);
+    }
+
+    this.columnRows = new int[n][];
+    createColumns ();
+
+    markGeneralConstraintVariables ();
+  }
+
+  protected int getIndex (final Variable variable) {
+    final Integer index = variableIndices.get (variable);
+    if (index == null) {
+      throw new IllegalArgumentException ("Variable " + variable.getName () + " is not part of program " +
+                                          program.getName ());
+    }
+    return index;
+  }
+
+  private void markQuadraticVariables (final Expression expr) {
+    for (final QuadraticTerm term: expr.getQuadraticTerms ()) {
+      protectedVariables[getIndex (term.getVariable1 ())] = true;
+      protectedVariables[getIndex (term.getVariable2 ())] = true;
+    }
+  }
+
+  private void markGeneralConstraintVariables () {
+    for (final RangeConstraint constraint: program.getRangeConstraints ()) {
+      for (final LinearTerm term: constraint.getExpression ().getLinearTerms ()) {
+        protectedVariables[getIndex (term.getVariable ())] = true;
+      }
+    }
+    for (final IndicatorConstraint constraint: program.getIndicatorConstraints ()) {
+      protectedVariables[getIndex (constraint.getIndicatorVariable ())] = true;
+      for (final LinearTerm term: constraint.getLhs ().getLinearTerms ()) {
+        protectedVariables[getIndex (term.getVariable ())] = true;
+      }
+      for (final LinearTerm term: constraint.getRhs ().getLinearTerms ()) {
+        protectedVariables[getIndex (term.getVariable ())] = true;
+      }
+    }
+    for (final SOSConstraint constraint: program.getSOSConstraints ()) {
+      for (final Variable variable: constraint.getVariables ()) {
+        protectedVariables[getIndex (variable)] = true;
+      }
+    }
+    for (final GeneralConstraint constraint: program.getGeneralConstraints ()) {
+      protectedVariables[getIndex (constraint.getResultant ())] = true;
+      for (final Variable variable: constraint.getOperands ()) {
+        protectedVariables[getIndex (variable)] = true;
+      }
+    }
+    for (final PiecewiseLinearTerm term: program.getPiecewiseLinearTerms ()) {
+      protectedVariables[getIndex (term.getVariable ())] = true;
+    }
+  }
+
+  private void createRow (final int r) {
+    final Constraint constraint = constraints[r];
+    final Map<Integer, Double> terms = new TreeMap<Integer, Double> ();
+    addTerms (terms, constraint.getLhs (), 1.0);
+    addTerms (terms, constraint.getRhs (), -1.0);
+
+    int length = 0;
+    rowIndices[r] = new int[terms.size ()];
+    rowValues[r] = new double[terms.size ()];
+    for (final Entry<Integer, Double> entry: terms.entrySet ()) {
+      if (entry.getValue () != 0.0) {
+        rowIndices[r][length] = entry.getKey ();
+        rowValues[r][length] = entry.getValue ();
+        length++;
+      }
+    }
+
+    rowLengths[r] = length;
+    operators[r] = constraint.getOperator ();
+    rightHandSides[r] = constraint.getRhs ().getConstant () - constraint.getLhs ().getConstant ();
+    quadraticRows[r] = !constraint.getLhs ().getQuadraticTerms ().isEmpty () ||
+                       !constraint.getRhs ().getQuadraticTerms ().isEmpty ();
+    markQuadraticVariables (constraint.getLhs ());
+    markQuadraticVariables (constraint.getRhs ());
+  }
+
+  private void addTerms (final Map<Integer, Double> terms,
+                         final Expression expr,
+                         final double factor) {
+    for (final LinearTerm term: expr.getLinearTerms ()) {
+      final Integer index = getIndex (term.getVariable ());
+      final Double coefficient = terms.get (index);
+      terms.put (index, ((coefficient == null) ? 0.0 : coefficient) + factor * term.getCoefficient ());
+    }
+  }
+
+  private void createColumns () {
+    final int[] counts = new int[variables.length];
+    for (int r = 0; r < rowLengths.length; r++) {
+      for (int i = 0; i < rowLengths[r]; i++) {
+        counts[rowIndices[r][i]]++;
+      }
+    }
+
+    for (int j = 0; j < variables.length; j++) {
+      columnRows[j] = new int[counts[j]];
+      counts[j] = 0;
+    }
+    for (int r = 0; r < rowLengths.length; r++) {
+      for (int i = 0; i < rowLengths[r]; i++) {
+        final int j = rowIndices[r][i];
+        columnRows[j][counts[j]++] = r;
+      }
+    }
+  }
+
+  protected Program getProgram () {
+    return program;
+  }
+
+  protected Variable[] getVariables () {
+    return variables;
+  }
+
+  protected Map<Variable, Integer> getVariableIndices () {
+    return variableIndices;
+  }
+
+  protected double[] getLowerBounds () {
+    return lowerBounds;
+  }
+
+  protected double[] getUpperBounds () {
+    return upperBounds;
+  }
+
+  protected boolean[] getProtectedVariables () {
+    return protectedVariables;
+  }
+
+  protected Objective[] getObjectives () {
+    return objectives;
+  }
+
+  protected double[][] getCosts () {
+    return costs;
+  }
+
+  protected double[] getObjectiveConstants () {
+    return objectiveConstants;
+  }
+
+  protected Constraint[] getConstraints () {
+    return constraints;
+  }
+
+  protected int[][] getRowIndices () {
+    return rowIndices;
+  }
+
+  protected double[][] getRowValues () {
+    return rowValues;
+  }
+
+  protected int[] getRowLengths () {
+    return rowLengths;
+  }
+
+  protected Operator[] getOperators () {
+    return operators;
+  }
+
+  protected double[] getRightHandSides () {
+    return rightHandSides;
+  }
+
+  protected boolean[] getQuadraticRows () {
+    return quadraticRows;
+  }
+
+  /**
+   * @return rows of each variable in ascending order, which also contain rows whose entry has been removed since
+   */
+  protected int[][] getColumnRows () {
+    return columnRows;
+  }
+
+  /**
+   * @return new array which marks the rows without quadratic terms
+   */
+  protected boolean[] getLinearRows () {
+    final boolean[] linearRows = new boolean[quadraticRows.length];
+    for (int r = 0; r < linearRows.length; r++) {
+      linearRows[r] = !quadraticRows[r];
+    }
+    return linearRows;
+  }
+
+  /**
+   * @return new array which marks the variables, which are only part of the rows
+   */
+  protected boolean[] getUnprotectedVariables () {
+    final boolean[] unprotectedVariables = new boolean[protectedVariables.length];
+    for (int j = 0; j < unprotectedVariables.length; j++) {
+      unprotectedVariables[j] = !protectedVariables[j];
+    }
+    return unprotectedVariables;
+  }
+}
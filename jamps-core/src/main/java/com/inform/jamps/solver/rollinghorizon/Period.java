@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.rollinghorizon;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+
+/**
+ * Variables and constraints of one period of a rolling horizon. Elements have to be added through the period, so the
+ * solver can fix, remove and warm start them together.
+ */
+public class Period {
+
+  private final Program               program;
+
+  private final Objective             objective;
+
+  private final int                   index;
+
+  private final Period                previous;
+
+  private final List<Variable>        variables     = new ArrayList<Variable> ();
+
+  private final Map<String, Variable> variableNames = new HashMap<String, Variable> ();
+
+  private final List<Constraint>      constraints   = new ArrayList<Constraint> ();
+
+  protected Period (final Program program,
+                    final Objective objective,
+                    final int index,
+                    final Period previous) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (objective == null) {
+      throw new IllegalArgumentException ("Parameter objective is mandatory and may not be null");
+    }
+
+    this.program = program;
+    this.objective = objective;
+    this.index = index;
+    this.previous = previous;
+  }
+
+  public int getIndex () {
+    return index;
+  }
+
+  /**
+   * @return the preceding period, or null for the first period
+   */
+  public Period getPrevious () {
+    return previous;
+  }
+
+  /**
+   * @return the objective of the program, to which the costs of the period are added
+   */
+  public Objective getObjective () {
+    return objective;
+  }
+
+  public Variable addVariable (final String name,
+                               final VariableType variableType,
+                               final double lowerBound,
+                               final double upperBound) {
+    if (name == null) {
+      throw new IllegalArgumentException ("Parameter name is mandatory and may not be null");
+    }
+
+    final Variable var = program.addVariable (name, variableType, lowerBound, upperBound);
+    variables.add (var);
+    variableNames.put (name, var);
+    return var;
+  }
+
+  public Constraint addConstraint (final String name,
+                                   final Operator operator) {
+    final Constraint constraint = program.addConstraint (name, operator);
+    constraints.add (constraint);
+    return constraint;
+  }
+
+  /**
+   * @return the variable of this period with the given name, or null if there is no such variable
+   */
+  public Variable getVariable (final String name) {
+    return variableNames.get (name);
+  }
+
+  public List<Variable> getVariables () {
+    return Collections.unmodifiableList (variables);
+  }
+
+  public List<Constraint> getConstraints () {
+    return Collections.unmodifiableList (constraints);
+  }
+
+  @Override
+  public String toString () {
+    return "period" + index;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.rollinghorizon;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Variable;
+
+public class RollingHorizonResult {
+
+  private final Map<Variable, Double> values;
+
+  private final double                objectiveValue;
+
+  private final int                   windowsCount;
+
+  protected RollingHorizonResult (final Map<Variable, Double> values,
+                                  final double objectiveValue,
+                                  final int windowsCount) {
+    this.values = Collections.unmodifiableMap (new IdentityHashMap<Variable, Double> (values));
+    this.objectiveValue = objectiveValue;
+    this.windowsCount = windowsCount;
+  }
+
+  /**
+   * @return committed value of a variable of any period, including periods removed from the program
+   */
+  public double getVariableValue (final Variable variable) {
+    final Double value = values.get (variable);
+    if (value == null) {
+      throw new IllegalArgumentException ("Variable " + variable + " is not part of the rolling horizon");
+    }
+    return value;
+  }
+
+  /**
+   * @return objective value of the committed decisions of all periods
+   */
+  public double getObjectiveValue () {
+    return objectiveValue;
+  }
+
+  public int getWindowsCount () {
+    return windowsCount;
+  }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.rollinghorizon;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.inform.jamps.exception.SolverException;
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.MathProgrammingSolverFactory;
+import com.inform.jamps.solver.Solution;
+import com.inform.jamps.solver.SolverParameters;
+
+/**
+ * Solves a time-indexed program window by window. After every window the decisions of the first periods are committed
+ * by fixing their variables and removing their constraints, then the window moves on by the step size and the periods
+ * entering the window are added. Committed periods are retained as long as later periods may refer to them and are
+ * removed afterwards. Every window starts from the solution of the previous window for the periods of the overlap.
+ * <p>
+ * All windows are solved on one program, which only changes by added and removed elements, bounds and initial
+ * values. Solvers which apply such changes to their native model incrementally never rebuild it.
+ */
+public class RollingHorizonSolver<P extends SolverParameters> {
+
+  protected final static int                       DEFAULT_RETAINED_PERIODS_COUNT = 1;
+
+  private final MathProgrammingSolverFactory<?, P> factory;
+
+  private final P                                  parameters;
+
+  private final PeriodModel                        periodModel;
+
+  private final int                                periodsCount;
+
+  private final int                                windowLength;
+
+  private final int                                stepSize;
+
+  private ObjectiveSense                           objectiveSense                 = ObjectiveSense.MINIMIZE;
+
+  private int                                      retainedPeriodsCount           = DEFAULT_RETAINED_PERIODS_COUNT;
+
+  private String                                   programName                    = "rollinghorizon";
+
+  public RollingHorizonSolver (final MathProgrammingSolverFactory<?, P> factory,
+                               final P parameters,
+                               final PeriodModel periodModel,
+                               final int periodsCount,
+                               final int windowLength,
+                               final int stepSize) {
+    if (factory == null) {
+      throw new IllegalArgumentException ("Parameter factory is mandatory and may not be null");
+    }
+    if (parameters == null) {
+      throw new IllegalArgumentException ("Parameter parameters is mandatory and may not be null");
+    }
+    if (periodModel == null) {
+      throw new IllegalArgumentException ("Parameter periodModel is mandatory and may not be null");
+    }
+    if (periodsCount < 1) {
+      throw new IllegalArgumentException ("Parameter periodsCount must be positive");
+    }
+    if (windowLength < 1) {
+      throw new IllegalArgumentException ("Parameter windowLength must be positive");
+    }
+    if (stepSize < 1 || stepSize > windowLength) {
+      throw new IllegalArgumentException ("Parameter stepSize must be between 1 and windowLength");
+    }
+
+    this.factory = factory;
+    this.parameters = parameters;
+    this.periodModel = periodModel;
+    this.periodsCount = periodsCount;
+    this.windowLength = windowLength;
+    this.stepSize = stepSize;
+  }
+
+  public ObjectiveSense getObjectiveSense () {
+    return objectiveSense;
+  }
+
+  public void setObjectiveSense (final ObjectiveSense objectiveSense) {
+    if (objectiveSense == null) {
+      throw new IllegalArgumentException ("Parameter objectiveSense is mandatory and may not be null");
+    }
+
+    this.objectiveSense = objectiveSense;
+  }
+
+  public int getRetainedPeriodsCount () {
+    return retainedPeriodsCount;
+  }
+
+  /**
+   * Number of committed periods before the window whose fixed variables stay in the program, which is the maximum
+   * number of periods a constraint may look back.
+   */
+  public void setRetainedPeriodsCount (final int retainedPeriodsCount) {
+    if (retainedPeriodsCount < 0) {
+      throw new IllegalArgumentException ("Parameter retainedPeriodsCount may not be negative");
+    }
+
+    this.retainedPeriodsCount = retainedPeriodsCount;
+  }
+
+  public String getProgramName () {
+    return programName;
+  }
+
+  public void setProgramName (final String programName) {
+    if (programName == null) {
+      throw new IllegalArgumentException ("Parameter programName is mandatory and may not be null");
+    }
+
+    this.programName = programName;
+  }
+
+  public RollingHorizonResult solve () {
+    final Program program = factory.createProgram (programName);
+    final Objective objective = program.addObjective (objectiveSense);
+    final Period[] periods = new Period[periodsCount];
+    // Variables are compared by identity, as their hash codes depend on their bounds, which fix committed periods
+    final Map<Variable, Double> committedValues = new IdentityHashMap<Variable, Double> ();
+    final Map<Variable, Double> startValues = new IdentityHashMap<Variable, Double> ();
+
+    double removedObjectiveValue = 0.0;
+    int addedCount = 0;
+    int removedCount = 0;
+    int windowStart = 0;
+    int windowsCount = 0;
+
+    while (true) {
+      final int windowEnd = Math.min (windowStart + windowLength, periodsCount);
+      while (addedCount < windowEnd) {
+        periods[addedCount] = new Period (program, objective, addedCount,
+                                          (addedCount > 0) ? periods[addedCount - 1] : null);
+        periodModel.addPeriod (periods[addedCount]);
+        addedCount++;
+      }
+
+      if (!startValues.isEmpty ()) {
+        setInitialValues (program, startValues);
+        startValues.clear ();
+      }
+
+      final ExecutionResult<Program> result = factory.createSolver ().solve (parameters, program);
+      windowsCount++;
+      if (!result.hasSolution ()) {
+        throw new SolverException ("No solution found for the window of periods " + windowStart + " to " +
+                                   (windowEnd - 1));
+      }
+      final Solution solution = result.getBestSolution ();
+
+      if (windowEnd == periodsCount) {
+        // The last window commits all remaining periods as they are, without changing the program anymore
+        for (int p = windowStart; p < windowEnd; p++) {
+          collectValues (periods[p], solution, committedValues);
+        }
+        return new RollingHorizonResult (committedValues, solution.getObjectiveValue () + removedObjectiveValue,
+                                         windowsCount);
+      }
+
+      final int commitEnd = windowStart + stepSize;
+      for (int p = windowStart; p < commitEnd; p++) {
+        commit (program, periods[p], solution, committedValues);
+      }
+
+      windowStart = commitEnd;
+      while (removedCount < windowStart - retainedPeriodsCount) {
+        removedObjectiveValue += removeExpired (program, objective, periods[removedCount], committedValues);
+        removedCount++;
+      }
+
+      // The solution of the overlap warm starts the next window, periods entering the window start without values
+      for (int p = removedCount; p < windowEnd; p++) {
+        collectValues (periods[p], solution, startValues);
+      }
+    }
+  }
+
+  private static void collectValues (final Period period,
+                                     final Solution solution,
+                                     final Map<Variable, Double> values) {
+    for (final Variable var: period.getVariables ()) {
+      final double value = solution.getVariableValue (var);
+      values.put (var, isIntegral (var.getType ()) ? Math.round (value) : value);
+    }
+  }
+
+  /**
+   * Fixes the variables of the period to the solution and removes its constraints, which only refer to fixed
+   * variables from now on.
+   */
+  private static void commit (final Program program,
+                              final Period period,
+                              final Solution solution,
+                              final Map<Variable, Double> committedValues) {
+    collectValues (period, solution, committedValues);
+
+    final List<Variable> variables = period.getVariables ();
+    final Variable[] fixedVariables = variables.toArray (new Variable[variables.size ()]);
+    final double[] fixedValues = new double[fixedVariables.length];
+    for (int i = 0; i < fixedVariables.length; i++) {
+      fixedValues[i] = committedValues.get (fixedVariables[i]);
+    }
+    program.setBounds (fixedVariables, fixedValues, fixedValues);
+
+    final List<Constraint> constraints = period.getConstraints ();
+    program.removeConstraints (constraints.toArray (new Constraint[constraints.size ()]));
+  }
+
+  /**
+   * @return objective value of the fixed variables of the period, which is no longer part of the program objective
+   */
+  private static double removeExpired (final Program program,
+                                       final Objective objective,
+                                       final Period period,
+                                       final Map<Variable, Double> committedValues) {
+    double objectiveValue = 0.0;
+    final List<Variable> variables = new ArrayList<Variable> (period.getVariables ());
+    for (final Variable var: variables) {
+      objectiveValue += objective.getExpression ().getCoefficient (var) * committedValues.get (var);
+    }
+
+    program.removeVariables (variables.toArray (new Variable[variables.size ()]));
+    return objectiveValue;
+  }
+
+  private static void setInitialValues (final Program program,
+                                        final Map<Variable, Double> startValues) {
+    final Variable[] variables = new Variable[startValues.size ()];
+    final double[] values = new double[variables.length];
+    int index = 0;
+    for (final Entry<Variable, Double> entry: startValues.entrySet ()) {
+      variables[index] = entry.getKey ();
+      values[index] = entry.getValue ();
+      index++;
+    }
+    program.setInitialValues (variables, values);
+  }
+
+  private static boolean isIntegral (final VariableType type) {
+    return type == VariableType.BINARY || type == VariableType.INTEGER || type == VariableType.SEMI_INTEGER;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.stochastic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Deterministic equivalent of a two-stage stochastic program together with the mapping of template variables and
+ * constraints to their copies. First-stage variables and constraints exist once, second-stage ones once per scenario.
+ */
+public class ScenarioTreeProgram {
+
+  private final Program                  program;
+
+  private final List<StochasticScenario> scenarios;
+
+  private final Map<Variable, Integer>   variableIndices;
+
+  private final Map<Constraint, Integer> constraintIndices;
+
+  private final Variable[]               firstStageVariables;
+
+  private final Variable[][]             secondStageVariables;
+
+  private final Constraint[]             firstStageConstraints;
+
+  private final Constraint[][]           secondStageConstraints;
+
+  protected ScenarioTreeProgram (final Program program,
+                                 final List<StochasticScenario> scenarios,
+                                 final Map<Variable, Integer> variableIndices,
+                                 final Map<Constraint, Integer> constraintIndices,
+                                 final Variable[] firstStageVariables,
+                                 final Variable[][] secondStageVariables,
+                                 final Constraint[] firstStageConstraints,
+                                 final Constraint[][] secondStageConstraints) {
+    this.program = program;
+    this.scenarios = Collections.unmodifiableList (new ArrayList<StochasticScenario> (scenarios));
+    this.variableIndices = variableIndices;
+    this.constraintIndices = constraintIndices;
+    this.firstStageVariables = firstStageVariables;
+    this.secondStageVariables = secondStageVariables;
+    this.firstStageConstraints = firstStageConstraints;
+    this.secondStageConstraints = secondStageConstraints;
+  }
+
+  public Program getProgram () {
+    return program;
+  }
+
+  public List<StochasticScenario> getScenarios () {
+    return scenarios;
+  }
+
+  /**
+   * @return copy of a template variable in the given scenario, which is the shared copy for first-stage variables
+   */
+  public Variable getVariable (final Variable templateVariable,
+                               final int scenarioIndex) {
+    final int index = getIndex (variableIndices, templateVariable, scenarioIndex);
+    return (index < 0) ? firstStageVariables[-index - 1] : secondStageVariables[scenarioIndex][index];
+  }
+
+  /**
+   * @return copy of a template constraint in the given scenario, which is the shared copy for constraints with
+   *         first-stage variables only
+   */
+  public Constraint getConstraint (final Constraint templateConstraint,
+                                   final int scenarioIndex) {
+    final int index = getIndex (constraintIndices, templateConstraint, scenarioIndex);
+    return (index < 0) ? firstStageConstraints[-index - 1] : secondStageConstraints[scenarioIndex][index];
+  }
+
+  private <T> int getIndex (final Map<T, Integer> indices,
+                            final T element,
+                            final int scenarioIndex) {
+    if (scenarioIndex < 0 || scenarioIndex >= scenarios.size ()) {
+      throw new IndexOutOfBoundsException ("Index " + scenarioIndex + " is out of range [0, " + scenarios.size () +
+                                           ")");
+    }
+
+    final Integer index = indices.get (element);
+    if (index == null) {
+      throw new IllegalArgumentException (element + " is not part of the template program");
+    }
+    return index;
+  }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.stochastic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.ProgramMode;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.MathProgrammingSolverFactory;
+
+/**
+ * Builds the deterministic equivalent of a two-stage stochastic program from a template program and a list of
+ * scenarios. The second-stage rows of the template are compiled once into compressed sparse row arrays, which are
+ * replayed for every scenario with its changes applied, so no user model code runs per scenario. First-stage columns
+ * and constraints with first-stage variables only are shared by all scenarios. The program is created in the default
+ * mode unless direct mode is set, which streams the rows to the native model in chunks.
+ */
+public class ScenarioTreeProgramBuilder {
+
+  private final MathProgrammingSolverFactory<?, ?> factory;
+
+  private final Program                            template;
+
+  private final Set<Variable>                      firstStageVariables;
+
+  private final List<StochasticScenario>           scenarios   = new ArrayList<StochasticScenario> ();
+
+  private ProgramMode                              programMode = ProgramMode.DEFAULT;
+
+  private int[]                                    rowStarts;
+
+  private int[]                                    rowColumns;
+
+  private double[]                                 rowValues;
+
+  private double[]                                 rowConstants;
+
+  private Operator[]                               rowOperators;
+
+  public ScenarioTreeProgramBuilder (final MathProgrammingSolverFactory<?, ?> factory,
+                                     final Program template,
+                                     final Collection<? extends Variable> firstStageVariables) {
+    if (factory == null) {
+      throw new IllegalArgumentException ("Parameter factory is mandatory and may not be null");
+    }
+    if (template == null) {
+      throw new IllegalArgumentException ("Parameter template is mandatory and may not be null");
+    }
+    if (firstStageVariables == null) {
+      throw new IllegalArgumentException ("Parameter firstStageVariables is mandatory and may not be null");
+    }
+    if (template.getObjectivesCount () != 1) {
+      throw new IllegalArgumentException ("Template program must have exactly one objective");
+    }
+    if (template.getConstraints ().size () != template.getConstraintsCount ()) {
+      throw new IllegalArgumentException ("Template program " + template.getName () +
+                                          " does not provide its constraints");
+    }
+    if (template.hasGeneralConstraints () || !template.getRangeConstraints ().isEmpty ()) {
+      throw new IllegalArgumentException ("Template program " + template.getName () +
+                                          " with range or general constraints is not supported");
+    }
+
+    this.factory = factory;
+    this.template = template;
+    // Variables are compared by identity, as their hash codes depend on their bounds
+    this.firstStageVariables = Collections.newSetFromMap (new IdentityHashMap<Variable, Boolean> ());
+    this.firstStageVariables.addAll (firstStageVariables);
+  }
+
+  public ScenarioTreeProgramBuilder addScenario (final StochasticScenario scenario) {
+    if (scenario == null) {
+      throw new IllegalArgumentException ("Parameter scenario is mandatory and may not be null");
+    }
+
+    scenarios.add (scenario);
+    return this;
+  }
+
+  public ProgramMode getProgramMode () {
+    return programMode;
+  }
+
+  public void setProgramMode (final ProgramMode programMode) {
+    if (programMode == null) {
+      throw new IllegalArgumentException ("Parameter programMode is mandatory and may not be null");
+    }
+
+    this.programMode = programMode;
+  }
+
+  public ScenarioTreeProgram build () {
+    if (scenarios.isEmpty ()) {
+      throw new IllegalStateException ("At least one scenario is required to build the deterministic equivalent");
+    }
+
+    final List<? extends Variable> variables = template.getVariables ();
+    final Map<Variable, Integer> variableIndices = new IdentityHashMap<Variable, Integer> (variables.size ());
+    final List<Variable> firstStage = new ArrayList<Variable> ();
+    final List<Variable> secondStage = new ArrayList<Variable> ();
+    for (final Variable var: variables) {
+      if (firstStageVariables.contains (var)) {
+        firstStage.add (var);
+        variableIndices.put (var, -firstStage.size ());
+      } else {
+        variableIndices.put (var, secondStage.size ());
+        secondStage.add (var);
+      }
+    }
+    if (firstStage.size () != firstStageVariables.size ()) {
+      throw new IllegalArgumentException ("First-stage variables must be variables of the template program");
+    }
+
+    final List<Constraint> firstStageRows = new ArrayList<Constraint> ();
+    final List<Constraint> secondStageRows = new ArrayList<Constraint> ();
+    final Map<Constraint, Integer> constraintIndices = new IdentityHashMap<Constraint, Integer> ();
+    for (final Constraint constraint: template.getConstraints ()) {
+      if (isFirstStageOnly (constraint.getLhs (), variableIndices) &&
+          isFirstStageOnly (constraint.getRhs (), variableIndices)) {
+        firstStageRows.add (constraint);
+        constraintIndices.put (constraint, -firstStageRows.size ());
+      } else {
+        constraintIndices.put (constraint, secondStageRows.size ());
+        secondStageRows.add (constraint);
+      }
+    }
+    compileRows (secondStageRows, variableIndices);
+
+    final Program program = factory.createProgram (template.getName () + "_deterministicEquivalent", programMode);
+
+    final Variable[] firstStageCopies = new Variable[firstStage.size ()];
+    for (int i = 0; i < firstStageCopies.length; i++) {
+      firstStageCopies[i] = copyVariable (program, firstStage.get (i), "", null);
+    }
+
+    final Variable[][] secondStageCopies = new Variable[scenarios.size ()][secondStage.size ()];
+    for (int s = 0; s < scenarios.size (); s++) {
+      final StochasticScenario scenario = scenarios.get (s);
+      final Map<Variable, double[]> bounds = collectBounds (scenario, variableIndices);
+      final String suffix = "_" + scenario.getName ();
+      for (int i = 0; i < secondStage.size (); i++) {
+        secondStageCopies[s][i] = copyVariable (program, secondStage.get (i), suffix, bounds);
+      }
+    }
+
+    addObjective (program, variableIndices, firstStageCopies, secondStage, secondStageCopies);
+
+    final Constraint[] firstStageConstraints = new Constraint[firstStageRows.size ()];
+    for (int i = 0; i < firstStageConstraints.length; i++) {
+      final Constraint constraint = firstStageRows.get (i);
+      final Constraint copy = program.addConstraint (constraint.getName (), constraint.getOperator ());
+      copyTerms (constraint.getLhs (), copy.getLhs (), variableIndices, firstStageCopies);
+      copyTerms (constraint.getRhs (), copy.getRhs (), variableIndices, firstStageCopies);
+      firstStageConstraints[i] = copy;
+    }
+
+    final Constraint[][] secondStageConstraints = new Constraint[scenarios.size ()][secondStageRows.size ()];
+    for (int s = 0; s < scenarios.size (); s++) {
+      addScenarioRows (program, s, secondStageRows, constraintIndices, variableIndices, firstStageCopies,
+                       secondStageCopies[s], secondStageConstraints[s]);
+    }
+
+    return new ScenarioTreeProgram (program, scenarios, variableIndices, constraintIndices, firstStageCopies,
+                                    secondStageCopies, firstStageConstraints, secondStageConstraints);
+  }
+
+  private static boolean isFirstStageOnly (final Expression expr,
+                                           final Map<Variable, Integer> variableIndices) {
+    if (!expr.getQuadraticTerms ().isEmpty ()) {
+      throw new IllegalArgumentException ("Quadratic terms are not supported in template programs");
+    }
+
+    for (final LinearTerm term: expr.getLinearTerms ()) {
+      if (indexOf (term.getVariable (), variableIndices) >= 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int indexOf (final Variable variable,
+                              final Map<Variable, Integer> variableIndices) {
+    final Integer index = variableIndices.get (variable);
+    if (index == null) {
+      throw new IllegalArgumentException ("Variable " + variable + " is not part of the template program");
+    }
+    return index;
+  }
+
+  /**
+   * Compiles the second-stage rows into the form <code>sum(value * column) operator constant</code>. Columns of
+   * first-stage variables are stored as negative indices.
+   */
+  private void compileRows (final List<Constraint> rows,
+                            final Map<Variable, Integer> variableIndices) {
+    final List<int[]> columns = new ArrayList<int[]> (rows.size ());
+    final List<double[]> values = new ArrayList<double[]> (rows.size ());
+    int nonZerosCount = 0;
+
+    for (final Constraint constraint: rows) {
+      final List<LinearTerm> lhsTerms = constraint.getLhs ().getLinearTerms ();
+      final List<LinearTerm> rhsTerms = constraint.getRhs ().getLinearTerms ();
+      final int[] rowColumns = new int[lhsTerms.size () + rhsTerms.size ()];
+      final double[] rowValues = new double[rowColumns.length];
+
+      for (int i = 0; i < lhsTerms.size (); i++) {
+        rowColumns[i] = indexOf (lhsTerms.get (i).getVariable (), variableIndices);
+        rowValues[i] = lhsTerms.get (i).getCoefficient ();
+      }
+      for (int i = 0; i < rhsTerms.size (); i++) {
+        rowColumns[lhsTerms.size () + i] = indexOf (rhsTerms.get (i).getVariable (), variableIndices);
+        rowValues[lhsTerms.size () + i] = -rhsTerms.get (i).getCoefficient ();
+      }
+
+      columns.add (rowColumns);
+      values.add (rowValues);
+      nonZerosCount += rowColumns.length;
+    }
+
+    rowStarts = new int[rows.size () + 1];
+    rowColumns = new int[nonZerosCount];
+    rowValues = new double[nonZerosCount];
+    rowConstants = new double[rows.size ()];
+    rowOperators = new Operator[rows.size ()];
+
+    for (int i = 0; i < rows.size (); i++) {
+      final int start = rowStarts[i];
+      System.arraycopy (columns.get (i), 0, rowColumns, start, columns.get (i).length);
+      System.arraycopy (values.get (i), 0, rowValues, start, values.get (i).length);
+      rowStarts[i + 1] = start + columns.get (i).length;
+
+      final Constraint constraint = rows.get (i);
+      rowConstants[i] = constraint.getRhs ().getConstant () - constraint.getLhs ().getConstant ();
+      rowOperators[i] = constraint.getOperator ();
+    }
+  }
+
+  private static Variable copyVariable (final Program program,
+                                        final Variable var,
+                                        final String suffix,
+                                        final Map<Variable, double[]> bounds) {
+    final double[] scenarioBounds = (bounds == null) ? null : bounds.get (var);
+    final double lowerBound = (scenarioBounds == null) ? var.getLowerBound () : scenarioBounds[0];
+    final double upperBound = (scenarioBounds == null) ? var.getUpperBound () : scenarioBounds[1];
+
+    final Variable copy = program.addVariable (var.getName () + suffix, var.getType (), lowerBound, upperBound);
+    if (var.hasInitialValue ()) {
+      copy.setInitialValue (var.getInitialValue ());
+    }
+    return copy;
+  }
+
+  private static Map<Variable, double[]> collectBounds (final StochasticScenario scenario,
+                                                        final Map<Variable, Integer> variableIndices) {
+    final Map<Variable, double[]> bounds = new IdentityHashMap<Variable, double[]> ();
+    for (int i = 0; i < scenario.getBoundChangesCount (); i++) {
+      final Variable var = scenario.getBoundVariable (i);
+      if (indexOf (var, variableIndices) < 0) {
+        throw new IllegalArgumentException ("Scenario " + scenario.getName () + " changes bounds of first-stage " +
+                                            "variable " + var);
+      }
+      bounds.put (var, new double[] {scenario.getLowerBound (i), scenario.getUpperBound (i)});
+    }
+    return bounds;
+  }
+
+  private void addObjective (final Program program,
+                             final Map<Variable, Integer> variableIndices,
+                             final Variable[] firstStageCopies,
+                             final List<Variable> secondStage,
+                             final Variable[][] secondStageCopies) {
+    final Objective objective = template.getObjectives ().get (0);
+    final Expression expr = objective.getExpression ();
+    if (!expr.getQuadraticTerms ().isEmpty ()) {
+      throw new IllegalArgumentException ("Quadratic terms are not supported in template programs");
+    }
+
+    final Objective copy = program.addObjective (objective.getName (), objective.getObjectiveSense ());
+    final Expression copyExpr = copy.getExpression ();
+    copyExpr.addTerm (expr.getConstant ());
+
+    final double[] costs = new double[secondStage.size ()];
+    for (final LinearTerm term: expr.getLinearTerms ()) {
+      final int index = indexOf (term.getVariable (), variableIndices);
+      if (index < 0) {
+        copyExpr.addTerm (term.getCoefficient (), firstStageCopies[-index - 1]);
+      } else {
+        costs[index] += term.getCoefficient ();
+      }
+    }
+
+    // Second-stage costs are weighted with the probability of their scenario
+    for (int s = 0; s < scenarios.size (); s++) {
+      final StochasticScenario scenario = scenarios.get (s);
+      final double[] scenarioCosts = costs.clone ();
+      for (int i = 0; i < scenario.getObjectiveChangesCount (); i++) {
+        final Variable var = scenario.getObjectiveVariable (i);
+        final int index = indexOf (var, variableIndices);
+        if (scenario.getObjective (i) != objective || index < 0) {
+          throw new IllegalArgumentException ("Scenario " + scenario.getName () + " may only change objective " +
+                                              "coefficients of second-stage variables in the template objective");
+        }
+        scenarioCosts[index] = scenario.getObjectiveCoefficient (i);
+      }
+
+      for (int i = 0; i < scenarioCosts.length; i++) {
+        if (scenarioCosts[i] != 0.0) {
+          copyExpr.addTerm (scenario.getProbability () * scenarioCosts[i], secondStageCopies[s][i]);
+        }
+      }
+    }
+  }
+
+  private static void copyTerms (final Expression source,
+                                 final Expression target,
+                                 final Map<Variable, Integer> variableIndices,
+                                 final Variable[] firstStageCopies) {
+    for (final LinearTerm term: source.getLinearTerms ()) {
+      target.addTerm (term.getCoefficient (), firstStageCopies[-indexOf (term.getVariable (), variableIndices) - 1]);
+    }
+    target.addTerm (source.getConstant ());
+  }
+
+  private void addScenarioRows (final Program program,
+                                final int scenarioIndex,
+                                final List<Constraint> rows,
+                                final Map<Constraint, Integer> constraintIndices,
+                                final Map<Variable, Integer> variableIndices,
+                                final Variable[] firstStageCopies,
+                                final Variable[] secondStageCopies,
+                                final Constraint[] copies) {
+    final StochasticScenario scenario = scenarios.get (scenarioIndex);
+    final String suffix = "_" + scenario.getName ();
+
+    final double[] constants = rowConstants.clone ();
+    for (int i = 0; i < scenario.getRightHandSideChangesCount (); i++) {
+      constants[indexOfRow (scenario, scenario.getConstraint (i), constraintIndices)] =
+        scenario.getRightHandSide (i);
+    }
+
+    // Coefficient changes are grouped by row like the compiled rows, keeping their order within a row
+    final int changesCount = scenario.getCoefficientChangesCount ();
+    final int[] changeRows = new int[changesCount];
+    final int[] changeStarts = new int[copies.length + 1];
+    for (int i = 0; i < changesCount; i++) {
+      changeRows[i] = indexOfRow (scenario, scenario.getCoefficientConstraint (i), constraintIndices);
+      changeStarts[changeRows[i] + 1]++;
+    }
+    for (int row = 0; row < copies.length; row++) {
+      changeStarts[row + 1] += changeStarts[row];
+    }
+
+    final int[] changeColumns = new int[changesCount];
+    final double[] changeValues = new double[changesCount];
+    final int[] positions = Arrays.copyOf (changeStarts, copies.length);
+    for (int i = 0; i < changesCount; i++) {
+      final int position = positions[changeRows[i]]++;
+      changeColumns[position] = indexOf (scenario.getCoefficientVariable (i), variableIndices);
+      changeValues[position] = scenario.getCoefficient (i);
+    }
+
+    // Direct programs only accept terms for the most recently added constraint, so every row is written completely
+    for (int row = 0; row < copies.length; row++) {
+      final Constraint copy = program.addConstraint (rows.get (row).getName () + suffix, rowOperators[row]);
+      final Expression lhs = copy.getLhs ();
+      final int changesStart = changeStarts[row];
+      final int changesEnd = changeStarts[row + 1];
+
+      for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+        final int column = rowColumns[i];
+        if (indexOfColumn (changeColumns, changesStart, changesEnd, column) < 0) {
+          lhs.addTerm (rowValues[i], (column < 0) ? firstStageCopies[-column - 1] : secondStageCopies[column]);
+        }
+      }
+
+      // Only the last change of a coefficient applies
+      for (int i = changesStart; i < changesEnd; i++) {
+        final int column = changeColumns[i];
+        if (indexOfColumn (changeColumns, i + 1, changesEnd, column) < 0) {
+          lhs.addTerm (changeValues[i], (column < 0) ? firstStageCopies[-column - 1] : secondStageCopies[column]);
+        }
+      }
+
+      copy.getRhs ().addTerm (constants[row]);
+      copies[row] = copy;
+    }
+  }
+
+  private static int indexOfColumn (final int[] columns,
+                                    final int fromIndex,
+                                    final int toIndex,
+                                    final int column) {
+    for (int i = fromIndex; i < toIndex; i++) {
+      if (columns[i] == column) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int indexOfRow (final StochasticScenario scenario,
+                                 final Constraint constraint,
+                                 final Map<Constraint, Integer> constraintIndices) {
+    final Integer index = constraintIndices.get (constraint);
+    if (index == null || index < 0) {
+      throw new IllegalArgumentException ("Scenario " + scenario.getName () + " may only change second-stage " +
+                                          "constraints of the template program");
+    }
+    return index;
+  }
+}
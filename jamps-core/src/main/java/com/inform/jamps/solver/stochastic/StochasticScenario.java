@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.stochastic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.Scenario;
+
+/**
+ * Scenario of a two-stage stochastic program with its probability and optional changes of constraint coefficients.
+ * Like right-hand sides, coefficients refer to the form with all variable terms moved to the left-hand side.
+ * Coefficient changes are only supported when building the deterministic equivalent.
+ */
+public class StochasticScenario extends Scenario {
+
+  private final double           probability;
+
+  private final List<Constraint> coefficientConstraints = new ArrayList<Constraint> ();
+
+  private final List<Variable>   coefficientVariables   = new ArrayList<Variable> ();
+
+  private double[]               coefficients           = new double[INITIAL_CAPACITY];
+
+  public StochasticScenario (final String name,
+                             final double probability) {
+    super (name);
+
+    if (probability < 0.0 || probability > 1.0) {
+      throw new IllegalArgumentException ("Parameter probability must be in range [0, 1]");
+    }
+
+    this.probability = probability;
+  }
+
+  public double getProbability () {
+    return probability;
+  }
+
+  public StochasticScenario setCoefficient (final Constraint constraint,
+                                            final Variable variable,
+                                            final double coefficient) {
+    if (constraint == null) {
+      throw new IllegalArgumentException ("Parameter constraint is mandatory and may not be null");
+    }
+    if (variable == null) {
+      throw new IllegalArgumentException ("Parameter variable is mandatory and may not be null");
+    }
+
+    coefficients = ensureCapacity (coefficients, coefficientVariables.size ());
+    coefficients[coefficientVariables.size ()] = coefficient;
+    coefficientConstraints.add (constraint);
+    coefficientVariables.add (variable);
+    return this;
+  }
+
+  public int getCoefficientChangesCount () {
+    return coefficientVariables.size ();
+  }
+
+  public Constraint getCoefficientConstraint (final int index) {
+    return coefficientConstraints.get (index);
+  }
+
+  public Variable getCoefficientVariable (final int index) {
+    return coefficientVariables.get (index);
+  }
+
+  public double getCoefficient (final int index) {
+    checkIndex (index, coefficientVariables.size ());
+    return coefficients[index];
+  }
+
+  @Override
+  public String toString () {
+    return super.toString () + " with probability " + probability;
+  }
+}
@@ -0,0 +1,838 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.modeling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Plain in-memory program for tests of solver independent algorithms. Quadratic terms are not supported.
+ */
+public class SimpleProgram implements Program {
+
+  private final List<SimpleVariable>            variables            = new ArrayList<SimpleVariable> ();
+
+  private final List<SimpleObjective>           objectives           = new ArrayList<SimpleObjective> ();
+
+  private final List<SimpleConstraint>          constraints          = new ArrayList<SimpleConstraint> ();
+
+  private final List<SimpleRangeConstraint>     rangeConstraints     = new ArrayList<SimpleRangeConstraint> ();
+
+  private final List<SimpleIndicatorConstraint> indicatorConstraints = new ArrayList<SimpleIndicatorConstraint> ();
+
+  private final List<SimpleSOSConstraint>       sosConstraints       = new ArrayList<SimpleSOSConstraint> ();
+
+  private final List<SimpleGeneralConstraint>   generalConstraints   = new ArrayList<SimpleGeneralConstraint> ();
+
+  private final List<SimplePiecewiseLinearTerm> piecewiseLinearTerms = new ArrayList<SimplePiecewiseLinearTerm> ();
+
+  private String                                name;
+
+  public SimpleProgram (final String name) {
+    this.name = name;
+  }
+
+  @Override
+  public String getName () {
+    return name;
+  }
+
+  @Override
+  public void setName (final String name) {
+    this.name = name;
+  }
+
+  @Override
+  public int getVariablesCount () {
+    return variables.size ();
+  }
+
+  @Override
+  public int getObjectivesCount () {
+    return objectives.size ();
+  }
+
+  @Override
+  public int getConstraintsCount () {
+    return constraints.size ();
+  }
+
+  @Override
+  public List<SimpleVariable> getVariables () {
+    return Collections.unmodifiableList (variables);
+  }
+
+  @Override
+  public List<SimpleObjective> getObjectives () {
+    return Collections.unmodifiableList (objectives);
+  }
+
+  @Override
+  public List<SimpleConstraint> getConstraints () {
+    return Collections.unmodifiableList (constraints);
+  }
+
+  @Override
+  public Variable addVariable (final String name,
+                               final VariableType variableType,
+                               final double lowerBound,
+                               final double upperBound) {
+    final SimpleVariable var = createVariable (name, variableType);
+    var.setLowerBound (lowerBound);
+    var.setUpperBound (upperBound);
+    variables.add (var);
+    return var;
+  }
+
+  @Override
+  public Variable addVariable (final VariableType variableType,
+                               final double lowerBound,
+                               final double upperBound) {
+    return addVariable ("x" + variables.size (), variableType, lowerBound, upperBound);
+  }
+
+  protected SimpleVariable createVariable (final String name,
+                                           final VariableType variableType) {
+    return new SimpleVariable (name, variableType);
+  }
+
+  @Override
+  public Variable addVariable (final String name,
+                               final VariableType variableType) {
+    return addVariable (name, variableType, 0.0, Double.POSITIVE_INFINITY);
+  }
+
+  @Override
+  public Variable addVariable (final VariableType variableType) {
+    return addVariable ("x" + variables.size (), variableType);
+  }
+
+  @Override
+  public Variable addVariable () {
+    return addVariable (VariableType.CONTINUOUS);
+  }
+
+  @Override
+  public void setBounds (final Variable[] variables,
+                         final double[] lowerBounds,
+                         final double[] upperBounds) {
+    for (int i = 0; i < variables.length; i++) {
+      variables[i].setLowerBound (lowerBounds[i]);
+      variables[i].setUpperBound (upperBounds[i]);
+    }
+  }
+
+  @Override
+  public void setInitialValues (final Variable[] variables,
+                                final double[] initialValues) {
+    for (int i = 0; i < variables.length; i++) {
+      variables[i].setInitialValue (initialValues[i]);
+    }
+  }
+
+  @Override
+  public void setObjectiveCoefficients (final Objective objective,
+                                        final Variable[] variables,
+                                        final double[] coefficients) {
+    for (int i = 0; i < variables.length; i++) {
+      objective.getExpression ().removeLinearTerm (variables[i]).addTerm (coefficients[i], variables[i]);
+    }
+  }
+
+  @Override
+  public Objective addObjective (final String name,
+                                 final ObjectiveSense sense) {
+    final SimpleObjective obj = new SimpleObjective (name, sense);
+    objectives.add (obj);
+    return obj;
+  }
+
+  @Override
+  public Objective addObjective (final ObjectiveSense sense) {
+    return addObjective ("obj" + objectives.size (), sense);
+  }
+
+  @Override
+  public Objective addObjective () {
+    return addObjective (ObjectiveSense.MINIMIZE);
+  }
+
+  @Override
+  public Constraint addConstraint (final String name,
+                                   final Operator operator) {
+    final SimpleConstraint constr = new SimpleConstraint (name, operator);
+    constraints.add (constr);
+    return constr;
+  }
+
+  @Override
+  public Constraint addConstraint (final Operator operator) {
+    return addConstraint ("c" + constraints.size (), operator);
+  }
+
+  @Override
+  public Constraint addConstraint () {
+    return addConstraint (Operator.EQUALS);
+  }
+
+  @Override
+  public void removeVariables (final Variable[] variables) {
+    final List<Variable> removed = Arrays.asList (variables);
+    this.variables.removeAll (removed);
+    for (final SimpleObjective obj: objectives) {
+      for (final Variable var: removed) {
+        obj.getExpression ().removeLinearTerm (var);
+      }
+    }
+    for (final SimpleConstraint constr: constraints) {
+      for (final Variable var: removed) {
+        constr.getLhs ().removeLinearTerm (var);
+        constr.getRhs ().removeLinearTerm (var);
+      }
+    }
+  }
+
+  @Override
+  public void removeConstraints (final Constraint[] constraints) {
+    this.constraints.removeAll (Arrays.asList (constraints));
+  }
+
+  @Override
+  public List<SimpleRangeConstraint> getRangeConstraints () {
+    return Collections.unmodifiableList (rangeConstraints);
+  }
+
+  @Override
+  public RangeConstraint addRangeConstraint (final String name,
+                                             final double lowerBound,
+                                             final double upperBound) {
+    final SimpleRangeConstraint constr = new SimpleRangeConstraint (name, lowerBound, upperBound);
+    rangeConstraints.add (constr);
+    return constr;
+  }
+
+  @Override
+  public RangeConstraint addRangeConstraint (final double lowerBound,
+                                             final double upperBound) {
+    return addRangeConstraint ("r" + rangeConstraints.size (), lowerBound, upperBound);
+  }
+
+  @Override
+  public boolean hasGeneralConstraints () {
+    return !indicatorConstraints.isEmpty () || !sosConstraints.isEmpty () || !generalConstraints.isEmpty () ||
+           !piecewiseLinearTerms.isEmpty ();
+  }
+
+  @Override
+  public List<SimpleIndicatorConstraint> getIndicatorConstraints () {
+    return Collections.unmodifiableList (indicatorConstraints);
+  }
+
+  @Override
+  public List<SimpleSOSConstraint> getSOSConstraints () {
+    return Collections.unmodifiableList (sosConstraints);
+  }
+
+  @Override
+  public List<SimpleGeneralConstraint> getGeneralConstraints () {
+    return Collections.unmodifiableList (generalConstraints);
+  }
+
+  @Override
+  public List<SimplePiecewiseLinearTerm> getPiecewiseLinearTerms () {
+    return Collections.unmodifiableList (piecewiseLinearTerms);
+  }
+
+  @Override
+  public IndicatorConstraint addIndicatorConstraint (final String name,
+                                                     final Variable indicatorVariable,
+                                                     final boolean indicatorValue,
+                                                     final Operator operator) {
+    final SimpleIndicatorConstraint constr = new SimpleIndicatorConstraint (name, indicatorVariable, indicatorValue,
+                                                                            operator);
+    indicatorConstraints.add (constr);
+    return constr;
+  }
+
+  @Override
+  public SOSConstraint addSOSConstraint (final String name,
+                                         final SOSType type,
+                                         final Variable[] variables,
+                                         final double[] weights) {
+    final SimpleSOSConstraint constr = new SimpleSOSConstraint (name, type, variables, weights);
+    sosConstraints.add (constr);
+    return constr;
+  }
+
+  @Override
+  public GeneralConstraint addGeneralConstraint (final String name,
+                                                 final GeneralConstraintType type,
+                                                 final Variable resultant,
+                                                 final Variable[] operands,
+                                                 final double constant) {
+    final SimpleGeneralConstraint constr = new SimpleGeneralConstraint (name, type, resultant, operands, constant);
+    generalConstraints.add (constr);
+    return constr;
+  }
+
+  @Override
+  public PiecewiseLinearTerm addPiecewiseLinearTerm (final Objective objective,
+                                                     final Variable variable,
+                                                     final double[] points,
+                                                     final double[] values) {
+    final SimplePiecewiseLinearTerm term = new SimplePiecewiseLinearTerm (objective, variable, points, values);
+    piecewiseLinearTerms.add (term);
+    return term;
+  }
+
+  @Override
+  public int compareTo (final Program o) {
+    return name.compareTo (o.getName ());
+  }
+
+  public static class SimpleVariable implements Variable {
+
+    private final String       name;
+
+    private final VariableType type;
+
+    private double             lowerBound;
+
+    private double             upperBound;
+
+    private Double             initialValue;
+
+    protected SimpleVariable (final String name,
+                              final VariableType type) {
+      this.name = name;
+      this.type = type;
+    }
+
+    @Override
+    public String getName () {
+      return name;
+    }
+
+    @Override
+    public VariableType getType () {
+      return type;
+    }
+
+    @Override
+    public double getLowerBound () {
+      return lowerBound;
+    }
+
+    @Override
+    public void setLowerBound (final double lowerBound) {
+      this.lowerBound = lowerBound;
+    }
+
+    @Override
+    public double getUpperBound () {
+      return upperBound;
+    }
+
+    @Override
+    public void setUpperBound (final double upperBound) {
+      this.upperBound = upperBound;
+    }
+
+    @Override
+    public boolean hasInitialValue () {
+      return initialValue != null;
+    }
+
+    @Override
+    public double getInitialValue () {
+      return initialValue;
+    }
+
+    @Override
+    public void setInitialValue (final double initialValue) {
+      this.initialValue = initialValue;
+    }
+
+    @Override
+    public int compareTo (final Variable o) {
+      return name.compareTo (o.getName ());
+    }
+
+    @Override
+    public String toString () {
+      return name;
+    }
+  }
+
+  public static class SimpleLinearTerm implements LinearTerm {
+
+    private final double   coefficient;
+
+    private final Variable variable;
+
+    protected SimpleLinearTerm (final double coefficient,
+                                final Variable variable) {
+      this.coefficient = coefficient;
+      this.variable = variable;
+    }
+
+    @Override
+    public double getCoefficient () {
+      return coefficient;
+    }
+
+    @Override
+    public Variable getVariable () {
+      return variable;
+    }
+
+    @Override
+    public int compareTo (final LinearTerm o) {
+      return variable.compareTo (o.getVariable ());
+    }
+  }
+
+  public static class SimpleExpression implements Expression {
+
+    private final Map<Variable, Double> coefficients = new LinkedHashMap<Variable, Double> ();
+
+    private double                      constant;
+
+    @Override
+    public List<LinearTerm> getLinearTerms () {
+      final List<LinearTerm> terms = new ArrayList<LinearTerm> (coefficients.size ());
+      for (final Entry<Variable, Double> entry: coefficients.entrySet ()) {
+        terms.add (new SimpleLinearTerm (entry.getValue (), entry.getKey ()));
+      }
+      return terms;
+    }
+
+    @Override
+    public List<QuadraticTerm> getQuadraticTerms () {
+      return Collections.emptyList ();
+    }
+
+    @Override
+    public double getConstant () {
+      return constant;
+    }
+
+    @Override
+    public double getCoefficient (final Variable variable) {
+      final Double coefficient = coefficients.get (variable);
+      return (coefficient == null) ? 0.0 : coefficient;
+    }
+
+    @Override
+    public double getCoefficient (final Variable var1,
+                                  final Variable var2) {
+      return 0.0;
+    }
+
+    @Override
+    public Expression addTerm (final double coefficient,
+                               final Variable variable) {
+      coefficients.put (variable, getCoefficient (variable) + coefficient);
+      return this;
+    }
+
+    @Override
+    public Expression addTerm (final double coefficient,
+                               final Variable var1,
+                               final Variable var2) {
+      throw new UnsupportedOperationException ("Quadratic terms are not supported");
+    }
+
+    @Override
+    public Expression addTerm (final double constant) {
+      this.constant += constant;
+      return this;
+    }
+
+    @Override
+    public Expression addTerms (final Expression expr) {
+      for (final LinearTerm term: expr.getLinearTerms ()) {
+        addTerm (term.getCoefficient (), term.getVariable ());
+      }
+      return addTerm (expr.getConstant ());
+    }
+
+    @Override
+    public Expression removeLinearTerm (final Variable variable) {
+      coefficients.remove (variable);
+      return this;
+    }
+
+    @Override
+    public Expression removeQuadraticTerm (final Variable var1,
+                                           final Variable var2) {
+      throw new UnsupportedOperationException ("Quadratic terms are not supported");
+    }
+
+    @Override
+    public Expression removeConstant () {
+      constant = 0.0;
+      return this;
+    }
+
+    @Override
+    public int compareTo (final Expression o) {
+      return Integer.valueOf (coefficients.size ()).compareTo (o.getLinearTerms ().size ());
+    }
+  }
+
+  public static class SimpleConstraint implements Constraint {
+
+    private final String           name;
+
+    private final SimpleExpression lhs = new SimpleExpression ();
+
+    private final SimpleExpression rhs = new SimpleExpression ();
+
+    private Operator               operator;
+
+    protected SimpleConstraint (final String name,
+                                final Operator operator) {
+      this.name = name;
+      this.operator = operator;
+    }
+
+    @Override
+    public String getName () {
+      return name;
+    }
+
+    @Override
+    public Expression getRhs () {
+      return rhs;
+    }
+
+    @Override
+    public Expression getLhs () {
+      return lhs;
+    }
+
+    @Override
+    public Operator getOperator () {
+      return operator;
+    }
+
+    @Override
+    public void setOperator (final Operator operator) {
+      this.operator = operator;
+    }
+
+    @Override
+    public int compareTo (final Constraint o) {
+      return name.compareTo (o.getName ());
+    }
+  }
+
+  public static class SimpleRangeConstraint implements RangeConstraint {
+
+    private final String           name;
+
+    private final SimpleExpression expression = new SimpleExpression ();
+
+    private double                 lowerBound;
+
+    private double                 upperBound;
+
+    protected SimpleRangeConstraint (final String name,
+                                     final double lowerBound,
+                                     final double upperBound) {
+      this.name = name;
+      this.lowerBound = lowerBound;
+      this.upperBound = upperBound;
+    }
+
+    @Override
+    public String getName () {
+      return name;
+    }
+
+    @Override
+    public Expression getExpression () {
+      return expression;
+    }
+
+    @Override
+    public double getLowerBound () {
+      return lowerBound;
+    }
+
+    @Override
+    public double getUpperBound () {
+      return upperBound;
+    }
+
+    @Override
+    public void setBounds (final double lowerBound,
+                           final double upperBound) {
+      this.lowerBound = lowerBound;
+      this.upperBound = upperBound;
+    }
+  }
+
+  public static class SimpleIndicatorConstraint extends SimpleConstraint implements IndicatorConstraint {
+
+    private final Variable indicatorVariable;
+
+    private final boolean  indicatorValue;
+
+    protected SimpleIndicatorConstraint (final String name,
+                                         final Variable indicatorVariable,
+                                         final boolean indicatorValue,
+                                         final Operator operator) {
+      super (name, operator);
+      this.indicatorVariable = indicatorVariable;
+      this.indicatorValue = indicatorValue;
+    }
+
+    @Override
+    public Variable getIndicatorVariable () {
+      return indicatorVariable;
+    }
+
+    @Override
+    public boolean getIndicatorValue () {
+      return indicatorValue;
+    }
+  }
+
+  public static class SimpleSOSConstraint implements SOSConstraint {
+
+    private final String         name;
+
+    private final SOSType        type;
+
+    private final List<Variable> variables;
+
+    private final double[]       weights;
+
+    protected SimpleSOSConstraint (final String name,
+                                   final SOSType type,
+                                   final Variable[] variables,
+                                   final double[] weights) {
+      this.name = name;
+      this.type = type;
+      this.variables = Arrays.asList (variables.clone ());
+      this.weights = weights.clone ();
+    }
+
+    @Override
+    public String getName () {
+      return name;
+    }
+
+    @Override
+    public SOSType getType () {
+      return type;
+    }
+
+    @Override
+    public List<Variable> getVariables () {
+      return Collections.unmodifiableList (variables);
+    }
+
+    @Override
+    public double[] getWeights () {
+      return weights.clone ();
+    }
+  }
+
+  public static class SimpleGeneralConstraint implements GeneralConstraint {
+
+    private final String                name;
+
+    private final GeneralConstraintType type;
+
+    private final Variable              resultant;
+
+    private final List<Variable>        operands;
+
+    private final double                constant;
+
+    protected SimpleGeneralConstraint (final String name,
+                                       final GeneralConstraintType type,
+                                       final Variable resultant,
+                                       final Variable[] operands,
+                                       final double constant) {
+      this.name = name;
+      this.type = type;
+      this.resultant = resultant;
+      this.operands = Arrays.asList (operands.clone ());
+      this.constant = constant;
+    }
+
+    @Override
+    public String getName () {
+      return name;
+    }
+
+    @Override
+    public GeneralConstraintType getType () {
+      return type;
+    }
+
+    @Override
+    public Variable getResultant () {
+      return resultant;
+    }
+
+    @Override
+    public List<Variable> getOperands () {
+      return Collections.unmodifiableList (operands);
+    }
+
+    @Override
+    public double getConstant () {
+      return constant;
+    }
+  }
+
+  public static class SimplePiecewiseLinearTerm implements PiecewiseLinearTerm {
+
+    private final Objective objective;
+
+    private final Variable  variable;
+
+    private final double[]  points;
+
+    private final double[]  values;
+
+    protected SimplePiecewiseLinearTerm (final Objective objective,
+                                         final Variable variable,
+                                         final double[] points,
+                                         final double[] values) {
+      this.objective = objective;
+      this.variable = variable;
+      this.points = points.clone ();
+      this.values = values.clone ();
+    }
+
+    @Override
+    public Objective getObjective () {
+      return objective;
+    }
+
+    @Override
+    public Variable getVariable () {
+      return variable;
+    }
+
+    @Override
+    public double[] getPoints () {
+      return points.clone ();
+    }
+
+    @Override
+    public double[] getValues () {
+      return values.clone ();
+    }
+  }
+
+  public static class SimpleObjective implements Objective {
+
+    private final String           name;
+
+    private final SimpleExpression expression = new SimpleExpression ();
+
+    private ObjectiveSense         sense;
+
+    private int                    priority;
+
+    private double                 weight     = 1.0;
+
+    private double                 absoluteTolerance;
+
+    private double                 relativeTolerance;
+
+    protected SimpleObjective (final String name,
+                               final ObjectiveSense sense) {
+      this.name = name;
+      this.sense = sense;
+    }
+
+    @Override
+    public String getName () {
+      return name;
+    }
+
+    @Override
+    public ObjectiveSense getObjectiveSense () {
+      return sense;
+    }
+
+    @Override
+    public void setObjectiveSense (final ObjectiveSense sense) {
+      this.sense = sense;
+    }
+
+    @Override
+    public Expression getExpression () {
+      return expression;
+    }
+
+    @Override
+    public int getPriority () {
+      return priority;
+    }
+
+    @Override
+    public void setPriority (final int priority) {
+      this.priority = priority;
+    }
+
+    @Override
+    public double getWeight () {
+      return weight;
+    }
+
+    @Override
+    public void setWeight (final double weight) {
+      this.weight = weight;
+    }
+
+    @Override
+    public double getAbsoluteTolerance () {
+      return absoluteTolerance;
+    }
+
+    @Override
+    public void setAbsoluteTolerance (final double absoluteTolerance) {
+      this.absoluteTolerance = absoluteTolerance;
+    }
+
+    @Override
+    public double getRelativeTolerance () {
+      return relativeTolerance;
+    }
+
+    @Override
+    public void setRelativeTolerance (final double relativeTolerance) {
+      this.relativeTolerance = relativeTolerance;
+    }
+
+    @Override
+    public int compareTo (final Objective o) {
+      return name.compareTo (o.getName ());
+    }
+  }
+}
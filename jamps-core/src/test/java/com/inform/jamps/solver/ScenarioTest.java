@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class ScenarioTest {
+
+  @Test
+  public void testObjectCreationAndGetters () {
+    final Scenario scenario = new Scenario ("Scenario");
+
+    assertEquals ("Expected different name", "Scenario", scenario.getName ());
+    assertEquals ("Expected no right-hand side changes", 0, scenario.getRightHandSideChangesCount ());
+    assertEquals ("Expected no bound changes", 0, scenario.getBoundChangesCount ());
+    assertEquals ("Expected no objective changes", 0, scenario.getObjectiveChangesCount ());
+  }
+
+  @Test
+  public void testObjectCreationAndChangesWithErrors () {
+    try {
+      new Scenario (null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    final Scenario scenario = new Scenario ("Scenario");
+
+    try {
+      scenario.setRightHandSide (null, 1.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      scenario.setBounds (null, 0.0, 1.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      scenario.setObjectiveCoefficient (null, null, 1.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      scenario.getRightHandSide (0);
+      fail ("Expected IndexOutOfBoundsException");
+    } catch (IndexOutOfBoundsException e) {
+    }
+
+    try {
+      scenario.getLowerBound (-1);
+      fail ("Expected IndexOutOfBoundsException");
+    } catch (IndexOutOfBoundsException e) {
+    }
+  }
+}
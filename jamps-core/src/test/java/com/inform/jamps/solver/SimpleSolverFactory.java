@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.ProgramMode;
+import com.inform.jamps.modeling.SimpleProgram;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.columngeneration.MasterProblem;
+
+/**
+ * Factory for tests of solver independent algorithms. Its solver does not look at any constraint and sets every
+ * variable to its upper bound, and it records all solved programs.
+ */
+public class SimpleSolverFactory implements MathProgrammingSolverFactory<MathProgrammingSolver, SolverParameters> {
+
+  private final List<Program> solvedPrograms = Collections.synchronizedList (new ArrayList<Program> ());
+
+  public List<Program> getSolvedPrograms () {
+    return solvedPrograms;
+  }
+
+  @Override
+  public MathProgrammingSolver createSolver () {
+    return new MathProgrammingSolver () {
+
+      @Override
+      public ExecutionResult<Program> solve (final SolverParameters parameters,
+                                             final Program problem) {
+        solvedPrograms.add (problem);
+
+        final SimpleSolution solution = new SimpleSolution ();
+        for (final Variable var: problem.getVariables ()) {
+          solution.values.put (var, var.getUpperBound ());
+        }
+
+        final ObjectiveSense programSense = problem.getObjectives ().get (0).getObjectiveSense ();
+        for (final Objective objective: problem.getObjectives ()) {
+          double value = objective.getExpression ().getConstant ();
+          for (final LinearTerm term: objective.getExpression ().getLinearTerms ()) {
+            value += term.getCoefficient () * term.getVariable ().getUpperBound ();
+          }
+          solution.objectiveValues.put (objective, value);
+
+          solution.objectiveValue += (objective.getObjectiveSense () == programSense) ? value : -value;
+        }
+
+        return new SimpleExecutionResult (problem, solution);
+      }
+    };
+  }
+
+  @Override
+  public SolverParameters createParameters () {
+    return new SolverParameters () {
+    };
+  }
+
+  @Override
+  public Program createProgram () {
+    return createProgram ("program");
+  }
+
+  @Override
+  public Program createProgram (final String name) {
+    return new SimpleProgram (name);
+  }
+
+  @Override
+  public Program createProgram (final ProgramMode mode) {
+    return createProgram ();
+  }
+
+  @Override
+  public Program createProgram (final String name,
+                                final ProgramMode mode) {
+    return createProgram (name);
+  }
+
+  @Override
+  public Program createProgram (final String name,
+                                final ProgramMode mode,
+                                final SolverParameters parameters) {
+    return createProgram (name);
+  }
+
+  @Override
+  public ScenarioRunner createScenarioRunner () {
+    throw new UnsupportedOperationException ("Scenarios are not supported");
+  }
+
+  @Override
+  public MasterProblem createMasterProblem (final SolverParameters parameters,
+                                            final Program program) {
+    throw new UnsupportedOperationException ("Column generation is not supported");
+  }
+
+  public static class SimpleSolution implements Solution {
+
+    private final Map<Variable, Double>  values          = new IdentityHashMap<Variable, Double> ();
+
+    private final Map<Objective, Double> objectiveValues = new IdentityHashMap<Objective, Double> ();
+
+    private double                       objectiveValue;
+
+    public void setVariableValue (final Variable variable,
+                                  final double value) {
+      values.put (variable, value);
+    }
+
+    public void setObjectiveValue (final double objectiveValue) {
+      this.objectiveValue = objectiveValue;
+    }
+
+    @Override
+    public boolean isOptimal () {
+      return true;
+    }
+
+    @Override
+    public double getVariableValue (final Variable variable) {
+      final Double value = values.get (variable);
+      return (value == null) ? 0.0 : value;
+    }
+
+    @Override
+    public boolean getBinaryValue (final Variable variable) {
+      return getVariableValue (variable) > 0.5;
+    }
+
+    @Override
+    public long getIntegerValue (final Variable variable) {
+      return Math.round (getVariableValue (variable));
+    }
+
+    @Override
+    public double getObjectiveValue () {
+      return objectiveValue;
+    }
+
+    @Override
+    public double getObjectiveValue (final Objective objective) {
+      return objectiveValues.get (objective);
+    }
+
+    @Override
+    public double getRelativeOptimalityGap () {
+      return 0.0;
+    }
+
+    @Override
+    public int compareTo (final Solution o) {
+      return Double.compare (objectiveValue, o.getObjectiveValue ());
+    }
+  }
+
+  public static class SimpleExecutionResult implements ExecutionResult<Program> {
+
+    private final Program        program;
+
+    private final SimpleSolution solution;
+
+    public SimpleExecutionResult (final Program program,
+                                  final SimpleSolution solution) {
+      this.program = program;
+      this.solution = solution;
+    }
+
+    @Override
+    public Program getProblem () {
+      return program;
+    }
+
+    @Override
+    public boolean isProblemInfeasible () {
+      return false;
+    }
+
+    @Override
+    public boolean isProblemUnbounded () {
+      return false;
+    }
+
+    @Override
+    public boolean hasExecutionTerminated () {
+      return false;
+    }
+
+    @Override
+    public TerminationReason getTerminationReason () {
+      return TerminationReason.NONE;
+    }
+
+    @Override
+    public boolean hasSolution () {
+      return true;
+    }
+
+    @Override
+    public boolean hasOptimalSolution () {
+      return true;
+    }
+
+    @Override
+    public int getSolutionsCount () {
+      return 1;
+    }
+
+    @Override
+    public Solution getBestSolution () {
+      return solution;
+    }
+
+    @Override
+    public Solution getSolution (final int index) {
+      return solution;
+    }
+
+    @Override
+    public List<Solution> getSolutions () {
+      return Collections.<Solution> singletonList (solution);
+    }
+
+    @Override
+    public long getExecutionTimeMillis () {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.benders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.SimpleProgram.SimpleExpression;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.MathProgrammingSolver;
+import com.inform.jamps.solver.SimpleSolverFactory;
+import com.inform.jamps.solver.SimpleSolverFactory.SimpleExecutionResult;
+import com.inform.jamps.solver.SimpleSolverFactory.SimpleSolution;
+import com.inform.jamps.solver.SolverParameters;
+import com.inform.jamps.solver.columngeneration.Column;
+import com.inform.jamps.solver.columngeneration.MasterProblem;
+import com.inform.jamps.solver.columngeneration.MasterSolution;
+import com.inform.jamps.solver.lazy.CandidateSolution;
+import com.inform.jamps.solver.lazy.LazyConstraint;
+
+public class BendersDriverTest {
+
+  @Test
+  public void testObjectCreation () {
+    final CapacityFactory factory = new CapacityFactory ();
+    final Program program = createCapacityProgram (factory, 3.0, 5.0);
+    final Variable capacity = program.getVariables ().get (0);
+
+    final BendersDriver<SolverParameters> driver = createDriver (factory, program);
+
+    assertEquals ("Expected one block per scenario", 2, driver.getBlocks ().size ());
+    assertEquals ("Expected different master variables count", 3, driver.getMasterProgram ().getVariablesCount ());
+    assertEquals ("Expected master constraint", 1, driver.getMasterProgram ().getConstraintsCount ());
+    assertEquals ("Expected different linked variables", Arrays.asList (capacity),
+                  Arrays.asList (driver.getBlocks ().get (1).getLinkedVariables ()));
+    assertEquals ("Expected different block variables", Collections.singletonList (program.getVariables ().get (2)),
+                  driver.getBlocks ().get (1).getVariables ());
+    assertEquals ("Expected fixed copy of first-stage variable", 2,
+                  driver.getBlocks ().get (0).getProgram ().getVariablesCount ());
+
+    final Variable masterCapacity = driver.getMasterVariable (capacity);
+    final Expression masterObjective = driver.getMasterProgram ().getObjectives ().get (0).getExpression ();
+    assertEquals ("Expected copied bound", 10.0, masterCapacity.getUpperBound (), 0.0);
+    assertEquals ("Expected copied objective coefficient", 3.0, masterObjective.getCoefficient (masterCapacity), 0.0);
+  }
+
+  @Test
+  public void testRunningIterations () {
+    final CapacityFactory factory = new CapacityFactory ();
+    final Program program = createCapacityProgram (factory, 3.0, 5.0);
+    final List<? extends Variable> vars = program.getVariables ();
+
+    final BendersDriver<SolverParameters> driver = createDriver (factory, program);
+    driver.setRecourseBound (0.0);
+    driver.setWorkersCount (2);
+    final BendersResult result = driver.run ();
+
+    assertTrue ("Expected convergence", result.isConverged ());
+    assertFalse ("Expected feasible program", result.isInfeasible ());
+    assertTrue ("Expected a solution", result.hasSolution ());
+    assertEquals ("Expected different objective value", 13.0, result.getObjectiveValue (), 1e-9);
+    assertEquals ("Expected different best bound", 13.0, result.getBestBound (), 1e-9);
+    assertEquals ("Expected different capacity", 3.0, result.getVariableValue (vars.get (0)), 1e-9);
+    assertEquals ("Expected different shortage", 0.0, result.getVariableValue (vars.get (1)), 1e-9);
+    assertEquals ("Expected different shortage", 2.0, result.getVariableValue (vars.get (2)), 1e-9);
+    assertTrue ("Expected cuts", result.getCutsCount () > 0);
+    assertTrue ("Expected several iterations", result.getIterationsCount () > 1);
+
+    // Subproblems are solved sequentially with the same result
+    final BendersDriver<SolverParameters> sequentialDriver = createDriver (factory, program);
+    sequentialDriver.setRecourseBound (0.0);
+    sequentialDriver.setWorkersCount (1);
+    assertEquals ("Expected different objective value", 13.0, sequentialDriver.run ().getObjectiveValue (), 1e-9);
+  }
+
+  @Test
+  public void testRunningWithIterationLimit () {
+    final CapacityFactory factory = new CapacityFactory ();
+    final BendersDriver<SolverParameters> driver = createDriver (factory, createCapacityProgram (factory, 3.0, 5.0));
+    driver.setMaxIterations (1);
+
+    final BendersResult result = driver.run ();
+
+    assertFalse ("Expected no convergence", result.isConverged ());
+    assertEquals ("Expected single iteration", 1, result.getIterationsCount ());
+    assertEquals ("Expected one cut per block", 2, result.getCutsCount ());
+  }
+
+  @Test
+  public void testSeparatingLazyConstraints () {
+    final CapacityFactory factory = new CapacityFactory ();
+    final BendersDriver<SolverParameters> driver = createDriver (factory, createCapacityProgram (factory, 3.0, 5.0));
+    final Variable masterCapacity = driver.getMasterVariable (driver.getBlocks ().get (0).getLinkedVariables ()[0]);
+    final BendersLazyConstraintGenerator generator = driver.createLazyConstraintGenerator ();
+
+    final List<LazyConstraint> constraints = generator.separate (new CandidateSolution () {
+
+      @Override
+      public boolean isIntegral () {
+        return true;
+      }
+
+      @Override
+      public double getVariableValue (final Variable variable) {
+        return (variable == masterCapacity) ? 4.0 : 0.0;
+      }
+
+      @Override
+      public Expression createExpression () {
+        return new SimpleExpression ();
+      }
+    });
+
+    // Scenario with demand 3 is covered by a capacity of 4 and has no violated cut
+    assertFalse ("Expected no node separation", generator.isSeparatingNodeRelaxations ());
+    assertEquals ("Expected single cut", 1, constraints.size ());
+    assertEquals ("Expected single cut", 1, generator.getCutsCount ());
+
+    final LazyConstraint cut = constraints.get (0);
+    assertEquals ("Expected different operator", Operator.GREATER_EQUALS, cut.getOperator ());
+    assertEquals ("Expected different constant", 10.0, cut.getRhs (), 1e-9);
+    assertEquals ("Expected different gradient", 2.0, cut.getLhs ().getCoefficient (masterCapacity), 1e-9);
+  }
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    final CapacityFactory factory = new CapacityFactory ();
+    final Program program = createCapacityProgram (factory, 3.0, 5.0);
+    final List<Variable> firstStage = Collections.singletonList ((Variable) program.getVariables ().get (0));
+
+    try {
+      new BendersDriver<SolverParameters> (null, factory.createParameters (), program, firstStage);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new BendersDriver<SolverParameters> (factory, factory.createParameters (), program, null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      final List<Variable> foreign = Collections.singletonList (factory.createProgram ().addVariable ());
+      new BendersDriver<SolverParameters> (factory, factory.createParameters (), program, foreign);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      program.addVariable ("integer", VariableType.INTEGER);
+      new BendersDriver<SolverParameters> (factory, factory.createParameters (), program, firstStage);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      program.addObjective (ObjectiveSense.MINIMIZE);
+      new BendersDriver<SolverParameters> (factory, factory.createParameters (), program, firstStage);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      createDriver (factory, createCapacityProgram (factory, 3.0)).setWorkersCount (0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      createDriver (factory, createCapacityProgram (factory, 3.0)).setOptimalityTolerance (-1.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  private static BendersDriver<SolverParameters> createDriver (final CapacityFactory factory,
+                                                                final Program program) {
+    final List<Variable> firstStage = Collections.singletonList ((Variable) program.getVariables ().get (0));
+    return new BendersDriver<SolverParameters> (factory, factory.createParameters (), program, firstStage);
+  }
+
+  /**
+   * Capacity costs 3 per unit, every unit of unmet demand costs 2 per scenario. The optimum covers the smaller demand.
+   */
+  private static Program createCapacityProgram (final CapacityFactory factory,
+                                                final double... demands) {
+    final Program program = factory.createProgram ("capacity");
+    final Objective objective = program.addObjective ("costs", ObjectiveSense.MINIMIZE);
+    final Variable capacity = program.addVariable ("capacity", VariableType.INTEGER, 0.0, 10.0);
+    objective.getExpression ().addTerm (3.0, capacity);
+
+    final Constraint limit = program.addConstraint ("limit", Operator.LESS_EQUALS);
+    limit.getLhs ().addTerm (1.0, capacity);
+    limit.getRhs ().addTerm (10.0);
+
+    for (int i = 0; i < demands.length; i++) {
+      final Variable shortage = program.addVariable ("shortage" + i, VariableType.CONTINUOUS);
+      objective.getExpression ().addTerm (2.0, shortage);
+
+      final Constraint demand = program.addConstraint ("demand" + i, Operator.GREATER_EQUALS);
+      demand.getLhs ().addTerm (1.0, shortage).addTerm (1.0, capacity);
+      demand.getRhs ().addTerm (demands[i]);
+    }
+    return program;
+  }
+
+  /**
+   * Solves master programs by enumerating the single integer variable and subproblems with a single free variable and
+   * a single row analytically.
+   */
+  private static class CapacityFactory extends SimpleSolverFactory {
+
+    @Override
+    public MathProgrammingSolver createSolver () {
+      return new MathProgrammingSolver () {
+
+        @Override
+        public ExecutionResult<Program> solve (final SolverParameters parameters,
+                                               final Program problem) {
+          return solveMaster (problem);
+        }
+      };
+    }
+
+    private static ExecutionResult<Program> solveMaster (final Program master) {
+      final Variable capacity = master.getVariables ().get (0);
+      final Expression objective = master.getObjectives ().get (0).getExpression ();
+
+      SimpleSolution best = null;
+      for (int x = (int) capacity.getLowerBound (); x <= capacity.getUpperBound (); x++) {
+        final SimpleSolution solution = new SimpleSolution ();
+        solution.setVariableValue (capacity, x);
+        double value = objective.getConstant () + objective.getCoefficient (capacity) * x;
+
+        for (final Variable recourse: master.getVariables ().subList (1, master.getVariablesCount ())) {
+          double estimate = recourse.getLowerBound ();
+          for (final Constraint cut: master.getConstraints ()) {
+            final double coefficient = cut.getLhs ().getCoefficient (recourse);
+            if (coefficient > 0.0) {
+              final double bound = cut.getRhs ().getConstant () - cut.getLhs ().getCoefficient (capacity) * x;
+              estimate = Math.max (estimate, bound);
+            }
+          }
+          solution.setVariableValue (recourse, estimate);
+          value += estimate;
+        }
+
+        solution.setObjectiveValue (value);
+        if (best == null || value < best.getObjectiveValue ()) {
+          best = solution;
+        }
+      }
+      return new SimpleExecutionResult (master, best);
+    }
+
+    @Override
+    public MasterProblem createMasterProblem (final SolverParameters parameters,
+                                              final Program program) {
+      return new MasterProblem () {
+
+        @Override
+        public Program getProgram () {
+          return program;
+        }
+
+        @Override
+        public ObjectiveSense getObjectiveSense () {
+          return program.getObjectives ().get (0).getObjectiveSense ();
+        }
+
+        @Override
+        public MasterSolution solve () {
+          return solveSubproblem (program);
+        }
+
+        @Override
+        public List<Variable> addColumns (final List<Column> columns) {
+          throw new UnsupportedOperationException ();
+        }
+      };
+    }
+
+    private static MasterSolution solveSubproblem (final Program program) {
+      final Variable free = program.getVariables ().get (0);
+      final Constraint row = program.getConstraints ().get (0);
+      final double cost = program.getObjectives ().get (0).getExpression ().getCoefficient (free);
+
+      double remaining = row.getRhs ().getConstant () - row.getLhs ().getConstant ();
+      for (final LinearTerm term: row.getLhs ().getLinearTerms ()) {
+        if (term.getVariable () != free) {
+          remaining -= term.getCoefficient () * term.getVariable ().getLowerBound ();
+        }
+      }
+
+      final double coefficient = row.getLhs ().getCoefficient (free);
+      final double value = Math.max (free.getLowerBound (), remaining / coefficient);
+      final double dualValue = (value > free.getLowerBound ()) ? cost / coefficient : 0.0;
+
+      return new MasterSolution () {
+
+        @Override
+        public boolean isOptimal () {
+          return true;
+        }
+
+        @Override
+        public boolean isInfeasible () {
+          return false;
+        }
+
+        @Override
+        public double getObjectiveValue () {
+          return cost * value;
+        }
+
+        @Override
+        public double getVariableValue (final Variable variable) {
+          return (variable == free) ? value : variable.getLowerBound ();
+        }
+
+        @Override
+        public double getDualValue (final Constraint constraint) {
+          return dualValue;
+        }
+
+        @Override
+        public long getExecutionTimeMillis () {
+          return 0;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.columngeneration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+
+public class ColumnGenerationDriverTest {
+
+  private final Constraint cover = ColumnTest.createConstraint ();
+
+  @Test
+  public void testConvergingColumnGeneration () {
+    final CoverMasterProblem master = new CoverMasterProblem (ObjectiveSense.MINIMIZE, 10.0);
+    final double[] proposedCosts = new double[] {5.0, 3.0, 4.0};
+
+    final ColumnGenerationDriver driver = new ColumnGenerationDriver (master, new PricingCallback () {
+
+      @Override
+      public List<Column> price (final MasterSolution solution,
+                                 final int iteration) {
+        return Arrays.asList (new Column ().setObjectiveCoefficient (proposedCosts[iteration - 1])
+                                           .addCoefficient (cover, 1.0));
+      }
+    });
+
+    final ColumnGenerationResult result = driver.run ();
+
+    assertTrue ("Expecting convergence", result.isConverged ());
+    assertEquals ("Expecting different iterations count", 3, result.getIterationsCount ());
+    assertEquals ("Expecting different generated variables", 2, result.getGeneratedVariables ().size ());
+    assertEquals ("Expecting different objective value", 3.0, result.getLastSolution ().getObjectiveValue (), 0.0);
+    assertEquals ("Expecting different solves count", 3, master.solvesCount);
+  }
+
+  @Test
+  public void testReducedCostForMaximization () {
+    final CoverMasterProblem master = new CoverMasterProblem (ObjectiveSense.MAXIMIZE, 10.0);
+
+    final ColumnGenerationDriver driver = new ColumnGenerationDriver (master, new PricingCallback () {
+
+      @Override
+      public List<Column> price (final MasterSolution solution,
+                                 final int iteration) {
+        return Arrays.asList (new Column ().setObjectiveCoefficient (9.0).addCoefficient (cover, 1.0),
+                              new Column ().setObjectiveCoefficient (10.0 + 1e-9).addCoefficient (cover, 1.0));
+      }
+    });
+
+    final ColumnGenerationResult result = driver.run ();
+
+    assertTrue ("Expecting convergence", result.isConverged ());
+    assertEquals ("Expecting no generated variables", 0, result.getGeneratedVariables ().size ());
+  }
+
+  @Test
+  public void testStoppingAtMaxIterations () {
+    final CoverMasterProblem master = new CoverMasterProblem (ObjectiveSense.MINIMIZE, 10.0);
+
+    final ColumnGenerationDriver driver = new ColumnGenerationDriver (master, new PricingCallback () {
+
+      @Override
+      public List<Column> price (final MasterSolution solution,
+                                 final int iteration) {
+        return Arrays.asList (new Column ().setObjectiveCoefficient (10.0 - iteration).addCoefficient (cover, 1.0));
+      }
+    });
+    driver.setMaxIterations (2);
+
+    final ColumnGenerationResult result = driver.run ();
+
+    assertFalse ("Expecting no convergence", result.isConverged ());
+    assertEquals ("Expecting different iterations count", 2, result.getIterationsCount ());
+    assertEquals ("Expecting different objective value", 8.0, result.getLastSolution ().getObjectiveValue (), 0.0);
+  }
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    final PricingCallback pricing = new PricingCallback () {
+
+      @Override
+      public List<Column> price (final MasterSolution solution,
+                                 final int iteration) {
+        return Collections.emptyList ();
+      }
+    };
+
+    try {
+      new ColumnGenerationDriver (null, pricing);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new ColumnGenerationDriver (new CoverMasterProblem (ObjectiveSense.MINIMIZE, 1.0), null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    final ColumnGenerationDriver driver = new ColumnGenerationDriver (new CoverMasterProblem (ObjectiveSense.MINIMIZE,
+                                                                                             1.0), pricing);
+    try {
+      driver.setReducedCostTolerance (-1.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      driver.setMaxIterations (-1);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  /**
+   * Master program with a single covering constraint, whose optimum picks the best column and whose dual value is the
+   * objective coefficient of that column.
+   */
+  private static class CoverMasterProblem implements MasterProblem {
+
+    private final ObjectiveSense sense;
+
+    private final List<Double>   costs = new ArrayList<Double> ();
+
+    private int                  solvesCount;
+
+    private CoverMasterProblem (final ObjectiveSense sense,
+                                final double initialCost) {
+      this.sense = sense;
+      this.costs.add (initialCost);
+    }
+
+    @Override
+    public Program getProgram () {
+      return null;
+    }
+
+    @Override
+    public ObjectiveSense getObjectiveSense () {
+      return sense;
+    }
+
+    @Override
+    public MasterSolution solve () {
+      solvesCount++;
+      final double best = (sense == ObjectiveSense.MINIMIZE) ? Collections.min (costs) : Collections.max (costs);
+
+      return new MasterSolution () {
+
+        @Override
+        public boolean isOptimal () {
+          return true;
+        }
+
+        @Override
+        public boolean isInfeasible () {
+          return false;
+        }
+
+        @Override
+        public double getObjectiveValue () {
+          return best;
+        }
+
+        @Override
+        public double getVariableValue (final Variable variable) {
+          return 0.0;
+        }
+
+        @Override
+        public double getDualValue (final Constraint constraint) {
+          return best;
+        }
+
+        @Override
+        public long getExecutionTimeMillis () {
+          return 0;
+        }
+      };
+    }
+
+    @Override
+    public List<Variable> addColumns (final List<Column> columns) {
+      final List<Variable> variables = new ArrayList<Variable> ();
+      for (final Column column: columns) {
+        costs.add (column.getObjectiveCoefficient ());
+        variables.add (ColumnTest.createIdentityProxy (Variable.class));
+      }
+      return variables;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.columngeneration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+
+public class ColumnTest {
+
+  @Test
+  public void testObjectCreationAndGetters () {
+    final Column column = new Column ();
+
+    assertNull ("Expected no name", column.getName ());
+    assertEquals ("Expected different name", "Column", new Column ("Column").getName ());
+    assertEquals ("Expected no objective coefficient", 0.0, column.getObjectiveCoefficient (), 0.0);
+    assertEquals ("Expected different lower bound", 0.0, column.getLowerBound (), 0.0);
+    assertEquals ("Expected different upper bound", Double.POSITIVE_INFINITY, column.getUpperBound (), 0.0);
+    assertEquals ("Expected no coefficients", 0, column.getCoefficientsCount ());
+  }
+
+  @Test
+  public void testSettingValues () {
+    final Constraint c1 = createConstraint ();
+    final Constraint c2 = createConstraint ();
+    final Column column = new Column ("Column").setObjectiveCoefficient (3.0).setBounds (1.0, 2.0);
+
+    for (int i = 0; i < 10; i++) {
+      column.addCoefficient ((i % 2 == 0) ? c1 : c2, i);
+    }
+
+    assertEquals ("Expected different objective coefficient", 3.0, column.getObjectiveCoefficient (), 0.0);
+    assertEquals ("Expected different lower bound", 1.0, column.getLowerBound (), 0.0);
+    assertEquals ("Expected different upper bound", 2.0, column.getUpperBound (), 0.0);
+    assertEquals ("Expected different coefficients count", 10, column.getCoefficientsCount ());
+    assertSame ("Expected same constraint", c2, column.getConstraint (9));
+    assertEquals ("Expected different coefficient", 9.0, column.getCoefficient (9), 0.0);
+  }
+
+  @Test
+  public void testObjectCreationAndChangesWithErrors () {
+    try {
+      new Column (null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new Column ().addCoefficient (null, 1.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new Column ().getCoefficient (0);
+      fail ("Expected IndexOutOfBoundsException");
+    } catch (IndexOutOfBoundsException e) {
+    }
+  }
+
+  protected static Constraint createConstraint () {
+    return createIdentityProxy (Constraint.class);
+  }
+
+  protected static <T> T createIdentityProxy (final Class<T> type) {
+    final InvocationHandler handler = new InvocationHandler () {
+
+      @Override
+      public Object invoke (final Object proxy,
+                            final Method method,
+                            final Object[] args) {
+        if ("hashCode".equals (method.getName ())) {
+          return System.identityHashCode (proxy);
+        }
+        if ("equals".equals (method.getName ())) {
+          return proxy == args[0];
+        }
+        return null;
+      }
+    };
+
+    return type.cast (Proxy.newProxyInstance (type.getClassLoader (), new Class<?>[] {type}, handler));
+  }
+}
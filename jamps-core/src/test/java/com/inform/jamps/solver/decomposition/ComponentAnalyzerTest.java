@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.decomposition;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.SimpleProgram;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+
+public class ComponentAnalyzerTest {
+
+  @Test
+  public void testAnalyzingIndependentComponents () {
+    final Program program = new SimpleProgram ("program");
+    final Variable[] vars = new Variable[6];
+    for (int i = 0; i < vars.length; i++) {
+      vars[i] = program.addVariable ("x" + i, VariableType.CONTINUOUS);
+    }
+
+    final Objective objective = program.addObjective (ObjectiveSense.MINIMIZE);
+    for (final Variable var: vars) {
+      objective.getExpression ().addTerm (1.0, var);
+    }
+
+    final Constraint c0 = program.addConstraint ("c0", Operator.LESS_EQUALS);
+    c0.getLhs ().addTerm (1.0, vars[0]).addTerm (1.0, vars[1]);
+    c0.getRhs ().addTerm (1.0);
+    final Constraint c1 = program.addConstraint ("c1", Operator.GREATER_EQUALS);
+    c1.getLhs ().addTerm (1.0, vars[2]).addTerm (1.0, vars[3]);
+    final Constraint c2 = program.addConstraint ("c2", Operator.EQUALS);
+    c2.getLhs ().addTerm (1.0, vars[1]);
+    c2.getRhs ().addTerm (2.0, vars[4]);
+    final Constraint c3 = program.addConstraint ("c3", Operator.LESS_EQUALS);
+    c3.getRhs ().addTerm (1.0);
+
+    final List<ProgramComponent> components = new ComponentAnalyzer ().analyze (program);
+
+    assertEquals ("Expected different components count", 3, components.size ());
+    assertEquals ("Expected different variables", Arrays.asList (vars[0], vars[1], vars[4]),
+                  components.get (0).getVariables ());
+    assertEquals ("Expected different constraints", Arrays.asList (c0, c2, c3), components.get (0).getConstraints ());
+    assertEquals ("Expected different variables", Arrays.asList (vars[2], vars[3]), components.get (1).getVariables ());
+    assertEquals ("Expected different constraints", Arrays.asList (c1), components.get (1).getConstraints ());
+    assertEquals ("Expected different variables", Arrays.asList (vars[5]), components.get (2).getVariables ());
+    assertTrue ("Expected no constraints", components.get (2).getConstraints ().isEmpty ());
+    assertEquals ("Expected different size", 6, components.get (0).getSize ());
+  }
+
+  @Test
+  public void testAnalyzingConnectedProgram () {
+    final Program program = new SimpleProgram ("program");
+    final Variable[] vars = new Variable[100];
+    for (int i = 0; i < vars.length; i++) {
+      vars[i] = program.addVariable ("x" + i, VariableType.CONTINUOUS);
+    }
+
+    // Chain in reverse order to get deep trees without path compression
+    for (int i = vars.length - 1; i > 0; i--) {
+      final Constraint constraint = program.addConstraint (Operator.LESS_EQUALS);
+      constraint.getLhs ().addTerm (1.0, vars[i]);
+      constraint.getRhs ().addTerm (1.0, vars[i - 1]);
+    }
+
+    final List<ProgramComponent> components = new ComponentAnalyzer ().analyze (program);
+
+    assertEquals ("Expected a single component", 1, components.size ());
+    assertEquals ("Expected different variables count", 100, components.get (0).getVariables ().size ());
+    assertEquals ("Expected different constraints count", 99, components.get (0).getConstraints ().size ());
+  }
+
+  @Test
+  public void testAnalyzingSubgraph () {
+    final Program program = new SimpleProgram ("program");
+    final Variable linking = program.addVariable ();
+    final Variable x = program.addVariable ();
+    final Variable y = program.addVariable ();
+
+    final Constraint c0 = program.addConstraint (Operator.GREATER_EQUALS);
+    c0.getLhs ().addTerm (1.0, linking).addTerm (1.0, x);
+    final Constraint c1 = program.addConstraint (Operator.GREATER_EQUALS);
+    c1.getLhs ().addTerm (1.0, linking).addTerm (1.0, y);
+
+    final ComponentAnalyzer analyzer = new ComponentAnalyzer ();
+
+    assertEquals ("Expected single component", 1, analyzer.analyze (program).size ());
+
+    final List<ProgramComponent> components = analyzer.analyze (Arrays.asList (x, y), Arrays.asList (c0, c1));
+
+    assertEquals ("Expected linking variable to be ignored", 2, components.size ());
+    assertEquals ("Expected different constraints", Arrays.asList (c1), components.get (1).getConstraints ());
+  }
+
+  @Test
+  public void testAnalyzingProgramWithoutVariables () {
+    final Program program = new SimpleProgram ("program");
+    program.addConstraint (Operator.LESS_EQUALS).getRhs ().addTerm (1.0);
+
+    final List<ProgramComponent> components = new ComponentAnalyzer ().analyze (program);
+
+    assertEquals ("Expected a single component", 1, components.size ());
+    assertEquals ("Expected different constraints count", 1, components.get (0).getConstraints ().size ());
+    assertTrue ("Expected no components", new ComponentAnalyzer ().analyze (new SimpleProgram ("empty")).isEmpty ());
+  }
+
+  @Test
+  public void testObjectiveSeparability () {
+    final ComponentAnalyzer analyzer = new ComponentAnalyzer ();
+    final Program program = new SimpleProgram ("program");
+
+    assertTrue ("Expected separable objective", analyzer.isObjectiveSeparable (program));
+
+    program.addObjective (ObjectiveSense.MINIMIZE).setPriority (2);
+    final Objective objective = program.addObjective (ObjectiveSense.MAXIMIZE);
+    objective.setPriority (2);
+
+    assertTrue ("Expected separable objective", analyzer.isObjectiveSeparable (program));
+
+    objective.setPriority (1);
+
+    assertFalse ("Expected hierarchical objective", analyzer.isObjectiveSeparable (program));
+  }
+
+  @Test
+  public void testUnionFind () {
+    final int[] parents = new int[] {0, 1, 2, 3};
+    final int[] sizes = new int[] {1, 1, 1, 1};
+
+    ComponentAnalyzer.union (parents, sizes, 0, 1);
+    ComponentAnalyzer.union (parents, sizes, 2, 3);
+    ComponentAnalyzer.union (parents, sizes, 1, 0);
+
+    assertEquals ("Expected same root", ComponentAnalyzer.find (parents, 0), ComponentAnalyzer.find (parents, 1));
+    assertEquals ("Expected same root", ComponentAnalyzer.find (parents, 2), ComponentAnalyzer.find (parents, 3));
+    assertFalse ("Expected different roots",
+                 ComponentAnalyzer.find (parents, 0) == ComponentAnalyzer.find (parents, 3));
+
+    ComponentAnalyzer.union (parents, sizes, 3, 0);
+
+    assertEquals ("Expected same root", ComponentAnalyzer.find (parents, 1), ComponentAnalyzer.find (parents, 2));
+    assertEquals ("Expected different size", 4, sizes[ComponentAnalyzer.find (parents, 0)]);
+  }
+
+  @Test
+  public void testAnalyzingWithErrors () {
+    final ComponentAnalyzer analyzer = new ComponentAnalyzer ();
+
+    try {
+      analyzer.analyze (null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      analyzer.isObjectiveSeparable (null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    final Program program = new SimpleProgram ("program");
+    final Variable foreignVariable = new SimpleProgram ("other").addVariable ();
+    program.addVariable ();
+    program.addConstraint (Operator.LESS_EQUALS).getLhs ().addTerm (1.0, foreignVariable);
+
+    try {
+      analyzer.analyze (program);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.decomposition;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.SOSType;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.SimpleSolverFactory;
+import com.inform.jamps.solver.Solution;
+
+public class DecomposingSolverTest {
+
+  @Test
+  public void testSolvingIndependentComponents () {
+    final SimpleSolverFactory factory = new SimpleSolverFactory ();
+    final Program program = factory.createProgram ("program");
+    final Objective objective = program.addObjective ("obj", ObjectiveSense.MAXIMIZE);
+    objective.getExpression ().addTerm (5.0);
+
+    final List<Variable> vars = new ArrayList<Variable> ();
+    for (int i = 0; i < 3; i++) {
+      final Constraint constraint = program.addConstraint ("c" + i, Operator.LESS_EQUALS);
+      constraint.getRhs ().addTerm (10.0);
+      for (int j = 0; j <= i; j++) {
+        final Variable var = program.addVariable ("x" + i + "_" + j, VariableType.INTEGER, 0.0, i + j + 1.0);
+        objective.getExpression ().addTerm (2.0, var);
+        constraint.getLhs ().addTerm (1.0, var);
+        vars.add (var);
+      }
+    }
+    vars.get (0).setInitialValue (1.0);
+
+    final DecomposingSolver solver = new DecomposingSolver (factory);
+    solver.setWorkersCount (2);
+    final ExecutionResult<Program> result = solver.solve (factory.createParameters (), program);
+
+    assertTrue ("Expected decomposed result", result instanceof DecomposedExecutionResult);
+    assertSame ("Expected original program", program, result.getProblem ());
+    assertEquals ("Expected different sub programs count", 2, factory.getSolvedPrograms ().size ());
+    assertEquals ("Expected different solutions count", 1, result.getSolutionsCount ());
+    assertTrue ("Expected optimal solution", result.hasOptimalSolution ());
+    assertFalse ("Expected feasible program", result.isProblemInfeasible ());
+
+    // Largest component gets its own sub program, the two smaller ones share the other
+    final List<SubProgram> subPrograms = ((DecomposedExecutionResult) result).getSubPrograms ();
+    assertEquals ("Expected different variables count", 3, subPrograms.get (0).getProgram ().getVariablesCount ());
+    assertEquals ("Expected different variables count", 3, subPrograms.get (1).getProgram ().getVariablesCount ());
+    assertEquals ("Expected different constraints count", 2, subPrograms.get (1).getProgram ().getConstraintsCount ());
+
+    final Variable copy = subPrograms.get (1).getVariable (vars.get (0));
+    assertEquals ("Expected copied initial value", 1.0, copy.getInitialValue (), 0.0);
+    assertEquals ("Expected copied bound", 1.0, copy.getUpperBound (), 0.0);
+
+    final Solution solution = result.getBestSolution ();
+    double expectedValue = 5.0;
+    for (final Variable var: vars) {
+      assertEquals ("Expected different variable value", var.getUpperBound (), solution.getVariableValue (var), 0.0);
+      expectedValue += 2.0 * var.getUpperBound ();
+    }
+    assertEquals ("Expected different integer value", 5L, solution.getIntegerValue (vars.get (5)));
+    assertEquals ("Expected different objective value", expectedValue, solution.getObjectiveValue (), 1e-9);
+    assertEquals ("Expected different objective value", expectedValue, solution.getObjectiveValue (objective), 1e-9);
+    assertEquals ("Expected no gap", 0.0, solution.getRelativeOptimalityGap (), 0.0);
+  }
+
+  @Test
+  public void testSolvingConnectedProgram () {
+    final SimpleSolverFactory factory = new SimpleSolverFactory ();
+    final Program program = factory.createProgram ("program");
+    program.addObjective (ObjectiveSense.MINIMIZE);
+    final Constraint constraint = program.addConstraint (Operator.EQUALS);
+    constraint.getLhs ().addTerm (1.0, program.addVariable ());
+    constraint.getRhs ().addTerm (1.0, program.addVariable ());
+
+    final DecomposingSolver solver = new DecomposingSolver (factory);
+    final ExecutionResult<Program> result = solver.solve (factory.createParameters (), program);
+
+    assertFalse ("Expected result of solver", result instanceof DecomposedExecutionResult);
+    assertEquals ("Expected single solve", 1, factory.getSolvedPrograms ().size ());
+    assertSame ("Expected original program to be solved", program, factory.getSolvedPrograms ().get (0));
+  }
+
+  @Test
+  public void testSolvingHierarchicalObjectives () {
+    final SimpleSolverFactory factory = new SimpleSolverFactory ();
+    final Program program = factory.createProgram ("program");
+    final Variable x = program.addVariable ();
+    final Variable y = program.addVariable ();
+    program.addObjective (ObjectiveSense.MINIMIZE).getExpression ().addTerm (1.0, x);
+    final Objective secondary = program.addObjective (ObjectiveSense.MINIMIZE);
+    secondary.getExpression ().addTerm (1.0, y);
+    secondary.setPriority (1);
+
+    new DecomposingSolver (factory).solve (factory.createParameters (), program);
+
+    assertEquals ("Expected single solve", 1, factory.getSolvedPrograms ().size ());
+    assertSame ("Expected original program to be solved", program, factory.getSolvedPrograms ().get (0));
+  }
+
+  @Test
+  public void testGroupingOfComponents () {
+    final List<ProgramComponent> components = new ArrayList<ProgramComponent> ();
+    for (int i = 1; i <= 5; i++) {
+      final ProgramComponent component = new ProgramComponent ();
+      for (int j = 0; j < i; j++) {
+        component.addVariable (null);
+      }
+      components.add (component);
+    }
+
+    final List<List<ProgramComponent>> groups = DecomposingSolver.groupComponents (components, 2);
+
+    assertEquals ("Expected different groups count", 2, groups.size ());
+    assertEquals ("Expected different components count", 3, groups.get (0).size ());
+    assertSame ("Expected largest component first", components.get (4), groups.get (0).get (0));
+    assertEquals ("Expected different components count", 2, groups.get (1).size ());
+    assertEquals ("Expected single group per component", 5, DecomposingSolver.groupComponents (components, 8).size ());
+  }
+
+  @Test
+  public void testObjectCreationAndSolvingWithErrors () {
+    final SimpleSolverFactory factory = new SimpleSolverFactory ();
+
+    try {
+      new DecomposingSolver (null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new DecomposingSolver (factory).setWorkersCount (0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new DecomposingSolver (factory).solve (null, factory.createProgram ());
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new DecomposingSolver (factory).solve (factory.createParameters (), null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testSolvingProgramWithGeneralConstraints () {
+    final SimpleSolverFactory factory = new SimpleSolverFactory ();
+    final Program program = factory.createProgram ("program");
+    final Objective objective = program.addObjective ("obj", ObjectiveSense.MAXIMIZE);
+    final Variable x = program.addVariable ("x", VariableType.CONTINUOUS, 0.0, 1.0);
+    final Variable y = program.addVariable ("y", VariableType.CONTINUOUS, 0.0, 2.0);
+    objective.getExpression ().addTerm (1.0, x).addTerm (1.0, y);
+    program.addConstraint ("cx", Operator.LESS_EQUALS).getLhs ().addTerm (1.0, x);
+    program.addConstraint ("cy", Operator.LESS_EQUALS).getLhs ().addTerm (1.0, y);
+    program.addSOSConstraint ("s", SOSType.TYPE1, new Variable[] {x, y}, new double[] {1.0, 2.0});
+
+    final ExecutionResult<Program> result = new DecomposingSolver (factory).solve (factory.createParameters (),
+                                                                                   program);
+
+    assertFalse ("Expected result of the whole program", result instanceof DecomposedExecutionResult);
+    assertEquals ("Expected different solved programs count", 1, factory.getSolvedPrograms ().size ());
+    assertSame ("Expected original program to be solved", program, factory.getSolvedPrograms ().get (0));
+  }
+}
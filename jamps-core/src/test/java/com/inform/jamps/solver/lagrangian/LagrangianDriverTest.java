@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.lagrangian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.MathProgrammingSolver;
+import com.inform.jamps.solver.SimpleSolverFactory;
+import com.inform.jamps.solver.SimpleSolverFactory.SimpleExecutionResult;
+import com.inform.jamps.solver.SimpleSolverFactory.SimpleSolution;
+import com.inform.jamps.solver.SolverParameters;
+
+public class LagrangianDriverTest {
+
+  @Test
+  public void testRunningMaximization () {
+    final BoundsFactory factory = new BoundsFactory ();
+    final Program program = createProgram (factory, ObjectiveSense.MAXIMIZE, Operator.LESS_EQUALS, 3.0, 2.0);
+    final List<? extends Variable> vars = program.getVariables ();
+    final Constraint assignment = program.getConstraints ().get (0);
+
+    final LagrangianDriver<SolverParameters> driver = createDriver (factory, program);
+    driver.setWorkersCount (2);
+    final LagrangianResult result = driver.run ();
+
+    assertEquals ("Expected one block per variable", 2, driver.getBlocks ().size ());
+    assertTrue ("Expected convergence", result.isConverged ());
+    assertFalse ("Expected feasible program", result.isInfeasible ());
+    assertTrue ("Expected a solution", result.hasSolution ());
+    assertEquals ("Expected different objective value", 3.0, result.getObjectiveValue (), 1e-9);
+    assertEquals ("Expected different best bound", 3.0, result.getBestBound (), 1e-9);
+    assertEquals ("Expected different value", 1.0, result.getVariableValue (vars.get (0)), 0.0);
+    assertEquals ("Expected different value", 0.0, result.getVariableValue (vars.get (1)), 0.0);
+    assertTrue ("Expected multiplier between both costs",
+                result.getMultiplier (assignment) >= 2.0 && result.getMultiplier (assignment) <= 3.0);
+    assertTrue ("Expected several iterations", result.getIterationsCount () > 1);
+
+    // Blocks keep their programs and only get new objective coefficients
+    final Program block = driver.getBlocks ().get (0).getProgram ();
+    final Expression objective = block.getObjectives ().get (0).getExpression ();
+    final double coefficient = objective.getCoefficient (block.getVariables ().get (0));
+    assertTrue ("Expected penalized objective coefficient", coefficient < 3.0 && coefficient > 0.0);
+  }
+
+  @Test
+  public void testRunningMinimization () {
+    final BoundsFactory factory = new BoundsFactory ();
+    final Program program = createProgram (factory, ObjectiveSense.MINIMIZE, Operator.GREATER_EQUALS, 1.0, 2.0);
+    final Constraint assignment = program.getConstraints ().get (0);
+
+    final LagrangianDriver<SolverParameters> driver = createDriver (factory, program);
+    driver.setWorkersCount (1);
+    final LagrangianResult result = driver.run ();
+
+    assertTrue ("Expected convergence", result.isConverged ());
+    assertEquals ("Expected different objective value", 1.0, result.getObjectiveValue (), 1e-9);
+    assertEquals ("Expected different best bound", 1.0, result.getBestBound (), 1e-9);
+    assertTrue ("Expected nonpositive multiplier", result.getMultiplier (assignment) <= 0.0);
+  }
+
+  @Test
+  public void testRunningWithIterationLimit () {
+    final BoundsFactory factory = new BoundsFactory ();
+    final Program program = createProgram (factory, ObjectiveSense.MAXIMIZE, Operator.LESS_EQUALS, 3.0, 2.0);
+
+    final LagrangianDriver<SolverParameters> driver = createDriver (factory, program);
+    driver.setMaxIterations (1);
+    final LagrangianResult result = driver.run ();
+
+    assertFalse ("Expected no convergence", result.isConverged ());
+    assertFalse ("Expected no solution", result.hasSolution ());
+    assertEquals ("Expected single iteration", 1, result.getIterationsCount ());
+    assertEquals ("Expected bound without penalty", 5.0, result.getBestBound (), 0.0);
+  }
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    final BoundsFactory factory = new BoundsFactory ();
+    final Program program = createProgram (factory, ObjectiveSense.MAXIMIZE, Operator.LESS_EQUALS, 3.0, 2.0);
+    final Constraint assignment = program.getConstraints ().get (0);
+
+    try {
+      new LagrangianDriver<SolverParameters> (null, factory.createParameters (), program,
+                                              Collections.singleton (assignment));
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      final Constraint foreign = factory.createProgram ().addConstraint ();
+      new LagrangianDriver<SolverParameters> (factory, factory.createParameters (), program,
+                                              Collections.singleton (foreign));
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      createDriver (factory, program).setMultiplier (assignment, -1.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      createDriver (factory, program).setStepSize (3.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      program.addObjective (ObjectiveSense.MINIMIZE);
+      createDriver (factory, program);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  private static LagrangianDriver<SolverParameters> createDriver (final BoundsFactory factory,
+                                                                   final Program program) {
+    final List<Constraint> dualized = Collections.singletonList ((Constraint) program.getConstraints ().get (0));
+    return new LagrangianDriver<SolverParameters> (factory, factory.createParameters (), program, dualized);
+  }
+
+  /**
+   * Binary choice of variables with the given costs, coupled by a single constraint on their sum.
+   */
+  private static Program createProgram (final BoundsFactory factory,
+                                        final ObjectiveSense sense,
+                                        final Operator operator,
+                                        final double... costs) {
+    final Program program = factory.createProgram ("choice");
+    final Expression objective = program.addObjective ("value", sense).getExpression ();
+    final Constraint assignment = program.addConstraint ("assignment", operator);
+    assignment.getRhs ().addTerm (1.0);
+
+    for (int i = 0; i < costs.length; i++) {
+      final Variable var = program.addVariable ("x" + i, VariableType.INTEGER, 0.0, 1.0);
+      objective.addTerm (costs[i], var);
+      assignment.getLhs ().addTerm (1.0, var);
+    }
+    return program;
+  }
+
+  /**
+   * Solves programs without constraints by moving every variable to its best bound, the lower one on ties.
+   */
+  private static class BoundsFactory extends SimpleSolverFactory {
+
+    @Override
+    public MathProgrammingSolver createSolver () {
+      return new MathProgrammingSolver () {
+
+        @Override
+        public ExecutionResult<Program> solve (final SolverParameters parameters,
+                                               final Program problem) {
+          assertEquals ("Expected relaxed program without constraints", 0, problem.getConstraintsCount ());
+
+          final boolean minimize = (problem.getObjectives ().get (0).getObjectiveSense () == ObjectiveSense.MINIMIZE);
+          final Expression objective = problem.getObjectives ().get (0).getExpression ();
+          final SimpleSolution solution = new SimpleSolution ();
+          double value = objective.getConstant ();
+          for (final LinearTerm term: objective.getLinearTerms ()) {
+            final Variable var = term.getVariable ();
+            final boolean useUpperBound = minimize ? term.getCoefficient () < 0.0 : term.getCoefficient () > 0.0;
+            final double varValue = useUpperBound ? var.getUpperBound () : var.getLowerBound ();
+            solution.setVariableValue (var, varValue);
+            value += term.getCoefficient () * varValue;
+          }
+
+          solution.setObjectiveValue (value);
+          return new SimpleExecutionResult (problem, solution);
+        }
+      };
+    }
+  }
+}
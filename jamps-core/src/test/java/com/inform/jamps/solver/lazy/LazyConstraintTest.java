@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.lazy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.Operator;
+
+public class LazyConstraintTest {
+
+  private final Expression lhs = createExpression ();
+
+  @Test
+  public void testObjectCreationAndGetters () {
+    final LazyConstraint lazyConstraint = new LazyConstraint (lhs, Operator.LESS_EQUALS, 2.0);
+    final LazyConstraint userCut = new LazyConstraint (lhs, Operator.GREATER_EQUALS, 1.0, true);
+
+    assertSame ("Expected same expression", lhs, lazyConstraint.getLhs ());
+    assertEquals ("Expected different operator", Operator.LESS_EQUALS, lazyConstraint.getOperator ());
+    assertEquals ("Expected different right-hand side", 2.0, lazyConstraint.getRhs (), 0.0);
+    assertFalse ("Expected lazy constraint", lazyConstraint.isUserCut ());
+    assertTrue ("Expected user cut", userCut.isUserCut ());
+  }
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    try {
+      new LazyConstraint (null, Operator.EQUALS, 0.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new LazyConstraint (lhs, null, 0.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  private static Expression createExpression () {
+    final InvocationHandler handler = new InvocationHandler () {
+
+      @Override
+      public Object invoke (final Object proxy,
+                            final Method method,
+                            final Object[] args) {
+        return null;
+      }
+    };
+
+    return (Expression) Proxy.newProxyInstance (Expression.class.getClassLoader (), new Class<?>[] {Expression.class},
+                                                handler);
+  }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.neighbourhood;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.MathProgrammingSolver;
+import com.inform.jamps.solver.SimpleSolverFactory;
+import com.inform.jamps.solver.SimpleSolverFactory.SimpleExecutionResult;
+import com.inform.jamps.solver.SimpleSolverFactory.SimpleSolution;
+import com.inform.jamps.solver.SolverParameters;
+
+public class NeighbourhoodSearchTest {
+
+  private final static double[] PROFITS = new double[] {6.0, 5.0, 4.0, 3.0};
+
+  private final static double[] WEIGHTS = new double[] {5.0, 4.0, 3.0, 2.0};
+
+  @Test
+  public void testImprovingIncumbent () {
+    final EnumeratingFactory factory = new EnumeratingFactory ();
+    final Program program = createKnapsack (factory);
+    final List<? extends Variable> vars = program.getVariables ();
+
+    final NeighbourhoodSearch<SolverParameters> search = createSearch (factory, program);
+    search.addNeighbourhood (new RandomNeighbourhood (0.5));
+    search.setMaxIterations (20);
+    final NeighbourhoodSearchResult result = search.run ();
+
+    // Best packing of capacity 9 takes the items with weights 4, 3 and 2
+    assertEquals ("Expected optimal objective value", 12.0, result.getObjectiveValue (), 1e-9);
+    assertEquals ("Expected different value", 0.0, result.getVariableValue (vars.get (0)), 0.0);
+    assertEquals ("Expected different value", 1.0, result.getVariableValue (vars.get (3)), 0.0);
+    assertTrue ("Expected improvements", result.getImprovementsCount () > 0);
+    assertEquals ("Expected iteration limit", 20, result.getIterationsCount ());
+    assertEquals ("Expected restored bounds", 0.0, vars.get (0).getLowerBound (), 0.0);
+    assertEquals ("Expected restored bounds", 1.0, vars.get (0).getUpperBound (), 0.0);
+  }
+
+  @Test
+  public void testSearchingWithSeveralWorkers () {
+    final EnumeratingFactory factory = new EnumeratingFactory ();
+    final Program program = createKnapsack (factory);
+
+    final NeighbourhoodSearch<SolverParameters> search = createSearch (factory, program);
+    search.addNeighbourhood (new RandomNeighbourhood (0.5)).addNeighbourhood (new ConstraintNeighbourhood (1));
+    search.setWorkersCount (2);
+    search.setMaxIterations (10);
+    final NeighbourhoodSearchResult result = search.run ();
+
+    assertEquals ("Expected optimal objective value", 12.0, result.getObjectiveValue (), 1e-9);
+    assertEquals ("Expected two programs per iteration", 20, factory.getSolvedPrograms ().size ());
+    final Set<Program> solvedPrograms = Collections.newSetFromMap (new IdentityHashMap<Program, Boolean> ());
+    solvedPrograms.addAll (factory.getSolvedPrograms ());
+    assertEquals ("Expected one copy per worker", 2, solvedPrograms.size ());
+    assertFalse ("Expected unchanged original program", solvedPrograms.contains (program));
+  }
+
+  @Test
+  public void testFixingVariablesOutsideNeighbourhood () {
+    final EnumeratingFactory factory = new EnumeratingFactory ();
+    final Program program = createKnapsack (factory);
+    final Variable first = program.getVariables ().get (0);
+
+    // Only the first item may change, which does not fit next to the incumbent items
+    final NeighbourhoodSearch<SolverParameters> search = createSearch (factory, program);
+    search.addNeighbourhood (new Neighbourhood () {
+
+      @Override
+      public Collection<? extends Variable> select (final Program program,
+                                                    final Map<Variable, Double> incumbent,
+                                                    final Random random) {
+        assertEquals ("Expected incumbent value", 1.0, incumbent.get (program.getVariables ().get (1)), 0.0);
+        return Collections.singleton (first);
+      }
+    });
+    search.setMaxIterations (3);
+    final NeighbourhoodSearchResult result = search.run ();
+
+    assertEquals ("Expected incumbent objective value", 8.0, result.getObjectiveValue (), 1e-9);
+    assertEquals ("Expected no improvements", 0, result.getImprovementsCount ());
+  }
+
+  @Test
+  public void testRunningWithErrors () {
+    final EnumeratingFactory factory = new EnumeratingFactory ();
+    final Program program = createKnapsack (factory);
+
+    try {
+      createSearch (factory, program).run ();
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+
+    try {
+      new RandomNeighbourhood (0.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      createSearch (factory, program).setWorkersCount (0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  /**
+   * Starts from the incumbent with the items of weight 4 and 2.
+   */
+  private static NeighbourhoodSearch<SolverParameters> createSearch (final EnumeratingFactory factory,
+                                                                     final Program program) {
+    final SimpleSolution incumbent = new SimpleSolution ();
+    incumbent.setVariableValue (program.getVariables ().get (1), 1.0);
+    incumbent.setVariableValue (program.getVariables ().get (3), 1.0);
+    incumbent.setObjectiveValue (8.0);
+
+    final SolverParameters parameters = factory.createParameters ();
+    final NeighbourhoodSearch<SolverParameters> search = new NeighbourhoodSearch<SolverParameters> (factory, parameters,
+                                                                                                    program, incumbent);
+    search.setSeed (42);
+    return search;
+  }
+
+  private static Program createKnapsack (final EnumeratingFactory factory) {
+    final Program program = factory.createProgram ("knapsack");
+    final Expression objective = program.addObjective ("profit", ObjectiveSense.MAXIMIZE).getExpression ();
+    final Constraint capacity = program.addConstraint ("capacity", Operator.LESS_EQUALS);
+    capacity.getRhs ().addTerm (9.0);
+
+    for (int i = 0; i < PROFITS.length; i++) {
+      final Variable var = program.addVariable ("item" + i, VariableType.BINARY, 0.0, 1.0);
+      objective.addTerm (PROFITS[i], var);
+      capacity.getLhs ().addTerm (WEIGHTS[i], var);
+    }
+    return program;
+  }
+
+  /**
+   * Solves small integer programs by enumerating all values within the bounds of the variables.
+   */
+  private static class EnumeratingFactory extends SimpleSolverFactory {
+
+    @Override
+    public MathProgrammingSolver createSolver () {
+      return new MathProgrammingSolver () {
+
+        @Override
+        public ExecutionResult<Program> solve (final SolverParameters parameters,
+                                               final Program problem) {
+          getSolvedPrograms ().add (problem);
+
+          final List<? extends Variable> vars = problem.getVariables ();
+          final double[] values = new double[vars.size ()];
+          final SimpleSolution best = new SimpleSolution ();
+          best.setObjectiveValue (Double.NEGATIVE_INFINITY);
+          enumerate (problem, vars, values, 0, best);
+          return new SimpleExecutionResult (problem, best);
+        }
+      };
+    }
+
+    private static void enumerate (final Program problem,
+                                   final List<? extends Variable> vars,
+                                   final double[] values,
+                                   final int index,
+                                   final SimpleSolution best) {
+      if (index < vars.size ()) {
+        final Variable var = vars.get (index);
+        for (double value = var.getLowerBound (); value <= var.getUpperBound (); value++) {
+          values[index] = value;
+          enumerate (problem, vars, values, index + 1, best);
+        }
+        return;
+      }
+
+      for (final Constraint constraint: problem.getConstraints ()) {
+        final double activity = evaluate (constraint.getLhs (), vars, values) -
+                                evaluate (constraint.getRhs (), vars, values);
+        if (constraint.getOperator () == Operator.LESS_EQUALS ? activity > 1e-9 : activity < -1e-9) {
+          return;
+        }
+      }
+
+      final double value = evaluate (problem.getObjectives ().get (0).getExpression (), vars, values);
+      if (value > best.getObjectiveValue ()) {
+        best.setObjectiveValue (value);
+        for (int i = 0; i < values.length; i++) {
+          best.setVariableValue (vars.get (i), values[i]);
+        }
+      }
+    }
+
+    private static double evaluate (final Expression expr,
+                                    final List<? extends Variable> vars,
+                                    final double[] values) {
+      double value = expr.getConstant ();
+      for (final LinearTerm term: expr.getLinearTerms ()) {
+        value += term.getCoefficient () * values[vars.indexOf (term.getVariable ())];
+      }
+      return value;
+    }
+  }
+}
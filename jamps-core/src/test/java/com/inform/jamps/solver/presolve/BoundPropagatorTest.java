@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.SimpleProgram;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+
+public class BoundPropagatorTest {
+
+  @Test
+  public void testPropagatingBounds () {
+    final Program program = new SimpleProgram ("program");
+    final Variable x = program.addVariable ("x", VariableType.INTEGER, 0.0, 10.0);
+    final Variable y = program.addVariable ("y", VariableType.INTEGER, 0.0, 10.0);
+    final Variable z = program.addVariable ("z", VariableType.CONTINUOUS);
+
+    final Constraint c1 = program.addConstraint ("c1", Operator.LESS_EQUALS);
+    c1.getLhs ().addTerm (1.0, x).addTerm (1.0, y);
+    c1.getRhs ().addTerm (5.0);
+    final Constraint c2 = program.addConstraint ("c2", Operator.GREATER_EQUALS);
+    c2.getLhs ().addTerm (1.0, z);
+    c2.getRhs ().addTerm (1.0, x).addTerm (2.0);
+    final Constraint c3 = program.addConstraint ("c3", Operator.GREATER_EQUALS);
+    c3.getLhs ().addTerm (2.0, x).addTerm (-1.0, y);
+    c3.getRhs ().addTerm (7.0);
+
+    final BoundPropagator propagator = new BoundPropagator (program);
+
+    assertTrue ("Expected feasible program", propagator.propagate ());
+    assertEquals ("Expected rounded lower bound", 4.0, propagator.getLowerBound (x), 0.0);
+    assertEquals ("Expected different upper bound", 5.0, propagator.getUpperBound (x), 0.0);
+    assertEquals ("Expected different upper bound", 1.0, propagator.getUpperBound (y), 0.0);
+    assertEquals ("Expected different lower bound", 6.0, propagator.getLowerBound (z), 0.0);
+    assertEquals ("Expected unbounded variable", Double.POSITIVE_INFINITY, propagator.getUpperBound (z), 0.0);
+    assertEquals ("Expected unchanged program", 10.0, x.getUpperBound (), 0.0);
+
+    propagator.setBounds (y, 1.0, 1.0);
+
+    assertTrue ("Expected feasible program", propagator.propagate ());
+    assertEquals ("Expected fixed variable", 4.0, propagator.getUpperBound (x), 0.0);
+
+    propagator.applyBounds ();
+
+    assertEquals ("Expected applied bound", 4.0, x.getLowerBound (), 0.0);
+    assertEquals ("Expected applied bound", 4.0, x.getUpperBound (), 0.0);
+    assertEquals ("Expected applied bound", 6.0, z.getLowerBound (), 0.0);
+  }
+
+  @Test
+  public void testDetectingInfeasibility () {
+    final Program program = new SimpleProgram ("program");
+    final Variable x = program.addVariable ("x", VariableType.BINARY, 0.0, 1.0);
+    final Variable y = program.addVariable ("y", VariableType.BINARY, 0.0, 1.0);
+    final Variable s = program.addVariable ("s", VariableType.SEMI_CONTINUOUS, 2.0, 4.0);
+
+    final Constraint c1 = program.addConstraint ("c1", Operator.LESS_EQUALS);
+    c1.getLhs ().addTerm (1.0, s).addTerm (-4.0, x);
+    final Constraint c2 = program.addConstraint ("c2", Operator.GREATER_EQUALS);
+    c2.getLhs ().addTerm (1.0, x).addTerm (1.0, y);
+    c2.getRhs ().addTerm (1.0);
+
+    final BoundPropagator propagator = new BoundPropagator (program);
+
+    assertTrue ("Expected feasible program", propagator.propagate ());
+    assertEquals ("Expected untouched semi-continuous bound", 2.0, propagator.getLowerBound (s), 0.0);
+
+    propagator.setBounds (x, 0.0, 0.0);
+    propagator.setBounds (y, 0.0, 0.0);
+
+    assertFalse ("Expected infeasible program", propagator.propagate ());
+    assertTrue ("Expected infeasible program", propagator.isInfeasible ());
+    assertTrue ("Expected violated constraint", propagator.getInfeasibilityReason ().contains ("c2"));
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.SimpleSolverFactory;
+import com.inform.jamps.solver.presolve.CoefficientTighteningReport.CoefficientChange;
+
+public class CoefficientTightenerTest {
+
+  private Program createProgram (final SimpleSolverFactory factory) {
+    final Program program = factory.createProgram ("program");
+    final Variable x = program.addVariable ("x", VariableType.CONTINUOUS, 0.0, 10.0);
+    final Variable y = program.addVariable ("y", VariableType.BINARY, 0.0, 1.0);
+    final Variable z = program.addVariable ("z", VariableType.BINARY, 0.0, 1.0);
+    program.addObjective (ObjectiveSense.MAXIMIZE).getExpression ().addTerm (1.0, x);
+
+    final Constraint bigM = program.addConstraint ("bigM", Operator.LESS_EQUALS);
+    bigM.getLhs ().addTerm (1.0, x).addTerm (-1000.0, y);
+
+    // At most two of the items fit into the knapsack
+    final Constraint knapsack = program.addConstraint ("knapsack", Operator.LESS_EQUALS);
+    for (int i = 0; i < 3; i++) {
+      knapsack.getLhs ().addTerm (3.0 + i, program.addVariable ("b" + i, VariableType.BINARY, 0.0, 1.0));
+    }
+    knapsack.getRhs ().addTerm (10.0);
+
+    final Constraint reversed = program.addConstraint ("reversed", Operator.GREATER_EQUALS);
+    reversed.getLhs ().addTerm (50.0, z);
+    reversed.getRhs ().addTerm (1.0, x);
+    return program;
+  }
+
+  @Test
+  public void testTighteningCoefficients () {
+    final Program program = createProgram (new SimpleSolverFactory ());
+    final List<? extends Constraint> constraints = program.getConstraints ();
+    final List<? extends Variable> vars = program.getVariables ();
+
+    final CoefficientTighteningReport report = new CoefficientTightener ().tighten (program);
+
+    assertFalse ("Expected feasible program", report.isInfeasible ());
+    assertEquals ("Expected different changes count", 5, report.getChangesCount ());
+
+    final CoefficientChange change = report.getChanges ().get (0);
+    assertSame ("Expected different constraint", constraints.get (0), change.getConstraint ());
+    assertSame ("Expected different variable", vars.get (1), change.getVariable ());
+    assertEquals ("Expected different previous coefficient", -1000.0, change.getPreviousCoefficient (), 0.0);
+    assertEquals ("Expected tightened big-M", -10.0, change.getCoefficient (), 1e-9);
+    assertEquals ("Expected tightened big-M", -10.0, constraints.get (0).getLhs ().getCoefficient (vars.get (1)),
+                  1e-9);
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals ("Expected equal knapsack coefficients", 2.0,
+                    constraints.get (1).getLhs ().getCoefficient (vars.get (3 + i)), 1e-9);
+    }
+    assertEquals ("Expected different right-hand side", 4.0,
+                  constraints.get (1).getRhs ().getConstant () - constraints.get (1).getLhs ().getConstant (), 1e-9);
+
+    assertEquals ("Expected tightened coefficient", 10.0, constraints.get (2).getLhs ().getCoefficient (vars.get (2)),
+                  1e-9);
+    assertTrue ("Expected changes in report", report.toString ().startsWith ("5 coefficients tightened"));
+  }
+
+  @Test
+  public void testTighteningCoefficientsInPresolve () {
+    final SimpleSolverFactory factory = new SimpleSolverFactory ();
+    final Program program = createProgram (factory);
+    final Variable y = program.getVariables ().get (1);
+
+    final Presolver presolver = new Presolver (factory);
+    presolver.setCoefficientTightening (true);
+    final PresolvedProgram presolved = presolver.presolve (program);
+
+    final CoefficientTighteningReport report = presolved.getCoefficientTighteningReport ();
+    assertEquals ("Expected different changes count", 5, report.getChangesCount ());
+    assertEquals ("Expected unchanged original program", -1000.0,
+                  program.getConstraints ().get (0).getLhs ().getCoefficient (y), 0.0);
+
+    final Constraint reduced = presolved.getReducedProgram ().getConstraints ().get (0);
+    final Variable reducedY = presolved.getReducedVariable (y);
+    assertEquals ("Expected tightened big-M", -10.0, reduced.getLhs ().getCoefficient (reducedY), 1e-9);
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.SimpleProgram;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+
+public class DuplicateDetectorTest {
+
+  private static Constraint addConstraint (final Program program,
+                                           final String name,
+                                           final Operator operator,
+                                           final double[] coefficients,
+                                           final Variable[] vars,
+                                           final double rhs) {
+    final Constraint constraint = program.addConstraint (name, operator);
+    for (int i = 0; i < vars.length; i++) {
+      constraint.getLhs ().addTerm (coefficients[i], vars[i]);
+    }
+    constraint.getRhs ().addTerm (rhs);
+    return constraint;
+  }
+
+  @Test
+  public void testDetectingDuplicates () {
+    final Program program = new SimpleProgram ("program");
+    final Variable x = program.addVariable ("x", VariableType.CONTINUOUS);
+    final Variable y = program.addVariable ("y", VariableType.CONTINUOUS);
+    final Variable z = program.addVariable ("z", VariableType.CONTINUOUS);
+    final Variable w = program.addVariable ("w", VariableType.CONTINUOUS);
+    program.addObjective (ObjectiveSense.MINIMIZE).getExpression ().addTerm (1.0, z).addTerm (2.0, w);
+
+    final Variable[] xy = new Variable[] {x, y};
+    final Constraint c1 = addConstraint (program, "c1", Operator.LESS_EQUALS, new double[] {1.0, 2.0}, xy, 4.0);
+    final Constraint c2 = addConstraint (program, "c2", Operator.LESS_EQUALS, new double[] {2.0, 4.0}, xy, 6.0);
+    final Constraint c3 = addConstraint (program, "c3", Operator.LESS_EQUALS, new double[] {-1.0, -2.0}, xy, -1.0);
+    final Constraint c4 = addConstraint (program, "c4", Operator.EQUALS, new double[] {1.0, 1.0}, xy, 2.0);
+    final Constraint c5 = addConstraint (program, "c5", Operator.EQUALS, new double[] {3.0, 3.0}, xy, 6.0);
+    addConstraint (program, "c6", Operator.LESS_EQUALS, new double[] {1.0, 1.0, 2.0}, new Variable[] {x, z, w}, 10.0);
+
+    final DuplicatesReport report = new DuplicateDetector (program).detect ();
+
+    assertFalse ("Expected consistent constraints", report.isInfeasible ());
+    assertEquals ("Expected different parallel constraints", Arrays.asList (Arrays.asList (c1, c2, c3),
+                                                                           Arrays.asList (c4, c5)),
+                  report.getParallelConstraints ());
+    assertEquals ("Expected different redundant constraints", Arrays.asList (c1, c5),
+                  report.getRedundantConstraints ());
+    assertEquals ("Expected different parallel variables", Arrays.asList (Arrays.asList (z, w)),
+                  report.getParallelVariables ());
+
+    new DuplicateDetector (program).removeRedundantConstraints ();
+
+    assertEquals ("Expected removed constraints", Arrays.asList (c2, c3, c4, program.getConstraints ().get (3)),
+                  program.getConstraints ());
+  }
+
+  @Test
+  public void testDetectingContradictions () {
+    final Program program = new SimpleProgram ("program");
+    final Variable[] xy = new Variable[] {program.addVariable (), program.addVariable ()};
+    addConstraint (program, "c1", Operator.LESS_EQUALS, new double[] {1.0, 1.0}, xy, 1.0);
+    addConstraint (program, "c2", Operator.GREATER_EQUALS, new double[] {2.0, 2.0}, xy, 4.0);
+
+    final DuplicatesReport report = new DuplicateDetector (program).removeRedundantConstraints ();
+
+    assertTrue ("Expected contradicting constraints", report.isInfeasible ());
+    assertEquals ("Expected unchanged program", 2, program.getConstraintsCount ());
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.presolve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.GeneralConstraintType;
+import com.inform.jamps.modeling.IndicatorConstraint;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.RangeConstraint;
+import com.inform.jamps.modeling.SOSType;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.SimpleSolverFactory;
+import com.inform.jamps.solver.Solution;
+
+public class PresolverTest {
+
+  @Test
+  public void testPresolvingProgram () {
+    final SimpleSolverFactory factory = new SimpleSolverFactory ();
+    final Program program = factory.createProgram ("program");
+    final Variable x = program.addVariable ("x", VariableType.CONTINUOUS, 2.0, 2.0);
+    final Variable y = program.addVariable ("y", VariableType.CONTINUOUS, 0.0, 10.0);
+    final Variable z = program.addVariable ("z", VariableType.CONTINUOUS, 0.0, 10.0);
+    final Variable w = program.addVariable ("w", VariableType.CONTINUOUS, Double.NEGATIVE_INFINITY,
+                                            Double.POSITIVE_INFINITY);
+
+    final Objective objective = program.addObjective ("obj", ObjectiveSense.MAXIMIZE);
+    objective.getExpression ().addTerm (1.0, x).addTerm (1.0, y).addTerm (1.0, z).addTerm (2.0, w);
+
+    // Becomes the upper bound 6 of y once x is fixed
+    final Constraint c1 = program.addConstraint ("c1", Operator.LESS_EQUALS);
+    c1.getLhs ().addTerm (1.0, x).addTerm (1.0, y);
+    c1.getRhs ().addTerm (8.0);
+    final Constraint c2 = program.addConstraint ("c2", Operator.GREATER_EQUALS);
+    c2.getLhs ().addTerm (1.0, y).addTerm (1.0, z);
+    c2.getRhs ().addTerm (1.0);
+    final Constraint c3 = program.addConstraint ("c3", Operator.GREATER_EQUALS);
+    c3.getLhs ().addTerm (1.0, z).addTerm (1.0, y);
+    c3.getRhs ().addTerm (1.0);
+    program.addConstraint ("c4", Operator.LESS_EQUALS).getRhs ().addTerm (5.0);
+    // Free column singleton w = 3 + y + z
+    final Constraint c5 = program.addConstraint ("c5", Operator.EQUALS);
+    c5.getLhs ().addTerm (1.0, w).addTerm (-1.0, y);
+    c5.getRhs ().addTerm (1.0, z).addTerm (3.0);
+
+    final PresolvedProgram presolved = new Presolver (factory).presolve (program);
+
+    assertFalse ("Expected feasible program", presolved.isInfeasible ());
+    assertEquals ("Expected different removed variables count", 2, presolved.getRemovedVariablesCount ());
+    assertEquals ("Expected different removed constraints count", 4, presolved.getRemovedConstraintsCount ());
+    assertNull ("Expected fixed variable to be removed", presolved.getReducedVariable (x));
+    assertNull ("Expected substituted variable to be removed", presolved.getReducedVariable (w));
+
+    final Program reduced = presolved.getReducedProgram ();
+    assertEquals ("Expected different variables count", 2, reduced.getVariablesCount ());
+    assertEquals ("Expected different constraints count", 1, reduced.getConstraintsCount ());
+    assertEquals ("Expected tightened bound", 6.0, presolved.getReducedVariable (y).getUpperBound (), 0.0);
+    assertEquals ("Expected substituted costs", 3.0, presolved.getReducedObjective (objective).getExpression ()
+        .getCoefficient (presolved.getReducedVariable (z)), 1e-9);
+    assertEquals ("Expected unchanged original program", 5, program.getConstraintsCount ());
+
+    final ExecutionResult<Program> result = new PresolvingSolver (factory).solve (factory.createParameters (),
+                                                                                  program);
+
+    assertSame ("Expected original program", program, result.getProblem ());
+    assertTrue ("Expected solution", result.hasSolution ());
+
+    final Solution solution = result.getBestSolution ();
+    assertEquals ("Expected fixed value", 2.0, solution.getVariableValue (x), 0.0);
+    assertEquals ("Expected different value", 6.0, solution.getVariableValue (y), 0.0);
+    assertEquals ("Expected different value", 10.0, solution.getVariableValue (z), 0.0);
+    assertEquals ("Expected substituted value", 19.0, solution.getVariableValue (w), 1e-9);
+    assertEquals ("Expected different objective value", 56.0, solution.getObjectiveValue (), 1e-9);
+    assertEquals ("Expected different objective value", 56.0, solution.getObjectiveValue (objective), 1e-9);
+  }
+
+  @Test
+  public void testDetectingInfeasibility () {
+    final SimpleSolverFactory factory = new SimpleSolverFactory ();
+    final Program program = factory.createProgram ("program");
+    final Variable x = program.addVariable ("x", VariableType.INTEGER, 0.0, 1.0);
+    program.addObjective (ObjectiveSense.MINIMIZE).getExpression ().addTerm (1.0, x);
+    final Constraint constraint = program.addConstraint ("c", Operator.GREATER_EQUALS);
+    constraint.getLhs ().addTerm (2.0, x);
+    constraint.getRhs ().addTerm (3.0);
+
+    final ExecutionResult<Program> result = new PresolvingSolver (factory).solve (factory.createParameters (),
+                                                                                  program);
+
+    assertTrue ("Expected infeasible program", result.isProblemInfeasible ());
+    assertFalse ("Expected no solution", result.hasSolution ());
+    assertTrue ("Expected reduced program not to be solved", factory.getSolvedPrograms ().isEmpty ());
+    try {
+      result.getBestSolution ();
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+  }
+
+  @Test
+  public void testPresolvingWithBoundPropagation () {
+    final SimpleSolverFactory factory = new SimpleSolverFactory ();
+    final Program program = factory.createProgram ("program");
+    final Variable x = program.addVariable ("x", VariableType.INTEGER, 0.0, 5.0);
+    final Variable y = program.addVariable ("y", VariableType.INTEGER, 0.0, 5.0);
+    program.addObjective (ObjectiveSense.MINIMIZE).getExpression ().addTerm (1.0, x).addTerm (1.0, y);
+    final Constraint constraint = program.addConstraint ("c", Operator.GREATER_EQUALS);
+    constraint.getLhs ().addTerm (1.0, x).addTerm (1.0, y);
+    constraint.getRhs ().addTerm (10.0);
+
+    final Presolver presolver = new Presolver (factory);
+
+    assertFalse ("Expected no propagation by default", presolver.presolve (program).isInfeasible ());
+
+    presolver.setBoundPropagation (true);
+    final PresolvedProgram presolved = presolver.presolve (program);
+
+    assertFalse ("Expected feasible program", presolved.isInfeasible ());
+    assertEquals ("Expected fixed variables", 2, presolved.getRemovedVariablesCount ());
+    assertEquals ("Expected redundant constraint", 1, presolved.getRemovedConstraintsCount ());
+
+    constraint.getRhs ().addTerm (1.0);
+
+    assertTrue ("Expected infeasible program", presolver.presolve (program).isInfeasible ());
+  }
+
+  @Test
+  public void testPresolvingGeneralConstraints () {
+    final SimpleSolverFactory factory = new SimpleSolverFactory ();
+    final Program program = factory.createProgram ("program");
+    final Variable x = program.addVariable ("x", VariableType.CONTINUOUS, 2.0, 2.0);
+    final Variable y = program.addVariable ("y", VariableType.CONTINUOUS, 0.0, 10.0);
+    final Variable b = program.addVariable ("b", VariableType.BINARY, 0.0, 1.0);
+    final Objective objective = program.addObjective ("obj", ObjectiveSense.MINIMIZE);
+    objective.getExpression ().addTerm (1.0, y);
+
+    final Constraint indicator = program.addIndicatorConstraint ("i", b, true, Operator.LESS_EQUALS);
+    indicator.getLhs ().addTerm (1.0, x).addTerm (1.0, y);
+    indicator.getRhs ().addTerm (4.0);
+    program.addSOSConstraint ("s", SOSType.TYPE1, new Variable[] {x, y}, new double[] {1.0, 2.0});
+    program.addGeneralConstraint ("g", GeneralConstraintType.MAX, y, new Variable[] {x}, 1.0);
+    program.addPiecewiseLinearTerm (objective, y, new double[] {0.0, 10.0}, new double[] {0.0, 5.0});
+
+    final PresolvedProgram presolved = new Presolver (factory).presolve (program);
+
+    assertEquals ("Expected fixed variable of general constraints to be kept", 0,
+                  presolved.getRemovedVariablesCount ());
+
+    final Program reduced = presolved.getReducedProgram ();
+    final IndicatorConstraint indicatorCopy = reduced.getIndicatorConstraints ().get (0);
+    assertSame ("Expected copied indicator variable", presolved.getReducedVariable (b),
+                indicatorCopy.getIndicatorVariable ());
+    assertEquals ("Expected copied indicator terms", 1.0,
+                  indicatorCopy.getLhs ().getCoefficient (presolved.getReducedVariable (x)), 0.0);
+    assertEquals ("Expected copied indicator constant", 4.0, indicatorCopy.getRhs ().getConstant (), 0.0);
+    assertEquals ("Expected copied SOS constraint", presolved.getReducedVariable (y),
+                  reduced.getSOSConstraints ().get (0).getVariables ().get (1));
+    assertEquals ("Expected copied general constraint", 1.0, reduced.getGeneralConstraints ().get (0).getConstant (),
+                  0.0);
+    assertSame ("Expected copied piecewise-linear term", presolved.getReducedObjective (objective),
+                reduced.getPiecewiseLinearTerms ().get (0).getObjective ());
+  }
+
+  @Test
+  public void testPresolvingRangeConstraints () {
+    final SimpleSolverFactory factory = new SimpleSolverFactory ();
+    final Program program = factory.createProgram ("program");
+    final Variable x = program.addVariable ("x", VariableType.CONTINUOUS, 2.0, 2.0);
+    final Variable y = program.addVariable ("y", VariableType.CONTINUOUS, 0.0, 10.0);
+    program.addObjective (ObjectiveSense.MINIMIZE).getExpression ().addTerm (1.0, y);
+    final RangeConstraint range = program.addRangeConstraint ("r", 1.0, 5.0);
+    range.getExpression ().addTerm (1.0, x).addTerm (-1.0, y).addTerm (0.5);
+
+    final PresolvedProgram presolved = new Presolver (factory).presolve (program);
+
+    assertEquals ("Expected fixed variable of range constraint to be kept", 0,
+                  presolved.getRemovedVariablesCount ());
+
+    final RangeConstraint copy = presolved.getReducedProgram ().getRangeConstraints ().get (0);
+    assertEquals ("Expected copied lower bound", 1.0, copy.getLowerBound (), 0.0);
+    assertEquals ("Expected copied upper bound", 5.0, copy.getUpperBound (), 0.0);
+    assertEquals ("Expected copied terms", -1.0,
+                  copy.getExpression ().getCoefficient (presolved.getReducedVariable (y)), 0.0);
+    assertEquals ("Expected copied constant", 0.5, copy.getExpression ().getConstant (), 0.0);
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.rollinghorizon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.SimpleProgram;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.ExecutionResult;
+import com.inform.jamps.solver.MathProgrammingSolver;
+import com.inform.jamps.solver.SimpleSolverFactory;
+import com.inform.jamps.solver.SolverParameters;
+
+public class RollingHorizonSolverTest {
+
+  @Test
+  public void testSolvingWindows () {
+    final RecordingFactory factory = new RecordingFactory ();
+    final ProductionModel model = new ProductionModel ();
+    final SolverParameters parameters = factory.createParameters ();
+    final RollingHorizonResult result = new RollingHorizonSolver<SolverParameters> (factory, parameters, model, 5, 3,
+                                                                                    2).solve ();
+
+    assertEquals ("Expected two windows", 2, result.getWindowsCount ());
+    assertEquals ("Expected variables of the window", 6, factory.variablesCounts.get (0).intValue ());
+    assertEquals ("Expected constraints of the window", 3, factory.constraintsCounts.get (0).intValue ());
+    assertEquals ("Expected removed period", 8, factory.variablesCounts.get (1).intValue ());
+    assertEquals ("Expected removed constraints of committed periods", 3,
+                  factory.constraintsCounts.get (1).intValue ());
+
+    // Production at capacity t + 1 and full inventories at holding costs of 0.5
+    assertEquals ("Expected objective value of all periods", 40.0, result.getObjectiveValue (), 1e-9);
+    assertEquals ("Expected value of removed variable", 1.0, result.getVariableValue (model.production.get (0)), 0.0);
+    assertEquals ("Expected value of last period", 5.0, result.getVariableValue (model.production.get (4)), 0.0);
+
+    final Variable committed = model.production.get (1);
+    assertEquals ("Expected fixed variable", 2.0, committed.getLowerBound (), 0.0);
+    assertEquals ("Expected fixed variable", 2.0, committed.getUpperBound (), 0.0);
+
+    assertTrue ("Expected warm start of overlap", model.production.get (2).hasInitialValue ());
+    assertEquals ("Expected warm start of overlap", 3.0, model.production.get (2).getInitialValue (), 0.0);
+    assertFalse ("Expecting no warm start of new period", model.production.get (3).hasInitialValue ());
+  }
+
+  @Test
+  public void testSolvingWithBoundDependentHashCodes () {
+    final SimpleSolverFactory factory = new SimpleSolverFactory () {
+
+      @Override
+      public Program createProgram (final String name) {
+        return new BoundHashingProgram (name);
+      }
+    };
+    final ProductionModel model = new ProductionModel ();
+    final RollingHorizonResult result = new RollingHorizonSolver<SolverParameters> (factory,
+                                                                                    factory.createParameters (),
+                                                                                    model, 5, 3, 2).solve ();
+
+    // Committing fixes the bounds, which changes the hash codes of the committed variables
+    assertEquals ("Expected objective value of all periods", 40.0, result.getObjectiveValue (), 1e-9);
+    assertEquals ("Expected value of removed variable", 1.0, result.getVariableValue (model.production.get (0)), 0.0);
+    assertEquals ("Expected value of committed variable", 2.0, result.getVariableValue (model.production.get (1)),
+                  0.0);
+  }
+
+  @Test
+  public void testInvalidStepSize () {
+    final SimpleSolverFactory factory = new SimpleSolverFactory ();
+    try {
+      new RollingHorizonSolver<SolverParameters> (factory, factory.createParameters (), new ProductionModel (), 5, 3,
+                                                  4);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  /**
+   * Produces at most t + 1 units in period t to meet a demand of one unit, the rest goes to inventory.
+   */
+  private static class ProductionModel implements PeriodModel {
+
+    private final List<Variable> production = new ArrayList<Variable> ();
+
+    @Override
+    public void addPeriod (final Period period) {
+      final int t = period.getIndex ();
+      final Variable produced = period.addVariable ("x" + t, VariableType.CONTINUOUS, 0.0, t + 1.0);
+      final Variable stock = period.addVariable ("s" + t, VariableType.CONTINUOUS, 0.0, 10.0);
+      period.getObjective ().getExpression ().addTerm (1.0, produced).addTerm (0.5, stock);
+
+      final Constraint balance = period.addConstraint ("balance" + t, Operator.EQUALS);
+      balance.getLhs ().addTerm (1.0, stock);
+      balance.getRhs ().addTerm (1.0, produced).addTerm (-1.0);
+      if (period.getPrevious () != null) {
+        balance.getRhs ().addTerm (1.0, period.getPrevious ().getVariable ("s" + (t - 1)));
+      }
+      production.add (produced);
+    }
+  }
+
+  /**
+   * Program whose variables are equal by name and bounds, like variables of solver implementations.
+   */
+  private static class BoundHashingProgram extends SimpleProgram {
+
+    private BoundHashingProgram (final String name) {
+      super (name);
+    }
+
+    @Override
+    protected SimpleVariable createVariable (final String name,
+                                             final VariableType variableType) {
+      return new SimpleVariable (name, variableType) {
+
+        @Override
+        public int hashCode () {
+          return getName ().hashCode () + 31 * Double.valueOf (getLowerBound ()).hashCode () +
+                 961 * Double.valueOf (getUpperBound ()).hashCode ();
+        }
+
+        @Override
+        public boolean equals (final Object obj) {
+          if (!(obj instanceof SimpleVariable)) {
+            return false;
+          }
+          final SimpleVariable other = (SimpleVariable) obj;
+          return getName ().equals (other.getName ()) && getLowerBound () == other.getLowerBound () &&
+                 getUpperBound () == other.getUpperBound ();
+        }
+      };
+    }
+  }
+
+  private static class RecordingFactory extends SimpleSolverFactory {
+
+    private final List<Integer> variablesCounts   = new ArrayList<Integer> ();
+
+    private final List<Integer> constraintsCounts = new ArrayList<Integer> ();
+
+    @Override
+    public MathProgrammingSolver createSolver () {
+      final MathProgrammingSolver solver = super.createSolver ();
+      return new MathProgrammingSolver () {
+
+        @Override
+        public ExecutionResult<Program> solve (final SolverParameters parameters,
+                                               final Program problem) {
+          variablesCounts.add (problem.getVariablesCount ());
+          constraintsCounts.add (problem.getConstraintsCount ());
+          return solver.solve (parameters, problem);
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.stochastic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.ProgramMode;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.SimpleSolverFactory;
+
+public class ScenarioTreeProgramBuilderTest {
+
+  private final SimpleSolverFactory factory = new SimpleSolverFactory ();
+
+  private Program                   template;
+
+  private Variable                  x;
+
+  private Variable                  y;
+
+  private Objective                 objective;
+
+  private Constraint                capacity;
+
+  private Constraint                demand;
+
+  private ScenarioTreeProgramBuilder createBuilder () {
+    template = factory.createProgram ("template");
+    x = template.addVariable ("x", VariableType.INTEGER, 0.0, 10.0);
+    y = template.addVariable ("y", VariableType.CONTINUOUS, 0.0, 20.0);
+
+    objective = template.addObjective ("cost", ObjectiveSense.MINIMIZE);
+    objective.getExpression ().addTerm (3.0, x).addTerm (5.0, y).addTerm (1.0);
+
+    capacity = template.addConstraint ("capacity", Operator.LESS_EQUALS);
+    capacity.getLhs ().addTerm (1.0, x);
+    capacity.getRhs ().addTerm (8.0);
+
+    demand = template.addConstraint ("demand", Operator.GREATER_EQUALS);
+    demand.getLhs ().addTerm (1.0, x).addTerm (1.0, y);
+    demand.getRhs ().addTerm (6.0);
+
+    return new ScenarioTreeProgramBuilder (factory, template, Collections.singleton (x));
+  }
+
+  @Test
+  public void testBuildingDeterministicEquivalent () {
+    final ScenarioTreeProgramBuilder builder = createBuilder ();
+    assertEquals ("Expected buffered program by default", ProgramMode.DEFAULT, builder.getProgramMode ());
+    final StochasticScenario high = new StochasticScenario ("high", 0.75);
+    high.setRightHandSide (demand, 9.0);
+    high.setCoefficient (demand, x, 5.0);
+    high.setCoefficient (demand, x, 2.0);
+    builder.addScenario (new StochasticScenario ("low", 0.25)).addScenario (high);
+
+    final ScenarioTreeProgram tree = builder.build ();
+    final Program program = tree.getProgram ();
+
+    assertEquals ("Expected shared first-stage variable", 3, program.getVariablesCount ());
+    assertEquals ("Expected first-stage constraint only once", 3, program.getConstraintsCount ());
+    assertSame ("Expected shared first-stage variable", tree.getVariable (x, 0), tree.getVariable (x, 1));
+    assertEquals ("Expected different variable name", "y_high", tree.getVariable (y, 1).getName ());
+
+    final Objective copy = program.getObjectives ().get (0);
+    assertEquals ("Expected unweighted first-stage cost", 3.0,
+                  copy.getExpression ().getCoefficient (tree.getVariable (x, 0)), 1e-9);
+    assertEquals ("Expected weighted second-stage cost", 1.25,
+                  copy.getExpression ().getCoefficient (tree.getVariable (y, 0)), 1e-9);
+    assertEquals ("Expected weighted second-stage cost", 3.75,
+                  copy.getExpression ().getCoefficient (tree.getVariable (y, 1)), 1e-9);
+    assertEquals ("Expected objective constant once", 1.0, copy.getExpression ().getConstant (), 0.0);
+
+    final Constraint low = tree.getConstraint (demand, 0);
+    assertEquals ("Expected template right-hand side", 6.0, low.getRhs ().getConstant (), 0.0);
+    assertEquals ("Expected template coefficient", 1.0, low.getLhs ().getCoefficient (tree.getVariable (x, 0)), 0.0);
+
+    final Constraint changed = tree.getConstraint (demand, 1);
+    assertEquals ("Expected scenario right-hand side", 9.0, changed.getRhs ().getConstant (), 0.0);
+    assertEquals ("Expected scenario coefficient", 2.0,
+                  changed.getLhs ().getCoefficient (tree.getVariable (x, 1)), 0.0);
+    assertEquals ("Expected scenario variable", 1.0,
+                  changed.getLhs ().getCoefficient (tree.getVariable (y, 1)), 0.0);
+    assertSame ("Expected shared first-stage constraint", tree.getConstraint (capacity, 0),
+                tree.getConstraint (capacity, 1));
+  }
+
+  @Test
+  public void testApplyingScenarioBounds () {
+    final ScenarioTreeProgramBuilder builder = createBuilder ();
+    final StochasticScenario scenario = new StochasticScenario ("s", 1.0);
+    scenario.setBounds (y, 2.0, 4.0);
+    builder.addScenario (scenario);
+
+    final ScenarioTreeProgram tree = builder.build ();
+    assertEquals ("Expected scenario lower bound", 2.0, tree.getVariable (y, 0).getLowerBound (), 0.0);
+    assertEquals ("Expected scenario upper bound", 4.0, tree.getVariable (y, 0).getUpperBound (), 0.0);
+  }
+
+  @Test
+  public void testRejectingFirstStageChanges () {
+    final ScenarioTreeProgramBuilder builder = createBuilder ();
+    final StochasticScenario scenario = new StochasticScenario ("s", 1.0);
+    scenario.setBounds (x, 2.0, 4.0);
+    builder.addScenario (scenario);
+
+    try {
+      builder.build ();
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testBuildingWithoutScenarios () {
+    try {
+      createBuilder ().build ();
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+  }
+}
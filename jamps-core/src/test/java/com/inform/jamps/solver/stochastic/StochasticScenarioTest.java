@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.stochastic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.SimpleProgram;
+import com.inform.jamps.modeling.Variable;
+
+public class StochasticScenarioTest {
+
+  @Test
+  public void testSettingCoefficients () {
+    final Program program = new SimpleProgram ("program");
+    final Constraint constraint = program.addConstraint (Operator.EQUALS);
+    final StochasticScenario scenario = new StochasticScenario ("s", 0.5);
+
+    for (int i = 0; i < 10; i++) {
+      final Variable var = program.addVariable ();
+      assertSame ("Expected chainable scenario", scenario, scenario.setCoefficient (constraint, var, i));
+    }
+
+    assertEquals ("Expected different probability", 0.5, scenario.getProbability (), 0.0);
+    assertEquals ("Expected different changes count", 10, scenario.getCoefficientChangesCount ());
+    assertSame ("Expected different constraint", constraint, scenario.getCoefficientConstraint (9));
+    assertSame ("Expected different variable", program.getVariables ().get (9), scenario.getCoefficientVariable (9));
+    assertEquals ("Expected different coefficient", 9.0, scenario.getCoefficient (9), 0.0);
+
+    try {
+      scenario.getCoefficient (10);
+      fail ("Expected IndexOutOfBoundsException");
+    } catch (IndexOutOfBoundsException e) {
+    }
+  }
+
+  @Test
+  public void testCreatingWithInvalidProbability () {
+    try {
+      new StochasticScenario ("s", 1.5);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.lazy.CandidateSolution;
+
+/**
+ * Candidate passed to a lazy constraint generator. The values are read in bulk once per callback and indexed by the
+ * native index of the variables.
+ */
+public class GurobiCandidateSolution implements CandidateSolution {
+
+  private final GurobiProgram program;
+
+  private final double[]      values;
+
+  private final boolean       integral;
+
+  protected GurobiCandidateSolution (final GurobiProgram program,
+                                     final double[] values,
+                                     final boolean integral) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (values == null) {
+      throw new IllegalArgumentException ("Parameter values is mandatory and may not be null");
+    }
+
+    this.program = program;
+    this.values = values;
+    this.integral = integral;
+  }
+
+  @Override
+  public boolean isIntegral () {
+    return integral;
+  }
+
+  @Override
+  public double getVariableValue (final Variable variable) {
+    if (!(variable instanceof GurobiVariable) || ((GurobiVariable) variable).getProgram () != program) {
+      throw new IllegalArgumentException ("Variable " + variable + " is not part of the program");
+    }
+
+    final int nativeIndex = ((GurobiVariable) variable).getNativeIndex ();
+    if (nativeIndex < 0 || nativeIndex >= values.length) {
+      throw new IllegalArgumentException ("Variable " + variable + " is not part of the native model");
+    }
+    return values[nativeIndex];
+  }
+
+  @Override
+  public Expression createExpression () {
+    return new GurobiExpression (program);
+  }
+}
@@ -17,9 +17,14 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import com.inform.jamps.modeling.Constraint;
 import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.LinearTerm;
 import com.inform.jamps.modeling.Operator;
 
+import gurobi.GRB;
 import gurobi.GRBConstr;
+import gurobi.GRBException;
+import gurobi.GRBQConstr;
+import gurobi.GRBQuadExpr;
 
 public class GurobiConstraint implements Constraint {
 
@@ -39,6 +44,8 @@ public class GurobiConstraint implements Constraint {
 
   private GRBConstr               nativeConstraint;
 
+  private GRBQConstr              nativeQuadraticConstraint;
+
   protected GurobiConstraint (final GurobiProgram program) {
     this (program, DEFAULT_OPERATOR);
   }
@@ -95,24 +102,95 @@ public class GurobiConstraint implements Constraint {
     }
 
     this.operator = operator;
+    program.markConstraintModified (this);
   }
 
   protected GurobiProgram getProgram () {
     return program;
   }
 
+  protected void release () {
+    lhs.release ();
+    rhs.release ();
+  }
+
+  protected char getNativeSense () {
+    return getNativeSense (operator);
+  }
+
+  protected static char getNativeSense (final Operator operator) {
+    switch (operator) {
+      case EQUALS:
+        return GRB.EQUAL;
+      case GREATER_EQUALS:
+        return GRB.GREATER_EQUAL;
+      case LESS_EQUALS:
+        return GRB.LESS_EQUAL;
+      default:
+        throw new IllegalStateException ("Constraints with operator " + operator.name () + " are not supported");
+    }
+  }
+
   protected void setNativeConstraint (final GRBConstr grbConstr) {
     if (grbConstr == null) {
       throw new IllegalArgumentException ("GRBConstr parameter is mandatory and may not be null");
     }
 
     this.nativeConstraint = grbConstr;
+    this.nativeQuadraticConstraint = null;
   }
 
   protected GRBConstr getNativeConstraint () {
     return nativeConstraint;
   }
 
+  protected void clearNativeConstraint () {
+    this.nativeConstraint = null;
+    this.nativeQuadraticConstraint = null;
+  }
+
+  /**
+   * Constraints with quadratic terms are transferred as native quadratic constraints instead of rows, so they have no
+   * linear native constraint. Released constraints only know the kind of their native constraint anymore.
+   */
+  protected boolean isQuadratic () {
+    if (lhs.isReleased ()) {
+      return nativeQuadraticConstraint != null;
+    }
+    return lhs.hasQuadraticTerms () || rhs.hasQuadraticTerms ();
+  }
+
+  /**
+   * @return terms of both sides moved to the left-hand side
+   */
+  protected GRBQuadExpr getNativeQuadraticExpression (final int chunkSize) throws GRBException {
+    final GRBQuadExpr expr = new GRBQuadExpr (lhs.getNativeExpression (false));
+    for (final LinearTerm term: rhs.getLinearTerms ()) {
+      expr.addTerm (-term.getCoefficient (), ((GurobiVariable) term.getVariable ()).getNativeVariable ());
+    }
+
+    lhs.addQuadraticTermsTo (expr, 1.0, chunkSize);
+    rhs.addQuadraticTermsTo (expr, -1.0, chunkSize);
+    return expr;
+  }
+
+  protected double getNativeRightHandSide () {
+    return rhs.getConstant () - lhs.getConstant ();
+  }
+
+  protected void setNativeQuadraticConstraint (final GRBQConstr grbQConstr) {
+    if (grbQConstr == null) {
+      throw new IllegalArgumentException ("GRBQConstr parameter is mandatory and may not be null");
+    }
+
+    this.nativeConstraint = null;
+    this.nativeQuadraticConstraint = grbQConstr;
+  }
+
+  protected GRBQConstr getNativeQuadraticConstraint () {
+    return nativeQuadraticConstraint;
+  }
+
   @Override
   public int compareTo (final Constraint o) {
     if (!(o instanceof GurobiConstraint)) {
@@ -139,7 +217,7 @@ public class GurobiConstraint implements Constraint {
   }
 
   @Override
-  public final int hashCode () {
+  public int hashCode () {
     final int prime = 31;
     int result = 1;
     result = prime * result + operator.hashCode ();
@@ -150,7 +228,7 @@ public class GurobiConstraint implements Constraint {
   }
 
   @Override
-  public final boolean equals (final Object obj) {
+  public boolean equals (final Object obj) {
     if (this == obj) {
       return true;
     }
@@ -161,6 +239,9 @@ public class GurobiConstraint implements Constraint {
       return false;
     }
     final GurobiConstraint other = (GurobiConstraint) obj;
+    if (!other.canEqual (this)) {
+      return false;
+    }
     if (operator != other.operator) {
       return false;
     }
@@ -173,6 +254,14 @@ public class GurobiConstraint implements Constraint {
     return rhs.equals (other.rhs);
   }
 
+  /**
+   * @return whether the object may be equal to this constraint, which keeps equality symmetric for subclasses with
+   *         additional properties
+   */
+  protected boolean canEqual (final Object obj) {
+    return obj instanceof GurobiConstraint;
+  }
+
   @Override
   public String toString () {
     final StringBuilder sb = new StringBuilder (1000);
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.Operator;
+
+import gurobi.GRB;
+import gurobi.GRBConstr;
+
+public class GurobiDirectConstraint implements Constraint {
+
+  protected final static Operator      DEFAULT_OPERATOR  = Operator.EQUALS;
+
+  private final static AtomicLong      AUTO_NAME_COUNTER = new AtomicLong (0);
+
+  private final GurobiDirectExpression lhs;
+
+  private final GurobiDirectExpression rhs;
+
+  private final GurobiDirectProgram    program;
+
+  private final String                 name;
+
+  private Operator                     operator;
+
+  private GRBConstr                    nativeConstraint;
+
+  protected GurobiDirectConstraint (final GurobiDirectProgram program) {
+    this (program, DEFAULT_OPERATOR);
+  }
+
+  protected GurobiDirectConstraint (final GurobiDirectProgram program,
+                                    final Operator operator) {
+    this (program, "constr" + AUTO_NAME_COUNTER.incrementAndGet (), operator);
+  }
+
+  protected GurobiDirectConstraint (final GurobiDirectProgram program,
+                                    final String name,
+                                    final Operator operator) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (name == null) {
+      throw new IllegalArgumentException ("Parameter name is mandatory and may not be null");
+    }
+    if (operator == null) {
+      throw new IllegalArgumentException ("Parameter operator is mandatory and may not be null");
+    }
+
+    this.name = name;
+    this.program = program;
+    this.operator = operator;
+    this.lhs = new GurobiDirectExpression (this, 1.0);
+    this.rhs = new GurobiDirectExpression (this, -1.0);
+  }
+
+  @Override
+  public String getName () {
+    return name;
+  }
+
+  @Override
+  public Expression getRhs () {
+    return rhs;
+  }
+
+  @Override
+  public Expression getLhs () {
+    return lhs;
+  }
+
+  @Override
+  public Operator getOperator () {
+    return operator;
+  }
+
+  @Override
+  public void setOperator (final Operator operator) {
+    if (operator == null) {
+      throw new IllegalArgumentException ("Parameter operator is mandatory and may not be null");
+    }
+    if (!program.isOpenConstraint (this)) {
+      throw new IllegalStateException ("Operator of constraint " + name + " cannot be changed after its row is closed");
+    }
+
+    this.operator = operator;
+  }
+
+  protected GurobiDirectProgram getProgram () {
+    return program;
+  }
+
+  protected char getNativeSense () {
+    switch (operator) {
+      case EQUALS:
+        return GRB.EQUAL;
+      case GREATER_EQUALS:
+        return GRB.GREATER_EQUAL;
+      case LESS_EQUALS:
+        return GRB.LESS_EQUAL;
+      default:
+        throw new IllegalStateException ("Constraints with operator " + operator.name () + " are not supported");
+    }
+  }
+
+  protected void setNativeConstraint (final GRBConstr grbConstr) {
+    if (grbConstr == null) {
+      throw new IllegalArgumentException ("GRBConstr parameter is mandatory and may not be null");
+    }
+
+    this.nativeConstraint = grbConstr;
+  }
+
+  protected GRBConstr getNativeConstraint () {
+    return nativeConstraint;
+  }
+
+  @Override
+  public int compareTo (final Constraint o) {
+    if (!(o instanceof GurobiDirectConstraint)) {
+      return -1;
+    }
+
+    final GurobiDirectConstraint directConstr = (GurobiDirectConstraint) o;
+    final int result = operator.compareTo (directConstr.operator);
+    if (result != 0) {
+      return result;
+    }
+
+    return name.compareTo (directConstr.name);
+  }
+
+  @Override
+  public String toString () {
+    return name + ": " + operator.name ();
+  }
+}
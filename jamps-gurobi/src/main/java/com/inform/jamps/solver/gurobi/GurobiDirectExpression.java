@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.List;
+
+import org.apache.commons.math3.util.Precision;
+
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.QuadraticTerm;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Expression of a {@link GurobiDirectConstraint} which writes all terms directly into the row buffer of its program.
+ * Terms are not stored and therefore cannot be read back.
+ */
+public class GurobiDirectExpression implements Expression {
+
+  private static final double          ZERO_COEFFICIENT = 0.0;
+
+  private final GurobiDirectConstraint constraint;
+
+  private final double                 factor;
+
+  protected GurobiDirectExpression (final GurobiDirectConstraint constraint,
+                                    final double factor) {
+    if (constraint == null) {
+      throw new IllegalArgumentException ("Parameter constraint is mandatory and may not be null");
+    }
+
+    this.constraint = constraint;
+    this.factor = factor;
+  }
+
+  @Override
+  public List<LinearTerm> getLinearTerms () {
+    throw new UnsupportedOperationException ("Terms of direct programs are not readable");
+  }
+
+  @Override
+  public List<QuadraticTerm> getQuadraticTerms () {
+    throw new UnsupportedOperationException ("Terms of direct programs are not readable");
+  }
+
+  @Override
+  public double getConstant () {
+    throw new UnsupportedOperationException ("Terms of direct programs are not readable");
+  }
+
+  @Override
+  public double getCoefficient (final Variable variable) {
+    throw new UnsupportedOperationException ("Terms of direct programs are not readable");
+  }
+
+  @Override
+  public double getCoefficient (final Variable var1,
+                                final Variable var2) {
+    throw new UnsupportedOperationException ("Terms of direct programs are not readable");
+  }
+
+  @Override
+  public Expression addTerm (final double coefficient,
+                             final Variable variable) {
+    if (Precision.equals (coefficient, ZERO_COEFFICIENT)) {
+      return this;
+    }
+
+    if (!(variable instanceof GurobiVariable)) {
+      throw new IllegalArgumentException ("Adding variable " + variable.getName () +
+                                          " of type not equal GurobiVariable is not supported");
+    }
+
+    final GurobiVariable grbVariable = (GurobiVariable) variable;
+    if (grbVariable.getProgram () != constraint.getProgram ()) {
+      throw new IllegalArgumentException ("Adding variable " + variable.getName () +
+                                          " from a different program is not supported");
+    }
+
+    constraint.getProgram ().addTerm (constraint, grbVariable, factor * coefficient);
+    return this;
+  }
+
+  @Override
+  public Expression addTerm (final double coefficient,
+                             final Variable var1,
+                             final Variable var2) {
+    throw new UnsupportedOperationException ("Direct programs do not support quadratic terms");
+  }
+
+  @Override
+  public Expression addTerm (final double constant) {
+    if (Precision.equals (constant, ZERO_COEFFICIENT)) {
+      return this;
+    }
+
+    constraint.getProgram ().addConstant (constraint, factor * constant);
+    return this;
+  }
+
+  @Override
+  public Expression addTerms (final Expression expr) {
+    final List<LinearTerm> linearTerms = expr.getLinearTerms ();
+    for (final LinearTerm term: linearTerms) {
+      addTerm (term.getCoefficient (), term.getVariable ());
+    }
+
+    addTerm (expr.getConstant ());
+
+    return this;
+  }
+
+  @Override
+  public Expression removeLinearTerm (final Variable variable) {
+    throw new UnsupportedOperationException ("Terms of direct programs cannot be removed");
+  }
+
+  @Override
+  public Expression removeQuadraticTerm (final Variable var1,
+                                         final Variable var2) {
+    throw new UnsupportedOperationException ("Direct programs do not support quadratic terms");
+  }
+
+  @Override
+  public Expression removeConstant () {
+    throw new UnsupportedOperationException ("Terms of direct programs cannot be removed");
+  }
+
+  @Override
+  public int compareTo (final Expression expr) {
+    if (!(expr instanceof GurobiDirectExpression)) {
+      return -1;
+    }
+    if (this == expr) {
+      return 0;
+    }
+
+    final GurobiDirectExpression directExpr = (GurobiDirectExpression) expr;
+    final int result = constraint.compareTo (directExpr.constraint);
+    if (result != 0) {
+      return result;
+    }
+
+    return Double.compare (factor, directExpr.factor);
+  }
+
+  @Override
+  public String toString () {
+    return (factor > 0.0 ? "lhs of " : "rhs of ") + constraint.getName ();
+  }
+}
@@ -0,0 +1,453 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.GeneralConstraint;
+import com.inform.jamps.modeling.GeneralConstraintType;
+import com.inform.jamps.modeling.IndicatorConstraint;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.PiecewiseLinearTerm;
+import com.inform.jamps.modeling.SOSConstraint;
+import com.inform.jamps.modeling.SOSType;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.columngeneration.Column;
+
+import gurobi.GRB;
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRB.IntAttr;
+import gurobi.GRB.StringAttr;
+import gurobi.GRBConstr;
+import gurobi.GRBEnv;
+import gurobi.GRBException;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+/**
+ * Program which writes constraint terms directly into a row buffer that is flushed to the native model in chunks. Only
+ * the most recently added constraint accepts terms, and coefficients cannot be read back. Objectives are kept until
+ * the native model is completed. Once the native model has been requested, the program cannot be modified anymore
+ * except for bounds and initial values of variables.
+ * The row buffer is sized by the transfer chunk size of the solver parameters when the first variable or constraint is
+ * added, so custom parameters have to be set before.
+ * <p>
+ * As constraints and coefficients cannot be read back, direct programs are only suitable for programs which are built
+ * once and solved, not for algorithms which analyze or modify a given program.
+ */
+public class GurobiDirectProgram extends GurobiProgram {
+
+  private GurobiRowBuffer                rowBuffer;
+
+  private GurobiVariable[]               pendingVariables;
+
+  private int                            pendingVariablesCount;
+
+  private GurobiDirectConstraint[]       pendingConstraints;
+
+  private GurobiDirectConstraint         openConstraint;
+
+  private GRBVar[]                       nativeVariables = new GRBVar[0];
+
+  private int                            transferredVariablesCount;
+
+  private int                            constraintsCount;
+
+  private GRBModel                       directModel;
+
+  private boolean                        completed;
+
+  protected GurobiDirectProgram () {
+    super ();
+  }
+
+  protected GurobiDirectProgram (final String name) {
+    super (name);
+  }
+
+  protected GurobiDirectProgram (final String name,
+                                 final GurobiSolverParameters parameters) {
+    super (name);
+
+    setSolverParameters (parameters);
+  }
+
+  @Override
+  public int getConstraintsCount () {
+    return constraintsCount;
+  }
+
+  @Override
+  public List<GurobiConstraint> getConstraints () {
+    throw new UnsupportedOperationException ("Constraints of direct programs cannot be read back");
+  }
+
+  @Override
+  protected GurobiVariable addVariable (final GurobiVariable var) {
+    checkNotCompleted ();
+    super.addVariable (var);
+
+    // Variables are only kept by the program itself until they are transferred with the next chunk
+    if (pendingVariables == null) {
+      pendingVariables = new GurobiVariable[getSolverParameters ().getTransferChunkSize ()];
+    }
+    var.setNativeIndex (transferredVariablesCount + pendingVariablesCount);
+    pendingVariables[pendingVariablesCount++] = var;
+
+    if (pendingVariablesCount == pendingVariables.length) {
+      try {
+        flushVariables (getOrCreateModel ());
+      } catch (GRBException e) {
+        throw new IllegalStateException ("Unable to add variables to native model", e);
+      }
+    }
+    return var;
+  }
+
+  @Override
+  protected GurobiObjective addObjective (final GurobiObjective obj) {
+    checkNotCompleted ();
+    return super.addObjective (obj);
+  }
+
+  @Override
+  public Constraint addConstraint (final String name,
+                                   final Operator operator) {
+    return addConstraint (new GurobiDirectConstraint (this, name, operator));
+  }
+
+  @Override
+  public Constraint addConstraint (final Operator operator) {
+    return addConstraint (new GurobiDirectConstraint (this, operator));
+  }
+
+  @Override
+  public Constraint addConstraint () {
+    return addConstraint (new GurobiDirectConstraint (this));
+  }
+
+  @Override
+  protected GurobiConstraint addConstraint (final GurobiConstraint constr) {
+    throw new UnsupportedOperationException ("Direct programs only support constraints of type GurobiDirectConstraint");
+  }
+
+  @Override
+  protected List<Variable> addColumns (final List<Column> columns) {
+    throw new UnsupportedOperationException ("Direct programs do not support adding columns");
+  }
+
+  @Override
+  public void removeVariables (final Variable[] variables) {
+    throw new UnsupportedOperationException ("Direct programs do not support removing variables");
+  }
+
+  @Override
+  public void removeConstraints (final Constraint[] constraints) {
+    throw new UnsupportedOperationException ("Direct programs do not support removing constraints");
+  }
+
+  @Override
+  protected GurobiRangeConstraint addRangeConstraint (final GurobiRangeConstraint constraint) {
+    throw new UnsupportedOperationException ("Direct programs do not support range constraints");
+  }
+
+  @Override
+  public IndicatorConstraint addIndicatorConstraint (final String name,
+                                                     final Variable indicatorVariable,
+                                                     final boolean indicatorValue,
+                                                     final Operator operator) {
+    throw new UnsupportedOperationException ("Direct programs do not support indicator constraints");
+  }
+
+  @Override
+  public SOSConstraint addSOSConstraint (final String name,
+                                         final SOSType type,
+                                         final Variable[] variables,
+                                         final double[] weights) {
+    throw new UnsupportedOperationException ("Direct programs do not support SOS constraints");
+  }
+
+  @Override
+  public GeneralConstraint addGeneralConstraint (final String name,
+                                                 final GeneralConstraintType type,
+                                                 final Variable resultant,
+                                                 final Variable[] operands,
+                                                 final double constant) {
+    throw new UnsupportedOperationException ("Direct programs do not support general constraints");
+  }
+
+  @Override
+  public PiecewiseLinearTerm addPiecewiseLinearTerm (final Objective objective,
+                                                     final Variable variable,
+                                                     final double[] points,
+                                                     final double[] values) {
+    throw new UnsupportedOperationException ("Direct programs do not support piecewise-linear terms");
+  }
+
+  protected GurobiDirectConstraint addConstraint (final GurobiDirectConstraint constr) {
+    checkNotCompleted ();
+    closeOpenConstraint ();
+
+    if (rowBuffer == null) {
+      final int chunkSize = getSolverParameters ().getTransferChunkSize ();
+      rowBuffer = new GurobiRowBuffer (0, chunkSize);
+      pendingConstraints = new GurobiDirectConstraint[chunkSize];
+    }
+
+    rowBuffer.startRow ();
+    openConstraint = constr;
+    constraintsCount++;
+    return constr;
+  }
+
+  protected boolean isOpenConstraint (final GurobiDirectConstraint constr) {
+    return constr == openConstraint;
+  }
+
+  protected void addTerm (final GurobiDirectConstraint constr,
+                          final GurobiVariable var,
+                          final double coefficient) {
+    checkOpenConstraint (constr);
+    rowBuffer.addTerm (var, coefficient);
+  }
+
+  protected void addConstant (final GurobiDirectConstraint constr,
+                              final double constant) {
+    checkOpenConstraint (constr);
+    rowBuffer.addConstant (constant);
+  }
+
+  private void checkOpenConstraint (final GurobiDirectConstraint constr) {
+    if (constr != openConstraint) {
+      throw new IllegalStateException ("Terms can only be added to the most recently added constraint of a direct " +
+                                       "program");
+    }
+  }
+
+  private void checkNotCompleted () {
+    if (completed) {
+      throw new IllegalStateException ("Direct programs cannot be modified after the native model has been created");
+    }
+  }
+
+  private void closeOpenConstraint () {
+    if (openConstraint == null) {
+      return;
+    }
+
+    rowBuffer.finishRow (openConstraint.getNativeSense (), openConstraint.getName ());
+    pendingConstraints[rowBuffer.getRowCount () - 1] = openConstraint;
+    openConstraint = null;
+
+    if (rowBuffer.getRowCount () == pendingConstraints.length) {
+      flushConstraints ();
+    }
+  }
+
+  private void flushConstraints () {
+    final GRBModel model = getOrCreateModel ();
+
+    try {
+      flushVariables (model);
+
+      final int rowCount = rowBuffer.getRowCount ();
+      final GRBConstr[] nativeConstraints = rowBuffer.transfer (model, nativeVariables);
+      for (int i = 0; i < rowCount; i++) {
+        pendingConstraints[i].setNativeConstraint (nativeConstraints[i]);
+        pendingConstraints[i] = null;
+      }
+
+      rowBuffer.clear ();
+      model.update ();
+    } catch (GRBException e) {
+      throw new IllegalStateException ("Unable to add constraints to native model", e);
+    }
+  }
+
+  private void flushVariables (final GRBModel model) throws GRBException {
+    final int count = pendingVariablesCount;
+    if (count == 0) {
+      return;
+    }
+
+    final int variablesCount = transferredVariablesCount + count;
+    if (nativeVariables.length < variablesCount) {
+      nativeVariables = Arrays.copyOf (nativeVariables, Math.max (variablesCount, nativeVariables.length * 2));
+    }
+
+    final String[] varNames = new String[count];
+    final char[] nativeTypes = new char[count];
+    final double[] lowerBounds = new double[count];
+    final double[] upperBounds = new double[count];
+    final double[] objectiveCoefficients = new double[count];
+    for (int i = 0; i < count; i++) {
+      final GurobiVariable var = pendingVariables[i];
+      varNames[i] = var.getName ();
+      nativeTypes[i] = var.getNativeType ();
+      lowerBounds[i] = var.getLowerBound ();
+      upperBounds[i] = var.getUpperBound ();
+    }
+
+    final GRBVar[] vars = model.addVars (lowerBounds, upperBounds, objectiveCoefficients, nativeTypes, varNames, 0,
+                                         count);
+    for (int i = 0; i < count; i++) {
+      pendingVariables[i].setNativeVariable (vars[i]);
+      pendingVariables[i] = null;
+      nativeVariables[transferredVariablesCount + i] = vars[i];
+    }
+
+    transferredVariablesCount = variablesCount;
+    pendingVariablesCount = 0;
+  }
+
+  private GRBModel getOrCreateModel () {
+    if (directModel == null) {
+      if (getNativeEnvironment () == null) {
+        setNativeEnvironment (getSolverParameters ().getNativeEnvironment ());
+      }
+
+      try {
+        directModel = new GRBModel (getNativeEnvironment ());
+        directModel.set (StringAttr.ModelName, getName ());
+      } catch (GRBException e) {
+        throw new IllegalStateException ("Unable to create native model", e);
+      }
+    }
+
+    return directModel;
+  }
+
+  @Override
+  protected GRBModel getNativeModel () {
+    if (!completed) {
+      completeNativeModel ();
+      completed = true;
+    } else {
+      transferModifiedVariables (directModel);
+    }
+
+    return directModel;
+  }
+
+  private void completeNativeModel () {
+    final ObjectiveSense programSense = determineProgramObjectiveSense ();
+
+    closeOpenConstraint ();
+    if (rowBuffer != null && rowBuffer.getRowCount () > 0) {
+      flushConstraints ();
+    }
+
+    final GRBModel model = getOrCreateModel ();
+    try {
+      flushVariables (model);
+
+      final GRBVar[] vars = getNativeVariables ();
+      final List<GurobiVariable> variables = getVariables ();
+      final double[] values = new double[vars.length];
+
+      if (vars.length > 0) {
+        // Bounds might have been changed after the variables were transferred
+        for (final GurobiVariable var: variables) {
+          values[var.getNativeIndex ()] = var.getLowerBound ();
+        }
+        model.set (DoubleAttr.LB, vars, values);
+
+        for (final GurobiVariable var: variables) {
+          values[var.getNativeIndex ()] = var.getUpperBound ();
+        }
+        model.set (DoubleAttr.UB, vars, values);
+      }
+
+      boolean hasStartValues = false;
+      Arrays.fill (values, GRB.UNDEFINED);
+      for (final GurobiVariable var: variables) {
+        if (var.hasInitialValue ()) {
+          hasStartValues = true;
+          values[var.getNativeIndex ()] = var.getInitialValue ();
+        }
+      }
+      if (hasStartValues) {
+        model.set (DoubleAttr.Start, vars, values);
+      }
+      clearModifiedVariables ();
+
+      setNativeMultiObjective (getSolverParameters ().isNativeMultiObjective ());
+      if (!isNativeMultiObjective ()) {
+        Arrays.fill (values, 0.0);
+        final double objectiveConstant = aggregateObjectives (programSense, values);
+        if (vars.length > 0) {
+          model.set (DoubleAttr.Obj, vars, values);
+        }
+        model.set (DoubleAttr.ObjCon, objectiveConstant);
+      }
+
+      // Like for released programs, the values of several objectives are determined from native objectives
+      if (hasNativeObjectives ()) {
+        setNativeObjectives (model, programSense);
+      }
+      for (final GurobiObjective obj: getObjectives ()) {
+        obj.release ();
+      }
+
+      model.set (IntAttr.ModelSense, (programSense == ObjectiveSense.MINIMIZE) ? 1 : -1);
+      model.update ();
+    } catch (GRBException e) {
+      throw new IllegalStateException ("Unable to complete native model", e);
+    }
+  }
+
+  @Override
+  protected void setNativeEnvironment (final GRBEnv env) {
+    if (directModel != null && env != getNativeEnvironment ()) {
+      throw new IllegalStateException ("Native environment of a direct program cannot be changed after its native " +
+                                       "model has been created");
+    }
+    super.setNativeEnvironment (env);
+  }
+
+  /**
+   * The native model of a direct program may be created while the program is built, it is solved in the environment
+   * it has been created in.
+   */
+  @Override
+  protected void prepareSolve (final GurobiSolverParameters parameters) {
+    if (directModel == null) {
+      super.prepareSolve (parameters);
+    } else {
+      setSolverParameters (parameters);
+    }
+  }
+
+  @Override
+  protected void updateNativeObjective (final GurobiObjective obj) {
+    if (completed) {
+      updateNativeObjective (directModel, obj);
+    }
+  }
+
+  @Override
+  protected GRBVar[] getNativeVariables () {
+    return Arrays.copyOf (nativeVariables, transferredVariablesCount);
+  }
+
+  @Override
+  protected boolean isReleased () {
+    return true;
+  }
+}
@@ -14,7 +14,9 @@
 package com.inform.jamps.solver.gurobi;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import org.apache.commons.math3.util.Precision;
@@ -39,6 +41,8 @@ public class GurobiExecutionResult implements ExecutionResult<Program> {
 
   private final static double        DEFAULT_SOLUTION_VAR_VALUE = 0.0;
 
+  private final static double        OBJECTIVE_VALUE_EPSILON    = 1.0e-9;
+
   private final GurobiProgram        program;
 
   private final List<GurobiSolution> solutions                  = new ArrayList<GurobiSolution> ();
@@ -51,15 +55,25 @@ public class GurobiExecutionResult implements ExecutionResult<Program> {
 
   private long                       executionTime;
 
-  protected GurobiExecutionResult (final GurobiProgram program) {
+  private long                       iterationsCount;
+
+  /**
+   * Creates the result from the given native model that has been solved. The model is passed explicitly, because
+   * requesting it from the program would first transfer pending modifications of the program.
+   */
+  protected GurobiExecutionResult (final GurobiProgram program,
+                                   final GRBModel nativeModel) {
     if (program == null) {
       throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
     }
+    if (nativeModel == null) {
+      throw new IllegalArgumentException ("Parameter nativeModel is mandatory and may not be null");
+    }
 
     this.program = program;
 
     try {
-      determineExecutionResult ();
+      determineExecutionResult (nativeModel);
     } catch (GRBException e) {
       final String errorMsg = GurobiErrorCodeMapping.getMessage (e);
       throw new IllegalStateException ("Unable to determine execution result from program: " + errorMsg, e);
@@ -132,14 +146,17 @@ public class GurobiExecutionResult implements ExecutionResult<Program> {
     return executionTime;
   }
 
-  private void determineExecutionResult () throws GRBException {
-    final GRBModel nativeModel = program.getNativeModel ();
+  public long getIterationsCount () {
+    return iterationsCount;
+  }
 
+  private void determineExecutionResult (final GRBModel nativeModel) throws GRBException {
     final int status = nativeModel.get (IntAttr.Status);
 
     if (status != Status.LOADED) {
       final double runtime = nativeModel.get (DoubleAttr.Runtime);
       executionTime = Math.round (MILLIS_PER_SECOND * runtime);
+      iterationsCount = Math.round (nativeModel.get (DoubleAttr.IterCount));
     }
 
     switch (status) {
@@ -199,6 +216,11 @@ public class GurobiExecutionResult implements ExecutionResult<Program> {
 
     final double bestBound = (isMip ? nativeModel.get (DoubleAttr.ObjBound) : nativeModel.get (DoubleAttr.ObjVal));
 
+    if (program.isReleased ()) {
+      determineIndexedSolutions (nativeModel, solutionCount, isOptimal, isMip, bestBound);
+      return;
+    }
+
     final List<GurobiVariable> variables = program.getVariables ();
 
     for (int i = 0; i < solutionCount; i++) {
@@ -222,9 +244,151 @@ public class GurobiExecutionResult implements ExecutionResult<Program> {
       solutions.add (solution);
     }
 
+    sortSolutions (nativeModel);
+  }
+
+  private void determineIndexedSolutions (final GRBModel nativeModel,
+                                          final int solutionCount,
+                                          final boolean isOptimal,
+                                          final boolean isMip,
+                                          final double bestBound) throws GRBException {
+    // The Java-side expressions are gone, so values are read in bulk and objectives are evaluated natively
+    final GRBVar[] nativeVariables = program.getNativeVariables ();
+    final boolean nativeObjectives = program.hasNativeObjectives ();
+    final double[] objectiveCoefficients = nativeObjectives ? null : nativeModel.get (DoubleAttr.Obj, nativeVariables);
+    final double objectiveConstant = nativeObjectives ? 0.0 : nativeModel.get (DoubleAttr.ObjCon);
+
+    for (int i = 0; i < solutionCount; i++) {
+      nativeModel.getEnv ().set (IntParam.SolutionNumber, i);
+
+      final double[] values = nativeModel.get (isMip ? DoubleAttr.Xn : DoubleAttr.X, nativeVariables);
+      final GurobiSolution solution = new GurobiSolution (program, i == 0 && isOptimal);
+      solution.setVariableValues (values);
+      solution.setBestObjectiveBound (bestBound);
+
+      // The values of native objectives are determined for all solutions at once
+      if (!nativeObjectives) {
+        double objectiveValue = objectiveConstant;
+        for (int j = 0; j < values.length; j++) {
+          objectiveValue += objectiveCoefficients[j] * values[j];
+        }
+        solution.setObjectiveValue (objectiveValue);
+      }
+      solutions.add (solution);
+    }
+
+    sortSolutions (nativeModel);
+  }
+
+  /**
+   * Determines the value of each native objective for all solutions. Objectives with the same priority are blended by
+   * their weights, so the returned values contain one value per priority level in descending order of priority. The
+   * native objective coefficients only refer to the first objective, so the combined values are determined as well.
+   */
+  private double[][] determineNativeObjectiveValues (final GRBModel nativeModel) throws GRBException {
+    final ObjectiveSense programSense = program.determineProgramObjectiveSense ();
+    final List<GurobiObjective> objectives = program.getObjectives ();
+    final List<GurobiVariable> variables = program.getVariables ();
+    final GRBVar[] nativeVariables = program.getNativeVariables ();
+    final int[] priorities = determinePriorities (objectives);
+    final double[] combinedValues = new double[solutions.size ()];
+    final double[][] levelValues = new double[solutions.size ()][priorities.length];
+
+    for (int i = 0; i < objectives.size (); i++) {
+      final GurobiObjective objective = objectives.get (i);
+      final double factor = GurobiProgram.determineObjectiveFactor (objective, programSense);
+      final int level = priorities.length - 1 - Arrays.binarySearch (priorities, objective.getPriority ());
+
+      nativeModel.getEnv ().set (IntParam.ObjNumber, i);
+      final double[] coefficients = nativeModel.get (DoubleAttr.ObjN, nativeVariables);
+      final double constant = nativeModel.get (DoubleAttr.ObjNCon);
+
+      for (int j = 0; j < solutions.size (); j++) {
+        final GurobiSolution solution = solutions.get (j);
+
+        double value = constant;
+        for (final GurobiVariable var: variables) {
+          value += coefficients[var.getNativeIndex ()] * solution.getVariableValue (var);
+        }
+
+        solution.setObjectiveValue (objective, value);
+        combinedValues[j] += factor * value;
+        levelValues[j][level] += factor * value;
+      }
+    }
+
+    for (int j = 0; j < solutions.size (); j++) {
+      solutions.get (j).setObjectiveValue (combinedValues[j]);
+    }
+    return levelValues;
+  }
+
+  private static int[] determinePriorities (final List<GurobiObjective> objectives) {
+    final int[] priorities = new int[objectives.size ()];
+    for (int i = 0; i < priorities.length; i++) {
+      priorities[i] = objectives.get (i).getPriority ();
+    }
+    Arrays.sort (priorities);
+
+    int count = 0;
+    for (int i = 0; i < priorities.length; i++) {
+      if (count == 0 || priorities[count - 1] != priorities[i]) {
+        priorities[count++] = priorities[i];
+      }
+    }
+    return Arrays.copyOf (priorities, count);
+  }
+
+  private void sortSolutions (final GRBModel nativeModel) throws GRBException {
+    final boolean maximize = program.determineProgramObjectiveSense () == ObjectiveSense.MAXIMIZE;
+
+    if (program.hasNativeObjectives ()) {
+      final double[][] levelValues = determineNativeObjectiveValues (nativeModel);
+      if (program.isNativeMultiObjective ()) {
+        sortSolutionsHierarchically (levelValues, maximize);
+        return;
+      }
+    }
+
     Collections.sort (solutions);
-    if (program.determineProgramObjectiveSense () == ObjectiveSense.MAXIMIZE) {
+    if (maximize) {
       Collections.reverse (solutions);
     }
   }
+
+  /**
+   * Sorts the solutions lexicographically by their blended objective values per priority level, like the native
+   * hierarchical optimization does. The sort is stable, so the native order is kept for equal solutions.
+   */
+  private void sortSolutionsHierarchically (final double[][] levelValues,
+                                            final boolean maximize) {
+    final Integer[] order = new Integer[solutions.size ()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+
+    Arrays.sort (order, new Comparator<Integer> () {
+
+      @Override
+      public int compare (final Integer o1,
+                          final Integer o2) {
+        final double[] values1 = levelValues[o1];
+        final double[] values2 = levelValues[o2];
+        for (int level = 0; level < values1.length; level++) {
+          final int result = Precision.compareTo (values1[level], values2[level], OBJECTIVE_VALUE_EPSILON);
+          if (result != 0) {
+            return maximize ? -result : result;
+          }
+        }
+        return 0;
+      }
+    });
+
+    final List<GurobiSolution> sortedSolutions = new ArrayList<GurobiSolution> (solutions.size ());
+    for (final Integer index: order) {
+      sortedSolutions.add (solutions.get (index));
+    }
+    solutions.clear ();
+    solutions.addAll (sortedSolutions);
+  }
 }
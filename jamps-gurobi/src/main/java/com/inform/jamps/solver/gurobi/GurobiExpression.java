@@ -14,10 +14,11 @@
 package com.inform.jamps.solver.gurobi;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.apache.commons.math3.util.Precision;
@@ -29,6 +30,7 @@ import com.inform.jamps.modeling.Variable;
 
 import gurobi.GRBException;
 import gurobi.GRBLinExpr;
+import gurobi.GRBQuadExpr;
 import gurobi.GRBVar;
 
 public class GurobiExpression implements Expression {
@@ -39,10 +41,18 @@ public class GurobiExpression implements Expression {
 
   private final GurobiConstraint                      constraint;
 
+  private final GurobiRangeConstraint                 rangeConstraint;
+
+  private final GurobiProgram                         program;
+
   private final Map<GurobiVariable, GurobiLinearTerm> linearTerms      = new TreeMap<GurobiVariable, GurobiLinearTerm> ();
 
+  private final GurobiQuadraticTerms                  quadraticTerms   = new GurobiQuadraticTerms ();
+
   private double                                      constant;
 
+  private boolean                                     released;
+
   protected GurobiExpression (final GurobiObjective objective) {
     if (objective == null) {
       throw new IllegalArgumentException ("Parameter objective is mandatory and may not be null");
@@ -50,6 +60,8 @@ public class GurobiExpression implements Expression {
 
     this.objective = objective;
     this.constraint = null;
+    this.rangeConstraint = null;
+    this.program = null;
   }
 
   protected GurobiExpression (final GurobiConstraint constraint) {
@@ -59,16 +71,46 @@ public class GurobiExpression implements Expression {
 
     this.objective = null;
     this.constraint = constraint;
+    this.rangeConstraint = null;
+    this.program = null;
+  }
+
+  protected GurobiExpression (final GurobiRangeConstraint rangeConstraint) {
+    if (rangeConstraint == null) {
+      throw new IllegalArgumentException ("Parameter rangeConstraint is mandatory and may not be null");
+    }
+
+    this.objective = null;
+    this.constraint = null;
+    this.rangeConstraint = rangeConstraint;
+    this.program = null;
+  }
+
+  /**
+   * Creates an expression which is not part of an objective or constraint, e.g. for lazy constraints. Changes of such
+   * an expression do not mark the program as modified.
+   */
+  protected GurobiExpression (final GurobiProgram program) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+
+    this.objective = null;
+    this.constraint = null;
+    this.rangeConstraint = null;
+    this.program = program;
   }
 
   @Override
   public List<LinearTerm> getLinearTerms () {
+    checkNotReleased ();
     return new ArrayList<LinearTerm> (linearTerms.values ());
   }
 
   @Override
   public List<QuadraticTerm> getQuadraticTerms () {
-    return Collections.emptyList ();
+    checkNotReleased ();
+    return quadraticTerms.getTerms ();
   }
 
   @Override
@@ -78,6 +120,8 @@ public class GurobiExpression implements Expression {
 
   @Override
   public double getCoefficient (final Variable variable) {
+    checkNotReleased ();
+
     final GurobiLinearTerm term = linearTerms.get (variable);
 
     if (term == null) {
@@ -90,47 +134,77 @@ public class GurobiExpression implements Expression {
   @Override
   public double getCoefficient (final Variable var1,
                                 final Variable var2) {
-    return ZERO_COEFFICIENT;
+    checkNotReleased ();
+
+    if (!(var1 instanceof GurobiVariable) || !(var2 instanceof GurobiVariable)) {
+      return ZERO_COEFFICIENT;
+    }
+    return quadraticTerms.getCoefficient ((GurobiVariable) var1, (GurobiVariable) var2);
   }
 
   @Override
   public Expression addTerm (final double coefficient,
                              final Variable variable) {
+    checkNotReleased ();
+
     if (Precision.equals (coefficient, ZERO_COEFFICIENT)) {
       return this;
     }
 
+    checkOwnVariable (variable);
+
+    final GurobiLinearTerm term = linearTerms.get (variable);
+
+    if (term == null) {
+      final GurobiLinearTerm newTerm = new GurobiLinearTerm (coefficient, (GurobiVariable) variable);
+      linearTerms.put ((GurobiVariable) variable, newTerm);
+    } else {
+      term.addCoefficient (coefficient);
+    }
+
+    markModified ((GurobiVariable) variable);
+    return this;
+  }
+
+  private void checkOwnVariable (final Variable variable) {
     if (!(variable instanceof GurobiVariable)) {
       throw new IllegalArgumentException ("Adding variable " + variable.getName () +
                                           " of type not equal GurobiVariable is not supported");
     }
 
     final GurobiProgram varProgram = ((GurobiVariable) variable).getProgram ();
-    final GurobiProgram ownProgram = (objective == null) ? constraint.getProgram () : objective.getProgram ();
+    final GurobiProgram ownProgram = getProgram ();
     if (varProgram == null || !varProgram.equals (ownProgram)) {
       throw new IllegalArgumentException ("Adding variable " + variable.getName () +
                                           " from a different program is not supported");
     }
+  }
 
-    final GurobiLinearTerm term = linearTerms.get (variable);
+  /**
+   * Replaces the coefficient of a variable without marking the program as modified, the program transfers the change
+   * itself.
+   */
+  protected void setCoefficient (final GurobiVariable variable,
+                                 final double coefficient) {
+    checkNotReleased ();
 
-    if (term == null) {
-      final GurobiLinearTerm newTerm = new GurobiLinearTerm (coefficient, (GurobiVariable) variable);
-      linearTerms.put ((GurobiVariable) variable, newTerm);
+    if (Precision.equals (coefficient, ZERO_COEFFICIENT)) {
+      linearTerms.remove (variable);
     } else {
-      term.addCoefficient (coefficient);
+      linearTerms.put (variable, new GurobiLinearTerm (coefficient, variable));
     }
-
-    return this;
   }
 
   @Override
   public Expression addTerm (final double constant) {
+    checkNotReleased ();
+
     if (Precision.equals (constant, ZERO_COEFFICIENT)) {
       return this;
     }
 
     this.constant += constant;
+    markModified (null);
     return this;
   }
 
@@ -138,16 +212,39 @@ public class GurobiExpression implements Expression {
   public Expression addTerm (final double coefficient,
                              final Variable var1,
                              final Variable var2) {
-    throw new UnsupportedOperationException ("Quadratic terms are not supported by Gurobi solver");
+    checkNotReleased ();
+
+    if (Precision.equals (coefficient, ZERO_COEFFICIENT)) {
+      return this;
+    }
+
+    // Native quadratic terms are only available in the objective and in single quadratic constraints
+    if (objective == null && (constraint == null || constraint instanceof GurobiIndicatorConstraint)) {
+      throw new UnsupportedOperationException ("Quadratic terms are only supported in objectives and constraints");
+    }
+
+    checkOwnVariable (var1);
+    checkOwnVariable (var2);
+
+    quadraticTerms.addTerm (coefficient, (GurobiVariable) var1, (GurobiVariable) var2);
+    markQuadraticModified ();
+    return this;
   }
 
   @Override
   public Expression addTerms (final Expression expr) {
+    checkNotReleased ();
+
     final List<LinearTerm> linearTerms = expr.getLinearTerms ();
     for (final LinearTerm term: linearTerms) {
       addTerm (term.getCoefficient (), term.getVariable ());
     }
 
+    final List<QuadraticTerm> quadraticTerms = expr.getQuadraticTerms ();
+    for (final QuadraticTerm term: quadraticTerms) {
+      addTerm (term.getCoefficient (), term.getVariable1 (), term.getVariable2 ());
+    }
+
     addTerm (expr.getConstant ());
 
     return this;
@@ -155,23 +252,145 @@ public class GurobiExpression implements Expression {
 
   @Override
   public Expression removeLinearTerm (final Variable variable) {
-    linearTerms.remove (variable);
+    checkNotReleased ();
+
+    if (linearTerms.remove (variable) != null) {
+      markModified ((GurobiVariable) variable);
+    }
     return this;
   }
 
   @Override
   public Expression removeQuadraticTerm (final Variable var1,
                                          final Variable var2) {
-    throw new UnsupportedOperationException ("Quadratic terms are not supported by Gurobi solver");
+    checkNotReleased ();
+
+    if (var1 instanceof GurobiVariable && var2 instanceof GurobiVariable &&
+        quadraticTerms.removeTerm ((GurobiVariable) var1, (GurobiVariable) var2)) {
+      markQuadraticModified ();
+    }
+    return this;
   }
 
   @Override
   public Expression removeConstant () {
+    checkNotReleased ();
+
     this.constant = ZERO_COEFFICIENT;
+    markModified (null);
     return this;
   }
 
+  protected GurobiProgram getProgram () {
+    if (objective != null) {
+      return objective.getProgram ();
+    }
+    if (rangeConstraint != null) {
+      return rangeConstraint.getProgram ();
+    }
+    return (constraint != null) ? constraint.getProgram () : program;
+  }
+
+  /**
+   * @param variable variable of the changed term, or null if the constant has changed
+   */
+  private void markModified (final GurobiVariable variable) {
+    if (objective != null) {
+      objective.getProgram ().markObjectiveModified (variable);
+    } else if (constraint != null) {
+      constraint.getProgram ().markConstraintModified (constraint);
+    } else if (rangeConstraint != null) {
+      rangeConstraint.getProgram ().markRangeConstraintModified (rangeConstraint);
+    }
+  }
+
+  /**
+   * Quadratic terms are not changed incrementally in the native model, so it is rebuilt with the next transfer.
+   */
+  private void markQuadraticModified () {
+    if (objective != null) {
+      objective.getProgram ().markModified ();
+    } else if (constraint != null) {
+      constraint.getProgram ().markModified ();
+    }
+  }
+
+  /**
+   * Removes the terms of the given variables without marking the program as modified, e.g. for variables which are
+   * removed from the native model as well.
+   */
+  protected void removeTerms (final Set<GurobiVariable> variables) {
+    checkNotReleased ();
+
+    final Iterator<GurobiVariable> it = linearTerms.keySet ().iterator ();
+    while (it.hasNext ()) {
+      if (variables.contains (it.next ())) {
+        it.remove ();
+      }
+    }
+    quadraticTerms.removeTerms (variables);
+  }
+
+  protected void addTermsTo (final GurobiRowBuffer buffer,
+                             final double factor) {
+    checkNotReleased ();
+
+    for (final Entry<GurobiVariable, GurobiLinearTerm> entry: linearTerms.entrySet ()) {
+      buffer.addTerm (entry.getKey (), factor * entry.getValue ().getCoefficient ());
+    }
+  }
+
+  protected void addCoefficientsTo (final double[] coefficients,
+                                    final double factor) {
+    checkNotReleased ();
+
+    for (final Entry<GurobiVariable, GurobiLinearTerm> entry: linearTerms.entrySet ()) {
+      coefficients[entry.getKey ().getNativeIndex ()] += factor * entry.getValue ().getCoefficient ();
+    }
+  }
+
+  protected boolean hasQuadraticTerms () {
+    return !quadraticTerms.isEmpty ();
+  }
+
+  protected void addQuadraticTermsTo (final GRBQuadExpr expr,
+                                      final double factor,
+                                      final int chunkSize) throws GRBException {
+    checkNotReleased ();
+    quadraticTerms.addTo (expr, factor, chunkSize);
+  }
+
+  protected double evaluateQuadraticTerms (final GurobiSolution solution) {
+    checkNotReleased ();
+    return quadraticTerms.evaluate (solution);
+  }
+
+  protected void release () {
+    linearTerms.clear ();
+    quadraticTerms.clear ();
+    released = true;
+  }
+
+  protected boolean isReleased () {
+    return released;
+  }
+
+  private void checkNotReleased () {
+    if (released) {
+      throw new IllegalStateException ("Expression has been released after transfer to the native model");
+    }
+  }
+
   protected GRBLinExpr getNativeExpression () {
+    return getNativeExpression (true);
+  }
+
+  /**
+   * Creates the native expression, optionally without the constant, which then has to be moved to the bounds.
+   */
+  protected GRBLinExpr getNativeExpression (final boolean withConstant) {
+    checkNotReleased ();
+
     final GRBLinExpr expr = new GRBLinExpr ();
 
     GRBVar[] vars = new GRBVar[linearTerms.size ()];
@@ -184,7 +403,9 @@ public class GurobiExpression implements Expression {
       index++;
     }
 
-    expr.addConstant (constant);
+    if (withConstant) {
+      expr.addConstant (constant);
+    }
 
     try {
       expr.addTerms (coeffs, vars);
@@ -205,8 +426,9 @@ public class GurobiExpression implements Expression {
     }
 
     final GurobiExpression grbExpr = ((GurobiExpression) expr);
-    final int exprLength1 = linearTerms.size () + (Precision.equals (constant, ZERO_COEFFICIENT) ? 0 : 1);
-    final int exprLength2 = grbExpr.linearTerms.size () +
+    final int exprLength1 = linearTerms.size () + quadraticTerms.size () +
+                            (Precision.equals (constant, ZERO_COEFFICIENT) ? 0 : 1);
+    final int exprLength2 = grbExpr.linearTerms.size () + grbExpr.quadraticTerms.size () +
                             (Precision.equals (grbExpr.constant, ZERO_COEFFICIENT) ? 0 : 1);
 
     final int result = Integer.valueOf (exprLength1).compareTo (exprLength2);
@@ -222,6 +444,7 @@ public class GurobiExpression implements Expression {
     final int prime = 31;
     int result = 1;
     result = prime * result + linearTerms.hashCode ();
+    result = prime * result + quadraticTerms.hashCode ();
     long temp;
     temp = Double.doubleToLongBits (constant);
     result = prime * result + (int) (temp ^ (temp >>> 32));
@@ -243,12 +466,16 @@ public class GurobiExpression implements Expression {
     if (Double.doubleToLongBits (constant) != Double.doubleToLongBits (other.constant)) {
       return false;
     }
-    return linearTerms.equals (other.linearTerms);
+    if (!linearTerms.equals (other.linearTerms)) {
+      return false;
+    }
+    return quadraticTerms.equals (other.quadraticTerms);
   }
 
   @Override
   public String toString () {
-    if (linearTerms.isEmpty ()) {
+    final List<QuadraticTerm> quadraticTerms = this.quadraticTerms.getTerms ();
+    if (linearTerms.isEmpty () && quadraticTerms.isEmpty ()) {
       return String.valueOf (constant);
     }
 
@@ -271,6 +498,25 @@ public class GurobiExpression implements Expression {
       sb.append (term.getVariable ().getName ());
     }
 
+    for (final QuadraticTerm term: quadraticTerms) {
+      final double coefficient = term.getCoefficient ();
+      final double abs = Math.abs (coefficient);
+
+      if (sb.length () > 0 || coefficient < 0.0) {
+        sb.append (' ');
+        sb.append (coefficient < ZERO_COEFFICIENT ? '-' : '+');
+        sb.append (' ');
+      }
+
+      if (!Precision.equals (abs, 1.0)) {
+        sb.append (abs);
+        sb.append (' ');
+      }
+      sb.append (term.getVariable1 ().getName ());
+      sb.append (" * ");
+      sb.append (term.getVariable2 ().getName ());
+    }
+
     if (constant < ZERO_COEFFICIENT) {
       sb.append (" - ");
       sb.append (Math.abs (constant));
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.inform.jamps.modeling.GeneralConstraint;
+import com.inform.jamps.modeling.GeneralConstraintType;
+import com.inform.jamps.modeling.Variable;
+
+import gurobi.GRBException;
+import gurobi.GRBGenConstr;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+public class GurobiGeneralConstraint implements GeneralConstraint {
+
+  private final String                name;
+
+  private final GeneralConstraintType type;
+
+  private final GurobiVariable        resultant;
+
+  private final GurobiVariable[]      operands;
+
+  private final double                constant;
+
+  protected GurobiGeneralConstraint (final String name,
+                                     final GeneralConstraintType type,
+                                     final GurobiVariable resultant,
+                                     final GurobiVariable[] operands,
+                                     final double constant) {
+    if (name == null) {
+      throw new IllegalArgumentException ("Parameter name is mandatory and may not be null");
+    }
+    if (type == null) {
+      throw new IllegalArgumentException ("Parameter type is mandatory and may not be null");
+    }
+    if (resultant == null) {
+      throw new IllegalArgumentException ("Parameter resultant is mandatory and may not be null");
+    }
+    if (operands == null) {
+      throw new IllegalArgumentException ("Parameter operands is mandatory and may not be null");
+    }
+    if (type == GeneralConstraintType.ABS && operands.length != 1) {
+      throw new IllegalArgumentException ("General constraint " + name + " of type ABS requires exactly one operand");
+    }
+
+    this.name = name;
+    this.type = type;
+    this.resultant = resultant;
+    this.operands = operands.clone ();
+    this.constant = constant;
+  }
+
+  @Override
+  public String getName () {
+    return name;
+  }
+
+  @Override
+  public GeneralConstraintType getType () {
+    return type;
+  }
+
+  @Override
+  public GurobiVariable getResultant () {
+    return resultant;
+  }
+
+  @Override
+  public List<Variable> getOperands () {
+    return Collections.unmodifiableList (Arrays.<Variable> asList (operands));
+  }
+
+  @Override
+  public double getConstant () {
+    return constant;
+  }
+
+  protected boolean contains (final GurobiVariable variable) {
+    if (resultant == variable) {
+      return true;
+    }
+    for (final GurobiVariable var: operands) {
+      if (var == variable) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  protected GRBGenConstr addTo (final GRBModel model) throws GRBException {
+    final GRBVar nativeResultant = resultant.getNativeVariable ();
+    final GRBVar[] nativeOperands = new GRBVar[operands.length];
+    for (int i = 0; i < operands.length; i++) {
+      nativeOperands[i] = operands[i].getNativeVariable ();
+    }
+
+    switch (type) {
+      case MAX:
+        return model.addGenConstrMax (nativeResultant, nativeOperands, constant, name);
+      case MIN:
+        return model.addGenConstrMin (nativeResultant, nativeOperands, constant, name);
+      case ABS:
+        return model.addGenConstrAbs (nativeResultant, nativeOperands[0], name);
+      case AND:
+        return model.addGenConstrAnd (nativeResultant, nativeOperands, name);
+      case OR:
+        return model.addGenConstrOr (nativeResultant, nativeOperands, name);
+      default:
+        throw new IllegalStateException ("General constraints of type " + type.name () + " are not supported");
+    }
+  }
+
+  @Override
+  public final int hashCode () {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + name.hashCode ();
+    result = prime * result + type.hashCode ();
+    result = prime * result + resultant.hashCode ();
+    result = prime * result + Arrays.hashCode (operands);
+    final long temp = Double.doubleToLongBits (constant);
+    result = prime * result + (int) (temp ^ (temp >>> 32));
+    return result;
+  }
+
+  @Override
+  public final boolean equals (final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (!(obj instanceof GurobiGeneralConstraint)) {
+      return false;
+    }
+    final GurobiGeneralConstraint other = (GurobiGeneralConstraint) obj;
+    if (!name.equals (other.name)) {
+      return false;
+    }
+    if (type != other.type) {
+      return false;
+    }
+    if (!resultant.equals (other.resultant)) {
+      return false;
+    }
+    if (!Arrays.equals (operands, other.operands)) {
+      return false;
+    }
+    return Double.doubleToLongBits (constant) == Double.doubleToLongBits (other.constant);
+  }
+
+  @Override
+  public String toString () {
+    return name;
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.gurobi;
+
+import com.inform.jamps.modeling.IndicatorConstraint;
+import com.inform.jamps.modeling.LinearTerm;
+import com.inform.jamps.modeling.Operator;
+
+import gurobi.GRBLinExpr;
+
+/**
+ * Constraint which is transferred as native indicator constraint instead of a row. Changes of its terms rebuild the
+ * native model.
+ */
+public class GurobiIndicatorConstraint extends GurobiConstraint implements IndicatorConstraint {
+
+  private final GurobiVariable indicatorVariable;
+
+  private final boolean        indicatorValue;
+
+  protected GurobiIndicatorConstraint (final GurobiProgram program,
+                                       final String name,
+                                       final GurobiVariable indicatorVariable,
+                                       final boolean indicatorValue,
+                                       final Operator operator) {
+    super (program, name, operator);
+
+    if (indicatorVariable == null) {
+      throw new IllegalArgumentException ("Parameter indicatorVariable is mandatory and may not be null");
+    }
+
+    this.indicatorVariable = indicatorVariable;
+    this.indicatorValue = indicatorValue;
+  }
+
+  @Override
+  public GurobiVariable getIndicatorVariable () {
+    return indicatorVariable;
+  }
+
+  @Override
+  public boolean getIndicatorValue () {
+    return indicatorValue;
+  }
+
+  /**
+   * @return terms of both sides moved to the left-hand side
+   */
+  protected GRBLinExpr getNativeExpression () {
+    final GRBLinExpr expr = new GRBLinExpr ();
+    for (final LinearTerm term: getLhs ().getLinearTerms ()) {
+      expr.addTerm (term.getCoefficient (), ((GurobiVariable) term.getVariable ()).getNativeVariable ());
+    }
+    for (final LinearTerm term: getRhs ().getLinearTerms ()) {
+      expr.addTerm (-term.getCoefficient (), ((GurobiVariable) term.getVariable ()).getNativeVariable ());
+    }
+    return expr;
+  }
+
+  @Override
+  public final int hashCode () {
+    final int prime = 31;
+    int result = super.hashCode ();
+    result = prime * result + indicatorVariable.hashCode ();
+    result = prime * result + (indicatorValue ? 1231 : 1237);
+    return result;
+  }
+
+  @Override
+  public final boolean equals (final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof GurobiIndicatorConstraint)) {
+      return false;
+    }
+    final GurobiIndicatorConstraint other = (GurobiIndicatorConstraint) obj;
+    if (indicatorValue != other.indicatorValue) {
+      return false;
+    }
+    if (!indicatorVariable.equals (other.indicatorVariable)) {
+      return false;
+    }
+    return super.equals (obj);
+  }
+
+  @Override
+  protected boolean canEqual (final Object obj) {
+    return obj instanceof GurobiIndicatorConstraint;
+  }
+}
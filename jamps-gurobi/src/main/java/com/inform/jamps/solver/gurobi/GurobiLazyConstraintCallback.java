@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.List;
+
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.solver.lazy.LazyConstraint;
+import com.inform.jamps.solver.lazy.LazyConstraintGenerator;
+
+import gurobi.GRB;
+import gurobi.GRB.Status;
+import gurobi.GRBCallback;
+import gurobi.GRBException;
+import gurobi.GRBLinExpr;
+import gurobi.GRBVar;
+
+/**
+ * Calls a lazy constraint generator for every candidate incumbent and optionally for optimal node relaxations, and
+ * adds the returned constraints to the running solve. Exceptions cannot leave the native callback, so they abort the
+ * solve and are kept for the solver to rethrow.
+ */
+public class GurobiLazyConstraintCallback extends GRBCallback {
+
+  private final GurobiProgram           program;
+
+  private final LazyConstraintGenerator generator;
+
+  private final GRBVar[]                nativeVariables;
+
+  private Exception                     failure;
+
+  private long                          lazyConstraintsCount;
+
+  private long                          userCutsCount;
+
+  protected GurobiLazyConstraintCallback (final GurobiProgram program,
+                                          final LazyConstraintGenerator generator) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (generator == null) {
+      throw new IllegalArgumentException ("Parameter generator is mandatory and may not be null");
+    }
+
+    this.program = program;
+    this.generator = generator;
+    this.nativeVariables = program.getNativeVariables ();
+  }
+
+  @Override
+  protected void callback () {
+    if (failure != null) {
+      return;
+    }
+
+    try {
+      if (where == GRB.Callback.MIPSOL) {
+        separate (getSolution (nativeVariables), true);
+      } else if (where == GRB.Callback.MIPNODE && generator.isSeparatingNodeRelaxations () &&
+                 getIntInfo (GRB.Callback.MIPNODE_STATUS) == Status.OPTIMAL) {
+        separate (getNodeRel (nativeVariables), false);
+      }
+    } catch (GRBException e) {
+      failure = e;
+      abort ();
+    } catch (RuntimeException e) {
+      failure = e;
+      abort ();
+    }
+  }
+
+  private void separate (final double[] values,
+                         final boolean integral) throws GRBException {
+    final List<LazyConstraint> constraints = generator.separate (new GurobiCandidateSolution (program, values,
+                                                                                              integral));
+    if (constraints == null) {
+      return;
+    }
+
+    for (final LazyConstraint constraint: constraints) {
+      // User cuts must not cut off integer feasible solutions, so they are irrelevant for candidate incumbents
+      if (constraint.isUserCut () && integral) {
+        continue;
+      }
+
+      final GurobiExpression lhs = checkExpression (constraint.getLhs ());
+      final GRBLinExpr nativeLhs = lhs.getNativeExpression ();
+      nativeLhs.addConstant (-lhs.getConstant ());
+
+      final char sense = GurobiConstraint.getNativeSense (constraint.getOperator ());
+      final double rhs = constraint.getRhs () - lhs.getConstant ();
+
+      if (constraint.isUserCut ()) {
+        addCut (nativeLhs, sense, rhs);
+        userCutsCount++;
+      } else {
+        addLazy (nativeLhs, sense, rhs);
+        lazyConstraintsCount++;
+      }
+    }
+  }
+
+  private GurobiExpression checkExpression (final Expression expression) {
+    if (!(expression instanceof GurobiExpression) || ((GurobiExpression) expression).getProgram () != program) {
+      throw new IllegalArgumentException ("Expression " + expression + " is not part of the program");
+    }
+
+    return (GurobiExpression) expression;
+  }
+
+  protected Exception getFailure () {
+    return failure;
+  }
+
+  public long getLazyConstraintsCount () {
+    return lazyConstraintsCount;
+  }
+
+  public long getUserCutsCount () {
+    return userCutsCount;
+  }
+}
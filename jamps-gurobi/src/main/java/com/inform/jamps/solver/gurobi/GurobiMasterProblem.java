@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.List;
+
+import com.inform.jamps.exception.SolverException;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.columngeneration.Column;
+import com.inform.jamps.solver.columngeneration.MasterProblem;
+
+import gurobi.GRB.IntAttr;
+import gurobi.GRBException;
+import gurobi.GRBModel;
+
+/**
+ * Restricted master program of a column generation on a persistent native model. Columns are appended to the native
+ * model, so Gurobi re-solves from the basis of the previous iteration.
+ */
+public class GurobiMasterProblem implements MasterProblem {
+
+  private final GurobiSolverParameters parameters;
+
+  private final GurobiProgram          program;
+
+  protected GurobiMasterProblem (final GurobiSolverParameters parameters,
+                                 final GurobiProgram program) {
+    if (parameters == null) {
+      throw new IllegalArgumentException ("Parameter parameters is mandatory and may not be null");
+    }
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+
+    this.parameters = parameters;
+    this.program = program;
+  }
+
+  @Override
+  public GurobiProgram getProgram () {
+    return program;
+  }
+
+  @Override
+  public ObjectiveSense getObjectiveSense () {
+    return program.determineProgramObjectiveSense ();
+  }
+
+  @Override
+  public GurobiMasterSolution solve () {
+    program.prepareSolve (parameters);
+
+    final GRBModel model = program.getNativeModel ();
+
+    try {
+      if (model.get (IntAttr.IsMIP) == 1) {
+        throw new IllegalStateException ("Master program must be continuous to provide dual values");
+      }
+
+      model.optimize ();
+      return new GurobiMasterSolution (program, model);
+    } catch (GRBException e) {
+      final String errorMsg = GurobiErrorCodeMapping.getMessage (e);
+      throw new SolverException ("Unable to solve master program: " + errorMsg, e);
+    }
+  }
+
+  @Override
+  public List<Variable> addColumns (final List<Column> columns) {
+    return program.addColumns (columns);
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.columngeneration.MasterSolution;
+
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRB.IntAttr;
+import gurobi.GRB.Status;
+import gurobi.GRBConstr;
+import gurobi.GRBException;
+import gurobi.GRBModel;
+
+/**
+ * Snapshot of a master program solve. Primal and dual values are read in bulk, indexed by native index and constraint
+ * position.
+ */
+public class GurobiMasterSolution implements MasterSolution {
+
+  private final static int                     MILLIS_PER_SECOND = 1000;
+
+  private final GurobiProgram                  program;
+
+  private final Map<GurobiConstraint, Integer> constraintPositions;
+
+  private final boolean                        optimal;
+
+  private final boolean                        infeasible;
+
+  private final double                         objectiveValue;
+
+  private final long                           executionTime;
+
+  private final double[]                       variableValues;
+
+  private final double[]                       dualValues;
+
+  protected GurobiMasterSolution (final GurobiProgram program,
+                                  final GRBModel model) throws GRBException {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (model == null) {
+      throw new IllegalArgumentException ("Parameter model is mandatory and may not be null");
+    }
+
+    this.program = program;
+    this.constraintPositions = GurobiScenarioDelta.determineConstraintPositions (program);
+
+    final int status = model.get (IntAttr.Status);
+    this.optimal = (status == Status.OPTIMAL);
+    this.infeasible = (status == Status.INFEASIBLE || status == Status.INF_OR_UNBD);
+    this.executionTime = Math.round (MILLIS_PER_SECOND * model.get (DoubleAttr.Runtime));
+
+    if (optimal) {
+      final List<GurobiConstraint> constraints = program.getRowConstraints ();
+      final GRBConstr[] nativeConstraints = new GRBConstr[constraints.size ()];
+      for (int i = 0; i < nativeConstraints.length; i++) {
+        nativeConstraints[i] = constraints.get (i).getNativeConstraint ();
+      }
+
+      this.objectiveValue = model.get (DoubleAttr.ObjVal);
+      this.variableValues = model.get (DoubleAttr.X, program.getNativeVariables ());
+      this.dualValues = (nativeConstraints.length > 0) ? model.get (DoubleAttr.Pi, nativeConstraints) : new double[0];
+    } else {
+      this.objectiveValue = Double.NaN;
+      this.variableValues = null;
+      this.dualValues = null;
+    }
+  }
+
+  @Override
+  public boolean isOptimal () {
+    return optimal;
+  }
+
+  @Override
+  public boolean isInfeasible () {
+    return infeasible;
+  }
+
+  @Override
+  public double getObjectiveValue () {
+    return objectiveValue;
+  }
+
+  @Override
+  public long getExecutionTimeMillis () {
+    return executionTime;
+  }
+
+  @Override
+  public double getVariableValue (final Variable variable) {
+    checkOptimal ();
+    if (!(variable instanceof GurobiVariable) || ((GurobiVariable) variable).getProgram () != program) {
+      throw new IllegalArgumentException ("Variable " + variable + " is not part of the master program");
+    }
+
+    final int nativeIndex = ((GurobiVariable) variable).getNativeIndex ();
+    if (nativeIndex < 0 || nativeIndex >= variableValues.length) {
+      throw new IllegalArgumentException ("Variable " + variable + " has been added after this solution");
+    }
+    return variableValues[nativeIndex];
+  }
+
+  @Override
+  public double getDualValue (final Constraint constraint) {
+    checkOptimal ();
+
+    final Integer position = constraintPositions.get (constraint);
+    if (position == null) {
+      throw new IllegalArgumentException ("Constraint " + constraint + " is not part of the master program");
+    }
+    return dualValues[position];
+  }
+
+  private void checkOptimal () {
+    if (!optimal) {
+      throw new IllegalStateException ("Values are only available for optimal master solutions");
+    }
+  }
+}
@@ -21,9 +21,17 @@ import com.inform.jamps.modeling.ObjectiveSense;
 
 public class GurobiObjective implements Objective {
 
-  protected final static ObjectiveSense DEFAULT_SENSE     = ObjectiveSense.MINIMIZE;
+  protected final static ObjectiveSense DEFAULT_SENSE              = ObjectiveSense.MINIMIZE;
 
-  private final static AtomicLong       AUTO_NAME_COUNTER = new AtomicLong (0);
+  protected final static int            DEFAULT_PRIORITY           = 0;
+
+  protected final static double         DEFAULT_WEIGHT             = 1.0;
+
+  protected final static double         DEFAULT_ABSOLUTE_TOLERANCE = 1e-6;
+
+  protected final static double         DEFAULT_RELATIVE_TOLERANCE = 0.0;
+
+  private final static AtomicLong       AUTO_NAME_COUNTER          = new AtomicLong (0);
 
   private final GurobiExpression        expression;
 
@@ -33,6 +41,14 @@ public class GurobiObjective implements Objective {
 
   private ObjectiveSense                sense;
 
+  private int                           priority                   = DEFAULT_PRIORITY;
+
+  private double                        weight                     = DEFAULT_WEIGHT;
+
+  private double                        absoluteTolerance          = DEFAULT_ABSOLUTE_TOLERANCE;
+
+  private double                        relativeTolerance          = DEFAULT_RELATIVE_TOLERANCE;
+
   protected GurobiObjective (final GurobiProgram program) {
     this (program, DEFAULT_SENSE);
   }
@@ -78,6 +94,7 @@ public class GurobiObjective implements Objective {
     }
 
     this.sense = sense;
+    program.markObjectiveModified ();
   }
 
   @Override
@@ -85,10 +102,69 @@ public class GurobiObjective implements Objective {
     return expression;
   }
 
+  @Override
+  public int getPriority () {
+    return priority;
+  }
+
+  @Override
+  public void setPriority (final int priority) {
+    this.priority = priority;
+    program.updateNativeObjective (this);
+  }
+
+  @Override
+  public double getWeight () {
+    return weight;
+  }
+
+  @Override
+  public void setWeight (final double weight) {
+    this.weight = weight;
+    program.updateNativeObjective (this);
+    if (!program.hasNativeObjectives ()) {
+      program.markObjectiveModified ();
+    }
+  }
+
+  @Override
+  public double getAbsoluteTolerance () {
+    return absoluteTolerance;
+  }
+
+  @Override
+  public void setAbsoluteTolerance (final double absoluteTolerance) {
+    if (absoluteTolerance < 0.0) {
+      throw new IllegalArgumentException ("Parameter absoluteTolerance may not be negative");
+    }
+
+    this.absoluteTolerance = absoluteTolerance;
+    program.updateNativeObjective (this);
+  }
+
+  @Override
+  public double getRelativeTolerance () {
+    return relativeTolerance;
+  }
+
+  @Override
+  public void setRelativeTolerance (final double relativeTolerance) {
+    if (relativeTolerance < 0.0) {
+      throw new IllegalArgumentException ("Parameter relativeTolerance may not be negative");
+    }
+
+    this.relativeTolerance = relativeTolerance;
+    program.updateNativeObjective (this);
+  }
+
   protected GurobiProgram getProgram () {
     return program;
   }
 
+  protected void release () {
+    expression.release ();
+  }
+
   @Override
   public int compareTo (final Objective o) {
     if (!(o instanceof GurobiObjective)) {
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.Arrays;
+
+import com.inform.jamps.modeling.PiecewiseLinearTerm;
+
+public class GurobiPiecewiseLinearTerm implements PiecewiseLinearTerm {
+
+  private final GurobiObjective objective;
+
+  private final GurobiVariable  variable;
+
+  private final double[]        points;
+
+  private final double[]        values;
+
+  protected GurobiPiecewiseLinearTerm (final GurobiObjective objective,
+                                       final GurobiVariable variable,
+                                       final double[] points,
+                                       final double[] values) {
+    if (objective == null) {
+      throw new IllegalArgumentException ("Parameter objective is mandatory and may not be null");
+    }
+    if (variable == null) {
+      throw new IllegalArgumentException ("Parameter variable is mandatory and may not be null");
+    }
+    if (points == null) {
+      throw new IllegalArgumentException ("Parameter points is mandatory and may not be null");
+    }
+    if (values == null) {
+      throw new IllegalArgumentException ("Parameter values is mandatory and may not be null");
+    }
+    if (points.length == 0 || values.length != points.length) {
+      throw new IllegalArgumentException ("Parameters points and values must have the same positive length");
+    }
+    for (int i = 1; i < points.length; i++) {
+      if (points[i] < points[i - 1]) {
+        throw new IllegalArgumentException ("Parameter points must be non-decreasing");
+      }
+    }
+
+    this.objective = objective;
+    this.variable = variable;
+    this.points = points.clone ();
+    this.values = values.clone ();
+  }
+
+  @Override
+  public GurobiObjective getObjective () {
+    return objective;
+  }
+
+  @Override
+  public GurobiVariable getVariable () {
+    return variable;
+  }
+
+  @Override
+  public double[] getPoints () {
+    return points.clone ();
+  }
+
+  @Override
+  public double[] getValues () {
+    return values.clone ();
+  }
+
+  /**
+   * @return native function values, which are scaled by the factor and include the linear objective term of the
+   *         variable, since the native piecewise-linear objective replaces the linear one
+   */
+  protected double[] getNativeValues (final double factor,
+                                      final double linearCoefficient) {
+    final double[] nativeValues = new double[values.length];
+    for (int i = 0; i < values.length; i++) {
+      nativeValues[i] = factor * values[i] + linearCoefficient * points[i];
+    }
+    return nativeValues;
+  }
+
+  protected double[] getNativePoints () {
+    return points;
+  }
+
+  /**
+   * Evaluates the function at the given value of the variable. Steps are evaluated with the left segment.
+   */
+  protected double evaluate (final double x) {
+    final int last = points.length - 1;
+    if (last == 0) {
+      return values[0];
+    }
+
+    if (x <= points[0]) {
+      return values[0] + getSlope (0, 1) * (x - points[0]);
+    }
+    if (x >= points[last]) {
+      return values[last] + getSlope (last - 1, last) * (x - points[last]);
+    }
+
+    int i = 1;
+    while (points[i] < x) {
+      i++;
+    }
+    return values[i - 1] + getSlope (i - 1, i) * (x - points[i - 1]);
+  }
+
+  private double getSlope (final int i,
+                           final int k) {
+    final double width = points[k] - points[i];
+    return (width > 0.0) ? (values[k] - values[i]) / width : 0.0;
+  }
+
+  @Override
+  public final int hashCode () {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + objective.hashCode ();
+    result = prime * result + variable.hashCode ();
+    result = prime * result + Arrays.hashCode (points);
+    result = prime * result + Arrays.hashCode (values);
+    return result;
+  }
+
+  @Override
+  public final boolean equals (final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (!(obj instanceof GurobiPiecewiseLinearTerm)) {
+      return false;
+    }
+    final GurobiPiecewiseLinearTerm other = (GurobiPiecewiseLinearTerm) obj;
+    if (!objective.equals (other.objective)) {
+      return false;
+    }
+    if (!variable.equals (other.variable)) {
+      return false;
+    }
+    if (!Arrays.equals (points, other.points)) {
+      return false;
+    }
+    return Arrays.equals (values, other.values);
+  }
+
+  @Override
+  public String toString () {
+    return objective.getName () + ": " + variable.getName ();
+  }
+}
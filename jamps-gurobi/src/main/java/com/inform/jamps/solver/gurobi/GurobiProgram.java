@@ -14,46 +14,98 @@
 package com.inform.jamps.solver.gurobi;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.NavigableSet;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.inform.jamps.exception.DuplicateEntryException;
 import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.GeneralConstraint;
+import com.inform.jamps.modeling.GeneralConstraintType;
+import com.inform.jamps.modeling.IndicatorConstraint;
 import com.inform.jamps.modeling.Objective;
 import com.inform.jamps.modeling.ObjectiveSense;
 import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.PiecewiseLinearTerm;
 import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.RangeConstraint;
+import com.inform.jamps.modeling.SOSConstraint;
+import com.inform.jamps.modeling.SOSType;
 import com.inform.jamps.modeling.Variable;
 import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.columngeneration.Column;
 
 import gurobi.GRB;
 import gurobi.GRB.DoubleAttr;
 import gurobi.GRB.StringAttr;
+import gurobi.GRBColumn;
 import gurobi.GRBConstr;
 import gurobi.GRBEnv;
 import gurobi.GRBException;
 import gurobi.GRBLinExpr;
 import gurobi.GRBModel;
+import gurobi.GRBQuadExpr;
 import gurobi.GRBVar;
 
 public class GurobiProgram implements Program {
 
-  private final static AtomicLong            AUTO_NAME_COUNTER = new AtomicLong (0);
+  private final static AtomicLong                              AUTO_NAME_COUNTER   = new AtomicLong (0);
 
-  private final NavigableSet<GurobiVariable> variables         = new TreeSet<GurobiVariable> ();
+  private final NavigableSet<GurobiVariable>                   variables           = new TreeSet<GurobiVariable> ();
 
-  private final List<GurobiObjective>        objectives        = new ArrayList<GurobiObjective> ();
+  private final List<GurobiObjective>                          objectives          = new ArrayList<GurobiObjective> ();
 
-  private final List<GurobiConstraint>       constraints       = new ArrayList<GurobiConstraint> ();
+  private final List<GurobiConstraint>                         constraints         = new ArrayList<GurobiConstraint> ();
 
-  private String                             name;
+  private final List<GurobiRangeConstraint>                    rangeConstraints;
 
-  private GRBEnv                             nativeEnvironment;
+  private final List<GurobiIndicatorConstraint>                indicatorConstraints;
 
-  private GRBModel                           nativeModel;
+  private final List<GurobiSOSConstraint>                      sosConstraints;
+
+  private final List<GurobiGeneralConstraint>                  generalConstraints;
+
+  private final List<GurobiPiecewiseLinearTerm>                piecewiseLinearTerms;
+
+  private String                                               name;
+
+  private GRBEnv                                               nativeEnvironment;
+
+  private GRBModel                                             nativeModel;
+
+  private GurobiSolverParameters                               solverParameters    = new GurobiSolverParameters ();
+
+  private boolean                                              released;
+
+  private boolean                                              nativeMultiObjective;
+
+  private boolean                                              modified;
+
+  private boolean                                              timeLimited;
+
+  private final BitSet                                         modifiedBounds      = new BitSet ();
+
+  private final BitSet                                         modifiedStarts      = new BitSet ();
+
+  private final BitSet                                         modifiedCosts       = new BitSet ();
+
+  private final List<GurobiVariable>                           appendedVariables   = new ArrayList<GurobiVariable> ();
+
+  private final List<GurobiConstraint>                         appendedConstraints = new ArrayList<GurobiConstraint> ();
+
+  private final List<GRBVar>                                   removedVariables    = new ArrayList<GRBVar> ();
+
+  private final List<GRBConstr>                                removedConstraints  = new ArrayList<GRBConstr> ();
+
+  private final Set<GurobiConstraint>                          modifiedConstrs     = createIdentitySet ();
+
+  private boolean                                              objectiveModified;
 
   protected GurobiProgram () {
     this ("program" + AUTO_NAME_COUNTER.incrementAndGet ());
@@ -65,6 +117,11 @@ public class GurobiProgram implements Program {
     }
 
     this.name = name;
+    this.rangeConstraints = new ArrayList<GurobiRangeConstraint> ();
+    this.indicatorConstraints = new ArrayList<GurobiIndicatorConstraint> ();
+    this.sosConstraints = new ArrayList<GurobiSOSConstraint> ();
+    this.generalConstraints = new ArrayList<GurobiGeneralConstraint> ();
+    this.piecewiseLinearTerms = new ArrayList<GurobiPiecewiseLinearTerm> ();
   }
 
   @Override
@@ -135,12 +192,113 @@ public class GurobiProgram implements Program {
 
   protected GurobiVariable addVariable (final GurobiVariable var) {
     if (variables.add (var)) {
+      if (isVariableAppendable ()) {
+        appendedVariables.add (var);
+      } else {
+        modified = true;
+      }
       return var;
     } else {
       throw new DuplicateEntryException ("Variable already exists in this programm");
     }
   }
 
+  @Override
+  public void setBounds (final Variable[] variables,
+                         final double[] lowerBounds,
+                         final double[] upperBounds) {
+    if (variables == null) {
+      throw new IllegalArgumentException ("Parameter variables is mandatory and may not be null");
+    }
+    if (lowerBounds == null) {
+      throw new IllegalArgumentException ("Parameter lowerBounds is mandatory and may not be null");
+    }
+    if (upperBounds == null) {
+      throw new IllegalArgumentException ("Parameter upperBounds is mandatory and may not be null");
+    }
+    if (lowerBounds.length != variables.length || upperBounds.length != variables.length) {
+      throw new IllegalArgumentException ("Parameters variables, lowerBounds and upperBounds must have the same " +
+                                          "length");
+    }
+
+    for (int i = 0; i < variables.length; i++) {
+      final GurobiVariable var = checkOwnVariable (variables[i]);
+      var.setLowerBound (lowerBounds[i]);
+      var.setUpperBound (upperBounds[i]);
+    }
+  }
+
+  @Override
+  public void setInitialValues (final Variable[] variables,
+                                final double[] initialValues) {
+    if (variables == null) {
+      throw new IllegalArgumentException ("Parameter variables is mandatory and may not be null");
+    }
+    if (initialValues == null) {
+      throw new IllegalArgumentException ("Parameter initialValues is mandatory and may not be null");
+    }
+    if (initialValues.length != variables.length) {
+      throw new IllegalArgumentException ("Parameters variables and initialValues must have the same length");
+    }
+
+    for (int i = 0; i < variables.length; i++) {
+      checkOwnVariable (variables[i]).setInitialValue (initialValues[i]);
+    }
+  }
+
+  /**
+   * Replaces the coefficients of the given variables in the objective. Unless objectives are passed to the native
+   * model separately, only the changed objective coefficients are transferred to an existing native model. Otherwise
+   * the native objectives are replaced in place.
+   */
+  @Override
+  public void setObjectiveCoefficients (final Objective objective,
+                                        final Variable[] variables,
+                                        final double[] coefficients) {
+    if (objective == null) {
+      throw new IllegalArgumentException ("Parameter objective is mandatory and may not be null");
+    }
+    if (variables == null) {
+      throw new IllegalArgumentException ("Parameter variables is mandatory and may not be null");
+    }
+    if (coefficients == null) {
+      throw new IllegalArgumentException ("Parameter coefficients is mandatory and may not be null");
+    }
+    if (coefficients.length != variables.length) {
+      throw new IllegalArgumentException ("Parameters variables and coefficients must have the same length");
+    }
+    if (!(objective instanceof GurobiObjective) || ((GurobiObjective) objective).getProgram () != this) {
+      throw new IllegalArgumentException ("Objective " + objective + " is not part of this program");
+    }
+
+    final GurobiExpression expr = (GurobiExpression) objective.getExpression ();
+    for (int i = 0; i < variables.length; i++) {
+      final GurobiVariable var = checkOwnVariable (variables[i]);
+      expr.setCoefficient (var, coefficients[i]);
+
+      // The native piecewise-linear objective of a variable includes its linear coefficient
+      if (getPiecewiseLinearTerm (var) != null) {
+        markModified ();
+      } else if (hasNativeObjectives ()) {
+        markObjectiveModified ();
+      } else if (var.getNativeIndex () >= 0) {
+        modifiedCosts.set (var.getNativeIndex ());
+      }
+    }
+  }
+
+  private GurobiVariable checkOwnVariable (final Variable variable) {
+    if (!(variable instanceof GurobiVariable)) {
+      throw new IllegalArgumentException ("Variable " + variable + " is not of type GurobiVariable");
+    }
+    if (((GurobiVariable) variable).getProgram () != this) {
+      throw new IllegalArgumentException ("Variable " + variable.getName () + " from a different program is not " +
+                                          "supported");
+    }
+
+    return (GurobiVariable) variable;
+  }
+
   @Override
   public Objective addObjective (final String name,
                                  final ObjectiveSense sense) {
@@ -159,6 +317,7 @@ public class GurobiProgram implements Program {
 
   protected GurobiObjective addObjective (final GurobiObjective obj) {
     objectives.add (obj);
+    modified = true;
     return obj;
   }
 
@@ -180,26 +339,436 @@ public class GurobiProgram implements Program {
 
   protected GurobiConstraint addConstraint (final GurobiConstraint constr) {
     constraints.add (constr);
+    if (isIncrementallyModifiable ()) {
+      appendedConstraints.add (constr);
+    } else {
+      modified = true;
+    }
     return constr;
   }
 
-  protected List<GurobiVariable> getVariables () {
+  /**
+   * Removes variables from the program and all its objectives and constraints. If the native model is in sync with the
+   * program, the variables are removed from it with the next transfer instead of rebuilding it.
+   */
+  @Override
+  public void removeVariables (final Variable[] variables) {
+    if (variables == null) {
+      throw new IllegalArgumentException ("Parameter variables is mandatory and may not be null");
+    }
+    if (released) {
+      throw new IllegalStateException ("Program has been released after transfer and can not be modified anymore");
+    }
+
+    // Variables are compared by identity, as their hash codes depend on their bounds
+    final Set<GurobiVariable> removed = Collections.newSetFromMap (new IdentityHashMap<GurobiVariable, Boolean> ());
+    for (final Variable variable: variables) {
+      final GurobiVariable var = checkOwnVariable (variable);
+      checkNotInGeneralConstraints (var);
+      if (this.variables.remove (var)) {
+        removed.add (var);
+      }
+    }
+    if (removed.isEmpty ()) {
+      return;
+    }
+
+    for (final GurobiObjective obj: objectives) {
+      ((GurobiExpression) obj.getExpression ()).removeTerms (removed);
+    }
+    for (final GurobiConstraint constraint: constraints) {
+      ((GurobiExpression) constraint.getLhs ()).removeTerms (removed);
+      ((GurobiExpression) constraint.getRhs ()).removeTerms (removed);
+    }
+    for (final GurobiRangeConstraint constraint: rangeConstraints) {
+      ((GurobiExpression) constraint.getExpression ()).removeTerms (removed);
+    }
+    for (final GurobiIndicatorConstraint constraint: indicatorConstraints) {
+      ((GurobiExpression) constraint.getLhs ()).removeTerms (removed);
+      ((GurobiExpression) constraint.getRhs ()).removeTerms (removed);
+    }
+    if (!indicatorConstraints.isEmpty () && nativeModel != null) {
+      modified = true;
+    }
+
+    final boolean incremental = isIncrementallyModifiable ();
+    for (final GurobiVariable var: removed) {
+      if (var.getNativeIndex () >= 0) {
+        if (incremental) {
+          removedVariables.add (var.getNativeVariable ());
+        } else {
+          modified = true;
+        }
+      }
+      var.clearNativeVariable ();
+    }
+    appendedVariables.removeAll (removed);
+  }
+
+  /**
+   * Removes constraints from the program. If the native model is in sync with the program, the constraints are
+   * removed from it with the next transfer instead of rebuilding it.
+   */
+  @Override
+  public void removeConstraints (final Constraint[] constraints) {
+    if (constraints == null) {
+      throw new IllegalArgumentException ("Parameter constraints is mandatory and may not be null");
+    }
+    if (released) {
+      throw new IllegalStateException ("Program has been released after transfer and can not be modified anymore");
+    }
+
+    final Set<GurobiConstraint> removed = Collections.newSetFromMap (new IdentityHashMap<GurobiConstraint, Boolean> ());
+    for (final Constraint constraint: constraints) {
+      removed.add (checkOwnConstraint (constraint));
+    }
+
+    // Filtering keeps the order of the remaining constraints, which matches the order in the native model
+    final List<GurobiConstraint> remaining = new ArrayList<GurobiConstraint> (this.constraints.size ());
+    final boolean incremental = isIncrementallyModifiable ();
+    for (final GurobiConstraint constraint: this.constraints) {
+      if (!removed.contains (constraint)) {
+        remaining.add (constraint);
+      } else if (constraint.getNativeConstraint () != null) {
+        if (incremental) {
+          removedConstraints.add (constraint.getNativeConstraint ());
+        } else {
+          modified = true;
+        }
+        constraint.clearNativeConstraint ();
+      } else if (constraint.getNativeQuadraticConstraint () != null) {
+        modified = true;
+        constraint.clearNativeConstraint ();
+      }
+    }
+    this.constraints.clear ();
+    this.constraints.addAll (remaining);
+    appendedConstraints.removeAll (removed);
+    modifiedConstrs.removeAll (removed);
+
+    if (indicatorConstraints.removeAll (removed) && nativeModel != null) {
+      modified = true;
+    }
+  }
+
+  private void checkNotInGeneralConstraints (final GurobiVariable var) {
+    boolean contained = getPiecewiseLinearTerm (var) != null;
+    for (final GurobiIndicatorConstraint constraint: indicatorConstraints) {
+      contained |= constraint.getIndicatorVariable () == var;
+    }
+    for (final GurobiSOSConstraint constraint: sosConstraints) {
+      contained |= constraint.contains (var);
+    }
+    for (final GurobiGeneralConstraint constraint: generalConstraints) {
+      contained |= constraint.contains (var);
+    }
+
+    if (contained) {
+      throw new IllegalArgumentException ("Variable " + var.getName () + " of a general constraint or " +
+                                          "piecewise-linear term can not be removed");
+    }
+  }
+
+  @Override
+  public List<GurobiRangeConstraint> getRangeConstraints () {
+    return Collections.unmodifiableList (rangeConstraints);
+  }
+
+  @Override
+  public RangeConstraint addRangeConstraint (final String name,
+                                             final double lowerBound,
+                                             final double upperBound) {
+    return addRangeConstraint (new GurobiRangeConstraint (this, name, lowerBound, upperBound));
+  }
+
+  @Override
+  public RangeConstraint addRangeConstraint (final double lowerBound,
+                                             final double upperBound) {
+    return addRangeConstraint (new GurobiRangeConstraint (this, lowerBound, upperBound));
+  }
+
+  /**
+   * Adds a range constraint, which is transferred as single native range row. Range constraints are not appended
+   * incrementally, adding or changing them rebuilds an existing native model.
+   */
+  protected GurobiRangeConstraint addRangeConstraint (final GurobiRangeConstraint constraint) {
+    rangeConstraints.add (constraint);
+    modified = true;
+    return constraint;
+  }
+
+  @Override
+  public boolean hasGeneralConstraints () {
+    return !indicatorConstraints.isEmpty () || !sosConstraints.isEmpty () || !generalConstraints.isEmpty () ||
+           !piecewiseLinearTerms.isEmpty ();
+  }
+
+  @Override
+  public List<GurobiIndicatorConstraint> getIndicatorConstraints () {
+    return Collections.unmodifiableList (indicatorConstraints);
+  }
+
+  @Override
+  public List<GurobiSOSConstraint> getSOSConstraints () {
+    return Collections.unmodifiableList (sosConstraints);
+  }
+
+  @Override
+  public List<GurobiGeneralConstraint> getGeneralConstraints () {
+    return Collections.unmodifiableList (generalConstraints);
+  }
+
+  @Override
+  public List<GurobiPiecewiseLinearTerm> getPiecewiseLinearTerms () {
+    return Collections.unmodifiableList (piecewiseLinearTerms);
+  }
+
+  /**
+   * @return piecewise-linear term of the variable, or null if the variable has none
+   */
+  private GurobiPiecewiseLinearTerm getPiecewiseLinearTerm (final GurobiVariable var) {
+    for (final GurobiPiecewiseLinearTerm term: piecewiseLinearTerms) {
+      if (term.getVariable () == var) {
+        return term;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Adds a native indicator constraint. Indicator, SOS and general constraints as well as piecewise-linear terms are
+   * not applied incrementally, adding or changing them rebuilds an existing native model.
+   */
+  @Override
+  public IndicatorConstraint addIndicatorConstraint (final String name,
+                                                     final Variable indicatorVariable,
+                                                     final boolean indicatorValue,
+                                                     final Operator operator) {
+    final GurobiIndicatorConstraint constraint = new GurobiIndicatorConstraint (this, name,
+                                                                                checkOwnVariable (indicatorVariable),
+                                                                                indicatorValue, operator);
+    indicatorConstraints.add (constraint);
+    modified = true;
+    return constraint;
+  }
+
+  @Override
+  public SOSConstraint addSOSConstraint (final String name,
+                                         final SOSType type,
+                                         final Variable[] variables,
+                                         final double[] weights) {
+    final GurobiSOSConstraint constraint = new GurobiSOSConstraint (name, type, checkOwnVariables (variables),
+                                                                    weights);
+    sosConstraints.add (constraint);
+    modified = true;
+    return constraint;
+  }
+
+  @Override
+  public GeneralConstraint addGeneralConstraint (final String name,
+                                                 final GeneralConstraintType type,
+                                                 final Variable resultant,
+                                                 final Variable[] operands,
+                                                 final double constant) {
+    final GurobiGeneralConstraint constraint = new GurobiGeneralConstraint (name, type, checkOwnVariable (resultant),
+                                                                            checkOwnVariables (operands), constant);
+    generalConstraints.add (constraint);
+    modified = true;
+    return constraint;
+  }
+
+  @Override
+  public PiecewiseLinearTerm addPiecewiseLinearTerm (final Objective objective,
+                                                     final Variable variable,
+                                                     final double[] points,
+                                                     final double[] values) {
+    if (!(objective instanceof GurobiObjective) || ((GurobiObjective) objective).getProgram () != this) {
+      throw new IllegalArgumentException ("Objective " + objective + " is not part of this program");
+    }
+
+    final GurobiVariable var = checkOwnVariable (variable);
+    if (getPiecewiseLinearTerm (var) != null) {
+      throw new IllegalArgumentException ("Variable " + var.getName () + " already has a piecewise-linear term");
+    }
+
+    final GurobiPiecewiseLinearTerm term = new GurobiPiecewiseLinearTerm ((GurobiObjective) objective, var, points,
+                                                                          values);
+    piecewiseLinearTerms.add (term);
+    modified = true;
+    return term;
+  }
+
+  private GurobiVariable[] checkOwnVariables (final Variable[] variables) {
+    if (variables == null) {
+      throw new IllegalArgumentException ("Parameter variables is mandatory and may not be null");
+    }
+
+    final GurobiVariable[] vars = new GurobiVariable[variables.length];
+    for (int i = 0; i < variables.length; i++) {
+      vars[i] = checkOwnVariable (variables[i]);
+    }
+    return vars;
+  }
+
+  /**
+   * Adds continuous variables together with their objective and constraint coefficients. If the native model is in
+   * sync with the program, the columns are appended to it directly, which keeps the basis of the last solve.
+   */
+  protected List<Variable> addColumns (final List<Column> columns) {
+    if (columns == null) {
+      throw new IllegalArgumentException ("Parameter columns is mandatory and may not be null");
+    }
+    if (released) {
+      throw new IllegalStateException ("Program has been released after transfer and can not be modified anymore");
+    }
+    if (nativeMultiObjective) {
+      throw new UnsupportedOperationException ("Columns are not supported for native multi-objective programs");
+    }
+
+    final GurobiObjective objective = objectives.isEmpty () ? null : objectives.get (0);
+    if (objective == null) {
+      throw new IllegalStateException ("Program must contain at least one objective");
+    }
+
+    for (final Column column: columns) {
+      for (int j = 0; j < column.getCoefficientsCount (); j++) {
+        checkOwnConstraint (column.getConstraint (j));
+      }
+    }
+
+    final boolean appendToNativeModel = isVariableAppendable () && !hasPendingChanges ();
+    final int nativeOffset = variables.size ();
+    final Set<GurobiConstraint> previouslyModifiedConstrs = createIdentitySet ();
+    previouslyModifiedConstrs.addAll (modifiedConstrs);
+    final boolean previouslyModifiedObjective = objectiveModified;
+    final GurobiVariable[] addedVariables = new GurobiVariable[columns.size ()];
+
+    for (int i = 0; i < addedVariables.length; i++) {
+      final Column column = columns.get (i);
+      final GurobiVariable var;
+      if (column.getName () == null) {
+        var = new GurobiVariable (this, VariableType.CONTINUOUS);
+      } else {
+        var = new GurobiVariable (this, column.getName (), VariableType.CONTINUOUS);
+      }
+      var.setLowerBound (column.getLowerBound ());
+      var.setUpperBound (column.getUpperBound ());
+      addVariable (var);
+
+      objective.getExpression ().addTerm (column.getObjectiveCoefficient (), var);
+      for (int j = 0; j < column.getCoefficientsCount (); j++) {
+        column.getConstraint (j).getLhs ().addTerm (column.getCoefficient (j), var);
+      }
+
+      addedVariables[i] = var;
+    }
+
+    if (appendToNativeModel) {
+      final double objectiveFactor = determineObjectiveFactor (objective, determineProgramObjectiveSense ());
+      appendColumns (columns, addedVariables, nativeOffset, objectiveFactor);
+      // The appended columns already carry their coefficients, so only earlier modifications remain to be transferred
+      appendedVariables.clear ();
+      modified = false;
+      modifiedConstrs.retainAll (previouslyModifiedConstrs);
+      objectiveModified = previouslyModifiedObjective;
+    }
+
+    return Collections.unmodifiableList (Arrays.<Variable> asList (addedVariables));
+  }
+
+  private GurobiConstraint checkOwnConstraint (final Constraint constraint) {
+    if (!(constraint instanceof GurobiConstraint) || ((GurobiConstraint) constraint).getProgram () != this) {
+      throw new IllegalArgumentException ("Constraint " + constraint + " is not part of this program");
+    }
+
+    return (GurobiConstraint) constraint;
+  }
+
+  private void appendColumns (final List<Column> columns,
+                              final GurobiVariable[] addedVariables,
+                              final int nativeOffset,
+                              final double objectiveFactor) {
+    final int count = addedVariables.length;
+    final String[] varNames = new String[count];
+    final char[] nativeTypes = new char[count];
+    final double[] lowerBounds = new double[count];
+    final double[] upperBounds = new double[count];
+    final double[] objectiveCoefficients = new double[count];
+    final GRBColumn[] nativeColumns = new GRBColumn[count];
+
+    try {
+      for (int i = 0; i < count; i++) {
+        final Column column = columns.get (i);
+        final GurobiVariable var = addedVariables[i];
+        varNames[i] = var.getName ();
+        nativeTypes[i] = var.getNativeType ();
+        lowerBounds[i] = var.getLowerBound ();
+        upperBounds[i] = var.getUpperBound ();
+        objectiveCoefficients[i] = objectiveFactor * column.getObjectiveCoefficient ();
+
+        final int termsCount = column.getCoefficientsCount ();
+        final double[] coefficients = new double[termsCount];
+        final GRBConstr[] nativeConstraints = new GRBConstr[termsCount];
+        for (int j = 0; j < termsCount; j++) {
+          coefficients[j] = column.getCoefficient (j);
+          nativeConstraints[j] = ((GurobiConstraint) column.getConstraint (j)).getNativeConstraint ();
+        }
+
+        nativeColumns[i] = new GRBColumn ();
+        nativeColumns[i].addTerms (coefficients, nativeConstraints);
+      }
+
+      final GRBVar[] vars = nativeModel.addVars (lowerBounds, upperBounds, objectiveCoefficients, nativeTypes, varNames,
+                                                 nativeColumns);
+      for (int i = 0; i < count; i++) {
+        addedVariables[i].setNativeIndex (nativeOffset + i);
+        addedVariables[i].setNativeVariable (vars[i]);
+      }
+
+      nativeModel.update ();
+    } catch (GRBException e) {
+      throw new IllegalStateException ("Unable to add columns to native model", e);
+    }
+  }
+
+  @Override
+  public List<GurobiVariable> getVariables () {
     return Collections.unmodifiableList (new ArrayList<GurobiVariable> (variables));
   }
 
-  protected List<GurobiObjective> getObjectives () {
+  @Override
+  public List<GurobiObjective> getObjectives () {
     return Collections.unmodifiableList (objectives);
   }
 
-  protected List<GurobiConstraint> getConstraints () {
+  @Override
+  public List<GurobiConstraint> getConstraints () {
     return Collections.unmodifiableList (constraints);
   }
 
+  /**
+   * @return constraints which are transferred as native rows in the order of the native model, i.e. without the
+   *         quadratic constraints
+   */
+  protected List<GurobiConstraint> getRowConstraints () {
+    final List<GurobiConstraint> rows = new ArrayList<GurobiConstraint> (constraints.size ());
+    for (final GurobiConstraint constraint: constraints) {
+      if (!constraint.isQuadratic ()) {
+        rows.add (constraint);
+      }
+    }
+    return rows;
+  }
+
   protected void setNativeEnvironment (final GRBEnv env) {
     if (env == null) {
       throw new IllegalArgumentException ("GRBEnv parameter is mandatory and may not be null");
     }
 
+    // A native model keeps the environment it has been created in
+    if (nativeModel != null && env != nativeEnvironment) {
+      modified = true;
+    }
     this.nativeEnvironment = env;
   }
 
@@ -207,6 +776,35 @@ public class GurobiProgram implements Program {
     return nativeEnvironment;
   }
 
+  protected void setSolverParameters (final GurobiSolverParameters parameters) {
+    if (parameters == null) {
+      throw new IllegalArgumentException ("Parameter parameters is mandatory and may not be null");
+    }
+
+    this.solverParameters = parameters;
+  }
+
+  protected GurobiSolverParameters getSolverParameters () {
+    return solverParameters;
+  }
+
+  /**
+   * Sets the parameters of the next solve. A new native environment is only created if the program has none yet or if
+   * it has been created for other parameters, so repeated solves of a program reuse its environment. A new environment
+   * rebuilds the native model, except for released programs which keep the environment of their native model.
+   */
+  protected void prepareSolve (final GurobiSolverParameters parameters) {
+    if (parameters == null) {
+      throw new IllegalArgumentException ("Parameter parameters is mandatory and may not be null");
+    }
+
+    final boolean rebuildable = (nativeModel == null || !released);
+    if (nativeEnvironment == null || (parameters != solverParameters && rebuildable)) {
+      setNativeEnvironment (parameters.getNativeEnvironment ());
+    }
+    setSolverParameters (parameters);
+  }
+
   protected GRBModel getNativeModel () {
     if (nativeModel == null) {
       nativeModel = initialCreateNativeModel ();
@@ -222,9 +820,28 @@ public class GurobiProgram implements Program {
     }
 
     final ObjectiveSense programSense = determineProgramObjectiveSense ();
+    nativeMultiObjective = solverParameters.isNativeMultiObjective ();
+
     final GRBModel model = createNativeModel (programSense);
     addVarsAndObjectivesToModel (model, programSense);
+
+    if (solverParameters.isReleaseAfterTransfer ()) {
+      for (final GurobiObjective objective: objectives) {
+        objective.release ();
+      }
+    }
+
     addConstraintsToModel (model);
+    addQuadraticConstraintsToModel (model);
+    addRangeConstraintsToModel (model);
+    addGeneralConstraintsToModel (model);
+    released = solverParameters.isReleaseAfterTransfer ();
+    modified = false;
+    timeLimited = false;
+    clearModifiedVariables ();
+    modifiedConstrs.clear ();
+    objectiveModified = false;
+    clearPendingChanges ();
     return model;
   }
 
@@ -254,123 +871,813 @@ public class GurobiProgram implements Program {
 
   protected void addVarsAndObjectivesToModel (final GRBModel model,
                                               final ObjectiveSense programSense) {
-    final String[] varNames = new String[variables.size ()];
-    final char[] nativeTypes = new char[variables.size ()];
-    final double[] lowerBounds = new double[variables.size ()];
-    final double[] upperBounds = new double[variables.size ()];
-    final double[] objectiveCoefficients = new double[variables.size ()];
-
-    int count = 0;
+    final int totalCount = variables.size ();
+    final int chunkSize = Math.max (1, Math.min (solverParameters.getTransferChunkSize (), totalCount));
+    final GurobiVariable[] chunkVars = new GurobiVariable[chunkSize];
+    final String[] varNames = new String[chunkSize];
+    final char[] nativeTypes = new char[chunkSize];
+    final double[] lowerBounds = new double[chunkSize];
+    final double[] upperBounds = new double[chunkSize];
+    final double[] objectiveCoefficients = new double[chunkSize];
+
+    int index = 0;
     for (final GurobiVariable var: variables) {
-      double objective = 0.0;
-      for (final GurobiObjective obj: objectives) {
-        double factor = 1.0;
-        if (obj.getObjectiveSense () != programSense) {
-          factor = -1.0;
-        }
-
-        objective += factor * obj.getExpression ().getCoefficient (var);
-      }
-
-      char nativeType = '\0';
-      switch (var.getType ()) {
-        case CONTINUOUS:
-          nativeType = GRB.CONTINUOUS;
-          break;
-        case BINARY:
-          nativeType = GRB.BINARY;
-          break;
-        case INTEGER:
-          nativeType = GRB.INTEGER;
-          break;
-        case SEMI_CONTINUOUS:
-          nativeType = GRB.SEMICONT;
-          break;
-        case SEMI_INTEGER:
-          nativeType = GRB.SEMIINT;
-          break;
-        default:
-          throw new IllegalStateException ("Variables of type " + var.getType ().name () + " are not supported");
-      }
-
-      varNames[count] = var.getName ();
-      nativeTypes[count] = nativeType;
-      lowerBounds[count] = var.getLowerBound ();
-      upperBounds[count] = var.getUpperBound ();
-      objectiveCoefficients[count] = objective;
-      count++;
+      var.setNativeIndex (index++);
     }
 
-    try {
-      final GRBVar[] vars = model.addVars (lowerBounds, upperBounds, objectiveCoefficients, nativeTypes, varNames);
+    // Native objectives are set separately after the variables have been transferred
+    final double[] objective = new double[totalCount];
+    final double objectiveConstant = nativeMultiObjective ? 0.0 : aggregateObjectives (programSense, objective);
 
-      count = 0;
+    try {
+      int count = 0;
+      int transferredCount = 0;
       for (final GurobiVariable var: variables) {
-        if (var.hasInitialValue ()) {
-          vars[count].set (DoubleAttr.Start, var.getInitialValue ());
+        chunkVars[count] = var;
+        varNames[count] = var.getName ();
+        nativeTypes[count] = var.getNativeType ();
+        lowerBounds[count] = var.getLowerBound ();
+        upperBounds[count] = var.getUpperBound ();
+        objectiveCoefficients[count] = objective[var.getNativeIndex ()];
+        count++;
+
+        if (count == chunkSize) {
+          final GRBVar[] vars = model.addVars (lowerBounds, upperBounds, objectiveCoefficients, nativeTypes, varNames,
+                                               0, count);
+          assignNativeVariables (model, chunkVars, vars, count);
+          transferredCount += count;
+          count = 0;
+          fireVariablesTransferred (transferredCount, totalCount);
         }
+      }
 
-        var.setNativeVariable (vars[count]);
-        count++;
+      if (count > 0) {
+        final GRBVar[] vars = model.addVars (lowerBounds, upperBounds, objectiveCoefficients, nativeTypes, varNames, 0,
+                                             count);
+        assignNativeVariables (model, chunkVars, vars, count);
+        transferredCount += count;
+        fireVariablesTransferred (transferredCount, totalCount);
       }
 
-      model.update ();
+      model.set (DoubleAttr.ObjCon, objectiveConstant);
+
+      if (nativeMultiObjective || (solverParameters.isReleaseAfterTransfer () && objectives.size () > 1)) {
+        setNativeObjectives (model, programSense);
+      } else if (hasQuadraticObjectives ()) {
+        setQuadraticObjective (model, programSense, objective, objectiveConstant);
+      }
+      if (!piecewiseLinearTerms.isEmpty ()) {
+        setPiecewiseLinearObjectives (model, programSense, objective);
+      }
     } catch (GRBException e) {
       throw new IllegalStateException ("Unable to add variables and objectives to native model", e);
     }
   }
 
+  private void assignNativeVariables (final GRBModel model,
+                                      final GurobiVariable[] chunkVars,
+                                      final GRBVar[] vars,
+                                      final int count) throws GRBException {
+    double[] startValues = null;
+    for (int i = 0; i < count; i++) {
+      final GurobiVariable var = chunkVars[i];
+      if (var.hasInitialValue ()) {
+        if (startValues == null) {
+          startValues = new double[count];
+          Arrays.fill (startValues, GRB.UNDEFINED);
+        }
+        startValues[i] = var.getInitialValue ();
+      }
+
+      var.setNativeVariable (vars[i]);
+      chunkVars[i] = null;
+    }
+
+    if (startValues != null) {
+      model.set (DoubleAttr.Start, vars, startValues);
+    }
+
+    model.update ();
+  }
+
+  /**
+   * Scatters the terms of all objectives into the dense coefficient array, which is indexed by the native index of the
+   * variables, using the factor of every objective.
+   *
+   * @return the aggregated constant of all objectives
+   */
+  protected double aggregateObjectives (final ObjectiveSense programSense,
+                                        final double[] coefficients) {
+    double constant = 0.0;
+    for (final GurobiObjective obj: objectives) {
+      final double factor = determineObjectiveFactor (obj, programSense);
+      final GurobiExpression expr = (GurobiExpression) obj.getExpression ();
+
+      expr.addCoefficientsTo (coefficients, factor);
+      constant += factor * expr.getConstant ();
+    }
+    return constant;
+  }
+
+  private double aggregateCoefficient (final ObjectiveSense programSense,
+                                       final GurobiVariable var) {
+    double coefficient = 0.0;
+    for (final GurobiObjective obj: objectives) {
+      coefficient += determineObjectiveFactor (obj, programSense) * obj.getExpression ().getCoefficient (var);
+    }
+    return coefficient;
+  }
+
+  /**
+   * Sets every objective as a native objective. Without native multi-objective optimization all objectives get the
+   * same priority, so the native blended objective equals the aggregated one, while the value of every objective can
+   * still be determined after its expression has been released.
+   */
+  protected void setNativeObjectives (final GRBModel model,
+                                     final ObjectiveSense programSense) throws GRBException {
+    for (int i = 0; i < objectives.size (); i++) {
+      final GurobiObjective obj = objectives.get (i);
+      final GurobiExpression objExpr = (GurobiExpression) obj.getExpression ();
+      if (objExpr.hasQuadraticTerms ()) {
+        throw new UnsupportedOperationException ("Quadratic terms are not supported for native multi-objective " +
+                                                 "programs");
+      }
+      final GRBLinExpr expr = objExpr.getNativeExpression ();
+      final int priority = nativeMultiObjective ? obj.getPriority () : 0;
+
+      model.setObjectiveN (expr, i, priority, determineObjectiveFactor (obj, programSense),
+                           obj.getAbsoluteTolerance (), obj.getRelativeTolerance (), obj.getName ());
+    }
+  }
+
+  private boolean hasQuadraticObjectives () {
+    for (final GurobiObjective obj: objectives) {
+      if (((GurobiExpression) obj.getExpression ()).hasQuadraticTerms ()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Replaces the native objective by the aggregated objective including the quadratic terms of all objectives. The
+   * linear coefficients and the constant remain the same, so they can still be changed incrementally afterwards.
+   */
+  private void setQuadraticObjective (final GRBModel model,
+                                      final ObjectiveSense programSense,
+                                      final double[] coefficients,
+                                      final double constant) throws GRBException {
+    final int chunkSize = solverParameters.getTransferChunkSize ();
+    final GRBQuadExpr expr = new GRBQuadExpr ();
+    expr.addTerms (coefficients, getNativeVariables ());
+    expr.addConstant (constant);
+
+    for (final GurobiObjective obj: objectives) {
+      final double factor = determineObjectiveFactor (obj, programSense);
+      ((GurobiExpression) obj.getExpression ()).addQuadraticTermsTo (expr, factor, chunkSize);
+    }
+    model.setObjective (expr);
+  }
+
+  /**
+   * All objectives share the model sense, so objectives with a different sense are negated. The weight of an objective
+   * applies both to the native blended objective and to the aggregated objective.
+   */
+  protected static double determineObjectiveFactor (final GurobiObjective objective,
+                                                    final ObjectiveSense programSense) {
+    final double factor = (objective.getObjectiveSense () == programSense) ? 1.0 : -1.0;
+    return factor * objective.getWeight ();
+  }
+
+  /**
+   * Sets the native piecewise-linear objectives, which replace the aggregated linear coefficients of their variables.
+   */
+  private void setPiecewiseLinearObjectives (final GRBModel model,
+                                             final ObjectiveSense programSense,
+                                             final double[] coefficients) throws GRBException {
+    if (nativeMultiObjective) {
+      throw new UnsupportedOperationException ("Piecewise-linear terms are not supported for native multi-objective " +
+                                               "programs");
+    }
+
+    for (final GurobiPiecewiseLinearTerm term: piecewiseLinearTerms) {
+      final GurobiVariable var = term.getVariable ();
+      final double factor = determineObjectiveFactor (term.getObjective (), programSense);
+      model.setPWLObj (var.getNativeVariable (), term.getNativePoints (),
+                       term.getNativeValues (factor, coefficients[var.getNativeIndex ()]));
+    }
+  }
+
+  private void fireVariablesTransferred (final int transferredCount,
+                                         final int totalCount) {
+    final GurobiTransferListener listener = solverParameters.getTransferListener ();
+    if (listener != null) {
+      listener.variablesTransferred (transferredCount, totalCount);
+    }
+  }
+
   protected void addConstraintsToModel (final GRBModel model) {
-    final GRBLinExpr[] expressions = new GRBLinExpr[constraints.size ()];
-    final String[] constrNames = new String[constraints.size ()];
-    final char[] sense = new char[constraints.size ()];
-    final double[] rhs = new double[constraints.size ()];
+    final List<GurobiConstraint> rows = getRowConstraints ();
+    if (rows.isEmpty ()) {
+      return;
+    }
+
+    final int totalCount = rows.size ();
+    final int chunkSize = Math.min (solverParameters.getTransferChunkSize (), totalCount);
+    final GurobiRowBuffer buffer = new GurobiRowBuffer (variables.size (), chunkSize);
+    final GRBVar[] nativeVariables = getNativeVariables ();
 
     try {
-      int count = 0;
+      int transferredCount = 0;
+      for (final GurobiConstraint constraint: rows) {
+        buffer.addRow (constraint);
+
+        if (buffer.getRowCount () == chunkSize) {
+          transferredCount = transferRows (model, rows, buffer, nativeVariables, transferredCount);
+          fireConstraintsTransferred (transferredCount, totalCount);
+        }
+      }
+
+      if (buffer.getRowCount () > 0) {
+        transferredCount = transferRows (model, rows, buffer, nativeVariables, transferredCount);
+        fireConstraintsTransferred (transferredCount, totalCount);
+      }
+    } catch (GRBException e) {
+      throw new IllegalStateException ("Unable to add constraints to native model", e);
+    }
+  }
+
+  /**
+   * Transfers constraints with quadratic terms one by one, their terms are added to the native expression in bulk.
+   */
+  protected void addQuadraticConstraintsToModel (final GRBModel model) {
+    final int chunkSize = solverParameters.getTransferChunkSize ();
+
+    try {
+      boolean transferred = false;
       for (final GurobiConstraint constraint: constraints) {
-        final GRBLinExpr nativeLhsExpr = ((GurobiExpression) constraint.getLhs ()).getNativeExpression ();
-        final GRBLinExpr nativeRhsExpr = ((GurobiExpression) constraint.getRhs ()).getNativeExpression ();
-        nativeLhsExpr.multAdd (-1, nativeRhsExpr);
-
-        expressions[count] = nativeLhsExpr;
-        constrNames[count] = constraint.getName ();
-        rhs[count] = 0.0;
-
-        switch (constraint.getOperator ()) {
-          case EQUALS:
-            sense[count] = GRB.EQUAL;
-            break;
-          case GREATER_EQUALS:
-            sense[count] = GRB.GREATER_EQUAL;
-            break;
-          case LESS_EQUALS:
-            sense[count] = GRB.LESS_EQUAL;
-            break;
-          default:
-            throw new IllegalStateException ("Constraints with operator " + constraint.getOperator ().name () +
-                                             " are not supported");
+        if (!constraint.isQuadratic ()) {
+          continue;
         }
 
-        count++;
+        constraint.setNativeQuadraticConstraint (model.addQConstr (constraint.getNativeQuadraticExpression (chunkSize),
+                                                                   constraint.getNativeSense (),
+                                                                   constraint.getNativeRightHandSide (),
+                                                                   constraint.getName ()));
+        transferred = true;
+
+        if (solverParameters.isReleaseAfterTransfer ()) {
+          constraint.release ();
+        }
       }
 
-      final GRBConstr[] constrs = model.addConstrs (expressions, sense, rhs, constrNames);
+      if (transferred) {
+        model.update ();
+      }
+    } catch (GRBException e) {
+      throw new IllegalStateException ("Unable to add quadratic constraints to native model", e);
+    }
+  }
 
-      count = 0;
-      for (final GurobiConstraint constr: constraints) {
-        constr.setNativeConstraint (constrs[count]);
-        count++;
+  protected void addRangeConstraintsToModel (final GRBModel model) {
+    if (rangeConstraints.isEmpty ()) {
+      return;
+    }
+
+    final int totalCount = rangeConstraints.size ();
+    final int chunkSize = Math.min (solverParameters.getTransferChunkSize (), totalCount);
+
+    try {
+      int transferredCount = 0;
+      while (transferredCount < totalCount) {
+        final int count = Math.min (chunkSize, totalCount - transferredCount);
+        final GRBLinExpr[] expressions = new GRBLinExpr[count];
+        final double[] lowerBounds = new double[count];
+        final double[] upperBounds = new double[count];
+        final String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+          final GurobiRangeConstraint constraint = rangeConstraints.get (transferredCount + i);
+          expressions[i] = ((GurobiExpression) constraint.getExpression ()).getNativeExpression (false);
+          lowerBounds[i] = constraint.getNativeLowerBound ();
+          upperBounds[i] = constraint.getNativeUpperBound ();
+          names[i] = constraint.getName ();
+        }
+
+        final GRBConstr[] nativeConstraints = model.addRanges (expressions, lowerBounds, upperBounds, names);
+        for (int i = 0; i < count; i++) {
+          final GurobiRangeConstraint constraint = rangeConstraints.get (transferredCount + i);
+          constraint.setNativeConstraint (nativeConstraints[i]);
+
+          if (solverParameters.isReleaseAfterTransfer ()) {
+            constraint.release ();
+          }
+        }
+        transferredCount += count;
       }
+      model.update ();
 
+      // The range variables of the native range rows follow all other native variables in the order of the ranges
+      final GRBVar[] nativeVariables = model.getVars ();
+      final int offset = nativeVariables.length - totalCount;
+      for (int i = 0; i < totalCount; i++) {
+        rangeConstraints.get (i).setNativeRangeVariable (nativeVariables[offset + i]);
+      }
+    } catch (GRBException e) {
+      throw new IllegalStateException ("Unable to add range constraints to native model", e);
+    }
+  }
+
+  protected void addGeneralConstraintsToModel (final GRBModel model) {
+    if (indicatorConstraints.isEmpty () && sosConstraints.isEmpty () && generalConstraints.isEmpty ()) {
+      return;
+    }
+
+    try {
+      for (final GurobiIndicatorConstraint constraint: indicatorConstraints) {
+        model.addGenConstrIndicator (constraint.getIndicatorVariable ().getNativeVariable (),
+                                     constraint.getIndicatorValue () ? 1 : 0, constraint.getNativeExpression (),
+                                     constraint.getNativeSense (), constraint.getNativeRightHandSide (),
+                                     constraint.getName ());
+
+        if (solverParameters.isReleaseAfterTransfer ()) {
+          constraint.release ();
+        }
+      }
+      for (final GurobiSOSConstraint constraint: sosConstraints) {
+        model.addSOS (constraint.getNativeVariables (), constraint.getNativeWeights (), constraint.getNativeType ());
+      }
+      for (final GurobiGeneralConstraint constraint: generalConstraints) {
+        constraint.addTo (model);
+      }
       model.update ();
     } catch (GRBException e) {
-      throw new IllegalStateException ("Unable to add constraints to native model", e);
+      throw new IllegalStateException ("Unable to add general constraints to native model", e);
+    }
+  }
+
+  private int transferRows (final GRBModel model,
+                            final List<GurobiConstraint> rows,
+                            final GurobiRowBuffer buffer,
+                            final GRBVar[] nativeVariables,
+                            final int offset) throws GRBException {
+    final int rowCount = buffer.getRowCount ();
+    final GRBConstr[] nativeConstraints = buffer.transfer (model, nativeVariables);
+    buffer.clear ();
+    model.update ();
+
+    for (int i = 0; i < rowCount; i++) {
+      final GurobiConstraint constraint = rows.get (offset + i);
+      constraint.setNativeConstraint (nativeConstraints[i]);
+
+      if (solverParameters.isReleaseAfterTransfer ()) {
+        constraint.release ();
+      }
+    }
+
+    return offset + rowCount;
+  }
+
+  private void fireConstraintsTransferred (final int transferredCount,
+                                           final int totalCount) {
+    final GurobiTransferListener listener = solverParameters.getTransferListener ();
+    if (listener != null) {
+      listener.constraintsTransferred (transferredCount, totalCount);
+    }
+  }
+
+  protected GRBVar[] getNativeVariables () {
+    final GRBVar[] nativeVariables = new GRBVar[variables.size ()];
+    for (final GurobiVariable var: variables) {
+      nativeVariables[var.getNativeIndex ()] = var.getNativeVariable ();
+    }
+    return nativeVariables;
+  }
+
+  protected boolean isReleased () {
+    return released;
+  }
+
+  protected boolean isNativeMultiObjective () {
+    return nativeMultiObjective;
+  }
+
+  protected void setNativeMultiObjective (final boolean nativeMultiObjective) {
+    this.nativeMultiObjective = nativeMultiObjective;
+  }
+
+  /**
+   * @return whether every objective has been set as a native objective, either for native multi-objective optimization
+   *         or to determine the values of several objectives of a released program
+   */
+  protected boolean hasNativeObjectives () {
+    return nativeMultiObjective || (isReleased () && objectives.size () > 1);
+  }
+
+  /**
+   * Applies a changed priority, weight or tolerance of an objective to the native objectives of an existing native
+   * model in place.
+   */
+  protected void updateNativeObjective (final GurobiObjective obj) {
+    if (nativeModel != null) {
+      updateNativeObjective (nativeModel, obj);
+    }
+  }
+
+  protected void updateNativeObjective (final GRBModel model,
+                                        final GurobiObjective obj) {
+    if (!hasNativeObjectives ()) {
+      return;
+    }
+
+    int index = 0;
+    while (index < objectives.size () && objectives.get (index) != obj) {
+      index++;
+    }
+    if (index == objectives.size ()) {
+      return;
+    }
+
+    try {
+      model.getEnv ().set (GRB.IntParam.ObjNumber, index);
+      if (nativeMultiObjective) {
+        model.set (GRB.IntAttr.ObjNPriority, obj.getPriority ());
+      }
+      model.set (DoubleAttr.ObjNWeight, determineObjectiveFactor (obj, determineProgramObjectiveSense ()));
+      model.set (DoubleAttr.ObjNAbsTol, obj.getAbsoluteTolerance ());
+      model.set (DoubleAttr.ObjNRelTol, obj.getRelativeTolerance ());
+    } catch (GRBException e) {
+      throw new IllegalStateException ("Unable to update native objective " + obj.getName (), e);
+    }
+  }
+
+  /**
+   * @return whether a time limit has been set for the current native model
+   */
+  protected boolean isTimeLimited () {
+    return timeLimited;
+  }
+
+  protected void setTimeLimited (final boolean timeLimited) {
+    this.timeLimited = timeLimited;
+  }
+
+  /**
+   * Modified elements are tracked by identity, as their hash codes depend on the modified properties.
+   */
+  private static <T> Set<T> createIdentitySet () {
+    return Collections.newSetFromMap (new IdentityHashMap<T, Boolean> ());
+  }
+
+  protected void markModified () {
+    modified = true;
+  }
+
+  protected void markConstraintModified (final GurobiConstraint constr) {
+    if (nativeModel == null) {
+      return;
+    }
+
+    if (constr instanceof GurobiIndicatorConstraint || constr.getNativeQuadraticConstraint () != null) {
+      // Indicator and quadratic constraints are only transferred with the native model
+      modified = true;
+    } else if (constr.getNativeConstraint () != null) {
+      modifiedConstrs.add (constr);
     }
   }
 
+  protected void markObjectiveModified () {
+    if (nativeModel != null) {
+      objectiveModified = true;
+    }
+  }
+
+  /**
+   * @param var variable of the changed objective term, or null if the objective constant has changed
+   */
+  protected void markObjectiveModified (final GurobiVariable var) {
+    if (var != null && getPiecewiseLinearTerm (var) != null) {
+      // The native piecewise-linear objective of a variable includes its linear coefficient
+      markModified ();
+    } else if (var == null || hasNativeObjectives ()) {
+      markObjectiveModified ();
+    } else if (nativeModel != null && var.getNativeIndex () >= 0) {
+      // Variables without native index are appended with their aggregated objective coefficient
+      modifiedCosts.set (var.getNativeIndex ());
+    }
+  }
+
+  protected void markRangeConstraintModified (final GurobiRangeConstraint constraint) {
+    // Ranges are only transferred with the native model
+    if (nativeModel != null && constraint.getNativeConstraint () != null) {
+      modified = true;
+    }
+  }
+
+  /**
+   * Native range rows add a range variable each, which would precede variables appended afterwards in the native order.
+   */
+  private boolean isVariableAppendable () {
+    return isIncrementallyModifiable () && rangeConstraints.isEmpty ();
+  }
+
+  /**
+   * @return whether structural changes can be applied to the existing native model instead of rebuilding it
+   */
+  private boolean isIncrementallyModifiable () {
+    return nativeModel != null && !modified && !released;
+  }
+
+  private boolean hasPendingChanges () {
+    return !appendedVariables.isEmpty () || !appendedConstraints.isEmpty () || !removedVariables.isEmpty () ||
+           !removedConstraints.isEmpty ();
+  }
+
+  private void clearPendingChanges () {
+    appendedVariables.clear ();
+    appendedConstraints.clear ();
+    removedVariables.clear ();
+    removedConstraints.clear ();
+  }
+
+  protected boolean isModified () {
+    return modified;
+  }
+
+  protected void markBoundsModified (final GurobiVariable var) {
+    // Variables without native index are transferred completely with the next (re-)creation of the native model
+    if (var.getNativeIndex () >= 0) {
+      modifiedBounds.set (var.getNativeIndex ());
+    }
+  }
+
+  protected void markStartModified (final GurobiVariable var) {
+    if (var.getNativeIndex () >= 0) {
+      modifiedStarts.set (var.getNativeIndex ());
+    }
+  }
+
+  protected void clearModifiedVariables () {
+    modifiedBounds.clear ();
+    modifiedStarts.clear ();
+    modifiedCosts.clear ();
+  }
+
+  /**
+   * Transfers bounds, initial values and objective coefficients of all variables modified since the last transfer with
+   * one array attribute set per attribute.
+   */
+  protected void transferModifiedVariables (final GRBModel model) {
+    if (modifiedBounds.isEmpty () && modifiedStarts.isEmpty () && modifiedCosts.isEmpty ()) {
+      return;
+    }
+
+    final int boundsCount = modifiedBounds.cardinality ();
+    final GRBVar[] boundVars = new GRBVar[boundsCount];
+    final double[] lowerBounds = new double[boundsCount];
+    final double[] upperBounds = new double[boundsCount];
+
+    final int startsCount = modifiedStarts.cardinality ();
+    final GRBVar[] startVars = new GRBVar[startsCount];
+    final double[] startValues = new double[startsCount];
+
+    final int costsCount = modifiedCosts.cardinality ();
+    final GRBVar[] costVars = new GRBVar[costsCount];
+    final double[] costs = new double[costsCount];
+    final ObjectiveSense programSense = (costsCount > 0) ? determineProgramObjectiveSense () : null;
+
+    int boundIndex = 0;
+    int startIndex = 0;
+    int costIndex = 0;
+    for (final GurobiVariable var: variables) {
+      final int index = var.getNativeIndex ();
+      if (index < 0) {
+        continue;
+      }
+
+      if (modifiedBounds.get (index)) {
+        boundVars[boundIndex] = var.getNativeVariable ();
+        lowerBounds[boundIndex] = var.getLowerBound ();
+        upperBounds[boundIndex] = var.getUpperBound ();
+        boundIndex++;
+      }
+      if (modifiedStarts.get (index)) {
+        startVars[startIndex] = var.getNativeVariable ();
+        startValues[startIndex] = var.hasInitialValue () ? var.getInitialValue () : GRB.UNDEFINED;
+        startIndex++;
+      }
+      if (modifiedCosts.get (index)) {
+        costVars[costIndex] = var.getNativeVariable ();
+        costs[costIndex] = aggregateCoefficient (programSense, var);
+        costIndex++;
+      }
+    }
+
+    try {
+      if (boundsCount > 0) {
+        model.set (DoubleAttr.LB, boundVars, lowerBounds);
+        model.set (DoubleAttr.UB, boundVars, upperBounds);
+      }
+      if (startsCount > 0) {
+        model.set (DoubleAttr.Start, startVars, startValues);
+      }
+      if (costsCount > 0) {
+        model.set (DoubleAttr.Obj, costVars, costs);
+      }
+    } catch (GRBException e) {
+      throw new IllegalStateException ("Unable to transfer modified variables to native model", e);
+    }
+
+    clearModifiedVariables ();
+  }
+
   protected void updateNativeModel () {
-    // TODO: Implement me!
+    if (!modified) {
+      // Bounds, initial values and costs are tracked by native index, so they are transferred before indices shift
+      transferModifiedVariables (nativeModel);
+      if (hasPendingChanges ()) {
+        transferPendingChanges ();
+      }
+      transferModifications ();
+      return;
+    }
+    if (released) {
+      throw new IllegalStateException ("Program has been released after transfer and can not be modified anymore");
+    }
+
+    // Structural modifications are not applied incrementally, so the native model is rebuilt and warm started
+    GurobiWarmStart warmStart = null;
+    if (solverParameters.isUseBasisWarmStart () || solverParameters.isUseSolutionWarmStart ()) {
+      warmStart = new GurobiWarmStart (this, nativeModel, solverParameters.isUseBasisWarmStart (),
+                                       solverParameters.isUseSolutionWarmStart ());
+    }
+
+    nativeModel.dispose ();
+    nativeModel = null;
+    nativeModel = initialCreateNativeModel ();
+
+    if (warmStart != null) {
+      warmStart.applyTo (this, nativeModel);
+    }
+  }
+
+  /**
+   * Applies changed constraints and objectives of elements which are already part of the native model in place, so the
+   * native model keeps its basis and solution information.
+   */
+  private void transferModifications () {
+    if (modifiedConstrs.isEmpty () && !objectiveModified) {
+      return;
+    }
+    if (objectiveModified && released) {
+      throw new IllegalStateException ("Program has been released after transfer and can not be modified anymore");
+    }
+
+    try {
+      if (!modifiedConstrs.isEmpty ()) {
+        final GurobiRowBuffer buffer = new GurobiRowBuffer (variables.size (), modifiedConstrs.size ());
+        final GRBConstr[] nativeConstrs = new GRBConstr[modifiedConstrs.size ()];
+        int row = 0;
+        for (final GurobiConstraint constr: modifiedConstrs) {
+          buffer.addRow (constr);
+          nativeConstrs[row++] = constr.getNativeConstraint ();
+        }
+        buffer.update (nativeModel, getNativeVariables (), nativeConstrs);
+      }
+
+      if (objectiveModified) {
+        transferObjectives ();
+      }
+
+      // Later modifications read the rows of the native model, so pending changes are processed right away
+      nativeModel.update ();
+    } catch (GRBException e) {
+      throw new IllegalStateException ("Unable to transfer modifications to native model", e);
+    }
+
+    modifiedConstrs.clear ();
+    objectiveModified = false;
+  }
+
+  private void transferObjectives () throws GRBException {
+    final ObjectiveSense programSense = determineProgramObjectiveSense ();
+    nativeModel.set (GRB.IntAttr.ModelSense, (programSense == ObjectiveSense.MINIMIZE) ? 1 : -1);
+
+    if (!nativeMultiObjective) {
+      final GRBVar[] nativeVars = getNativeVariables ();
+      final double[] coefficients = new double[nativeVars.length];
+      final double constant = aggregateObjectives (programSense, coefficients);
+      if (!hasNativeObjectives () && hasQuadraticObjectives ()) {
+        // The factors of the quadratic terms depend on the senses and weights of the objectives as well
+        setQuadraticObjective (nativeModel, programSense, coefficients, constant);
+      } else {
+        nativeModel.set (DoubleAttr.Obj, nativeVars, coefficients);
+        nativeModel.set (DoubleAttr.ObjCon, constant);
+      }
+    }
+    if (hasNativeObjectives ()) {
+      setNativeObjectives (nativeModel, programSense);
+    }
+  }
+
+  /**
+   * Removes and appends variables and constraints in the native model. Removing shifts the native indices of all
+   * following variables, so remaining variables are renumbered before new variables are appended.
+   */
+  private void transferPendingChanges () {
+    try {
+      if (!removedConstraints.isEmpty () || !removedVariables.isEmpty ()) {
+        final int previousCount = removedVariables.size () + variables.size () - appendedVariables.size ();
+        for (final GRBConstr constraint: removedConstraints) {
+          nativeModel.remove (constraint);
+        }
+        for (final GRBVar var: removedVariables) {
+          nativeModel.remove (var);
+        }
+        nativeModel.update ();
+
+        final GurobiVariable[] indexedVariables = new GurobiVariable[previousCount];
+        for (final GurobiVariable var: variables) {
+          if (var.getNativeIndex () >= 0) {
+            indexedVariables[var.getNativeIndex ()] = var;
+          }
+        }
+        int index = 0;
+        for (final GurobiVariable var: indexedVariables) {
+          if (var != null) {
+            var.setNativeIndex (index++);
+          }
+        }
+      }
+
+      if (!appendedVariables.isEmpty ()) {
+        appendVariables ();
+      }
+      if (!appendedConstraints.isEmpty ()) {
+        appendConstraints ();
+      }
+    } catch (GRBException e) {
+      throw new IllegalStateException ("Unable to transfer added and removed elements to native model", e);
+    }
+
+    clearPendingChanges ();
+  }
+
+  private void appendVariables () throws GRBException {
+    final int count = appendedVariables.size ();
+    final int nativeOffset = variables.size () - count;
+    final ObjectiveSense programSense = determineProgramObjectiveSense ();
+    final String[] varNames = new String[count];
+    final char[] nativeTypes = new char[count];
+    final double[] lowerBounds = new double[count];
+    final double[] upperBounds = new double[count];
+    final double[] objectiveCoefficients = new double[count];
+    final double[] startValues = new double[count];
+    boolean hasStartValues = false;
+
+    for (int i = 0; i < count; i++) {
+      final GurobiVariable var = appendedVariables.get (i);
+      varNames[i] = var.getName ();
+      nativeTypes[i] = var.getNativeType ();
+      lowerBounds[i] = var.getLowerBound ();
+      upperBounds[i] = var.getUpperBound ();
+      objectiveCoefficients[i] = aggregateCoefficient (programSense, var);
+      hasStartValues |= var.hasInitialValue ();
+      startValues[i] = var.hasInitialValue () ? var.getInitialValue () : GRB.UNDEFINED;
+    }
+
+    final GRBVar[] vars = nativeModel.addVars (lowerBounds, upperBounds, objectiveCoefficients, nativeTypes, varNames,
+                                               0, count);
+    for (int i = 0; i < count; i++) {
+      appendedVariables.get (i).setNativeIndex (nativeOffset + i);
+      appendedVariables.get (i).setNativeVariable (vars[i]);
+    }
+    if (hasStartValues) {
+      nativeModel.set (DoubleAttr.Start, vars, startValues);
+    }
+    nativeModel.update ();
+  }
+
+  private void appendConstraints () throws GRBException {
+    final int totalCount = appendedConstraints.size ();
+    final int chunkSize = Math.min (solverParameters.getTransferChunkSize (), totalCount);
+    final GurobiRowBuffer buffer = new GurobiRowBuffer (variables.size (), chunkSize);
+    final GRBVar[] nativeVariables = getNativeVariables ();
+
+    int transferredCount = 0;
+    while (transferredCount < totalCount) {
+      final int count = Math.min (chunkSize, totalCount - transferredCount);
+      for (int i = 0; i < count; i++) {
+        buffer.addRow (appendedConstraints.get (transferredCount + i));
+      }
+
+      final GRBConstr[] nativeConstraints = buffer.transfer (nativeModel, nativeVariables);
+      buffer.clear ();
+      for (int i = 0; i < count; i++) {
+        appendedConstraints.get (transferredCount + i).setNativeConstraint (nativeConstraints[i]);
+      }
+      transferredCount += count;
+    }
+    nativeModel.update ();
   }
 
   @Override
@@ -388,8 +1695,13 @@ public class GurobiProgram implements Program {
     int result = 1;
     result = prime * result + name.hashCode ();
     result = prime * result + constraints.hashCode ();
+    result = prime * result + rangeConstraints.hashCode ();
     result = prime * result + objectives.hashCode ();
     result = prime * result + variables.hashCode ();
+    result = prime * result + indicatorConstraints.hashCode ();
+    result = prime * result + sosConstraints.hashCode ();
+    result = prime * result + generalConstraints.hashCode ();
+    result = prime * result + piecewiseLinearTerms.hashCode ();
     return result;
   }
 
@@ -411,10 +1723,25 @@ public class GurobiProgram implements Program {
     if (!constraints.equals (other.constraints)) {
       return false;
     }
+    if (!rangeConstraints.equals (other.rangeConstraints)) {
+      return false;
+    }
     if (!objectives.equals (other.objectives)) {
       return false;
     }
-    return variables.equals (other.variables);
+    if (!variables.equals (other.variables)) {
+      return false;
+    }
+    if (!indicatorConstraints.equals (other.indicatorConstraints)) {
+      return false;
+    }
+    if (!sosConstraints.equals (other.sosConstraints)) {
+      return false;
+    }
+    if (!generalConstraints.equals (other.generalConstraints)) {
+      return false;
+    }
+    return piecewiseLinearTerms.equals (other.piecewiseLinearTerms);
   }
 
   @Override
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.gurobi;
+
+import com.inform.jamps.modeling.QuadraticTerm;
+import com.inform.jamps.modeling.Variable;
+
+/**
+ * Read-only view of a single entry of {@link GurobiQuadraticTerms}, created on demand only.
+ */
+public class GurobiQuadraticTerm implements QuadraticTerm {
+
+  private final double         coefficient;
+
+  private final GurobiVariable variable1;
+
+  private final GurobiVariable variable2;
+
+  protected GurobiQuadraticTerm (final double coefficient,
+                                 final GurobiVariable variable1,
+                                 final GurobiVariable variable2) {
+    if (variable1 == null) {
+      throw new IllegalArgumentException ("Parameter variable1 is mandatory and may not be null");
+    }
+    if (variable2 == null) {
+      throw new IllegalArgumentException ("Parameter variable2 is mandatory and may not be null");
+    }
+
+    this.coefficient = coefficient;
+    this.variable1 = variable1;
+    this.variable2 = variable2;
+  }
+
+  @Override
+  public double getCoefficient () {
+    return coefficient;
+  }
+
+  @Override
+  public Variable getVariable1 () {
+    return variable1;
+  }
+
+  @Override
+  public Variable getVariable2 () {
+    return variable2;
+  }
+
+  @Override
+  public final int hashCode () {
+    final int prime = 31;
+    int result = 1;
+    long temp;
+    temp = Double.doubleToLongBits (coefficient);
+    result = prime * result + (int) (temp ^ (temp >>> 32));
+    result = prime * result + variable1.hashCode ();
+    result = prime * result + variable2.hashCode ();
+    return result;
+  }
+
+  @Override
+  public final boolean equals (final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (!(obj instanceof GurobiQuadraticTerm)) {
+      return false;
+    }
+    final GurobiQuadraticTerm other = (GurobiQuadraticTerm) obj;
+    if (Double.doubleToLongBits (coefficient) != Double.doubleToLongBits (other.coefficient)) {
+      return false;
+    }
+    if (!variable1.equals (other.variable1)) {
+      return false;
+    }
+    return variable2.equals (other.variable2);
+  }
+
+  @Override
+  public String toString () {
+    return coefficient + " " + variable1.toString () + " * " + variable2.toString ();
+  }
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.math3.util.Precision;
+
+import com.inform.jamps.modeling.QuadraticTerm;
+
+import gurobi.GRBException;
+import gurobi.GRBQuadExpr;
+import gurobi.GRBVar;
+
+/**
+ * Stores quadratic terms in coordinate format (COO) as triplets of parallel arrays instead of one object per term.
+ * The variables of a term are stored as indices into a table of the distinct variables of all terms, which are
+ * numbered in the order of their first occurrence. Terms are appended unsorted with the smaller index first,
+ * duplicates are merged by sorting the triplets by their indices before the terms are read the next time.
+ */
+public class GurobiQuadraticTerms {
+
+  private final static int                   INITIAL_CAPACITY         = 8;
+
+  private final static int                   INSERTION_SORT_THRESHOLD = 16;
+
+  private final static GurobiVariable[]      NO_VARIABLES             = new GurobiVariable[0];
+
+  private final static int[]                 NO_INDICES               = new int[0];
+
+  private final static double[]              NO_COEFFICIENTS          = new double[0];
+
+  private final static double                ZERO_COEFFICIENT         = 0.0;
+
+  // Variables are compared by identity, as their hash codes depend on their bounds
+  private final Map<GurobiVariable, Integer> variableIndices          = new IdentityHashMap<GurobiVariable, Integer> ();
+
+  private GurobiVariable[]                   variables                = NO_VARIABLES;
+
+  private int                                variableCount;
+
+  private int[]                              indices1                 = NO_INDICES;
+
+  private int[]                              indices2                 = NO_INDICES;
+
+  private double[]                           coefficients             = NO_COEFFICIENTS;
+
+  private int                                size;
+
+  private boolean                            merged                   = true;
+
+  protected void addTerm (final double coefficient,
+                          final GurobiVariable var1,
+                          final GurobiVariable var2) {
+    final int index1 = addVariable (var1);
+    final int index2 = addVariable (var2);
+    ensureCapacity (size + 1);
+
+    indices1[size] = Math.min (index1, index2);
+    indices2[size] = Math.max (index1, index2);
+    coefficients[size] = coefficient;
+    size++;
+    merged = false;
+  }
+
+  /**
+   * @return index of the variable, which is added to the table of variables if necessary
+   */
+  private int addVariable (final GurobiVariable var) {
+    final Integer index = variableIndices.get (var);
+    if (index != null) {
+      return index;
+    }
+
+    if (variableCount == variables.length) {
+      variables = Arrays.copyOf (variables, Math.max (INITIAL_CAPACITY, variableCount + (variableCount >> 1)));
+    }
+    variables[variableCount] = var;
+    variableIndices.put (var, variableCount);
+    return variableCount++;
+  }
+
+  private void ensureCapacity (final int capacity) {
+    if (capacity <= coefficients.length) {
+      return;
+    }
+
+    final int newCapacity = Math.max (Math.max (INITIAL_CAPACITY, capacity),
+                                      coefficients.length + (coefficients.length >> 1));
+    indices1 = Arrays.copyOf (indices1, newCapacity);
+    indices2 = Arrays.copyOf (indices2, newCapacity);
+    coefficients = Arrays.copyOf (coefficients, newCapacity);
+  }
+
+  protected double getCoefficient (final GurobiVariable var1,
+                                   final GurobiVariable var2) {
+    final int index = indexOf (var1, var2);
+    return (index < 0) ? ZERO_COEFFICIENT : coefficients[index];
+  }
+
+  /**
+   * @return whether a term of both variables has been removed
+   */
+  protected boolean removeTerm (final GurobiVariable var1,
+                                final GurobiVariable var2) {
+    final int index = indexOf (var1, var2);
+    if (index < 0) {
+      return false;
+    }
+
+    final int moved = size - index - 1;
+    System.arraycopy (indices1, index + 1, indices1, index, moved);
+    System.arraycopy (indices2, index + 1, indices2, index, moved);
+    System.arraycopy (coefficients, index + 1, coefficients, index, moved);
+    size--;
+    return true;
+  }
+
+  /**
+   * Removes all terms which contain one of the given variables. The variables are removed from the table of
+   * variables as well, their indices are not reused.
+   */
+  protected void removeTerms (final Set<GurobiVariable> variables) {
+    final boolean[] removed = new boolean[variableCount];
+    boolean found = false;
+    for (int i = 0; i < variableCount; i++) {
+      if (this.variables[i] != null && variables.contains (this.variables[i])) {
+        variableIndices.remove (this.variables[i]);
+        this.variables[i] = null;
+        removed[i] = true;
+        found = true;
+      }
+    }
+    if (!found) {
+      return;
+    }
+
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (!removed[indices1[i]] && !removed[indices2[i]]) {
+        move (i, count++);
+      }
+    }
+    size = count;
+  }
+
+  protected void clear () {
+    variableIndices.clear ();
+    variables = NO_VARIABLES;
+    variableCount = 0;
+    indices1 = NO_INDICES;
+    indices2 = NO_INDICES;
+    coefficients = NO_COEFFICIENTS;
+    size = 0;
+    merged = true;
+  }
+
+  protected boolean isEmpty () {
+    merge ();
+    return size == 0;
+  }
+
+  protected int size () {
+    merge ();
+    return size;
+  }
+
+  /**
+   * @return terms ordered by the first occurrence of their variables
+   */
+  protected List<QuadraticTerm> getTerms () {
+    merge ();
+    if (size == 0) {
+      return Collections.emptyList ();
+    }
+
+    final List<QuadraticTerm> terms = new ArrayList<QuadraticTerm> (size);
+    for (int i = 0; i < size; i++) {
+      terms.add (new GurobiQuadraticTerm (coefficients[i], variables[indices1[i]], variables[indices2[i]]));
+    }
+    return terms;
+  }
+
+  /**
+   * Adds the terms scaled by the given factor to a native expression in bulk. The native variables are looked up once
+   * per distinct variable and the native arrays are allocated per chunk, so the terms are never duplicated completely.
+   */
+  protected void addTo (final GRBQuadExpr expr,
+                        final double factor,
+                        final int chunkSize) throws GRBException {
+    merge ();
+    if (size == 0) {
+      return;
+    }
+
+    final GRBVar[] nativeVariables = new GRBVar[variableCount];
+    for (int i = 0; i < variableCount; i++) {
+      if (variables[i] != null) {
+        nativeVariables[i] = variables[i].getNativeVariable ();
+      }
+    }
+
+    final int length = Math.min (chunkSize, size);
+    final double[] chunkCoefficients = new double[length];
+    final GRBVar[] chunkVariables1 = new GRBVar[length];
+    final GRBVar[] chunkVariables2 = new GRBVar[length];
+
+    for (int offset = 0; offset < size; offset += length) {
+      final int count = Math.min (length, size - offset);
+      for (int i = 0; i < count; i++) {
+        chunkCoefficients[i] = factor * coefficients[offset + i];
+        chunkVariables1[i] = nativeVariables[indices1[offset + i]];
+        chunkVariables2[i] = nativeVariables[indices2[offset + i]];
+      }
+      expr.addTerms (chunkCoefficients, chunkVariables1, chunkVariables2, 0, count);
+    }
+  }
+
+  protected double evaluate (final GurobiSolution solution) {
+    if (size == 0) {
+      return 0.0;
+    }
+
+    final double[] values = new double[variableCount];
+    for (int i = 0; i < variableCount; i++) {
+      if (variables[i] != null) {
+        values[i] = solution.getVariableValue (variables[i]);
+      }
+    }
+
+    double value = 0.0;
+    for (int i = 0; i < size; i++) {
+      value += coefficients[i] * values[indices1[i]] * values[indices2[i]];
+    }
+    return value;
+  }
+
+  /**
+   * Sorts the triplets by their indices and sums up the coefficients of duplicate terms. Terms whose coefficients
+   * cancel out are dropped.
+   */
+  protected void merge () {
+    if (merged) {
+      return;
+    }
+
+    sort (0, size);
+
+    int count = 0;
+    int i = 0;
+    while (i < size) {
+      double coefficient = coefficients[i];
+      int j = i + 1;
+      while (j < size && indices1[j] == indices1[i] && indices2[j] == indices2[i]) {
+        coefficient += coefficients[j];
+        j++;
+      }
+
+      if (!Precision.equals (coefficient, ZERO_COEFFICIENT)) {
+        move (i, count);
+        coefficients[count] = coefficient;
+        count++;
+      }
+      i = j;
+    }
+
+    size = count;
+    merged = true;
+  }
+
+  private int indexOf (final GurobiVariable var1,
+                       final GurobiVariable var2) {
+    final Integer index1 = variableIndices.get (var1);
+    final Integer index2 = variableIndices.get (var2);
+    if (index1 == null || index2 == null) {
+      return -1;
+    }
+    return indexOf (Math.min (index1, index2), Math.max (index1, index2));
+  }
+
+  private int indexOf (final int index1,
+                       final int index2) {
+    merge ();
+
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      final int result = compare (middle, index1, index2);
+      if (result < 0) {
+        low = middle + 1;
+      } else if (result > 0) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Sorts the triplets in the range from inclusive to exclusive index with a three-way quicksort, which handles the
+   * expected duplicates in linear time. Recursing into the smaller partition only bounds the depth of the stack.
+   */
+  private void sort (final int from,
+                     final int to) {
+    int low = from;
+    int high = to;
+    while (high - low > INSERTION_SORT_THRESHOLD) {
+      final int middle = (low + high) >>> 1;
+      final int pivot1 = indices1[middle];
+      final int pivot2 = indices2[middle];
+
+      int lower = low;
+      int greater = high;
+      int i = low;
+      while (i < greater) {
+        final int result = compare (i, pivot1, pivot2);
+        if (result < 0) {
+          swap (lower++, i++);
+        } else if (result > 0) {
+          swap (i, --greater);
+        } else {
+          i++;
+        }
+      }
+
+      if (lower - low < high - greater) {
+        sort (low, lower);
+        low = greater;
+      } else {
+        sort (greater, high);
+        high = lower;
+      }
+    }
+
+    for (int i = low + 1; i < high; i++) {
+      for (int j = i; j > low && compare (j, indices1[j - 1], indices2[j - 1]) < 0; j--) {
+        swap (j, j - 1);
+      }
+    }
+  }
+
+  private int compare (final int index,
+                       final int index1,
+                       final int index2) {
+    if (indices1[index] != index1) {
+      return (indices1[index] < index1) ? -1 : 1;
+    }
+    if (indices2[index] != index2) {
+      return (indices2[index] < index2) ? -1 : 1;
+    }
+    return 0;
+  }
+
+  private void swap (final int index1,
+                     final int index2) {
+    final int first = indices1[index1];
+    indices1[index1] = indices1[index2];
+    indices1[index2] = first;
+
+    final int second = indices2[index1];
+    indices2[index1] = indices2[index2];
+    indices2[index2] = second;
+
+    final double coefficient = coefficients[index1];
+    coefficients[index1] = coefficients[index2];
+    coefficients[index2] = coefficient;
+  }
+
+  private void move (final int from,
+                     final int to) {
+    indices1[to] = indices1[from];
+    indices2[to] = indices2[from];
+    coefficients[to] = coefficients[from];
+  }
+
+  /**
+   * The order of the terms depends on the order in which their variables occurred first, so the hash codes of the
+   * terms are summed up independent of their order.
+   */
+  @Override
+  public final int hashCode () {
+    merge ();
+
+    final int prime = 31;
+    int result = 1;
+    for (int i = 0; i < size; i++) {
+      final long temp = Double.doubleToLongBits (coefficients[i]);
+      result += prime * (int) (temp ^ (temp >>> 32)) + variables[indices1[i]].hashCode () +
+                variables[indices2[i]].hashCode ();
+    }
+    return result;
+  }
+
+  @Override
+  public final boolean equals (final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (!(obj instanceof GurobiQuadraticTerms)) {
+      return false;
+    }
+    final GurobiQuadraticTerms other = (GurobiQuadraticTerms) obj;
+    merge ();
+    other.merge ();
+    if (size != other.size) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      final int index = other.indexOf (variables[indices1[i]], variables[indices2[i]]);
+      if (index < 0 ||
+          Double.doubleToLongBits (coefficients[i]) != Double.doubleToLongBits (other.coefficients[index])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString () {
+    return getTerms ().toString ();
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.RangeConstraint;
+
+import gurobi.GRBConstr;
+import gurobi.GRBVar;
+
+/**
+ * Range constraint with a single expression, which is transferred as one native range row. Native range rows add a
+ * range variable to the native model each.
+ */
+public class GurobiRangeConstraint implements RangeConstraint {
+
+  private final static AtomicLong AUTO_NAME_COUNTER = new AtomicLong (0);
+
+  private final GurobiProgram     program;
+
+  private final String            name;
+
+  private final GurobiExpression  expression;
+
+  private double                  lowerBound;
+
+  private double                  upperBound;
+
+  private GRBConstr               nativeConstraint;
+
+  private GRBVar                  nativeRangeVariable;
+
+  protected GurobiRangeConstraint (final GurobiProgram program,
+                                   final double lowerBound,
+                                   final double upperBound) {
+    this (program, "range" + AUTO_NAME_COUNTER.incrementAndGet (), lowerBound, upperBound);
+  }
+
+  protected GurobiRangeConstraint (final GurobiProgram program,
+                                   final String name,
+                                   final double lowerBound,
+                                   final double upperBound) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (name == null) {
+      throw new IllegalArgumentException ("Parameter name is mandatory and may not be null");
+    }
+    checkBounds (lowerBound, upperBound);
+
+    this.program = program;
+    this.name = name;
+    this.lowerBound = lowerBound;
+    this.upperBound = upperBound;
+    this.expression = new GurobiExpression (this);
+  }
+
+  private static void checkBounds (final double lowerBound,
+                                   final double upperBound) {
+    if (lowerBound > upperBound) {
+      throw new IllegalArgumentException ("Parameter lowerBound may not be greater than parameter upperBound");
+    }
+  }
+
+  @Override
+  public String getName () {
+    return name;
+  }
+
+  @Override
+  public Expression getExpression () {
+    return expression;
+  }
+
+  @Override
+  public double getLowerBound () {
+    return lowerBound;
+  }
+
+  @Override
+  public double getUpperBound () {
+    return upperBound;
+  }
+
+  @Override
+  public void setBounds (final double lowerBound,
+                         final double upperBound) {
+    checkBounds (lowerBound, upperBound);
+
+    this.lowerBound = lowerBound;
+    this.upperBound = upperBound;
+    program.markRangeConstraintModified (this);
+  }
+
+  protected GurobiProgram getProgram () {
+    return program;
+  }
+
+  protected void release () {
+    expression.release ();
+  }
+
+  /**
+   * @return native lower bound, which includes the constant of the expression
+   */
+  protected double getNativeLowerBound () {
+    return lowerBound - expression.getConstant ();
+  }
+
+  /**
+   * @return native upper bound, which includes the constant of the expression
+   */
+  protected double getNativeUpperBound () {
+    return upperBound - expression.getConstant ();
+  }
+
+  protected void setNativeConstraint (final GRBConstr grbConstr) {
+    if (grbConstr == null) {
+      throw new IllegalArgumentException ("GRBConstr parameter is mandatory and may not be null");
+    }
+
+    this.nativeConstraint = grbConstr;
+  }
+
+  protected GRBConstr getNativeConstraint () {
+    return nativeConstraint;
+  }
+
+  protected void setNativeRangeVariable (final GRBVar grbVar) {
+    if (grbVar == null) {
+      throw new IllegalArgumentException ("GRBVar parameter is mandatory and may not be null");
+    }
+
+    this.nativeRangeVariable = grbVar;
+  }
+
+  /**
+   * @return range variable, which the native model has added for the range row
+   */
+  protected GRBVar getNativeRangeVariable () {
+    return nativeRangeVariable;
+  }
+
+  @Override
+  public final int hashCode () {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + name.hashCode ();
+    result = prime * result + expression.hashCode ();
+    long temp;
+    temp = Double.doubleToLongBits (lowerBound);
+    result = prime * result + (int) (temp ^ (temp >>> 32));
+    temp = Double.doubleToLongBits (upperBound);
+    result = prime * result + (int) (temp ^ (temp >>> 32));
+    return result;
+  }
+
+  @Override
+  public final boolean equals (final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (!(obj instanceof GurobiRangeConstraint)) {
+      return false;
+    }
+    final GurobiRangeConstraint other = (GurobiRangeConstraint) obj;
+    if (!name.equals (other.name)) {
+      return false;
+    }
+    if (!expression.equals (other.expression)) {
+      return false;
+    }
+    if (Double.doubleToLongBits (lowerBound) != Double.doubleToLongBits (other.lowerBound)) {
+      return false;
+    }
+    return Double.doubleToLongBits (upperBound) == Double.doubleToLongBits (other.upperBound);
+  }
+
+  @Override
+  public String toString () {
+    return name + ": " + lowerBound + " <= " + expression + " <= " + upperBound;
+  }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import gurobi.GRB.CharAttr;
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRBConstr;
+import gurobi.GRBException;
+import gurobi.GRBLinExpr;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+/**
+ * Buffers constraints as sparse rows in compressed row storage (CSR) before transferring them to a native model. All
+ * terms of the right-hand side are moved to the left-hand side and all constants are folded into the right-hand side,
+ * so each constraint results in exactly one row. Column indices refer to the native index of the variables.
+ */
+public class GurobiRowBuffer {
+
+  private final static int   NON_ZEROS_PER_ROW_ESTIMATE = 8;
+
+  private final static int   NO_POSITION                = -1;
+
+  private int[]              positions;
+
+  private int[]              rowStarts;
+
+  private char[]             senses;
+
+  private double[]           rhs;
+
+  private String[]           names;
+
+  private int[]              indices;
+
+  private double[]           values;
+
+  private int                rowCount;
+
+  private int                nonZeroCount;
+
+  private int                maxRowLength;
+
+  private GRBLinExpr[]       expressions                = new GRBLinExpr[0];
+
+  private GRBVar[]           rowVariables               = new GRBVar[0];
+
+  private double[]           rowValues                  = new double[0];
+
+  protected GurobiRowBuffer (final int variablesCount,
+                             final int rowCapacity) {
+    if (variablesCount < 0) {
+      throw new IllegalArgumentException ("Parameter variablesCount may not be negative");
+    }
+    if (rowCapacity < 1) {
+      throw new IllegalArgumentException ("Parameter rowCapacity must be positive");
+    }
+
+    this.positions = new int[variablesCount];
+    Arrays.fill (positions, NO_POSITION);
+
+    this.rowStarts = new int[rowCapacity + 1];
+    this.senses = new char[rowCapacity];
+    this.rhs = new double[rowCapacity];
+    this.names = new String[rowCapacity];
+    this.indices = new int[rowCapacity * NON_ZEROS_PER_ROW_ESTIMATE];
+    this.values = new double[rowCapacity * NON_ZEROS_PER_ROW_ESTIMATE];
+  }
+
+  protected void addRow (final GurobiConstraint constraint) {
+    if (constraint == null) {
+      throw new IllegalArgumentException ("Parameter constraint is mandatory and may not be null");
+    }
+
+    final GurobiExpression lhs = (GurobiExpression) constraint.getLhs ();
+    final GurobiExpression rhsExpr = (GurobiExpression) constraint.getRhs ();
+
+    startRow ();
+    lhs.addTermsTo (this, 1.0);
+    rhsExpr.addTermsTo (this, -1.0);
+    addConstant (lhs.getConstant () - rhsExpr.getConstant ());
+    finishRow (constraint.getNativeSense (), constraint.getName ());
+  }
+
+  protected void startRow () {
+    if (rowCount == senses.length) {
+      growRows ();
+    }
+
+    rhs[rowCount] = 0.0;
+  }
+
+  protected void addTerm (final GurobiVariable variable,
+                          final double coefficient) {
+    final int index = variable.getNativeIndex ();
+    if (index < 0) {
+      throw new IllegalStateException ("Variable " + variable.getName () + " is not part of the native model");
+    }
+    if (index >= positions.length) {
+      growPositions (index);
+    }
+
+    final int position = positions[index];
+    if (position == NO_POSITION) {
+      if (nonZeroCount == indices.length) {
+        growNonZeros ();
+      }
+
+      indices[nonZeroCount] = index;
+      values[nonZeroCount] = coefficient;
+      positions[index] = nonZeroCount;
+      nonZeroCount++;
+    } else {
+      values[position] += coefficient;
+    }
+  }
+
+  protected void addConstant (final double constant) {
+    // Constants are located on the left-hand side of the row
+    rhs[rowCount] -= constant;
+  }
+
+  protected void finishRow (final char sense,
+                            final String name) {
+    // Reset scatter positions and drop coefficients which canceled each other out
+    final int rowStart = rowStarts[rowCount];
+    int target = rowStart;
+    for (int i = rowStart; i < nonZeroCount; i++) {
+      positions[indices[i]] = NO_POSITION;
+
+      if (values[i] != 0.0) {
+        indices[target] = indices[i];
+        values[target] = values[i];
+        target++;
+      }
+    }
+
+    nonZeroCount = target;
+    maxRowLength = Math.max (maxRowLength, nonZeroCount - rowStart);
+
+    senses[rowCount] = sense;
+    names[rowCount] = name;
+    rowCount++;
+    rowStarts[rowCount] = nonZeroCount;
+  }
+
+  private void growPositions (final int index) {
+    final int oldLength = positions.length;
+    positions = Arrays.copyOf (positions, Math.max (index + 1, oldLength * 2));
+    Arrays.fill (positions, oldLength, positions.length, NO_POSITION);
+  }
+
+  private void growRows () {
+    final int capacity = senses.length * 2;
+    rowStarts = Arrays.copyOf (rowStarts, capacity + 1);
+    senses = Arrays.copyOf (senses, capacity);
+    rhs = Arrays.copyOf (rhs, capacity);
+    names = Arrays.copyOf (names, capacity);
+  }
+
+  private void growNonZeros () {
+    final int capacity = Math.max (indices.length * 2, NON_ZEROS_PER_ROW_ESTIMATE);
+    indices = Arrays.copyOf (indices, capacity);
+    values = Arrays.copyOf (values, capacity);
+  }
+
+  protected GRBConstr[] transfer (final GRBModel model,
+                                  final GRBVar[] nativeVariables) throws GRBException {
+    // Native expressions and row arrays are reused for every chunk transferred through this buffer
+    if (expressions.length < rowCount) {
+      final int oldLength = expressions.length;
+      expressions = Arrays.copyOf (expressions, senses.length);
+      for (int row = oldLength; row < expressions.length; row++) {
+        expressions[row] = new GRBLinExpr ();
+      }
+    }
+    if (rowValues.length < maxRowLength) {
+      rowVariables = new GRBVar[maxRowLength];
+      rowValues = new double[maxRowLength];
+    }
+
+    for (int row = 0; row < rowCount; row++) {
+      final int start = rowStarts[row];
+      final int length = rowStarts[row + 1] - start;
+      for (int i = 0; i < length; i++) {
+        rowVariables[i] = nativeVariables[indices[start + i]];
+      }
+      System.arraycopy (values, start, rowValues, 0, length);
+
+      final GRBLinExpr expr = expressions[row];
+      expr.clear ();
+      expr.addTerms (rowValues, rowVariables, 0, length);
+    }
+
+    return model.addConstrs (expressions, senses, rhs, names, 0, rowCount);
+  }
+
+  /**
+   * Replaces the rows of existing native constraints by the buffered rows in place, with one native constraint per
+   * buffered row. Coefficients of variables which are not part of a buffered row anymore are set to zero.
+   */
+  protected void update (final GRBModel model,
+                         final GRBVar[] nativeVariables,
+                         final GRBConstr[] constraints) throws GRBException {
+    if (constraints.length != rowCount) {
+      throw new IllegalArgumentException ("Parameter constraints must contain one constraint per buffered row");
+    }
+
+    final GRBLinExpr[] previousRows = new GRBLinExpr[rowCount];
+    int capacity = nonZeroCount;
+    for (int row = 0; row < rowCount; row++) {
+      previousRows[row] = model.getRow (constraints[row]);
+      capacity += previousRows[row].size ();
+    }
+
+    final GRBConstr[] changedConstraints = new GRBConstr[capacity];
+    final GRBVar[] changedVariables = new GRBVar[capacity];
+    final double[] changedValues = new double[capacity];
+    final Map<GRBVar, Double> coefficients = new IdentityHashMap<GRBVar, Double> ();
+
+    int count = 0;
+    for (int row = 0; row < rowCount; row++) {
+      final GRBLinExpr previousRow = previousRows[row];
+      for (int i = 0; i < previousRow.size (); i++) {
+        coefficients.put (previousRow.getVar (i), 0.0);
+      }
+      for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+        coefficients.put (nativeVariables[indices[i]], values[i]);
+      }
+
+      for (final Map.Entry<GRBVar, Double> entry: coefficients.entrySet ()) {
+        changedConstraints[count] = constraints[row];
+        changedVariables[count] = entry.getKey ();
+        changedValues[count] = entry.getValue ();
+        count++;
+      }
+      coefficients.clear ();
+    }
+
+    if (count > 0) {
+      model.chgCoeffs (Arrays.copyOf (changedConstraints, count), Arrays.copyOf (changedVariables, count),
+                       Arrays.copyOf (changedValues, count));
+    }
+    model.set (DoubleAttr.RHS, constraints, Arrays.copyOf (rhs, rowCount));
+    model.set (CharAttr.Sense, constraints, Arrays.copyOf (senses, rowCount));
+  }
+
+  protected void clear () {
+    Arrays.fill (names, 0, rowCount, null);
+    Arrays.fill (rowVariables, null);
+    rowCount = 0;
+    nonZeroCount = 0;
+    maxRowLength = 0;
+  }
+
+  protected int getRowCount () {
+    return rowCount;
+  }
+
+  protected int getNonZeroCount () {
+    return nonZeroCount;
+  }
+
+  protected int getRowStart (final int row) {
+    return rowStarts[row];
+  }
+
+  protected int getRowLength (final int row) {
+    return rowStarts[row + 1] - rowStarts[row];
+  }
+
+  protected int getIndex (final int position) {
+    return indices[position];
+  }
+
+  protected double getValue (final int position) {
+    return values[position];
+  }
+
+  protected char getSense (final int row) {
+    return senses[row];
+  }
+
+  protected double getRhs (final int row) {
+    return rhs[row];
+  }
+}
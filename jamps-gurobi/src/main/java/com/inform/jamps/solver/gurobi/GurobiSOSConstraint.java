@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.inform.jamps.modeling.SOSConstraint;
+import com.inform.jamps.modeling.SOSType;
+import com.inform.jamps.modeling.Variable;
+
+import gurobi.GRB;
+import gurobi.GRBVar;
+
+public class GurobiSOSConstraint implements SOSConstraint {
+
+  private final String           name;
+
+  private final SOSType          type;
+
+  private final GurobiVariable[] variables;
+
+  private final double[]         weights;
+
+  protected GurobiSOSConstraint (final String name,
+                                 final SOSType type,
+                                 final GurobiVariable[] variables,
+                                 final double[] weights) {
+    if (name == null) {
+      throw new IllegalArgumentException ("Parameter name is mandatory and may not be null");
+    }
+    if (type == null) {
+      throw new IllegalArgumentException ("Parameter type is mandatory and may not be null");
+    }
+    if (variables == null) {
+      throw new IllegalArgumentException ("Parameter variables is mandatory and may not be null");
+    }
+    if (weights == null) {
+      throw new IllegalArgumentException ("Parameter weights is mandatory and may not be null");
+    }
+    if (weights.length != variables.length) {
+      throw new IllegalArgumentException ("Parameters variables and weights must have the same length");
+    }
+
+    this.name = name;
+    this.type = type;
+    this.variables = variables.clone ();
+    this.weights = weights.clone ();
+  }
+
+  @Override
+  public String getName () {
+    return name;
+  }
+
+  @Override
+  public SOSType getType () {
+    return type;
+  }
+
+  @Override
+  public List<Variable> getVariables () {
+    return Collections.unmodifiableList (Arrays.<Variable> asList (variables));
+  }
+
+  @Override
+  public double[] getWeights () {
+    return weights.clone ();
+  }
+
+  protected boolean contains (final GurobiVariable variable) {
+    for (final GurobiVariable var: variables) {
+      if (var == variable) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  protected GRBVar[] getNativeVariables () {
+    final GRBVar[] nativeVariables = new GRBVar[variables.length];
+    for (int i = 0; i < variables.length; i++) {
+      nativeVariables[i] = variables[i].getNativeVariable ();
+    }
+    return nativeVariables;
+  }
+
+  protected double[] getNativeWeights () {
+    return weights;
+  }
+
+  protected int getNativeType () {
+    return (type == SOSType.TYPE1) ? GRB.SOS_TYPE1 : GRB.SOS_TYPE2;
+  }
+
+  @Override
+  public final int hashCode () {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + name.hashCode ();
+    result = prime * result + type.hashCode ();
+    result = prime * result + Arrays.hashCode (variables);
+    result = prime * result + Arrays.hashCode (weights);
+    return result;
+  }
+
+  @Override
+  public final boolean equals (final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (!(obj instanceof GurobiSOSConstraint)) {
+      return false;
+    }
+    final GurobiSOSConstraint other = (GurobiSOSConstraint) obj;
+    if (!name.equals (other.name)) {
+      return false;
+    }
+    if (type != other.type) {
+      return false;
+    }
+    if (!Arrays.equals (variables, other.variables)) {
+      return false;
+    }
+    return Arrays.equals (weights, other.weights);
+  }
+
+  @Override
+  public String toString () {
+    return name;
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.Scenario;
+import com.inform.jamps.solver.stochastic.StochasticScenario;
+
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRBConstr;
+import gurobi.GRBException;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+/**
+ * Resolves the changes of a scenario to native indices, so they can be applied in place to the native model of the
+ * base program or to any copy of it. The previous values are read before applying, which allows to revert the changes
+ * afterwards.
+ */
+public class GurobiScenarioDelta {
+
+  private final Scenario scenario;
+
+  private final int[]    constraintIndices;
+
+  private final double[] rightHandSides;
+
+  private final int[]    boundIndices;
+
+  private final double[] lowerBounds;
+
+  private final double[] upperBounds;
+
+  private final int[]    objectiveIndices;
+
+  private final double[] objectiveValues;
+
+  private final boolean  relativeObjectiveValues;
+
+  private GRBModel       appliedModel;
+
+  private GRBConstr[]    appliedConstraints;
+
+  private GRBVar[]       appliedBoundVariables;
+
+  private GRBVar[]       appliedObjectiveVariables;
+
+  private double[]       previousRightHandSides;
+
+  private double[]       previousLowerBounds;
+
+  private double[]       previousUpperBounds;
+
+  private double[]       previousObjectiveValues;
+
+  protected GurobiScenarioDelta (final GurobiProgram program,
+                                 final Map<GurobiConstraint, Integer> constraintPositions,
+                                 final Scenario scenario) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (constraintPositions == null) {
+      throw new IllegalArgumentException ("Parameter constraintPositions is mandatory and may not be null");
+    }
+    if (scenario == null) {
+      throw new IllegalArgumentException ("Parameter scenario is mandatory and may not be null");
+    }
+    if (scenario instanceof StochasticScenario && ((StochasticScenario) scenario).getCoefficientChangesCount () > 0) {
+      throw new IllegalArgumentException ("Coefficient changes of scenario " + scenario.getName () +
+                                          " are only supported by the deterministic equivalent");
+    }
+
+    this.scenario = scenario;
+
+    final int rhsCount = scenario.getRightHandSideChangesCount ();
+    this.constraintIndices = new int[rhsCount];
+    this.rightHandSides = new double[rhsCount];
+    for (int i = 0; i < rhsCount; i++) {
+      final Constraint constraint = scenario.getConstraint (i);
+      final Integer position = constraintPositions.get (constraint);
+      if (position == null) {
+        throw new IllegalArgumentException ("Constraint " + constraint.getName () + " of scenario " +
+                                            scenario.getName () + " is not part of the program");
+      }
+
+      constraintIndices[i] = position;
+      rightHandSides[i] = scenario.getRightHandSide (i);
+    }
+
+    final int boundsCount = scenario.getBoundChangesCount ();
+    this.boundIndices = new int[boundsCount];
+    this.lowerBounds = new double[boundsCount];
+    this.upperBounds = new double[boundsCount];
+    for (int i = 0; i < boundsCount; i++) {
+      boundIndices[i] = determineNativeIndex (program, scenario.getBoundVariable (i));
+      lowerBounds[i] = scenario.getLowerBound (i);
+      upperBounds[i] = scenario.getUpperBound (i);
+    }
+
+    final int objectiveCount = scenario.getObjectiveChangesCount ();
+    if (objectiveCount > 0 && program.isNativeMultiObjective ()) {
+      throw new UnsupportedOperationException ("Objective changes are not supported for native multi-objective " +
+                                               "programs");
+    }
+
+    // A single objective maps directly to the native objective, otherwise the change is added to the aggregation
+    this.relativeObjectiveValues = program.getObjectivesCount () > 1;
+    this.objectiveIndices = new int[objectiveCount];
+    this.objectiveValues = new double[objectiveCount];
+    final ObjectiveSense programSense = program.determineProgramObjectiveSense ();
+    for (int i = 0; i < objectiveCount; i++) {
+      final Objective objective = scenario.getObjective (i);
+      final Variable variable = scenario.getObjectiveVariable (i);
+      if (!(objective instanceof GurobiObjective) || ((GurobiObjective) objective).getProgram () != program) {
+        throw new IllegalArgumentException ("Objective " + objective.getName () + " of scenario " +
+                                            scenario.getName () + " is not part of the program");
+      }
+
+      objectiveIndices[i] = determineNativeIndex (program, variable);
+      if (relativeObjectiveValues) {
+        final double factor = (objective.getObjectiveSense () == programSense) ? 1.0 : -1.0;
+        final double previousCoefficient = objective.getExpression ().getCoefficient (variable);
+        objectiveValues[i] = factor * (scenario.getObjectiveCoefficient (i) - previousCoefficient);
+      } else {
+        objectiveValues[i] = scenario.getObjectiveCoefficient (i);
+      }
+    }
+  }
+
+  private int determineNativeIndex (final GurobiProgram program,
+                                    final Variable variable) {
+    if (!(variable instanceof GurobiVariable) || ((GurobiVariable) variable).getProgram () != program) {
+      throw new IllegalArgumentException ("Variable " + variable.getName () + " of scenario " + scenario.getName () +
+                                          " is not part of the program");
+    }
+
+    final int nativeIndex = ((GurobiVariable) variable).getNativeIndex ();
+    if (nativeIndex < 0) {
+      throw new IllegalStateException ("Variable " + variable.getName () + " is not part of the native model");
+    }
+    return nativeIndex;
+  }
+
+  protected Scenario getScenario () {
+    return scenario;
+  }
+
+  /**
+   * Applies the changes to a native model, whose variables and constraints are given in native order.
+   */
+  protected void apply (final GRBModel model,
+                        final GRBVar[] nativeVariables,
+                        final GRBConstr[] nativeConstraints) throws GRBException {
+    if (appliedModel != null) {
+      throw new IllegalStateException ("Scenario " + scenario.getName () + " has already been applied");
+    }
+
+    appliedConstraints = new GRBConstr[constraintIndices.length];
+    for (int i = 0; i < constraintIndices.length; i++) {
+      appliedConstraints[i] = nativeConstraints[constraintIndices[i]];
+    }
+
+    appliedBoundVariables = new GRBVar[boundIndices.length];
+    for (int i = 0; i < boundIndices.length; i++) {
+      appliedBoundVariables[i] = nativeVariables[boundIndices[i]];
+    }
+
+    appliedObjectiveVariables = new GRBVar[objectiveIndices.length];
+    for (int i = 0; i < objectiveIndices.length; i++) {
+      appliedObjectiveVariables[i] = nativeVariables[objectiveIndices[i]];
+    }
+
+    if (appliedConstraints.length > 0) {
+      previousRightHandSides = model.get (DoubleAttr.RHS, appliedConstraints);
+      model.set (DoubleAttr.RHS, appliedConstraints, rightHandSides);
+    }
+
+    if (appliedBoundVariables.length > 0) {
+      previousLowerBounds = model.get (DoubleAttr.LB, appliedBoundVariables);
+      previousUpperBounds = model.get (DoubleAttr.UB, appliedBoundVariables);
+      model.set (DoubleAttr.LB, appliedBoundVariables, lowerBounds);
+      model.set (DoubleAttr.UB, appliedBoundVariables, upperBounds);
+    }
+
+    if (appliedObjectiveVariables.length > 0) {
+      previousObjectiveValues = model.get (DoubleAttr.Obj, appliedObjectiveVariables);
+      model.set (DoubleAttr.Obj, appliedObjectiveVariables, determineObjectiveValues ());
+    }
+
+    appliedModel = model;
+  }
+
+  private double[] determineObjectiveValues () {
+    if (!relativeObjectiveValues) {
+      return objectiveValues;
+    }
+
+    // Changes of the same variable in different objectives accumulate
+    final Map<GRBVar, Double> changes = new IdentityHashMap<GRBVar, Double> ();
+    for (int i = 0; i < objectiveValues.length; i++) {
+      final Double change = changes.get (appliedObjectiveVariables[i]);
+      changes.put (appliedObjectiveVariables[i], (change == null) ? objectiveValues[i] : change + objectiveValues[i]);
+    }
+
+    final double[] values = new double[objectiveValues.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = previousObjectiveValues[i] + changes.get (appliedObjectiveVariables[i]);
+    }
+    return values;
+  }
+
+  protected void revert () throws GRBException {
+    if (appliedModel == null) {
+      throw new IllegalStateException ("Scenario " + scenario.getName () + " has not been applied");
+    }
+
+    // Duplicate entries have read the same previous value, so their order does not matter
+    if (appliedConstraints.length > 0) {
+      appliedModel.set (DoubleAttr.RHS, appliedConstraints, previousRightHandSides);
+    }
+    if (appliedBoundVariables.length > 0) {
+      appliedModel.set (DoubleAttr.LB, appliedBoundVariables, previousLowerBounds);
+      appliedModel.set (DoubleAttr.UB, appliedBoundVariables, previousUpperBounds);
+    }
+    if (appliedObjectiveVariables.length > 0) {
+      appliedModel.set (DoubleAttr.Obj, appliedObjectiveVariables, previousObjectiveValues);
+    }
+
+    appliedModel = null;
+  }
+
+  protected static Map<GurobiConstraint, Integer> determineConstraintPositions (final GurobiProgram program) {
+    final List<GurobiConstraint> constraints = program.getRowConstraints ();
+    final Map<GurobiConstraint, Integer> positions = new IdentityHashMap<GurobiConstraint, Integer> ();
+    for (int i = 0; i < constraints.size (); i++) {
+      positions.put (constraints.get (i), i);
+    }
+    return positions;
+  }
+}
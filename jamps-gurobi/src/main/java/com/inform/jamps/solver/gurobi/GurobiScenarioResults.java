@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.Scenario;
+import com.inform.jamps.solver.ScenarioResults;
+
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRB.IntAttr;
+import gurobi.GRB.Status;
+import gurobi.GRBException;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+/**
+ * Result table of a scenario run, indexed by the position of the scenarios. Values of tracked variables are stored
+ * row-wise in a single array with one row per scenario.
+ */
+public class GurobiScenarioResults implements ScenarioResults {
+
+  private final static int             MILLIS_PER_SECOND = 1000;
+
+  private final List<Scenario>         scenarios;
+
+  private final List<Variable>         trackedVariables;
+
+  private final Map<Variable, Integer> trackedColumns    = new IdentityHashMap<Variable, Integer> ();
+
+  private final boolean[]              solutions;
+
+  private final boolean[]              optimal;
+
+  private final boolean[]              infeasible;
+
+  private final double[]               objectiveValues;
+
+  private final double[]               bestObjectiveBounds;
+
+  private final long[]                 executionTimes;
+
+  private final long[]                 iterationsCounts;
+
+  private final double[]               variableValues;
+
+  protected GurobiScenarioResults (final List<Scenario> scenarios,
+                                   final List<Variable> trackedVariables) {
+    if (scenarios == null) {
+      throw new IllegalArgumentException ("Parameter scenarios is mandatory and may not be null");
+    }
+    if (trackedVariables == null) {
+      throw new IllegalArgumentException ("Parameter trackedVariables is mandatory and may not be null");
+    }
+
+    this.scenarios = Collections.unmodifiableList (new ArrayList<Scenario> (scenarios));
+    this.trackedVariables = Collections.unmodifiableList (new ArrayList<Variable> (trackedVariables));
+    for (int i = 0; i < trackedVariables.size (); i++) {
+      trackedColumns.put (trackedVariables.get (i), i);
+    }
+
+    final int count = scenarios.size ();
+    this.solutions = new boolean[count];
+    this.optimal = new boolean[count];
+    this.infeasible = new boolean[count];
+    this.objectiveValues = new double[count];
+    this.bestObjectiveBounds = new double[count];
+    this.executionTimes = new long[count];
+    this.iterationsCounts = new long[count];
+    this.variableValues = new double[count * trackedVariables.size ()];
+
+    Arrays.fill (objectiveValues, Double.NaN);
+    Arrays.fill (bestObjectiveBounds, Double.NaN);
+    Arrays.fill (variableValues, Double.NaN);
+  }
+
+  /**
+   * Reads the result of the scenario from a solved native model. Scenarios are written to disjoint positions, so
+   * results of different scenarios may be recorded concurrently.
+   */
+  protected void recordResult (final int index,
+                               final GRBModel model,
+                               final GRBVar[] trackedNativeVariables) throws GRBException {
+    checkIndex (index);
+
+    final int status = model.get (IntAttr.Status);
+    final boolean isMip = (model.get (IntAttr.IsMIP) == 1);
+
+    optimal[index] = (status == Status.OPTIMAL);
+    infeasible[index] = (status == Status.INFEASIBLE || status == Status.INF_OR_UNBD);
+    solutions[index] = (model.get (IntAttr.SolCount) > 0);
+    executionTimes[index] = Math.round (MILLIS_PER_SECOND * model.get (DoubleAttr.Runtime));
+    iterationsCounts[index] = Math.round (model.get (DoubleAttr.IterCount));
+
+    if (!solutions[index]) {
+      return;
+    }
+
+    objectiveValues[index] = model.get (DoubleAttr.ObjVal);
+    bestObjectiveBounds[index] = isMip ? model.get (DoubleAttr.ObjBound) : objectiveValues[index];
+
+    if (trackedNativeVariables.length > 0) {
+      final double[] values = model.get (DoubleAttr.X, trackedNativeVariables);
+      System.arraycopy (values, 0, variableValues, index * trackedNativeVariables.length, values.length);
+    }
+  }
+
+  private void checkIndex (final int index) {
+    if (index < 0 || index >= scenarios.size ()) {
+      throw new IllegalArgumentException ("There is no scenario with index " + index + " available");
+    }
+  }
+
+  @Override
+  public int getScenariosCount () {
+    return scenarios.size ();
+  }
+
+  @Override
+  public Scenario getScenario (final int index) {
+    checkIndex (index);
+    return scenarios.get (index);
+  }
+
+  @Override
+  public boolean hasSolution (final int index) {
+    checkIndex (index);
+    return solutions[index];
+  }
+
+  @Override
+  public boolean isOptimal (final int index) {
+    checkIndex (index);
+    return optimal[index];
+  }
+
+  @Override
+  public boolean isInfeasible (final int index) {
+    checkIndex (index);
+    return infeasible[index];
+  }
+
+  @Override
+  public double getObjectiveValue (final int index) {
+    checkIndex (index);
+    return objectiveValues[index];
+  }
+
+  @Override
+  public double getBestObjectiveBound (final int index) {
+    checkIndex (index);
+    return bestObjectiveBounds[index];
+  }
+
+  @Override
+  public long getExecutionTimeMillis (final int index) {
+    checkIndex (index);
+    return executionTimes[index];
+  }
+
+  public long getIterationsCount (final int index) {
+    checkIndex (index);
+    return iterationsCounts[index];
+  }
+
+  @Override
+  public List<Variable> getTrackedVariables () {
+    return trackedVariables;
+  }
+
+  @Override
+  public double getVariableValue (final int index,
+                                  final Variable variable) {
+    checkIndex (index);
+
+    final Integer column = trackedColumns.get (variable);
+    if (column == null) {
+      throw new IllegalArgumentException ("Variable " + variable + " has not been tracked");
+    }
+
+    return variableValues[index * trackedVariables.size () + column];
+  }
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.inform.jamps.exception.SolverException;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.Scenario;
+import com.inform.jamps.solver.ScenarioRunner;
+import com.inform.jamps.solver.SolverParameters;
+
+import gurobi.GRB;
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRB.IntAttr;
+import gurobi.GRB.IntParam;
+import gurobi.GRBConstr;
+import gurobi.GRBEnv;
+import gurobi.GRBException;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+/**
+ * Solves a list of scenarios on the native model of a base program. The native model is built once, each scenario is
+ * applied in place, solved and reverted. Gurobi keeps the basis of the previous solve when only right-hand sides,
+ * bounds and objective coefficients change, so every scenario is warm started from its predecessor. For MIPs the best
+ * solution of the predecessor is injected as start if {@link GurobiSolverParameters#isUseSolutionWarmStart()} is set.
+ * With more than one scenario worker, the scenarios are distributed over copies of the native model instead. The time
+ * limit of the parameters applies to every single scenario.
+ */
+public class GurobiScenarioRunner implements ScenarioRunner {
+
+  protected GurobiScenarioRunner () {
+    super ();
+  }
+
+  @Override
+  public GurobiScenarioResults run (final SolverParameters parameters,
+                                    final Program program,
+                                    final List<Scenario> scenarios) {
+    return run (parameters, program, scenarios, Collections.<Variable> emptyList ());
+  }
+
+  @Override
+  public GurobiScenarioResults run (final SolverParameters parameters,
+                                    final Program program,
+                                    final List<Scenario> scenarios,
+                                    final List<Variable> trackedVariables) {
+    if (parameters == null) {
+      throw new IllegalArgumentException ("Parameter SolverParameters is mandatory and may not be null");
+    }
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (scenarios == null) {
+      throw new IllegalArgumentException ("Parameter scenarios is mandatory and may not be null");
+    }
+    if (trackedVariables == null) {
+      throw new IllegalArgumentException ("Parameter trackedVariables is mandatory and may not be null");
+    }
+    if (!(parameters instanceof GurobiSolverParameters)) {
+      throw new IllegalArgumentException ("SolverParameters is not of type GurobiSolverParameters");
+    }
+    if (!(program instanceof GurobiProgram)) {
+      throw new IllegalArgumentException ("Program is not of type GurobiProgram");
+    }
+
+    return run ((GurobiSolverParameters) parameters, (GurobiProgram) program, scenarios, trackedVariables);
+  }
+
+  protected GurobiScenarioResults run (final GurobiSolverParameters parameters,
+                                       final GurobiProgram program,
+                                       final List<Scenario> scenarios,
+                                       final List<Variable> trackedVariables) {
+    program.prepareSolve (parameters);
+
+    final GRBModel model = program.getNativeModel ();
+    GurobiSolver.applyTimeLimit (parameters, program, model);
+
+    final GurobiScenarioDelta[] deltas = resolveScenarios (program, scenarios);
+    final GurobiScenarioResults results = new GurobiScenarioResults (scenarios, trackedVariables);
+    final int[] trackedIndices = determineTrackedIndices (program, trackedVariables);
+
+    final GRBVar[] nativeVariables = program.getNativeVariables ();
+    final GRBConstr[] nativeConstraints = getNativeConstraints (program);
+
+    final int workersCount = determineWorkersCount (parameters.getScenarioWorkersCount (),
+                                                    parameters.getThreadsBudget (),
+                                                    deltas.length);
+
+    try {
+      if (workersCount > 1) {
+        runParallelScenarios (parameters, model, deltas, results, trackedIndices, workersCount);
+        return results;
+      }
+
+      final GRBVar[] trackedNativeVariables = selectVariables (nativeVariables, trackedIndices);
+      final boolean injectedStart = runScenarios (model, nativeVariables, nativeConstraints, deltas, 0, deltas.length,
+                                                  results, trackedNativeVariables,
+                                                  parameters.isUseSolutionWarmStart ());
+      if (injectedStart) {
+        restoreStartValues (program, model, nativeVariables);
+      }
+    } catch (GRBException e) {
+      final String errorMsg = GurobiErrorCodeMapping.getMessage (e);
+      throw new SolverException ("Unable to solve scenarios: " + errorMsg, e);
+    }
+
+    return results;
+  }
+
+  /**
+   * Copies the native model once per worker and lets every copy solve a contiguous partition of the scenarios, so
+   * similar neighbouring scenarios share the warm start of their copy. Native environments must not be shared between
+   * threads, so every copy is read from a model file into an environment of its own, which gets the parameters of the
+   * base environment. Copies and environments are disposed afterwards, the base model stays untouched.
+   */
+  protected void runParallelScenarios (final GurobiSolverParameters parameters,
+                                       final GRBModel model,
+                                       final GurobiScenarioDelta[] deltas,
+                                       final GurobiScenarioResults results,
+                                       final int[] trackedIndices,
+                                       final int workersCount) throws GRBException {
+    final int threadsPerWorker = determineThreadsPerWorker (parameters.getThreadsBudget (), workersCount);
+    final boolean useSolutionWarmStart = parameters.isUseSolutionWarmStart ();
+    final GRBEnv[] environments = new GRBEnv[workersCount];
+    final GRBModel[] copies = new GRBModel[workersCount];
+    final File modelFile = createTemporaryFile (".mps");
+    final File parameterFile = createTemporaryFile (".prm");
+    final ExecutorService executor = Executors.newFixedThreadPool (workersCount);
+
+    try {
+      model.write (modelFile.getAbsolutePath ());
+      model.getEnv ().writeParams (parameterFile.getAbsolutePath ());
+
+      final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>> (workersCount);
+
+      for (int i = 0; i < workersCount; i++) {
+        final GRBEnv env = parameters.getNativeEnvironment ();
+        environments[i] = env;
+        env.readParams (parameterFile.getAbsolutePath ());
+        env.set (IntParam.Threads, threadsPerWorker);
+
+        final GRBModel copy = new GRBModel (env, modelFile.getAbsolutePath ());
+        copies[i] = copy;
+
+        // Copies keep the order of variables and constraints of the base model
+        final GRBVar[] variables = copy.getVars ();
+        final GRBConstr[] constraints = copy.getConstrs ();
+        final GRBVar[] trackedVariables = selectVariables (variables, trackedIndices);
+        final int fromIndex = determinePartitionStart (deltas.length, workersCount, i);
+        final int toIndex = determinePartitionStart (deltas.length, workersCount, i + 1);
+
+        futures.add (executor.submit (new Callable<Boolean> () {
+
+          @Override
+          public Boolean call () throws GRBException {
+            return runScenarios (copy, variables, constraints, deltas, fromIndex, toIndex, results, trackedVariables,
+                                 useSolutionWarmStart);
+          }
+        }));
+      }
+
+      for (final Future<Boolean> future: futures) {
+        awaitWorker (future);
+      }
+    } finally {
+      shutdownWorkers (executor, copies);
+      for (final GRBModel copy: copies) {
+        if (copy != null) {
+          copy.dispose ();
+        }
+      }
+      for (final GRBEnv env: environments) {
+        if (env != null) {
+          env.dispose ();
+        }
+      }
+      modelFile.delete ();
+      parameterFile.delete ();
+    }
+  }
+
+  private File createTemporaryFile (final String suffix) {
+    try {
+      return File.createTempFile ("jamps-scenarios", suffix);
+    } catch (IOException e) {
+      throw new SolverException ("Unable to create temporary file for scenario workers", e);
+    }
+  }
+
+  /**
+   * Stops workers which are still solving after another worker failed, so their copies can be disposed safely.
+   */
+  private void shutdownWorkers (final ExecutorService executor,
+                                final GRBModel[] copies) {
+    executor.shutdownNow ();
+    for (final GRBModel copy: copies) {
+      if (copy != null) {
+        copy.terminate ();
+      }
+    }
+
+    try {
+      executor.awaitTermination (Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread ().interrupt ();
+    }
+  }
+
+  private void awaitWorker (final Future<Boolean> future) throws GRBException {
+    try {
+      future.get ();
+    } catch (InterruptedException e) {
+      Thread.currentThread ().interrupt ();
+      throw new SolverException ("Interrupted while solving scenarios", e);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause ();
+      if (cause instanceof GRBException) {
+        throw (GRBException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new SolverException ("Unable to solve scenarios", cause);
+    }
+  }
+
+  /**
+   * Limits the number of workers by the number of scenarios and by the threads budget, as every worker needs at least
+   * one thread.
+   */
+  protected static int determineWorkersCount (final int scenarioWorkersCount,
+                                              final int threadsBudget,
+                                              final int scenariosCount) {
+    return Math.min (Math.min (scenarioWorkersCount, scenariosCount), resolveThreadsBudget (threadsBudget));
+  }
+
+  protected static int determineThreadsPerWorker (final int threadsBudget,
+                                                  final int workersCount) {
+    return Math.max (1, resolveThreadsBudget (threadsBudget) / workersCount);
+  }
+
+  private static int resolveThreadsBudget (final int threadsBudget) {
+    return (threadsBudget > 0) ? threadsBudget : Runtime.getRuntime ().availableProcessors ();
+  }
+
+  protected static int determinePartitionStart (final int scenariosCount,
+                                                final int workersCount,
+                                                final int worker) {
+    return (int) ((long) scenariosCount * worker / workersCount);
+  }
+
+  protected GurobiScenarioDelta[] resolveScenarios (final GurobiProgram program,
+                                                    final List<Scenario> scenarios) {
+    final Map<GurobiConstraint, Integer> positions = GurobiScenarioDelta.determineConstraintPositions (program);
+    final GurobiScenarioDelta[] deltas = new GurobiScenarioDelta[scenarios.size ()];
+    for (int i = 0; i < deltas.length; i++) {
+      deltas[i] = new GurobiScenarioDelta (program, positions, scenarios.get (i));
+    }
+    return deltas;
+  }
+
+  protected GRBConstr[] getNativeConstraints (final GurobiProgram program) {
+    final List<GurobiConstraint> constraints = program.getRowConstraints ();
+    final GRBConstr[] nativeConstraints = new GRBConstr[constraints.size ()];
+    for (int i = 0; i < nativeConstraints.length; i++) {
+      nativeConstraints[i] = constraints.get (i).getNativeConstraint ();
+    }
+    return nativeConstraints;
+  }
+
+  protected int[] determineTrackedIndices (final GurobiProgram program,
+                                           final List<Variable> trackedVariables) {
+    final int[] trackedIndices = new int[trackedVariables.size ()];
+    for (int i = 0; i < trackedIndices.length; i++) {
+      final Variable variable = trackedVariables.get (i);
+      if (!(variable instanceof GurobiVariable) || ((GurobiVariable) variable).getProgram () != program) {
+        throw new IllegalArgumentException ("Tracked variable " + variable + " is not part of the program");
+      }
+
+      trackedIndices[i] = ((GurobiVariable) variable).getNativeIndex ();
+    }
+    return trackedIndices;
+  }
+
+  private GRBVar[] selectVariables (final GRBVar[] nativeVariables,
+                                    final int[] indices) {
+    final GRBVar[] selectedVariables = new GRBVar[indices.length];
+    for (int i = 0; i < indices.length; i++) {
+      selectedVariables[i] = nativeVariables[indices[i]];
+    }
+    return selectedVariables;
+  }
+
+  /**
+   * Runs the scenarios of the given range one after another on a native model, whose variables and constraints are
+   * given in native order.
+   *
+   * @return whether the start values of the model have been overwritten
+   */
+  protected boolean runScenarios (final GRBModel model,
+                                  final GRBVar[] nativeVariables,
+                                  final GRBConstr[] nativeConstraints,
+                                  final GurobiScenarioDelta[] deltas,
+                                  final int fromIndex,
+                                  final int toIndex,
+                                  final GurobiScenarioResults results,
+                                  final GRBVar[] trackedNativeVariables,
+                                  final boolean useSolutionWarmStart) throws GRBException {
+    boolean injectedStart = false;
+
+    for (int i = fromIndex; i < toIndex; i++) {
+      final GurobiScenarioDelta delta = deltas[i];
+      delta.apply (model, nativeVariables, nativeConstraints);
+
+      // The base model has to be restored even if solving fails, it is reused by later runs of the program
+      double[] solutionValues = null;
+      try {
+        model.optimize ();
+        results.recordResult (i, model, trackedNativeVariables);
+
+        if (useSolutionWarmStart && results.hasSolution (i) && model.get (IntAttr.IsMIP) == 1) {
+          solutionValues = model.get (DoubleAttr.X, nativeVariables);
+        }
+      } finally {
+        delta.revert ();
+      }
+
+      if (solutionValues != null) {
+        model.set (DoubleAttr.Start, nativeVariables, solutionValues);
+        injectedStart = true;
+      }
+    }
+
+    return injectedStart;
+  }
+
+  private void restoreStartValues (final GurobiProgram program,
+                                   final GRBModel model,
+                                   final GRBVar[] nativeVariables) throws GRBException {
+    final double[] startValues = new double[nativeVariables.length];
+    Arrays.fill (startValues, GRB.UNDEFINED);
+
+    for (final GurobiVariable var: program.getVariables ()) {
+      if (var.hasInitialValue ()) {
+        startValues[var.getNativeIndex ()] = var.getInitialValue ();
+      }
+    }
+
+    model.set (DoubleAttr.Start, nativeVariables, startValues);
+  }
+}
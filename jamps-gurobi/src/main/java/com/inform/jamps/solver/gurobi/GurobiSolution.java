@@ -13,6 +13,7 @@
 
 package com.inform.jamps.solver.gurobi;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +35,8 @@ public class GurobiSolution implements Solution {
 
   private final Map<Objective, Double>      objectiveValuesCache = new ConcurrentHashMap<Objective, Double> ();
 
+  private double[]                          indexedVariableValues;
+
   private Double                            objectiveValue;
 
   private Double                            bound;
@@ -64,6 +67,14 @@ public class GurobiSolution implements Solution {
       throw new IllegalArgumentException ("Parameter variable is mandantory and may not be null");
     }
 
+    if (indexedVariableValues != null && variable instanceof GurobiVariable) {
+      final GurobiVariable grbVariable = (GurobiVariable) variable;
+      final int index = grbVariable.getNativeIndex ();
+      if (grbVariable.getProgram () == program && index >= 0 && index < indexedVariableValues.length) {
+        return indexedVariableValues[index];
+      }
+    }
+
     final Double value = variableValues.get (variable);
     if (value == null) {
       return 0.0;
@@ -91,11 +102,7 @@ public class GurobiSolution implements Solution {
 
       final List<GurobiObjective> objectives = program.getObjectives ();
       for (final GurobiObjective objective: objectives) {
-        if (objective.getObjectiveSense () == programSense) {
-          sum += getObjectiveValue (objective);
-        } else {
-          sum -= getObjectiveValue (objective);
-        }
+        sum += GurobiProgram.determineObjectiveFactor (objective, programSense) * getObjectiveValue (objective);
       }
 
       objectiveValue = sum;
@@ -116,11 +123,27 @@ public class GurobiSolution implements Solution {
       return cachedValue;
     }
 
+    if (program.isReleased ()) {
+      // The values of several objectives are determined from the native objectives and are already cached
+      if (program.getObjectivesCount () != 1 || objectiveValue == null) {
+        throw new IllegalStateException ("Value of objective " + objective.getName () + " is not available");
+      }
+      return objectiveValue;
+    }
+
     final List<LinearTerm> linearTerms = objective.getExpression ().getLinearTerms ();
     double objectiveValue = objective.getExpression ().getConstant ();
     for (final LinearTerm term: linearTerms) {
       objectiveValue += term.getCoefficient () * getVariableValue (term.getVariable ());
     }
+    if (objective.getExpression () instanceof GurobiExpression) {
+      objectiveValue += ((GurobiExpression) objective.getExpression ()).evaluateQuadraticTerms (this);
+    }
+    for (final GurobiPiecewiseLinearTerm term: program.getPiecewiseLinearTerms ()) {
+      if (term.getObjective () == objective) {
+        objectiveValue += term.evaluate (getVariableValue (term.getVariable ()));
+      }
+    }
 
     objectiveValuesCache.put (objective, objectiveValue);
     return objectiveValue;
@@ -144,6 +167,34 @@ public class GurobiSolution implements Solution {
     }
   }
 
+  protected void setVariableValues (final double[] values) {
+    if (values == null) {
+      throw new IllegalArgumentException ("Parameter values is mandantory and may not be null");
+    }
+
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == -0.0) {
+        values[i] = 0.0;
+      }
+    }
+
+    this.indexedVariableValues = values;
+  }
+
+  protected void setObjectiveValue (final double objectiveValue) {
+    this.objectiveValue = objectiveValue;
+    calculateGap ();
+  }
+
+  protected void setObjectiveValue (final Objective objective,
+                                    final double objectiveValue) {
+    if (objective == null) {
+      throw new IllegalArgumentException ("Parameter objective is mandantory and may not be null");
+    }
+
+    objectiveValuesCache.put (objective, objectiveValue);
+  }
+
   protected GurobiProgram getProgram () {
     return program;
   }
@@ -177,6 +228,7 @@ public class GurobiSolution implements Solution {
     result = prime * result + ((bound == null) ? 0 : bound.hashCode ());
     result = prime * result + (optimal ? 1231 : 1237);
     result = prime * result + variableValues.hashCode ();
+    result = prime * result + Arrays.hashCode (indexedVariableValues);
     return result;
   }
 
@@ -202,7 +254,10 @@ public class GurobiSolution implements Solution {
     } else if (!bound.equals (other.bound)) {
       return false;
     }
-    return variableValues.equals (other.variableValues);
+    if (!variableValues.equals (other.variableValues)) {
+      return false;
+    }
+    return Arrays.equals (indexedVariableValues, other.indexedVariableValues);
   }
 
 }
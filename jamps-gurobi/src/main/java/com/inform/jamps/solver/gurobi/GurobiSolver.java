@@ -19,8 +19,11 @@ import com.inform.jamps.exception.SolverException;
 import com.inform.jamps.modeling.Program;
 import com.inform.jamps.solver.MathProgrammingSolver;
 import com.inform.jamps.solver.SolverParameters;
+import com.inform.jamps.solver.lazy.LazyConstraintGenerator;
 
-import gurobi.GRBEnv;
+import gurobi.GRB;
+import gurobi.GRB.DoubleParam;
+import gurobi.GRB.IntParam;
 import gurobi.GRBException;
 import gurobi.GRBModel;
 
@@ -51,28 +54,95 @@ public class GurobiSolver implements MathProgrammingSolver {
 
   protected GurobiExecutionResult solve (final GurobiSolverParameters parameters,
                                          final GurobiProgram program) {
-    final GRBEnv env = parameters.getNativeEnvironment ();
-    program.setNativeEnvironment (env);
+    program.prepareSolve (parameters);
 
     final GRBModel model = program.getNativeModel ();
+    applyTimeLimit (parameters, program, model);
     writePreExecutionOutputFiles (parameters, program);
 
+    final GurobiLazyConstraintCallback lazyConstraintCallback = registerLazyConstraintCallback (parameters, program,
+                                                                                                model);
     try {
       model.optimize ();
     } catch (GRBException e) {
       try {
         // Try to get an execution result, although we had an exception
-        return new GurobiExecutionResult (program);
+        return new GurobiExecutionResult (program, model);
       } catch (Exception e2) {
         throw new SolverException ("Unable to solve program", e);
       }
+    } finally {
+      unregisterLazyConstraintCallback (lazyConstraintCallback, model);
     }
 
-    final GurobiExecutionResult executionResult = new GurobiExecutionResult (program);
+    final GurobiExecutionResult executionResult = new GurobiExecutionResult (program, model);
     writePostExecutionOutputFiles (parameters, program, executionResult);
     return executionResult;
   }
 
+  /**
+   * Sets the time limit of the parameters for the native model, or removes the limit of a previous solve of the same
+   * native model.
+   */
+  protected static void applyTimeLimit (final GurobiSolverParameters parameters,
+                                        final GurobiProgram program,
+                                        final GRBModel model) {
+    final double timeLimit = parameters.getTimeLimit ();
+    if (timeLimit == 0.0 && !program.isTimeLimited ()) {
+      return;
+    }
+
+    try {
+      model.getEnv ().set (DoubleParam.TimeLimit, (timeLimit > 0.0) ? timeLimit : GRB.INFINITY);
+    } catch (GRBException e) {
+      throw new SolverException ("Unable to set time limit", e);
+    }
+    program.setTimeLimited (timeLimit > 0.0);
+  }
+
+  protected GurobiLazyConstraintCallback registerLazyConstraintCallback (final GurobiSolverParameters parameters,
+                                                                        final GurobiProgram program,
+                                                                        final GRBModel model) {
+    final LazyConstraintGenerator generator = parameters.getLazyConstraintGenerator ();
+    if (generator == null) {
+      return null;
+    }
+
+    final GurobiLazyConstraintCallback callback = new GurobiLazyConstraintCallback (program, generator);
+    try {
+      model.getEnv ().set (IntParam.LazyConstraints, 1);
+      if (generator.isSeparatingNodeRelaxations ()) {
+        // User cuts are only accepted if presolve keeps the original variables
+        model.getEnv ().set (IntParam.PreCrush, 1);
+      }
+      model.setCallback (callback);
+    } catch (GRBException e) {
+      throw new SolverException ("Unable to register lazy constraint callback", e);
+    }
+    return callback;
+  }
+
+  private void unregisterLazyConstraintCallback (final GurobiLazyConstraintCallback callback,
+                                                 final GRBModel model) {
+    if (callback == null) {
+      return;
+    }
+
+    try {
+      model.setCallback (null);
+
+      // Later solves of the same native model run without lazy constraints, so presolve reductions are enabled again
+      model.getEnv ().set (IntParam.LazyConstraints, 0);
+      model.getEnv ().set (IntParam.PreCrush, 0);
+    } catch (GRBException e) {
+      throw new SolverException ("Unable to unregister lazy constraint callback", e);
+    }
+
+    if (callback.getFailure () != null) {
+      throw new SolverException ("Lazy constraint generation failed", callback.getFailure ());
+    }
+  }
+
   protected void writePreExecutionOutputFiles (final GurobiSolverParameters parameters,
                                                final GurobiProgram program) {
     final GRBModel model = program.getNativeModel ();
@@ -14,6 +14,7 @@
 package com.inform.jamps.solver.gurobi;
 
 import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.ProgramMode;
 import com.inform.jamps.solver.MathProgrammingSolverFactory;
 
 public class GurobiSolverFactory implements MathProgrammingSolverFactory<GurobiSolver, GurobiSolverParameters> {
@@ -37,4 +38,67 @@ public class GurobiSolverFactory implements MathProgrammingSolverFactory<GurobiS
   public Program createProgram (final String name) {
     return new GurobiProgram (name);
   }
+
+  @Override
+  public Program createProgram (final ProgramMode mode) {
+    if (mode == null) {
+      throw new IllegalArgumentException ("Parameter mode is mandatory and may not be null");
+    }
+
+    if (mode == ProgramMode.DIRECT) {
+      return new GurobiDirectProgram ();
+    }
+    return new GurobiProgram ();
+  }
+
+  @Override
+  public Program createProgram (final String name,
+                                final ProgramMode mode) {
+    if (mode == null) {
+      throw new IllegalArgumentException ("Parameter mode is mandatory and may not be null");
+    }
+
+    if (mode == ProgramMode.DIRECT) {
+      return new GurobiDirectProgram (name);
+    }
+    return new GurobiProgram (name);
+  }
+
+  @Override
+  public Program createProgram (final String name,
+                                final ProgramMode mode,
+                                final GurobiSolverParameters parameters) {
+    if (mode == null) {
+      throw new IllegalArgumentException ("Parameter mode is mandatory and may not be null");
+    }
+    if (parameters == null) {
+      throw new IllegalArgumentException ("Parameter parameters is mandatory and may not be null");
+    }
+
+    if (mode == ProgramMode.DIRECT) {
+      return new GurobiDirectProgram (name, parameters);
+    }
+
+    final GurobiProgram program = new GurobiProgram (name);
+    program.setSolverParameters (parameters);
+    return program;
+  }
+
+  @Override
+  public GurobiScenarioRunner createScenarioRunner () {
+    return new GurobiScenarioRunner ();
+  }
+
+  @Override
+  public GurobiMasterProblem createMasterProblem (final GurobiSolverParameters parameters,
+                                                  final Program program) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (!(program instanceof GurobiProgram)) {
+      throw new IllegalArgumentException ("Program is not of type GurobiProgram");
+    }
+
+    return new GurobiMasterProblem (parameters, (GurobiProgram) program);
+  }
 }
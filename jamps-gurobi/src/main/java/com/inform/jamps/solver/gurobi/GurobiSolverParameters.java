@@ -16,27 +16,50 @@ package com.inform.jamps.solver.gurobi;
 import java.io.File;
 
 import com.inform.jamps.solver.SolverParameters;
+import com.inform.jamps.solver.lazy.LazyConstraintGenerator;
 
 import gurobi.GRBEnv;
 import gurobi.GRBException;
 
 public class GurobiSolverParameters implements SolverParameters {
 
-  private File    outputDirectory;
+  protected final static int      DEFAULT_TRANSFER_CHUNK_SIZE = 10000;
 
-  private boolean writeLPFile;
+  private File                    outputDirectory;
 
-  private boolean writeMPSFile;
+  private boolean                 writeLPFile;
 
-  private boolean useNamesForModelFileOutput = true;
+  private boolean                 writeMPSFile;
 
-  private boolean writeIISFile;
+  private boolean                 useNamesForModelFileOutput  = true;
 
-  private boolean writeSolutionFile;
+  private boolean                 writeIISFile;
 
-  private boolean writeParameterFile;
+  private boolean                 writeSolutionFile;
 
-  private boolean useCompressionForFileOuput;
+  private boolean                 writeParameterFile;
+
+  private boolean                 useCompressionForFileOuput;
+
+  private int                     transferChunkSize           = DEFAULT_TRANSFER_CHUNK_SIZE;
+
+  private GurobiTransferListener  transferListener;
+
+  private boolean                 releaseAfterTransfer;
+
+  private boolean                 nativeMultiObjective;
+
+  private boolean                 useBasisWarmStart;
+
+  private boolean                 useSolutionWarmStart;
+
+  private int                     scenarioWorkersCount        = 1;
+
+  private int                     threadsBudget;
+
+  private LazyConstraintGenerator lazyConstraintGenerator;
+
+  private double                  timeLimit;
 
   protected GurobiSolverParameters () {
     super ();
@@ -114,4 +137,123 @@ public class GurobiSolverParameters implements SolverParameters {
     this.useCompressionForFileOuput = useCompressionForFileOuput;
   }
 
+  public int getTransferChunkSize () {
+    return transferChunkSize;
+  }
+
+  public void setTransferChunkSize (final int transferChunkSize) {
+    if (transferChunkSize < 1) {
+      throw new IllegalArgumentException ("Parameter transferChunkSize must be positive");
+    }
+
+    this.transferChunkSize = transferChunkSize;
+  }
+
+  public GurobiTransferListener getTransferListener () {
+    return transferListener;
+  }
+
+  public void setTransferListener (final GurobiTransferListener transferListener) {
+    this.transferListener = transferListener;
+  }
+
+  public boolean isReleaseAfterTransfer () {
+    return releaseAfterTransfer;
+  }
+
+  public void setReleaseAfterTransfer (final boolean releaseAfterTransfer) {
+    this.releaseAfterTransfer = releaseAfterTransfer;
+  }
+
+  public boolean isNativeMultiObjective () {
+    return nativeMultiObjective;
+  }
+
+  public void setNativeMultiObjective (final boolean nativeMultiObjective) {
+    this.nativeMultiObjective = nativeMultiObjective;
+  }
+
+  public boolean isUseBasisWarmStart () {
+    return useBasisWarmStart;
+  }
+
+  /**
+   * Restores the simplex basis of the last run when the native model of a continuous program is rebuilt after adding
+   * variables, constraints or objectives. Variables and constraints added in the meantime start nonbasic and basic
+   * respectively. Other modifications are applied in place and keep the basis anyway.
+   */
+  public void setUseBasisWarmStart (final boolean useBasisWarmStart) {
+    this.useBasisWarmStart = useBasisWarmStart;
+  }
+
+  public boolean isUseSolutionWarmStart () {
+    return useSolutionWarmStart;
+  }
+
+  /**
+   * Injects the best solution of the last run as MIP start when the native model of a program is rebuilt after adding
+   * variables, constraints or objectives. The values override initial values of the same variables, variables added in
+   * the meantime keep their initial value.
+   */
+  public void setUseSolutionWarmStart (final boolean useSolutionWarmStart) {
+    this.useSolutionWarmStart = useSolutionWarmStart;
+  }
+
+  public int getScenarioWorkersCount () {
+    return scenarioWorkersCount;
+  }
+
+  /**
+   * Number of copies of the native model which solve partitions of a scenario list concurrently.
+   */
+  public void setScenarioWorkersCount (final int scenarioWorkersCount) {
+    if (scenarioWorkersCount < 1) {
+      throw new IllegalArgumentException ("Parameter scenarioWorkersCount must be positive");
+    }
+
+    this.scenarioWorkersCount = scenarioWorkersCount;
+  }
+
+  public int getThreadsBudget () {
+    return threadsBudget;
+  }
+
+  /**
+   * Total number of solver threads shared by all scenario workers. A value of 0 uses all available processors.
+   */
+  public void setThreadsBudget (final int threadsBudget) {
+    if (threadsBudget < 0) {
+      throw new IllegalArgumentException ("Parameter threadsBudget may not be negative");
+    }
+
+    this.threadsBudget = threadsBudget;
+  }
+
+  public LazyConstraintGenerator getLazyConstraintGenerator () {
+    return lazyConstraintGenerator;
+  }
+
+  /**
+   * Generator called from a native callback during MIP solves. Setting a generator enables lazy constraints for the
+   * native model, which disables some presolve reductions.
+   */
+  public void setLazyConstraintGenerator (final LazyConstraintGenerator lazyConstraintGenerator) {
+    this.lazyConstraintGenerator = lazyConstraintGenerator;
+  }
+
+  public double getTimeLimit () {
+    return timeLimit;
+  }
+
+  /**
+   * Limits the runtime of every solve in seconds. A value of 0 solves without time limit.
+   */
+  public void setTimeLimit (final double timeLimit) {
+    if (timeLimit < 0.0) {
+      throw new IllegalArgumentException ("Parameter timeLimit may not be negative");
+    }
+
+    this.timeLimit = timeLimit;
+  }
+
 }
@@ -20,6 +20,7 @@ import org.apache.commons.math3.util.Precision;
 import com.inform.jamps.modeling.Variable;
 import com.inform.jamps.modeling.VariableType;
 
+import gurobi.GRB;
 import gurobi.GRBVar;
 
 public class GurobiVariable implements Variable {
@@ -42,6 +43,8 @@ public class GurobiVariable implements Variable {
 
   private transient GRBVar            nativeVar;
 
+  private transient int               nativeIndex           = -1;
+
   protected GurobiVariable (final GurobiProgram program) {
     this (program, DEFAULT_VARIABLE_TYPE);
   }
@@ -95,6 +98,7 @@ public class GurobiVariable implements Variable {
   @Override
   public void setLowerBound (final double lowerBound) {
     this.lowerBound = lowerBound;
+    program.markBoundsModified (this);
   }
 
   @Override
@@ -105,6 +109,7 @@ public class GurobiVariable implements Variable {
   @Override
   public void setUpperBound (final double upperBound) {
     this.upperBound = upperBound;
+    program.markBoundsModified (this);
   }
 
   @Override
@@ -123,12 +128,30 @@ public class GurobiVariable implements Variable {
   @Override
   public void setInitialValue (final double initialValue) {
     this.initialValue = initialValue;
+    program.markStartModified (this);
   }
 
   protected GurobiProgram getProgram () {
     return program;
   }
 
+  protected char getNativeType () {
+    switch (type) {
+      case CONTINUOUS:
+        return GRB.CONTINUOUS;
+      case BINARY:
+        return GRB.BINARY;
+      case INTEGER:
+        return GRB.INTEGER;
+      case SEMI_CONTINUOUS:
+        return GRB.SEMICONT;
+      case SEMI_INTEGER:
+        return GRB.SEMIINT;
+      default:
+        throw new IllegalStateException ("Variables of type " + type.name () + " are not supported");
+    }
+  }
+
   protected void setNativeVariable (final GRBVar grbVar) {
     if (grbVar == null) {
       throw new IllegalArgumentException ("GRBVar parameter is mandatory and may not be null");
@@ -141,6 +164,26 @@ public class GurobiVariable implements Variable {
     return nativeVar;
   }
 
+  protected void setNativeIndex (final int nativeIndex) {
+    if (nativeIndex < 0) {
+      throw new IllegalArgumentException ("Parameter nativeIndex may not be negative");
+    }
+
+    this.nativeIndex = nativeIndex;
+  }
+
+  protected int getNativeIndex () {
+    return nativeIndex;
+  }
+
+  /**
+   * Detaches the variable from the native model after it has been removed from the program.
+   */
+  protected void clearNativeVariable () {
+    this.nativeVar = null;
+    this.nativeIndex = -1;
+  }
+
   @Override
   public int compareTo (final Variable var) {
     if (!(var instanceof GurobiVariable)) {
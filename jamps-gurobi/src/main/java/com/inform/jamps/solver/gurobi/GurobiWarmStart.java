@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import gurobi.GRB;
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRB.IntAttr;
+import gurobi.GRB.Status;
+import gurobi.GRBConstr;
+import gurobi.GRBException;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+/**
+ * Captures the simplex basis and the best solution of a solved native model, so they can be restored after the native
+ * model has been rebuilt. Variables and constraints are mapped by identity, as their native indices may change. The
+ * basis includes the range rows and their range variables, so that it stays complete for programs with ranges.
+ * Quadratic constraints have no basis status, as models with quadratic constraints are not solved by the simplex
+ * method, so the basis is neither captured for them nor restored once the program contains quadratic constraints.
+ */
+public class GurobiWarmStart {
+
+  private final static int              BASIC                   = 0;
+
+  private final static int              NONBASIC_AT_LOWER_BOUND = -1;
+
+  private final static int              NONBASIC_AT_UPPER_BOUND = -2;
+
+  private final static int              SUPERBASIC              = -3;
+
+  private final GurobiVariable[]        variables;
+
+  private final GurobiConstraint[]      constraints;
+
+  private final GurobiRangeConstraint[] rangeConstraints;
+
+  private int[]                         variableBasis;
+
+  private int[]                         constraintBasis;
+
+  private int[]                         rangeBasis;
+
+  private int[]                         rangeVariableBasis;
+
+  private double[]                      solutionValues;
+
+  protected GurobiWarmStart (final GurobiProgram program,
+                             final GRBModel model,
+                             final boolean captureBasis,
+                             final boolean captureSolution) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (model == null) {
+      throw new IllegalArgumentException ("Parameter model is mandatory and may not be null");
+    }
+
+    // Only elements which are part of the native model are captured, elements added since then have no native index
+    final List<GurobiVariable> capturedVariables = new ArrayList<GurobiVariable> ();
+    for (final GurobiVariable var: program.getVariables ()) {
+      if (var.getNativeIndex () >= 0) {
+        capturedVariables.add (var);
+      }
+    }
+    Collections.sort (capturedVariables, new Comparator<GurobiVariable> () {
+
+      @Override
+      public int compare (final GurobiVariable var1,
+                          final GurobiVariable var2) {
+        return var1.getNativeIndex () - var2.getNativeIndex ();
+      }
+    });
+    this.variables = capturedVariables.toArray (new GurobiVariable[capturedVariables.size ()]);
+
+    final List<GurobiConstraint> capturedConstraints = new ArrayList<GurobiConstraint> ();
+    for (final GurobiConstraint constraint: program.getConstraints ()) {
+      if (constraint.getNativeConstraint () != null) {
+        capturedConstraints.add (constraint);
+      }
+    }
+    this.constraints = capturedConstraints.toArray (new GurobiConstraint[capturedConstraints.size ()]);
+
+    final List<GurobiRangeConstraint> capturedRanges = new ArrayList<GurobiRangeConstraint> ();
+    for (final GurobiRangeConstraint constraint: program.getRangeConstraints ()) {
+      if (constraint.getNativeConstraint () != null) {
+        capturedRanges.add (constraint);
+      }
+    }
+    this.rangeConstraints = capturedRanges.toArray (new GurobiRangeConstraint[capturedRanges.size ()]);
+
+    final GRBVar[] nativeVariables = new GRBVar[variables.length];
+    for (int i = 0; i < variables.length; i++) {
+      nativeVariables[i] = variables[i].getNativeVariable ();
+    }
+
+    try {
+      capture (model, nativeVariables, captureBasis, captureSolution);
+    } catch (GRBException e) {
+      throw new IllegalStateException ("Unable to capture warm start from native model", e);
+    }
+  }
+
+  private void capture (final GRBModel model,
+                        final GRBVar[] nativeVariables,
+                        final boolean captureBasis,
+                        final boolean captureSolution) throws GRBException {
+    final int status = model.get (IntAttr.Status);
+    if (status == Status.LOADED) {
+      return;
+    }
+
+    final boolean isMip = (model.get (IntAttr.IsMIP) == 1);
+
+    if (captureBasis && !isMip && status == Status.OPTIMAL) {
+      final GRBConstr[] nativeConstraints = new GRBConstr[constraints.length];
+      for (int i = 0; i < constraints.length; i++) {
+        nativeConstraints[i] = constraints[i].getNativeConstraint ();
+      }
+
+      try {
+        variableBasis = model.get (IntAttr.VBasis, nativeVariables);
+        constraintBasis = model.get (IntAttr.CBasis, nativeConstraints);
+        if (rangeConstraints.length > 0) {
+          captureRangeBasis (model);
+        }
+      } catch (GRBException e) {
+        // No basis is available, e.g. after barrier without crossover
+        variableBasis = null;
+        constraintBasis = null;
+        rangeBasis = null;
+        rangeVariableBasis = null;
+      }
+    }
+
+    if (captureSolution && isMip && model.get (IntAttr.SolCount) > 0) {
+      solutionValues = model.get (DoubleAttr.X, nativeVariables);
+    }
+  }
+
+  private void captureRangeBasis (final GRBModel model) throws GRBException {
+    final GRBConstr[] nativeConstraints = new GRBConstr[rangeConstraints.length];
+    final GRBVar[] nativeVariables = new GRBVar[rangeConstraints.length];
+    for (int i = 0; i < rangeConstraints.length; i++) {
+      nativeConstraints[i] = rangeConstraints[i].getNativeConstraint ();
+      nativeVariables[i] = rangeConstraints[i].getNativeRangeVariable ();
+    }
+
+    rangeBasis = model.get (IntAttr.CBasis, nativeConstraints);
+    rangeVariableBasis = model.get (IntAttr.VBasis, nativeVariables);
+  }
+
+  protected boolean hasBasis () {
+    return variableBasis != null && constraintBasis != null;
+  }
+
+  protected boolean hasSolution () {
+    return solutionValues != null;
+  }
+
+  protected void applyTo (final GurobiProgram program,
+                          final GRBModel model) {
+    if (program == null) {
+      throw new IllegalArgumentException ("Parameter program is mandatory and may not be null");
+    }
+    if (model == null) {
+      throw new IllegalArgumentException ("Parameter model is mandatory and may not be null");
+    }
+
+    try {
+      model.update ();
+
+      final GRBVar[] nativeVariables = program.getNativeVariables ();
+      if (hasBasis () && !hasQuadraticConstraints (program)) {
+        applyBasis (program, model, nativeVariables);
+      }
+      if (hasSolution ()) {
+        applySolution (program, model, nativeVariables);
+      }
+    } catch (GRBException e) {
+      throw new IllegalStateException ("Unable to apply warm start to native model", e);
+    }
+  }
+
+  private static boolean hasQuadraticConstraints (final GurobiProgram program) {
+    for (final GurobiConstraint constraint: program.getConstraints ()) {
+      if (constraint.isQuadratic ()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void applyBasis (final GurobiProgram program,
+                           final GRBModel model,
+                           final GRBVar[] nativeVariables) throws GRBException {
+    final int[] newVariableBasis = new int[nativeVariables.length];
+    for (final GurobiVariable var: program.getVariables ()) {
+      newVariableBasis[var.getNativeIndex ()] = determineNonbasicStatus (var);
+    }
+    for (int i = 0; i < variables.length; i++) {
+      newVariableBasis[variables[i].getNativeIndex ()] = variableBasis[i];
+    }
+
+    final Map<GurobiConstraint, Integer> capturedPositions = new IdentityHashMap<GurobiConstraint, Integer> ();
+    for (int i = 0; i < constraints.length; i++) {
+      capturedPositions.put (constraints[i], i);
+    }
+
+    // Constraints added since the last run start basic, so the number of basic variables matches the rows
+    final List<GurobiConstraint> programConstraints = program.getRowConstraints ();
+    final GRBConstr[] nativeConstraints = new GRBConstr[programConstraints.size ()];
+    final int[] newConstraintBasis = new int[nativeConstraints.length];
+    for (int i = 0; i < nativeConstraints.length; i++) {
+      final GurobiConstraint constraint = programConstraints.get (i);
+      final Integer position = capturedPositions.get (constraint);
+
+      nativeConstraints[i] = constraint.getNativeConstraint ();
+      newConstraintBasis[i] = (position == null) ? BASIC : constraintBasis[position];
+    }
+
+    model.set (IntAttr.VBasis, nativeVariables, newVariableBasis);
+    model.set (IntAttr.CBasis, nativeConstraints, newConstraintBasis);
+
+    if (!program.getRangeConstraints ().isEmpty ()) {
+      applyRangeBasis (program, model);
+    }
+  }
+
+  private void applyRangeBasis (final GurobiProgram program,
+                                final GRBModel model) throws GRBException {
+    final Map<GurobiRangeConstraint, Integer> capturedPositions;
+    capturedPositions = new IdentityHashMap<GurobiRangeConstraint, Integer> (rangeConstraints.length);
+    for (int i = 0; i < rangeConstraints.length; i++) {
+      capturedPositions.put (rangeConstraints[i], i);
+    }
+
+    // Ranges added since the last run start with a basic row and a nonbasic range variable, as they add one row and
+    // one variable each
+    final List<GurobiRangeConstraint> programRanges = program.getRangeConstraints ();
+    final GRBConstr[] nativeConstraints = new GRBConstr[programRanges.size ()];
+    final GRBVar[] nativeVariables = new GRBVar[programRanges.size ()];
+    final int[] newRangeBasis = new int[nativeConstraints.length];
+    final int[] newRangeVariableBasis = new int[nativeVariables.length];
+    for (int i = 0; i < nativeConstraints.length; i++) {
+      final GurobiRangeConstraint constraint = programRanges.get (i);
+      final Integer position = capturedPositions.get (constraint);
+
+      nativeConstraints[i] = constraint.getNativeConstraint ();
+      nativeVariables[i] = constraint.getNativeRangeVariable ();
+      newRangeBasis[i] = (position == null) ? BASIC : rangeBasis[position];
+      newRangeVariableBasis[i] = (position == null) ? NONBASIC_AT_LOWER_BOUND : rangeVariableBasis[position];
+    }
+
+    model.set (IntAttr.CBasis, nativeConstraints, newRangeBasis);
+    model.set (IntAttr.VBasis, nativeVariables, newRangeVariableBasis);
+  }
+
+  private int determineNonbasicStatus (final GurobiVariable var) {
+    if (var.getLowerBound () > Double.NEGATIVE_INFINITY) {
+      return NONBASIC_AT_LOWER_BOUND;
+    } else if (var.getUpperBound () < Double.POSITIVE_INFINITY) {
+      return NONBASIC_AT_UPPER_BOUND;
+    } else {
+      return SUPERBASIC;
+    }
+  }
+
+  private void applySolution (final GurobiProgram program,
+                              final GRBModel model,
+                              final GRBVar[] nativeVariables) throws GRBException {
+    final double[] startValues = new double[nativeVariables.length];
+    Arrays.fill (startValues, GRB.UNDEFINED);
+
+    for (final GurobiVariable var: program.getVariables ()) {
+      if (var.hasInitialValue ()) {
+        startValues[var.getNativeIndex ()] = var.getInitialValue ();
+      }
+    }
+    for (int i = 0; i < variables.length; i++) {
+      startValues[variables[i].getNativeIndex ()] = solutionValues[i];
+    }
+
+    model.set (DoubleAttr.Start, nativeVariables, startValues);
+  }
+}
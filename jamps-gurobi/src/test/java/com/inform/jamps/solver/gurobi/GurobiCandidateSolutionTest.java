@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.Variable;
+
+public class GurobiCandidateSolutionTest {
+
+  @Test
+  public void testObjectCreationAndGetters () {
+    final GurobiProgram program = new GurobiProgram ();
+    final Variable var1 = program.addVariable ();
+    final Variable var2 = program.addVariable ();
+    ((GurobiVariable) var1).setNativeIndex (0);
+    ((GurobiVariable) var2).setNativeIndex (1);
+
+    final GurobiCandidateSolution candidate = new GurobiCandidateSolution (program, new double[] {1.5, 2.5}, false);
+
+    assertFalse ("Expecting fractional candidate", candidate.isIntegral ());
+    assertEquals ("Expecting different value", 1.5, candidate.getVariableValue (var1), 0.0);
+    assertEquals ("Expecting different value", 2.5, candidate.getVariableValue (var2), 0.0);
+
+    final Expression expr = candidate.createExpression ();
+    assertTrue ("Expecting empty expression", expr.getLinearTerms ().isEmpty ());
+    expr.addTerm (1.0, var1);
+    assertEquals ("Expecting different coefficient", 1.0, expr.getCoefficient (var1), 0.0);
+
+    try {
+      candidate.getVariableValue (new GurobiProgram ().addVariable ());
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      candidate.getVariableValue (program.addVariable ());
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    try {
+      new GurobiCandidateSolution (null, new double[0], true);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new GurobiCandidateSolution (new GurobiProgram (), null, true);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+}
@@ -25,6 +25,7 @@ import org.junit.Test;
 import com.inform.jamps.modeling.Constraint;
 import com.inform.jamps.modeling.Operator;
 
+import gurobi.GRB;
 import gurobi.GRBConstr;
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
@@ -112,6 +113,20 @@ public class GurobiConstraintTest {
     }
   }
 
+  @Test
+  public void testNativeSense () {
+    final GurobiConstraint constr = new GurobiConstraint (new GurobiProgram ());
+
+    constr.setOperator (Operator.EQUALS);
+    assertEquals ("Expected different native sense", GRB.EQUAL, constr.getNativeSense ());
+
+    constr.setOperator (Operator.GREATER_EQUALS);
+    assertEquals ("Expected different native sense", GRB.GREATER_EQUAL, constr.getNativeSense ());
+
+    constr.setOperator (Operator.LESS_EQUALS);
+    assertEquals ("Expected different native sense", GRB.LESS_EQUAL, constr.getNativeSense ());
+  }
+
   @Test
   public void testEqualsAndHashCode () {
     final GurobiExpression linExp1 = new GurobiExpression (new GurobiConstraint (new GurobiProgram ()));
@@ -121,7 +136,8 @@ public class GurobiConstraintTest {
     linExp2.addTerm (10.0);
 
     EqualsVerifier.forClass (GurobiConstraint.class)
-                  .allFieldsShouldBeUsedExcept ("program", "nativeConstraint")
+                  .allFieldsShouldBeUsedExcept ("program", "nativeConstraint", "nativeQuadraticConstraint")
+                  .withRedefinedSubclass (GurobiIndicatorConstraint.class)
                   .withPrefabValues (GurobiExpression.class, linExp1, linExp2)
                   .suppress (Warning.NULL_FIELDS, Warning.NONFINAL_FIELDS)
                   .verify ();
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Operator;
+
+import gurobi.GRB;
+import gurobi.GRBConstr;
+
+public class GurobiDirectConstraintTest {
+
+  @Test
+  public void testObjectCreationAndGetters () {
+    final GurobiDirectProgram program = new GurobiDirectProgram ();
+
+    final GurobiDirectConstraint c1 = new GurobiDirectConstraint (program);
+    final GurobiDirectConstraint c2 = new GurobiDirectConstraint (program, Operator.LESS_EQUALS);
+    final GurobiDirectConstraint c3 = new GurobiDirectConstraint (program, "Constraint", Operator.GREATER_EQUALS);
+
+    assertEquals ("Expected different program", program, c1.getProgram ());
+    assertEquals ("Expected different operator", GurobiDirectConstraint.DEFAULT_OPERATOR, c1.getOperator ());
+    assertEquals ("Expected different operator", Operator.LESS_EQUALS, c2.getOperator ());
+    assertFalse ("Expected auto generated name", c2.getName ().isEmpty ());
+    assertEquals ("Expected different name", "Constraint", c3.getName ());
+    assertNotNull ("Expected LHS expression", c3.getLhs ());
+    assertNotNull ("Expected RHS expression", c3.getRhs ());
+
+    assertEquals ("Expected different native sense", GRB.EQUAL, c1.getNativeSense ());
+    assertEquals ("Expected different native sense", GRB.LESS_EQUAL, c2.getNativeSense ());
+    assertEquals ("Expected different native sense", GRB.GREATER_EQUAL, c3.getNativeSense ());
+  }
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    final GurobiDirectProgram program = new GurobiDirectProgram ();
+
+    try {
+      new GurobiDirectConstraint (null, "Constraint", Operator.EQUALS);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new GurobiDirectConstraint (program, null, Operator.EQUALS);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new GurobiDirectConstraint (program, "Constraint", null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testSettingNativeConstraint () {
+    final GurobiDirectConstraint constr = new GurobiDirectConstraint (new GurobiDirectProgram ());
+    final GRBConstr grbConstr = mock (GRBConstr.class);
+
+    constr.setNativeConstraint (grbConstr);
+    assertEquals ("Expected different native constraint", grbConstr, constr.getNativeConstraint ());
+
+    try {
+      constr.setNativeConstraint (null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testCompareTo () {
+    final GurobiDirectProgram program = new GurobiDirectProgram ();
+    final Constraint c1 = new GurobiDirectConstraint (program, "A", Operator.EQUALS);
+    final Constraint c2 = new GurobiDirectConstraint (program, "B", Operator.EQUALS);
+
+    assertTrue ("Expected c1 to be less than c2", c1.compareTo (c2) < 0);
+    assertTrue ("Expected c2 to be greater than c1", c2.compareTo (c1) > 0);
+    assertTrue ("Expected c1 to be less than other constraints", c1.compareTo (mock (Constraint.class)) < 0);
+  }
+}
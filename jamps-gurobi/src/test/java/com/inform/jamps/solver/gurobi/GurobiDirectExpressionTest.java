@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.Variable;
+
+public class GurobiDirectExpressionTest {
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    try {
+      new GurobiDirectExpression (null, 1.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testAddingTerms () {
+    final GurobiDirectProgram program = new GurobiDirectProgram ();
+    final Variable var = program.addVariable ();
+    final GurobiDirectConstraint constr = (GurobiDirectConstraint) program.addConstraint ();
+    final Expression lhs = constr.getLhs ();
+
+    assertEquals ("Expected same expression", lhs, lhs.addTerm (1.0, var));
+    assertEquals ("Expected same expression", lhs, lhs.addTerm (0.0, var));
+    assertEquals ("Expected same expression", lhs, lhs.addTerm (2.0));
+
+    try {
+      lhs.addTerm (1.0, new GurobiDirectProgram ().addVariable ());
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      lhs.addTerm (1.0, mock (Variable.class));
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      lhs.addTerm (1.0, var, var);
+      fail ("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+    }
+  }
+
+  @Test
+  public void testReadingTerms () {
+    final GurobiDirectProgram program = new GurobiDirectProgram ();
+    final Variable var = program.addVariable ();
+    final Expression lhs = program.addConstraint ().getLhs ();
+
+    try {
+      lhs.getLinearTerms ();
+      fail ("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+    }
+
+    try {
+      lhs.getCoefficient (var);
+      fail ("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+    }
+
+    try {
+      lhs.getConstant ();
+      fail ("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+    }
+
+    try {
+      lhs.removeLinearTerm (var);
+      fail ("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+    }
+  }
+
+  @Test
+  public void testCompareTo () {
+    final GurobiDirectProgram program = new GurobiDirectProgram ();
+    final GurobiDirectConstraint constr = (GurobiDirectConstraint) program.addConstraint ();
+    final Expression lhs = constr.getLhs ();
+    final Expression rhs = constr.getRhs ();
+
+    assertEquals ("Expected equal expressions", 0, lhs.compareTo (lhs));
+    assertTrue ("Expected rhs to be less than lhs", rhs.compareTo (lhs) < 0);
+    assertTrue ("Expected different expressions", lhs.compareTo (mock (Expression.class)) < 0);
+  }
+}
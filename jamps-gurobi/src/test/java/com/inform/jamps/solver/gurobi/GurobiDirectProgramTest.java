@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareOnlyThisForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.ProgramMode;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+
+import gurobi.GRB;
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRBConstr;
+import gurobi.GRBEnv;
+import gurobi.GRBLinExpr;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+@RunWith (PowerMockRunner.class)
+public class GurobiDirectProgramTest {
+
+  @Test
+  public void testObjectCreation () {
+    final GurobiDirectProgram p1 = new GurobiDirectProgram ();
+    final GurobiDirectProgram p2 = new GurobiDirectProgram ("Name");
+
+    assertFalse ("Expected auto generated name", p1.getName ().isEmpty ());
+    assertEquals ("Expected different name", "Name", p2.getName ());
+    assertTrue ("Expected direct program to be released", p1.isReleased ());
+  }
+
+  @Test
+  public void testAddingConstraintsAndTerms () {
+    final GurobiDirectProgram p = new GurobiDirectProgram ();
+    final Variable var1 = p.addVariable (VariableType.CONTINUOUS);
+    final Variable var2 = p.addVariable (VariableType.BINARY);
+
+    assertEquals ("Expected different native index", 0, ((GurobiVariable) var1).getNativeIndex ());
+    assertEquals ("Expected different native index", 1, ((GurobiVariable) var2).getNativeIndex ());
+
+    final Constraint c1 = p.addConstraint (Operator.LESS_EQUALS);
+    c1.getLhs ().addTerm (1.0, var1).addTerm (2.0, var2).addTerm (3.0);
+    c1.getRhs ().addTerm (5.0);
+    c1.setOperator (Operator.GREATER_EQUALS);
+
+    final Constraint c2 = p.addConstraint ("c2", Operator.EQUALS);
+    c2.getLhs ().addTerm (1.0, var1);
+
+    assertEquals ("Expected different number of constraints", 2, p.getConstraintsCount ());
+    assertTrue ("Expected direct constraint", c2 instanceof GurobiDirectConstraint);
+    assertTrue ("Expected c2 to be open", p.isOpenConstraint ((GurobiDirectConstraint) c2));
+    assertFalse ("Expected c1 to be closed", p.isOpenConstraint ((GurobiDirectConstraint) c1));
+
+    try {
+      c1.getLhs ().addTerm (1.0, var1);
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+
+    try {
+      c1.setOperator (Operator.EQUALS);
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+
+    try {
+      p.addConstraint (new GurobiConstraint (p));
+      fail ("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+    }
+
+    try {
+      p.getConstraints ();
+      fail ("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+    }
+  }
+
+  @Test
+  @PrepareOnlyThisForTest (GurobiDirectProgram.class)
+  public void testCreationOfNativeModel () throws Exception {
+    final GRBEnv grbEnv = mock (GRBEnv.class);
+    final GRBModel grbModel = mock (GRBModel.class);
+    PowerMockito.whenNew (GRBModel.class).withAnyArguments ().thenReturn (grbModel);
+
+    when (grbModel.addVars (any (double[].class),
+                            any (double[].class),
+                            any (double[].class),
+                            any (char[].class),
+                            any (String[].class),
+                            anyInt (),
+                            anyInt ())).thenReturn (new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class)});
+
+    when (grbModel.addConstrs (any (GRBLinExpr[].class),
+                               any (char[].class),
+                               any (double[].class),
+                               any (String[].class),
+                               anyInt (),
+                               anyInt ())).thenReturn (new GRBConstr[] {mock (GRBConstr.class),
+                                                                        mock (GRBConstr.class)});
+
+    final GurobiDirectProgram p = new GurobiDirectProgram ();
+    p.setNativeEnvironment (grbEnv);
+
+    final Variable var1 = p.addVariable (VariableType.CONTINUOUS);
+    final Variable var2 = p.addVariable (VariableType.INTEGER);
+    var2.setInitialValue (1.0);
+
+    final Objective obj = p.addObjective (ObjectiveSense.MAXIMIZE);
+    obj.getExpression ().addTerm (1.0, var1).addTerm (2.0, var2).addTerm (10.0);
+
+    final Constraint c1 = p.addConstraint (Operator.LESS_EQUALS);
+    c1.getLhs ().addTerm (1.0, var1).addTerm (1.0, var2);
+    c1.getRhs ().addTerm (4.0);
+
+    final Constraint c2 = p.addConstraint (Operator.GREATER_EQUALS);
+    c2.getLhs ().addTerm (1.0, var1);
+
+    final GRBModel nativeModel = p.getNativeModel ();
+
+    assertSame ("Expecting same object", grbModel, nativeModel);
+    assertSame ("Expecting same object", nativeModel, p.getNativeModel ());
+    assertEquals ("Expecting native variables", 2, p.getNativeVariables ().length);
+    assertNotNull ("Expecting native constraint", ((GurobiDirectConstraint) c1).getNativeConstraint ());
+    assertNotNull ("Expecting native constraint", ((GurobiDirectConstraint) c2).getNativeConstraint ());
+
+    verify (grbModel).addVars (any (double[].class),
+                               any (double[].class),
+                               any (double[].class),
+                               any (char[].class),
+                               any (String[].class),
+                               eq (0),
+                               eq (2));
+    verify (grbModel).addConstrs (any (GRBLinExpr[].class),
+                                  any (char[].class),
+                                  any (double[].class),
+                                  any (String[].class),
+                                  eq (0),
+                                  eq (2));
+    verify (grbModel).set (eq (DoubleAttr.Obj), any (GRBVar[].class), any (double[].class));
+    verify (grbModel).set (DoubleAttr.ObjCon, 10.0);
+    verify (grbModel).set (GRB.IntAttr.ModelSense, -1);
+
+    try {
+      p.addVariable ();
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+
+    try {
+      p.addConstraint ();
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+  }
+
+  @Test
+  @PrepareOnlyThisForTest (GurobiDirectProgram.class)
+  public void testCreationOfNativeModelWithSolverParameters () throws Exception {
+    final GRBEnv grbEnv = mock (GRBEnv.class);
+    final GRBModel grbModel = mock (GRBModel.class);
+    PowerMockito.whenNew (GRBModel.class).withAnyArguments ().thenReturn (grbModel);
+
+    when (grbModel.addVars (any (double[].class),
+                            any (double[].class),
+                            any (double[].class),
+                            any (char[].class),
+                            any (String[].class),
+                            anyInt (),
+                            anyInt ())).thenReturn (new GRBVar[] {mock (GRBVar.class)});
+
+    when (grbModel.addConstrs (any (GRBLinExpr[].class),
+                               any (char[].class),
+                               any (double[].class),
+                               any (String[].class),
+                               anyInt (),
+                               anyInt ())).thenReturn (new GRBConstr[] {mock (GRBConstr.class)});
+
+    final GurobiSolverParameters parameters = new GurobiSolverParameters () {
+
+      @Override
+      protected GRBEnv getNativeEnvironment () {
+        return grbEnv;
+      }
+    };
+    parameters.setTransferChunkSize (1);
+
+    final GurobiDirectProgram p = (GurobiDirectProgram) new GurobiSolverFactory ().createProgram ("Name",
+                                                                                                  ProgramMode.DIRECT,
+                                                                                                  parameters);
+    final Variable var = p.addVariable (VariableType.CONTINUOUS);
+    p.addConstraint (Operator.LESS_EQUALS).getLhs ().addTerm (1.0, var);
+    p.addConstraint (Operator.GREATER_EQUALS).getLhs ().addTerm (1.0, var);
+
+    verify (grbModel).addConstrs (any (GRBLinExpr[].class),
+                                  any (char[].class),
+                                  any (double[].class),
+                                  any (String[].class),
+                                  eq (0),
+                                  eq (1));
+    assertSame ("Expecting native environment of solver parameters", grbEnv, p.getNativeEnvironment ());
+
+    p.addConstraint (Operator.EQUALS).getLhs ().addTerm (1.0, var);
+    p.getNativeModel ();
+
+    verify (grbModel, times (3)).addConstrs (any (GRBLinExpr[].class),
+                                             any (char[].class),
+                                             any (double[].class),
+                                             any (String[].class),
+                                             eq (0),
+                                             eq (1));
+
+    // The variable has been transferred with the first full chunk and is not transferred again on completion
+    verify (grbModel).addVars (any (double[].class),
+                               any (double[].class),
+                               any (double[].class),
+                               any (char[].class),
+                               any (String[].class),
+                               eq (0),
+                               eq (1));
+    assertEquals ("Expecting different number of variables", 1, p.getVariables ().size ());
+  }
+}
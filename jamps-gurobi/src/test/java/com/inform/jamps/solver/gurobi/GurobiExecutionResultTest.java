@@ -20,9 +20,12 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.junit.Test;
@@ -31,6 +34,7 @@ import com.inform.jamps.modeling.Constraint;
 import com.inform.jamps.modeling.Objective;
 import com.inform.jamps.modeling.ObjectiveSense;
 import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.Solution;
 import com.inform.jamps.solver.TerminationReason;
 
 import gurobi.GRB;
@@ -46,7 +50,7 @@ public class GurobiExecutionResultTest {
   @Test
   public void testObjectCreation () throws GRBException {
     final GurobiProgram program = createProgram ();
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertSame ("Expecting same object", program, result.getProblem ());
 
@@ -77,16 +81,23 @@ public class GurobiExecutionResultTest {
   @Test
   public void testObjectCreationWithErrors () throws GRBException {
     try {
-      new GurobiExecutionResult (null);
+      new GurobiExecutionResult (null, mock (GRBModel.class));
       fail ("Expected IllegalArgumentException");
     } catch (IllegalArgumentException e) {
     }
 
     final GurobiProgram program = createProgram ();
+
+    try {
+      new GurobiExecutionResult (program, null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
     when (program.getNativeModel ().get (any (IntAttr.class))).thenThrow (new GRBException ());
 
     try {
-      new GurobiExecutionResult (program);
+      new GurobiExecutionResult (program, program.getNativeModel ());
     } catch (IllegalStateException e) {
     }
   }
@@ -97,7 +108,7 @@ public class GurobiExecutionResultTest {
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.LOADED);
 
     try {
-      new GurobiExecutionResult (program);
+      new GurobiExecutionResult (program, program.getNativeModel ());
       fail ("Expected IllegalStateException");
     } catch (IllegalStateException e) {
     }
@@ -105,7 +116,7 @@ public class GurobiExecutionResultTest {
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.INPROGRESS);
 
     try {
-      new GurobiExecutionResult (program);
+      new GurobiExecutionResult (program, program.getNativeModel ());
       fail ("Expected IllegalStateException");
     } catch (IllegalStateException e) {
     }
@@ -115,7 +126,7 @@ public class GurobiExecutionResultTest {
   public void testRunWithCutOff () throws GRBException {
     final GurobiProgram program = createProgram ();
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.CUTOFF);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertTrue ("Expected termination", result.hasExecutionTerminated ());
     assertEquals ("Expected termination reason",
@@ -128,7 +139,7 @@ public class GurobiExecutionResultTest {
   public void testRunWithInfeasibleOrUnboundedModel () throws GRBException {
     final GurobiProgram program = createProgram ();
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.INF_OR_UNBD);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertTrue ("Expected model to be infeasible", result.isProblemInfeasible ());
     assertTrue ("Expected model to be unbounded", result.isProblemUnbounded ());
@@ -139,7 +150,7 @@ public class GurobiExecutionResultTest {
   public void testRunWithInfeasibleModel () throws GRBException {
     final GurobiProgram program = createProgram ();
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.INFEASIBLE);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertTrue ("Expected model to be infeasible", result.isProblemInfeasible ());
     assertFalse ("Expected model to be not unbounded", result.isProblemUnbounded ());
@@ -150,7 +161,7 @@ public class GurobiExecutionResultTest {
   public void testRunWithUnboundedModel () throws GRBException {
     final GurobiProgram program = createProgram ();
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.UNBOUNDED);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertFalse ("Expected model to be not infeasible", result.isProblemInfeasible ());
     assertTrue ("Expected model to be unbounded", result.isProblemUnbounded ());
@@ -161,7 +172,7 @@ public class GurobiExecutionResultTest {
   public void testRunWithInterruption () throws GRBException {
     final GurobiProgram program = createProgram ();
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.INTERRUPTED);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertTrue ("Expected termination", result.hasExecutionTerminated ());
     assertEquals ("Expected termination reason", TerminationReason.INTERRUPTED_BY_USER, result.getTerminationReason ());
@@ -172,7 +183,7 @@ public class GurobiExecutionResultTest {
   public void testRunWithTimeLimit () throws GRBException {
     final GurobiProgram program = createProgram ();
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.TIME_LIMIT);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertTrue ("Expected termination", result.hasExecutionTerminated ());
     assertEquals ("Expected termination reason", TerminationReason.TIME_LIMIT_REACHED, result.getTerminationReason ());
@@ -183,7 +194,7 @@ public class GurobiExecutionResultTest {
   public void testRunWithIteration () throws GRBException {
     final GurobiProgram program = createProgram ();
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.ITERATION_LIMIT);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertTrue ("Expected termination", result.hasExecutionTerminated ());
     assertEquals ("Expected termination reason",
@@ -196,7 +207,7 @@ public class GurobiExecutionResultTest {
   public void testRunWithNodeLimit () throws GRBException {
     final GurobiProgram program = createProgram ();
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.NODE_LIMIT);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertTrue ("Expected termination", result.hasExecutionTerminated ());
     assertEquals ("Expected termination reason", TerminationReason.NODE_LIMIT_REACHED, result.getTerminationReason ());
@@ -207,7 +218,7 @@ public class GurobiExecutionResultTest {
   public void testRunWithSolutionLimit () throws GRBException {
     final GurobiProgram program = createProgram ();
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.SOLUTION_LIMIT);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertTrue ("Expected termination", result.hasExecutionTerminated ());
     assertEquals ("Expected termination reason",
@@ -220,7 +231,7 @@ public class GurobiExecutionResultTest {
   public void testRunWithNumericalIssues () throws GRBException {
     final GurobiProgram program = createProgram ();
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.NUMERIC);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertTrue ("Expected termination", result.hasExecutionTerminated ());
     assertEquals ("Expected termination reason", TerminationReason.NUMERICAL_INSTABLE, result.getTerminationReason ());
@@ -231,7 +242,7 @@ public class GurobiExecutionResultTest {
   public void testRunWithSuboptimalResult () throws GRBException {
     final GurobiProgram program = createProgram ();
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.SUBOPTIMAL);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertFalse ("Expected no termination reason", result.hasExecutionTerminated ());
     assertTrue ("There must be at least one solution", result.hasSolution ());
@@ -243,7 +254,7 @@ public class GurobiExecutionResultTest {
   public void testRunWithOptimalResult () throws GRBException {
     final GurobiProgram program = createProgram ();
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.OPTIMAL);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertFalse ("Expected no termination reason", result.hasExecutionTerminated ());
     assertTrue ("There must be at least one solution", result.hasSolution ());
@@ -256,7 +267,7 @@ public class GurobiExecutionResultTest {
     final GurobiProgram program = createProgram ();
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.OPTIMAL);
     when (program.getNativeModel ().get (IntAttr.IsMIP)).thenReturn (1);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertFalse ("Expected no termination reason", result.hasExecutionTerminated ());
     assertTrue ("There must be at least one solution", result.hasSolution ());
@@ -269,7 +280,7 @@ public class GurobiExecutionResultTest {
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.OPTIMAL);
     when (program.getNativeModel ().get (IntAttr.IsMIP)).thenReturn (1);
     when (program.getNativeModel ().get (IntAttr.SolCount)).thenReturn (2);
-    final GurobiExecutionResult result = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertFalse ("Expected no termination reason", result.hasExecutionTerminated ());
     assertTrue ("There must be at least one solution", result.hasSolution ());
@@ -292,7 +303,7 @@ public class GurobiExecutionResultTest {
     when (program.getNativeModel ().get (IntAttr.Status)).thenReturn (GRB.Status.OPTIMAL);
     when (program.getNativeModel ().get (IntAttr.SolCount)).thenReturn (2);
 
-    final GurobiExecutionResult result1 = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result1 = new GurobiExecutionResult (program, program.getNativeModel ());
 
     program.getObjectives ().get (0).setObjectiveSense (ObjectiveSense.MAXIMIZE);
 
@@ -301,12 +312,106 @@ public class GurobiExecutionResultTest {
     when (nativeVar.get (DoubleAttr.X)).thenReturn (-0.0, 5.0);
     program.getVariables ().get (0).setNativeVariable (nativeVar);
 
-    final GurobiExecutionResult result2 = new GurobiExecutionResult (program);
+    final GurobiExecutionResult result2 = new GurobiExecutionResult (program, program.getNativeModel ());
 
     assertEquals ("Expected reverse order of solutions", result1.getSolution (0), result2.getSolution (1));
     assertEquals ("Expected reverse order of solutions", result1.getSolution (1), result2.getSolution (0));
   }
 
+  @Test
+  public void testRunOfReleasedProgram () throws GRBException {
+    final GurobiProgram program = createProgram ();
+    final GRBModel grbModel = program.getNativeModel ();
+    when (grbModel.get (IntAttr.Status)).thenReturn (GRB.Status.OPTIMAL);
+    when (grbModel.get (DoubleAttr.ObjCon)).thenReturn (5.0);
+    when (grbModel.get (eq (DoubleAttr.Obj), any (GRBVar[].class))).thenReturn (new double[] {1.0, 3.0});
+    when (grbModel.get (eq (DoubleAttr.X), any (GRBVar[].class))).thenReturn (new double[] {2.0, -0.0});
+    doReturn (true).when (program).isReleased ();
+
+    final GurobiVariable var1 = program.getVariables ().get (0);
+    final GurobiVariable var2 = program.getVariables ().get (1);
+    var1.setNativeIndex (0);
+    var2.setNativeIndex (1);
+
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, program.getNativeModel ());
+
+    assertTrue ("There must be at least one solution", result.hasSolution ());
+    assertEquals ("Expected different variable value", 2.0, result.getBestSolution ().getVariableValue (var1), 0.0);
+    assertEquals ("Expected different variable value", 0.0, result.getBestSolution ().getVariableValue (var2), 0.0);
+    assertEquals ("Expected native objective value", 7.0, result.getBestSolution ().getObjectiveValue (), 0.0);
+  }
+
+  @Test
+  public void testRunOfReleasedProgramWithSeveralObjectives () throws GRBException {
+    final GurobiProgram program = createProgram ();
+    final GRBModel grbModel = program.getNativeModel ();
+    when (grbModel.get (IntAttr.Status)).thenReturn (GRB.Status.OPTIMAL);
+    when (grbModel.get (eq (DoubleAttr.ObjN), any (GRBVar[].class))).thenReturn (new double[] {1.0, 1.0},
+                                                                                  new double[] {0.0, 2.0});
+    when (grbModel.get (DoubleAttr.ObjNCon)).thenReturn (5.0, 0.0);
+    when (grbModel.get (eq (DoubleAttr.X), any (GRBVar[].class))).thenReturn (new double[] {2.0, 3.0});
+    doReturn (true).when (program).isReleased ();
+
+    final GurobiVariable var1 = program.getVariables ().get (0);
+    final GurobiVariable var2 = program.getVariables ().get (1);
+    var1.setNativeIndex (0);
+    var2.setNativeIndex (1);
+    final Objective obj1 = program.getObjectives ().get (0);
+    final Objective obj2 = program.addObjective (ObjectiveSense.MAXIMIZE);
+
+    obj2.setWeight (0.5);
+
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, grbModel);
+    final Solution solution = result.getBestSolution ();
+
+    assertEquals ("Expected native objective value", 10.0, solution.getObjectiveValue (obj1), 0.0);
+    assertEquals ("Expected native objective value", 6.0, solution.getObjectiveValue (obj2), 0.0);
+    assertEquals ("Expected weighted combined objective value", 7.0, solution.getObjectiveValue (), 0.0);
+  }
+
+  @Test
+  public void testRunOfNativeMultiObjectiveProgram () throws GRBException {
+    final GRBModel grbModel = mock (GRBModel.class);
+    when (grbModel.getEnv ()).thenReturn (mock (GRBEnv.class));
+    when (grbModel.get (IntAttr.Status)).thenReturn (GRB.Status.OPTIMAL);
+    when (grbModel.get (IntAttr.SolCount)).thenReturn (2);
+    when (grbModel.get (IntAttr.IsMIP)).thenReturn (1);
+    when (grbModel.get (eq (DoubleAttr.ObjN), any (GRBVar[].class))).thenReturn (new double[] {1.0, 0.0},
+                                                                               new double[] {0.0, 1.0});
+
+    final GurobiProgram program = spy (new GurobiProgram ());
+    doReturn (true).when (program).isNativeMultiObjective ();
+    doReturn (new GRBVar[2]).when (program).getNativeVariables ();
+
+    final GRBVar nativeVar1 = mock (GRBVar.class);
+    final GRBVar nativeVar2 = mock (GRBVar.class);
+    when (nativeVar1.get (DoubleAttr.Xn)).thenReturn (1.0, 0.0);
+    when (nativeVar2.get (DoubleAttr.Xn)).thenReturn (0.0, 5.0);
+
+    final GurobiVariable var1 = (GurobiVariable) program.addVariable ();
+    final GurobiVariable var2 = (GurobiVariable) program.addVariable ();
+    var1.setNativeVariable (nativeVar1);
+    var2.setNativeVariable (nativeVar2);
+    var1.setNativeIndex (0);
+    var2.setNativeIndex (1);
+
+    final Objective obj1 = program.addObjective (ObjectiveSense.MINIMIZE);
+    obj1.getExpression ().addTerm (1.0, var1);
+    obj1.setPriority (2);
+    final Objective obj2 = program.addObjective (ObjectiveSense.MINIMIZE);
+    obj2.getExpression ().addTerm (1.0, var2);
+    obj2.setPriority (1);
+
+    final GurobiExecutionResult result = new GurobiExecutionResult (program, grbModel);
+
+    // The second solution is worse in total, but better for the objective with the highest priority
+    assertEquals ("Expected different best solution", 0.0, result.getBestSolution ().getVariableValue (var1), 0.0);
+    assertEquals ("Expected different best solution", 5.0, result.getBestSolution ().getVariableValue (var2), 0.0);
+    assertEquals ("Expected different objective value", 5.0, result.getBestSolution ().getObjectiveValue (), 0.0);
+    assertEquals ("Expected different solution", 1.0, result.getSolution (1).getVariableValue (var1), 0.0);
+    verify (program, never ()).getNativeModel ();
+  }
+
   protected GurobiProgram createProgram () throws GRBException {
     final GRBEnv grbEnv = mock (GRBEnv.class);
     GRBModel grbModel = mock (GRBModel.class);
@@ -16,6 +16,7 @@ package com.inform.jamps.solver.gurobi;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
@@ -32,6 +33,7 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import com.inform.jamps.modeling.Expression;
 import com.inform.jamps.modeling.ObjectiveSense;
 import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.QuadraticTerm;
 import com.inform.jamps.modeling.Variable;
 import com.inform.jamps.modeling.VariableType;
 
@@ -84,6 +86,36 @@ public class GurobiExpressionTest {
       fail ("Expected IllegalArgumentException");
     } catch (IllegalArgumentException e) {
     }
+
+    try {
+      new GurobiExpression ((GurobiProgram) null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testDetachedExpression () {
+    final GurobiProgram program = new GurobiProgram () {
+
+      @Override
+      protected void markModified () {
+        fail ("Expected program not to be modified by detached expression");
+      }
+    };
+    final GurobiVariable variable = (GurobiVariable) program.addVariable ();
+
+    final GurobiExpression linExpr = new GurobiExpression (program);
+    assertSame ("Expected same program", program, linExpr.getProgram ());
+
+    linExpr.addTerm (2.0, variable).addTerm (1.0).removeLinearTerm (variable).removeConstant ();
+    assertEquals ("Expected no coefficient", 0.0, linExpr.getCoefficient (variable), 0.0);
+
+    try {
+      linExpr.addTerm (1.0, new GurobiProgram ().addVariable ());
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
   }
 
   @Test
@@ -185,6 +217,39 @@ public class GurobiExpressionTest {
     }
   }
 
+  @Test
+  public void testReleasingTerms () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable variable = new GurobiVariable (program);
+    final GurobiExpression linExpr = new GurobiExpression (new GurobiConstraint (program));
+    linExpr.addTerm (2.0, variable).addTerm (5.0);
+
+    assertFalse ("Expected expression not to be released", linExpr.isReleased ());
+
+    linExpr.release ();
+
+    assertTrue ("Expected expression to be released", linExpr.isReleased ());
+    assertEquals ("Expected constant term to be kept", 5.0, linExpr.getConstant (), 0.000001);
+
+    try {
+      linExpr.getLinearTerms ();
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+
+    try {
+      linExpr.getCoefficient (variable);
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+
+    try {
+      linExpr.addTerm (1.0, variable);
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+  }
+
   @Test
   public void testRemovingConstantTerms () {
     final double CONSTANT_TERM = 10.0;
@@ -292,30 +357,49 @@ public class GurobiExpressionTest {
   }
 
   @Test
-  public void testQuadraticTermsAreNotSupported () {
+  public void testAddingQuadraticTerms () {
     final double COEFFICIENT = 10.0;
     final GurobiProgram program = new GurobiProgram ();
     final GurobiConstraint constr = new GurobiConstraint (program, Operator.GREATER_EQUALS);
-    final GurobiVariable var1 = new GurobiVariable (program, VariableType.BINARY);
-    final GurobiVariable var2 = new GurobiVariable (program, VariableType.BINARY);
+    final GurobiVariable var1 = new GurobiVariable (program, "x", VariableType.BINARY);
+    final GurobiVariable var2 = new GurobiVariable (program, "y", VariableType.BINARY);
 
     final GurobiExpression expr = new GurobiExpression (constr);
     expr.addTerm (COEFFICIENT, var1);
+    expr.addTerm (COEFFICIENT, var1, var2);
+    expr.addTerm (COEFFICIENT, var2, var1);
+    expr.addTerm (0.0, var1, var1);
+
+    assertEquals ("Expecting merged quadratic term", 1, expr.getQuadraticTerms ().size ());
+    assertEquals ("Expecting different coefficient", 2 * COEFFICIENT, expr.getCoefficient (var1, var2), 0.0001);
+    assertEquals ("Expecting different coefficient", 2 * COEFFICIENT, expr.getCoefficient (var2, var1), 0.0001);
+    assertEquals ("Expecting no coefficient", 0.0, expr.getCoefficient (var1, var1), 0.0001);
+    assertEquals ("Expecting different string", "10.0 x + 20.0 x * y", expr.toString ());
+
+    final QuadraticTerm term = expr.getQuadraticTerms ().get (0);
+    assertEquals ("Expecting different first variable", var1, term.getVariable1 ());
+    assertEquals ("Expecting different second variable", var2, term.getVariable2 ());
+
+    expr.removeQuadraticTerm (var2, var1);
+    assertTrue ("Expecting no quadratic terms", expr.getQuadraticTerms ().isEmpty ());
+    assertEquals ("Expecting linear term to remain", COEFFICIENT, expr.getCoefficient (var1), 0.0001);
 
+    final GurobiRangeConstraint range = new GurobiRangeConstraint (program, 0.0, 1.0);
     try {
-      expr.addTerm (COEFFICIENT, var1, var2);
+      new GurobiExpression (range).addTerm (COEFFICIENT, var1, var2);
       fail ("Expected UnsupportedOperationException");
     } catch (UnsupportedOperationException e) {
     }
-
-    assertTrue ("Expecting no qaudratic terms", expr.getQuadraticTerms ().isEmpty ());
-    assertEquals ("Expecting no coefficient", 0.0, expr.getCoefficient (var1, var2), 0.0001);
-
     try {
-      expr.removeQuadraticTerm (var1, var2);
+      new GurobiExpression (program).addTerm (COEFFICIENT, var1, var2);
       fail ("Expected UnsupportedOperationException");
     } catch (UnsupportedOperationException e) {
     }
+    try {
+      expr.addTerm (COEFFICIENT, var1, new GurobiVariable (new GurobiProgram (), VariableType.BINARY));
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
   }
 
   @Test
@@ -325,12 +409,21 @@ public class GurobiExpressionTest {
     final GurobiObjective obj2 = new GurobiObjective (program, ObjectiveSense.MINIMIZE);
     final GurobiConstraint constr1 = new GurobiConstraint (program, Operator.GREATER_EQUALS);
     final GurobiConstraint constr2 = new GurobiConstraint (program, Operator.LESS_EQUALS);
+    final GurobiRangeConstraint range1 = new GurobiRangeConstraint (program, 0.0, 1.0);
+    final GurobiRangeConstraint range2 = new GurobiRangeConstraint (program, 0.0, 2.0);
+    final GurobiQuadraticTerms terms1 = new GurobiQuadraticTerms ();
+    final GurobiQuadraticTerms terms2 = new GurobiQuadraticTerms ();
+    final GurobiVariable var = new GurobiVariable (program, VariableType.CONTINUOUS);
+    terms2.addTerm (1.0, var, var);
 
     EqualsVerifier.forClass (GurobiExpression.class)
-                  .allFieldsShouldBeUsedExcept ("objective", "constraint")
+                  .allFieldsShouldBeUsedExcept ("objective", "constraint", "rangeConstraint", "program", "released")
                   .suppress (Warning.NULL_FIELDS, Warning.NONFINAL_FIELDS)
                   .withPrefabValues (GurobiObjective.class, obj1, obj2)
                   .withPrefabValues (GurobiConstraint.class, constr1, constr2)
+                  .withPrefabValues (GurobiRangeConstraint.class, range1, range2)
+                  .withPrefabValues (GurobiProgram.class, program, new GurobiProgram ())
+                  .withPrefabValues (GurobiQuadraticTerms.class, terms1, terms2)
                   .verify ();
   }
 
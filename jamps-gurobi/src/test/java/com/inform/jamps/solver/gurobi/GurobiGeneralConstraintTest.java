@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.GeneralConstraintType;
+import com.inform.jamps.modeling.VariableType;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import nl.jqno.equalsverifier.Warning;
+
+public class GurobiGeneralConstraintTest {
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable resultant = new GurobiVariable (program);
+    final GurobiVariable[] operands = new GurobiVariable[] {new GurobiVariable (program),
+                                                            new GurobiVariable (program)};
+
+    try {
+      new GurobiGeneralConstraint ("General", null, resultant, operands, 0.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      new GurobiGeneralConstraint ("General", GeneralConstraintType.MAX, null, operands, 0.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      new GurobiGeneralConstraint ("General", GeneralConstraintType.ABS, resultant, operands, 0.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testEqualsAndHashCode () {
+    final GurobiProgram program = new GurobiProgram ();
+
+    EqualsVerifier.forClass (GurobiGeneralConstraint.class)
+                  .withPrefabValues (GurobiVariable.class, new GurobiVariable (program, "x1", VariableType.CONTINUOUS),
+                                     new GurobiVariable (program, "x2", VariableType.CONTINUOUS))
+                  .suppress (Warning.NULL_FIELDS, Warning.NONFINAL_FIELDS)
+                  .verify ();
+  }
+}
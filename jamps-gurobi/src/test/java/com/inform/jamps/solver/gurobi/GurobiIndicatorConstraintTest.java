@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.VariableType;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import nl.jqno.equalsverifier.Warning;
+
+public class GurobiIndicatorConstraintTest {
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    try {
+      new GurobiIndicatorConstraint (new GurobiProgram (), "Constraint", null, true, Operator.LESS_EQUALS);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testNativeRightHandSide () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable b = new GurobiVariable (program, VariableType.BINARY);
+    final GurobiVariable x = new GurobiVariable (program, VariableType.CONTINUOUS);
+    final GurobiIndicatorConstraint constr = new GurobiIndicatorConstraint (program, "Constraint", b, true,
+                                                                            Operator.LESS_EQUALS);
+    constr.getLhs ().addTerm (2.0, x);
+    constr.getLhs ().addTerm (1.0);
+    constr.getRhs ().addTerm (5.0);
+
+    assertEquals ("Expected constants moved to the right-hand side", 4.0, constr.getNativeRightHandSide (), 0.0);
+  }
+
+  @Test
+  public void testEqualsAndHashCode () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiExpression linExp1 = new GurobiExpression (new GurobiConstraint (program));
+    final GurobiExpression linExp2 = new GurobiExpression (new GurobiConstraint (program));
+
+    linExp1.addTerm (9.0);
+    linExp2.addTerm (10.0);
+
+    EqualsVerifier.forClass (GurobiIndicatorConstraint.class)
+                  .allFieldsShouldBeUsedExcept ("program", "nativeConstraint")
+                  .withRedefinedSuperclass ()
+                  .withPrefabValues (GurobiExpression.class, linExp1, linExp2)
+                  .withPrefabValues (GurobiVariable.class, new GurobiVariable (program, "b1", VariableType.BINARY),
+                                     new GurobiVariable (program, "b2", VariableType.BINARY))
+                  .suppress (Warning.NULL_FIELDS, Warning.NONFINAL_FIELDS)
+                  .verify ();
+  }
+
+  @Test
+  public void testNotEqualToConstraint () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable b = new GurobiVariable (program, VariableType.BINARY);
+    final GurobiIndicatorConstraint indicator = new GurobiIndicatorConstraint (program, "Constraint", b, true,
+                                                                               Operator.LESS_EQUALS);
+    final GurobiConstraint constr = new GurobiConstraint (program, "Constraint", Operator.LESS_EQUALS);
+
+    assertFalse ("Expected indicator constraint to differ from constraint", indicator.equals (constr));
+    assertFalse ("Expected constraint to differ from indicator constraint", constr.equals (indicator));
+    assertTrue ("Expected indicator constraint to equal itself", indicator.equals (indicator));
+  }
+}
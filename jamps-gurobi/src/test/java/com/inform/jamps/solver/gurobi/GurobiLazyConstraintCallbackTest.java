@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Expression;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.lazy.CandidateSolution;
+import com.inform.jamps.solver.lazy.LazyConstraint;
+import com.inform.jamps.solver.lazy.LazyConstraintGenerator;
+
+import gurobi.GRB;
+import gurobi.GRB.Status;
+import gurobi.GRBLinExpr;
+import gurobi.GRBVar;
+
+public class GurobiLazyConstraintCallbackTest {
+
+  private final GurobiProgram program = new GurobiProgram ();
+
+  private final Variable      var1    = program.addVariable ();
+
+  private final Variable      var2    = program.addVariable ();
+
+  @Before
+  public void assignNativeIndices () {
+    ((GurobiVariable) var1).setNativeIndex (0);
+    ((GurobiVariable) var2).setNativeIndex (1);
+  }
+
+  @Test
+  public void testSeparatingCandidateIncumbents () {
+    program.addObjective (ObjectiveSense.MINIMIZE);
+
+    final List<Boolean> integralCalls = new ArrayList<Boolean> ();
+    final RecordingCallback callback = new RecordingCallback (new LazyConstraintGenerator () {
+
+      @Override
+      public boolean isSeparatingNodeRelaxations () {
+        return false;
+      }
+
+      @Override
+      public List<LazyConstraint> separate (final CandidateSolution candidate) {
+        integralCalls.add (candidate.isIntegral ());
+        if (candidate.getVariableValue (var1) + candidate.getVariableValue (var2) <= 1.0) {
+          return Collections.emptyList ();
+        }
+
+        final Expression lhs = candidate.createExpression ().addTerm (1.0, var1).addTerm (1.0, var2).addTerm (0.5);
+        return Arrays.asList (new LazyConstraint (lhs, Operator.LESS_EQUALS, 1.5),
+                              new LazyConstraint (lhs, Operator.LESS_EQUALS, 1.5, true));
+      }
+    });
+
+    callback.invoke (GRB.Callback.MIPSOL, new double[] {1.0, 1.0});
+    callback.invoke (GRB.Callback.MIPSOL, new double[] {1.0, 0.0});
+    callback.invoke (GRB.Callback.MIPNODE, new double[] {1.0, 1.0});
+
+    assertEquals ("Expecting different generator calls", Arrays.asList (true, true), integralCalls);
+    assertEquals ("Expecting different lazy constraints count", 1, callback.getLazyConstraintsCount ());
+    assertEquals ("Expecting no user cuts", 0, callback.getUserCutsCount ());
+    assertEquals ("Expecting different right-hand side", 1.0, callback.lastRhs, 0.0);
+    assertEquals ("Expecting different sense", GRB.LESS_EQUAL, callback.lastSense);
+    assertNull ("Expecting no failure", callback.getFailure ());
+  }
+
+  @Test
+  public void testSeparatingNodeRelaxations () {
+    final RecordingCallback callback = new RecordingCallback (new LazyConstraintGenerator () {
+
+      @Override
+      public boolean isSeparatingNodeRelaxations () {
+        return true;
+      }
+
+      @Override
+      public List<LazyConstraint> separate (final CandidateSolution candidate) {
+        final Expression lhs = candidate.createExpression ().addTerm (1.0, var1);
+        return Arrays.asList (new LazyConstraint (lhs, Operator.GREATER_EQUALS, 0.0, true));
+      }
+    });
+
+    callback.invoke (GRB.Callback.MIPNODE, new double[] {0.5, 0.5});
+    callback.nodeStatus = Status.INFEASIBLE;
+    callback.invoke (GRB.Callback.MIPNODE, new double[] {0.5, 0.5});
+
+    assertEquals ("Expecting different user cuts count", 1, callback.getUserCutsCount ());
+    assertEquals ("Expecting no lazy constraints", 0, callback.getLazyConstraintsCount ());
+    assertEquals ("Expecting different sense", GRB.GREATER_EQUAL, callback.lastSense);
+  }
+
+  @Test
+  public void testAbortingOnGeneratorErrors () {
+    final Expression foreignExpression = new GurobiExpression (new GurobiProgram ());
+    final RecordingCallback callback = new RecordingCallback (new LazyConstraintGenerator () {
+
+      @Override
+      public boolean isSeparatingNodeRelaxations () {
+        return false;
+      }
+
+      @Override
+      public List<LazyConstraint> separate (final CandidateSolution candidate) {
+        return Arrays.asList (new LazyConstraint (foreignExpression, Operator.EQUALS, 0.0));
+      }
+    });
+
+    callback.invoke (GRB.Callback.MIPSOL, new double[] {0.0, 0.0});
+    callback.invoke (GRB.Callback.MIPSOL, new double[] {0.0, 0.0});
+
+    assertTrue ("Expecting failure", callback.getFailure () instanceof IllegalArgumentException);
+    assertEquals ("Expecting single abort", 1, callback.abortsCount);
+  }
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    try {
+      new GurobiLazyConstraintCallback (null, new NoopGenerator ());
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new GurobiLazyConstraintCallback (program, null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  /**
+   * Replaces the native callback API with recorded values, so the callback can be exercised without a solve.
+   */
+  private class RecordingCallback extends GurobiLazyConstraintCallback {
+
+    private double[]                      values;
+
+    private int                           nodeStatus = Status.OPTIMAL;
+
+    private char                          lastSense;
+
+    private double                        lastRhs;
+
+    private int                           abortsCount;
+
+    private RecordingCallback (final LazyConstraintGenerator generator) {
+      super (program, generator);
+    }
+
+    private void invoke (final int where,
+                         final double[] values) {
+      this.where = where;
+      this.values = values;
+      callback ();
+    }
+
+    @Override
+    protected double[] getSolution (final GRBVar[] vars) {
+      return values;
+    }
+
+    @Override
+    protected double[] getNodeRel (final GRBVar[] vars) {
+      return values;
+    }
+
+    @Override
+    protected int getIntInfo (final int what) {
+      return nodeStatus;
+    }
+
+    @Override
+    protected void addLazy (final GRBLinExpr expr,
+                            final char sense,
+                            final double rhs) {
+      lastSense = sense;
+      lastRhs = rhs;
+    }
+
+    @Override
+    protected void addCut (final GRBLinExpr expr,
+                           final char sense,
+                           final double rhs) {
+      lastSense = sense;
+      lastRhs = rhs;
+    }
+
+    @Override
+    protected void abort () {
+      abortsCount++;
+    }
+  }
+
+  private static class NoopGenerator implements LazyConstraintGenerator {
+
+    @Override
+    public boolean isSeparatingNodeRelaxations () {
+      return false;
+    }
+
+    @Override
+    public List<LazyConstraint> separate (final CandidateSolution candidate) {
+      return Collections.emptyList ();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.columngeneration.Column;
+
+public class GurobiMasterProblemTest {
+
+  @Test
+  public void testObjectCreationAndGetters () {
+    final GurobiProgram p = new GurobiProgram ();
+    p.addObjective (ObjectiveSense.MAXIMIZE);
+    final Constraint constraint = p.addConstraint (Operator.LESS_EQUALS);
+
+    final GurobiMasterProblem master = new GurobiMasterProblem (new GurobiSolverParameters (), p);
+
+    assertSame ("Expecting same program", p, master.getProgram ());
+    assertEquals ("Expecting different objective sense", ObjectiveSense.MAXIMIZE, master.getObjectiveSense ());
+
+    final List<Variable> vars = master.addColumns (Arrays.asList (new Column ().addCoefficient (constraint, 1.0)));
+    assertEquals ("Expecting different variables count", 1, p.getVariablesCount ());
+    assertEquals ("Expecting different coefficient", 1.0, constraint.getLhs ().getCoefficient (vars.get (0)), 0.0);
+  }
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    try {
+      new GurobiMasterProblem (null, new GurobiProgram ());
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new GurobiMasterProblem (new GurobiSolverParameters (), null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    final GurobiSolverFactory factory = new GurobiSolverFactory ();
+    try {
+      factory.createMasterProblem (factory.createParameters (), null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      factory.createMasterProblem (factory.createParameters (), mock (Program.class));
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+}
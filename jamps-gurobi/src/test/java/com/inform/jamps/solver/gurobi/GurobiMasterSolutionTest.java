@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Variable;
+
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRB.IntAttr;
+import gurobi.GRB.Status;
+import gurobi.GRBConstr;
+import gurobi.GRBException;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+public class GurobiMasterSolutionTest {
+
+  private final GurobiProgram    program = new GurobiProgram ();
+
+  private final GurobiVariable   var     = (GurobiVariable) program.addVariable ();
+
+  private final GurobiConstraint constr1 = (GurobiConstraint) program.addConstraint ();
+
+  private final GurobiConstraint constr2 = (GurobiConstraint) program.addConstraint ();
+
+  private final GRBVar           grbVar  = mock (GRBVar.class);
+
+  private final GRBConstr[]      grbCons = new GRBConstr[] {mock (GRBConstr.class), mock (GRBConstr.class)};
+
+  @Test
+  public void testReadingOptimalSolution () throws GRBException {
+    program.addObjective (ObjectiveSense.MINIMIZE);
+    assignNativeObjects ();
+
+    final GRBModel model = mock (GRBModel.class);
+    when (model.get (IntAttr.Status)).thenReturn (Status.OPTIMAL);
+    when (model.get (DoubleAttr.Runtime)).thenReturn (1.5);
+    when (model.get (DoubleAttr.ObjVal)).thenReturn (7.0);
+    when (model.get (eq (DoubleAttr.X), aryEq (new GRBVar[] {grbVar}))).thenReturn (new double[] {2.0});
+    when (model.get (eq (DoubleAttr.Pi), aryEq (grbCons))).thenReturn (new double[] {0.5, -1.5});
+
+    final GurobiMasterSolution solution = new GurobiMasterSolution (program, model);
+
+    assertTrue ("Expecting optimal solution", solution.isOptimal ());
+    assertFalse ("Expecting feasible solution", solution.isInfeasible ());
+    assertEquals ("Expecting different objective value", 7.0, solution.getObjectiveValue (), 0.0);
+    assertEquals ("Expecting different execution time", 1500, solution.getExecutionTimeMillis ());
+    assertEquals ("Expecting different variable value", 2.0, solution.getVariableValue (var), 0.0);
+    assertEquals ("Expecting different dual value", 0.5, solution.getDualValue (constr1), 0.0);
+    assertEquals ("Expecting different dual value", -1.5, solution.getDualValue (constr2), 0.0);
+
+    final Variable foreignVar = new GurobiProgram ().addVariable ();
+    try {
+      solution.getVariableValue (foreignVar);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    final Constraint foreignConstr = new GurobiProgram ().addConstraint ();
+    try {
+      solution.getDualValue (foreignConstr);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testReadingInfeasibleSolution () throws GRBException {
+    assignNativeObjects ();
+
+    final GRBModel model = mock (GRBModel.class);
+    when (model.get (IntAttr.Status)).thenReturn (Status.INFEASIBLE);
+
+    final GurobiMasterSolution solution = new GurobiMasterSolution (program, model);
+
+    assertFalse ("Expecting no optimal solution", solution.isOptimal ());
+    assertTrue ("Expecting infeasible solution", solution.isInfeasible ());
+    assertTrue ("Expecting no objective value", Double.isNaN (solution.getObjectiveValue ()));
+    verify (model, never ()).get (eq (DoubleAttr.Pi), any (GRBConstr[].class));
+
+    try {
+      solution.getDualValue (constr1);
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+  }
+
+  private void assignNativeObjects () {
+    var.setNativeIndex (0);
+    var.setNativeVariable (grbVar);
+    constr1.setNativeConstraint (grbCons[0]);
+    constr2.setNativeConstraint (grbCons[1]);
+  }
+}
@@ -98,6 +98,40 @@ public class GurobiObjectiveTest {
     }
   }
 
+  @Test
+  public void testMultiObjectiveSettings () {
+    final GurobiObjective objective = new GurobiObjective (new GurobiProgram ());
+
+    assertEquals ("Expected default priority", GurobiObjective.DEFAULT_PRIORITY, objective.getPriority ());
+    assertEquals ("Expected default weight", GurobiObjective.DEFAULT_WEIGHT, objective.getWeight (), 0.0);
+    assertEquals ("Expected default absolute tolerance", GurobiObjective.DEFAULT_ABSOLUTE_TOLERANCE,
+                  objective.getAbsoluteTolerance (), 0.0);
+    assertEquals ("Expected default relative tolerance", GurobiObjective.DEFAULT_RELATIVE_TOLERANCE,
+                  objective.getRelativeTolerance (), 0.0);
+
+    objective.setPriority (3);
+    objective.setWeight (0.5);
+    objective.setAbsoluteTolerance (0.1);
+    objective.setRelativeTolerance (0.01);
+
+    assertEquals ("Expected different priority", 3, objective.getPriority ());
+    assertEquals ("Expected different weight", 0.5, objective.getWeight (), 0.0);
+    assertEquals ("Expected different absolute tolerance", 0.1, objective.getAbsoluteTolerance (), 0.0);
+    assertEquals ("Expected different relative tolerance", 0.01, objective.getRelativeTolerance (), 0.0);
+
+    try {
+      objective.setAbsoluteTolerance (-1.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      objective.setRelativeTolerance (-1.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
   @Test
   public void testEqualsAndHashCode () {
     final GurobiExpression linExp1 = new GurobiExpression (new GurobiConstraint (new GurobiProgram ()));
@@ -107,7 +141,8 @@ public class GurobiObjectiveTest {
     linExp2.addTerm (10.0);
 
     EqualsVerifier.forClass (GurobiObjective.class)
-                  .allFieldsShouldBeUsedExcept ("program")
+                  .allFieldsShouldBeUsedExcept ("program", "priority", "weight", "absoluteTolerance",
+                                               "relativeTolerance")
                   .withPrefabValues (GurobiExpression.class, linExp1, linExp2)
                   .suppress (Warning.NULL_FIELDS, Warning.NONFINAL_FIELDS)
                   .verify ();
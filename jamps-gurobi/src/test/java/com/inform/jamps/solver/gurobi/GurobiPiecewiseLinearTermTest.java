@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.VariableType;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import nl.jqno.equalsverifier.Warning;
+
+public class GurobiPiecewiseLinearTermTest {
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiObjective objective = new GurobiObjective (program, ObjectiveSense.MINIMIZE);
+    final GurobiVariable variable = new GurobiVariable (program, VariableType.CONTINUOUS);
+
+    try {
+      new GurobiPiecewiseLinearTerm (objective, variable, new double[] {0.0, 1.0}, new double[] {0.0});
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      new GurobiPiecewiseLinearTerm (objective, variable, new double[] {1.0, 0.0}, new double[] {0.0, 1.0});
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testEvaluation () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiPiecewiseLinearTerm term = new GurobiPiecewiseLinearTerm (new GurobiObjective (program),
+                                                                          new GurobiVariable (program),
+                                                                          new double[] {0.0, 2.0, 2.0, 4.0},
+                                                                          new double[] {0.0, 4.0, 6.0, 7.0});
+
+    assertEquals ("Expected extrapolation of first segment", -2.0, term.evaluate (-1.0), 1e-9);
+    assertEquals ("Expected interpolation", 2.0, term.evaluate (1.0), 1e-9);
+    assertEquals ("Expected value of left segment at step", 4.0, term.evaluate (2.0), 1e-9);
+    assertEquals ("Expected interpolation after step", 6.5, term.evaluate (3.0), 1e-9);
+    assertEquals ("Expected extrapolation of last segment", 8.0, term.evaluate (6.0), 1e-9);
+  }
+
+  @Test
+  public void testNativeValues () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiPiecewiseLinearTerm term = new GurobiPiecewiseLinearTerm (new GurobiObjective (program),
+                                                                          new GurobiVariable (program),
+                                                                          new double[] {0.0, 2.0},
+                                                                          new double[] {1.0, 3.0});
+
+    assertArrayEquals ("Expected negated values with linear term", new double[] {-1.0, -1.0},
+                       term.getNativeValues (-1.0, 1.0), 1e-9);
+  }
+
+  @Test
+  public void testEqualsAndHashCode () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiObjective obj1 = new GurobiObjective (program, "obj1", ObjectiveSense.MINIMIZE);
+    final GurobiObjective obj2 = new GurobiObjective (program, "obj2", ObjectiveSense.MINIMIZE);
+
+    EqualsVerifier.forClass (GurobiPiecewiseLinearTerm.class)
+                  .withPrefabValues (GurobiObjective.class, obj1, obj2)
+                  .withPrefabValues (GurobiVariable.class, new GurobiVariable (program, "x1", VariableType.CONTINUOUS),
+                                     new GurobiVariable (program, "x2", VariableType.CONTINUOUS))
+                  .suppress (Warning.NULL_FIELDS, Warning.NONFINAL_FIELDS)
+                  .verify ();
+  }
+}
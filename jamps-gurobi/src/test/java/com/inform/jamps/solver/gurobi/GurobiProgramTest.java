@@ -14,6 +14,7 @@
 package com.inform.jamps.solver.gurobi;
 
 import static org.junit.Assert.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
@@ -24,22 +25,31 @@ import java.util.List;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareOnlyThisForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import com.inform.jamps.exception.DuplicateEntryException;
 import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.GeneralConstraint;
+import com.inform.jamps.modeling.GeneralConstraintType;
+import com.inform.jamps.modeling.IndicatorConstraint;
 import com.inform.jamps.modeling.Objective;
 import com.inform.jamps.modeling.ObjectiveSense;
 import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.PiecewiseLinearTerm;
+import com.inform.jamps.modeling.SOSConstraint;
+import com.inform.jamps.modeling.SOSType;
 import com.inform.jamps.modeling.Variable;
 import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.columngeneration.Column;
 
 import gurobi.GRB;
 import gurobi.GRB.DoubleAttr;
 import gurobi.GRB.IntAttr;
 import gurobi.GRB.StringAttr;
+import gurobi.GRBColumn;
 import gurobi.GRBConstr;
 import gurobi.GRBEnv;
 import gurobi.GRBException;
@@ -131,6 +141,48 @@ public class GurobiProgramTest {
                 Matchers.containsInAnyOrder (var1, var2, var3, var4, var5));
   }
 
+  @Test
+  public void testSettingBoundsAndInitialValues () {
+    final GurobiProgram p = new GurobiProgram ();
+    final Variable var1 = p.addVariable ();
+    final Variable var2 = p.addVariable ();
+    final Variable[] vars = new Variable[] {var1, var2};
+
+    p.setBounds (vars, new double[] {-1.0, 0.0}, new double[] {1.0, 2.0});
+    p.setInitialValues (vars, new double[] {0.5, 1.5});
+
+    assertEquals ("Expecting different lower bound", -1.0, var1.getLowerBound (), 0.0);
+    assertEquals ("Expecting different lower bound", 0.0, var2.getLowerBound (), 0.0);
+    assertEquals ("Expecting different upper bound", 1.0, var1.getUpperBound (), 0.0);
+    assertEquals ("Expecting different upper bound", 2.0, var2.getUpperBound (), 0.0);
+    assertEquals ("Expecting different initial value", 0.5, var1.getInitialValue (), 0.0);
+    assertEquals ("Expecting different initial value", 1.5, var2.getInitialValue (), 0.0);
+
+    try {
+      p.setBounds (vars, new double[] {0.0}, new double[] {1.0, 2.0});
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      p.setBounds (null, new double[0], new double[0]);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      p.setInitialValues (vars, new double[] {0.0});
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      p.setInitialValues (new Variable[] {new GurobiProgram ().addVariable ()}, new double[] {0.0});
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
   @Test (expected = DuplicateEntryException.class)
   public void testAddingDuplicateVariables () {
     final GurobiProgram p = new GurobiProgram ();
@@ -193,6 +245,61 @@ public class GurobiProgramTest {
                 Matchers.containsInAnyOrder (c1, c2, c3));
   }
 
+  @Test
+  public void testAddingGeneralConstraints () {
+    final GurobiProgram p = new GurobiProgram ();
+    final Variable x = p.addVariable ("x", VariableType.CONTINUOUS);
+    final Variable y = p.addVariable ("y", VariableType.CONTINUOUS);
+    final Variable b = p.addVariable ("b", VariableType.BINARY);
+    final Objective obj = p.addObjective ();
+
+    assertFalse ("Expecting no general constraints", p.hasGeneralConstraints ());
+
+    final IndicatorConstraint indicator = p.addIndicatorConstraint ("i", b, false, Operator.LESS_EQUALS);
+    final SOSConstraint sos = p.addSOSConstraint ("s", SOSType.TYPE2, new Variable[] {x, y}, new double[] {1.0, 2.0});
+    final GeneralConstraint max = p.addGeneralConstraint ("g", GeneralConstraintType.MAX, y, new Variable[] {x}, 3.0);
+    final PiecewiseLinearTerm term = p.addPiecewiseLinearTerm (obj, x, new double[] {0.0, 1.0},
+                                                               new double[] {0.0, 2.0});
+
+    assertTrue ("Expecting general constraints", p.hasGeneralConstraints ());
+    assertEquals ("Expecting indicator constraint not to be a row", 0, p.getConstraintsCount ());
+    assertEquals ("Expecting different indicator constraints", Arrays.asList (indicator),
+                  p.getIndicatorConstraints ());
+    assertEquals ("Expecting different SOS constraints", Arrays.asList (sos), p.getSOSConstraints ());
+    assertEquals ("Expecting different general constraints", Arrays.asList (max), p.getGeneralConstraints ());
+    assertEquals ("Expecting different piecewise-linear terms", Arrays.asList (term), p.getPiecewiseLinearTerms ());
+    assertEquals ("Expecting different indicator variable", b, indicator.getIndicatorVariable ());
+    assertFalse ("Expecting different indicator value", indicator.getIndicatorValue ());
+    assertEquals ("Expecting different SOS type", SOSType.TYPE2, sos.getType ());
+    assertEquals ("Expecting different resultant", y, max.getResultant ());
+    assertEquals ("Expecting different constant", 3.0, max.getConstant (), 0.0);
+
+    try {
+      p.addPiecewiseLinearTerm (obj, x, new double[] {0.0}, new double[] {1.0});
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      p.addGeneralConstraint ("a", GeneralConstraintType.ABS, y, new Variable[] {x, b}, 0.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      p.addSOSConstraint ("w", SOSType.TYPE1, new Variable[] {x, y}, new double[] {1.0});
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      p.removeVariables (new Variable[] {b});
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    p.removeConstraints (new Constraint[] {indicator});
+
+    assertTrue ("Expecting indicator constraint to be removed", p.getIndicatorConstraints ().isEmpty ());
+  }
+
   @Test
   public void testSettingNativeEnvironment () {
     final GRBEnv grbEnv = mock (GRBEnv.class);
@@ -220,16 +327,20 @@ public class GurobiProgramTest {
                             any (double[].class),
                             any (double[].class),
                             any (char[].class),
-                            any (String[].class))).thenReturn (new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class),
-                                                                             mock (GRBVar.class), mock (GRBVar.class),
-                                                                             mock (GRBVar.class)});
+                            any (String[].class),
+                            anyInt (),
+                            anyInt ())).thenReturn (new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class),
+                                                                  mock (GRBVar.class), mock (GRBVar.class),
+                                                                  mock (GRBVar.class)});
 
     when (grbModel.addConstrs (any (GRBLinExpr[].class),
                                any (char[].class),
                                any (double[].class),
-                               any (String[].class))).thenReturn (new GRBConstr[] {mock (GRBConstr.class),
-                                                                                   mock (GRBConstr.class),
-                                                                                   mock (GRBConstr.class)});
+                               any (String[].class),
+                               anyInt (),
+                               anyInt ())).thenReturn (new GRBConstr[] {mock (GRBConstr.class),
+                                                                        mock (GRBConstr.class),
+                                                                        mock (GRBConstr.class)});
 
     final GurobiProgram p1 = createProgram (ObjectiveSense.MINIMIZE);
     final GurobiProgram p2 = createProgram (ObjectiveSense.MAXIMIZE);
@@ -250,6 +361,531 @@ public class GurobiProgramTest {
     assertSame ("Expecting same object", nativeModel1, nativeModel1Cached);
   }
 
+  @Test
+  @PrepareOnlyThisForTest (GurobiProgram.class)
+  public void testChunkedTransferToNativeModel () throws Exception {
+    final GRBEnv grbEnv = mock (GRBEnv.class);
+    final GRBModel grbModel = mock (GRBModel.class);
+    final GurobiTransferListener listener = mock (GurobiTransferListener.class);
+    PowerMockito.whenNew (GRBModel.class).withAnyArguments ().thenReturn (grbModel);
+
+    when (grbModel.addVars (any (double[].class),
+                            any (double[].class),
+                            any (double[].class),
+                            any (char[].class),
+                            any (String[].class),
+                            anyInt (),
+                            anyInt ())).thenReturn (new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class)});
+
+    when (grbModel.addConstrs (any (GRBLinExpr[].class),
+                               any (char[].class),
+                               any (double[].class),
+                               any (String[].class),
+                               anyInt (),
+                               anyInt ())).thenReturn (new GRBConstr[] {mock (GRBConstr.class),
+                                                                        mock (GRBConstr.class)});
+
+    final GurobiProgram p = createProgram (ObjectiveSense.MINIMIZE);
+    final Variable var = p.getVariables ().get (0);
+    p.addConstraint (Operator.LESS_EQUALS).getLhs ().addTerm (1.0, var);
+    p.addConstraint (Operator.GREATER_EQUALS).getLhs ().addTerm (2.0, var);
+
+    final GurobiSolverParameters parameters = new GurobiSolverParameters ();
+    parameters.setTransferChunkSize (2);
+    parameters.setTransferListener (listener);
+    p.setNativeEnvironment (grbEnv);
+    p.setSolverParameters (parameters);
+    p.getNativeModel ();
+
+    verify (grbModel, times (2)).addVars (any (double[].class),
+                                          any (double[].class),
+                                          any (double[].class),
+                                          any (char[].class),
+                                          any (String[].class),
+                                          eq (0),
+                                          eq (2));
+    verify (grbModel).addVars (any (double[].class),
+                               any (double[].class),
+                               any (double[].class),
+                               any (char[].class),
+                               any (String[].class),
+                               eq (0),
+                               eq (1));
+    verify (grbModel, times (3)).addVars (any (double[].class),
+                                          any (double[].class),
+                                          any (double[].class),
+                                          any (char[].class),
+                                          any (String[].class),
+                                          anyInt (),
+                                          anyInt ());
+
+    verify (grbModel, times (2)).addConstrs (any (GRBLinExpr[].class),
+                                             any (char[].class),
+                                             any (double[].class),
+                                             any (String[].class),
+                                             eq (0),
+                                             eq (2));
+    verify (grbModel).addConstrs (any (GRBLinExpr[].class),
+                                  any (char[].class),
+                                  any (double[].class),
+                                  any (String[].class),
+                                  eq (0),
+                                  eq (1));
+    verify (grbModel, times (3)).addConstrs (any (GRBLinExpr[].class),
+                                             any (char[].class),
+                                             any (double[].class),
+                                             any (String[].class),
+                                             anyInt (),
+                                             anyInt ());
+
+    final InOrder inOrder = inOrder (listener);
+    inOrder.verify (listener).variablesTransferred (2, 5);
+    inOrder.verify (listener).variablesTransferred (4, 5);
+    inOrder.verify (listener).variablesTransferred (5, 5);
+    inOrder.verify (listener).constraintsTransferred (2, 5);
+    inOrder.verify (listener).constraintsTransferred (4, 5);
+    inOrder.verify (listener).constraintsTransferred (5, 5);
+    verifyNoMoreInteractions (listener);
+  }
+
+  @Test
+  @PrepareOnlyThisForTest (GurobiProgram.class)
+  public void testNativeObjectivesOfReleasedProgram () throws Exception {
+    final GRBEnv grbEnv = mock (GRBEnv.class);
+    final GRBModel grbModel = mock (GRBModel.class);
+    PowerMockito.whenNew (GRBModel.class).withAnyArguments ().thenReturn (grbModel);
+
+    when (grbModel.addVars (any (double[].class),
+                            any (double[].class),
+                            any (double[].class),
+                            any (char[].class),
+                            any (String[].class),
+                            anyInt (),
+                            anyInt ())).thenReturn (new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class),
+                                                                  mock (GRBVar.class), mock (GRBVar.class),
+                                                                  mock (GRBVar.class)});
+
+    when (grbModel.addConstrs (any (GRBLinExpr[].class),
+                               any (char[].class),
+                               any (double[].class),
+                               any (String[].class),
+                               anyInt (),
+                               anyInt ())).thenReturn (new GRBConstr[] {mock (GRBConstr.class),
+                                                                        mock (GRBConstr.class),
+                                                                        mock (GRBConstr.class)});
+
+    final GurobiProgram p = createProgram (ObjectiveSense.MINIMIZE);
+    final GurobiSolverParameters parameters = new GurobiSolverParameters ();
+    parameters.setReleaseAfterTransfer (true);
+    p.setNativeEnvironment (grbEnv);
+    p.setSolverParameters (parameters);
+    p.getNativeModel ();
+
+    assertTrue ("Expected released program", p.isReleased ());
+    verify (grbModel).setObjectiveN (any (GRBLinExpr.class), eq (0), eq (0), eq (1.0),
+                                     eq (GurobiObjective.DEFAULT_ABSOLUTE_TOLERANCE),
+                                     eq (GurobiObjective.DEFAULT_RELATIVE_TOLERANCE), anyString ());
+    verify (grbModel).setObjectiveN (any (GRBLinExpr.class), eq (1), eq (0), eq (-1.0),
+                                     eq (GurobiObjective.DEFAULT_ABSOLUTE_TOLERANCE),
+                                     eq (GurobiObjective.DEFAULT_RELATIVE_TOLERANCE), anyString ());
+
+    // Changed weights are applied to the native objectives in place
+    when (grbModel.getEnv ()).thenReturn (grbEnv);
+    p.getObjectives ().get (1).setWeight (2.0);
+    p.getObjectives ().get (1).setPriority (5);
+    verify (grbEnv, times (2)).set (GRB.IntParam.ObjNumber, 1);
+    verify (grbModel, times (2)).set (DoubleAttr.ObjNWeight, -2.0);
+    verify (grbModel, never ()).set (eq (IntAttr.ObjNPriority), anyInt ());
+  }
+
+  @Test
+  @PrepareOnlyThisForTest (GurobiProgram.class)
+  public void testUpdateOfModifiedNativeModel () throws Exception {
+    final GRBEnv grbEnv = mock (GRBEnv.class);
+    final GRBModel grbModel = mock (GRBModel.class);
+    PowerMockito.whenNew (GRBModel.class).withAnyArguments ().thenReturn (grbModel);
+
+    final GRBVar[] nativeVars = new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class), mock (GRBVar.class),
+                                              mock (GRBVar.class), mock (GRBVar.class), mock (GRBVar.class)};
+    final GRBConstr[] nativeConstrs = new GRBConstr[] {mock (GRBConstr.class), mock (GRBConstr.class),
+                                                       mock (GRBConstr.class)};
+    when (grbModel.addVars (any (double[].class),
+                            any (double[].class),
+                            any (double[].class),
+                            any (char[].class),
+                            any (String[].class),
+                            anyInt (),
+                            anyInt ())).thenReturn (nativeVars);
+    when (grbModel.addConstrs (any (GRBLinExpr[].class),
+                               any (char[].class),
+                               any (double[].class),
+                               any (String[].class),
+                               anyInt (),
+                               anyInt ())).thenReturn (nativeConstrs);
+    when (grbModel.getRow (any (GRBConstr.class))).thenReturn (new GRBLinExpr ());
+
+    final GurobiProgram p = createProgram (ObjectiveSense.MINIMIZE);
+    p.setNativeEnvironment (grbEnv);
+
+    p.getNativeModel ();
+    assertFalse ("Expecting unmodified program after creation", p.isModified ());
+
+    // Bounds, right-hand sides and objectives of elements in the native model are changed in place
+    final GurobiConstraint constraint = p.getConstraints ().get (0);
+    constraint.getRhs ().addTerm (1.0);
+    p.getVariables ().get (0).setUpperBound (10.0);
+    p.getObjectives ().get (0).getExpression ().addTerm (2.0);
+    assertFalse ("Expecting no structural modification", p.isModified ());
+
+    p.getNativeModel ();
+    verify (grbModel, never ()).dispose ();
+    verify (grbModel).set (eq (DoubleAttr.RHS), aryEq (new GRBConstr[] {constraint.getNativeConstraint ()}),
+                           any (double[].class));
+    verify (grbModel).set (eq (DoubleAttr.UB), aryEq (new GRBVar[] {nativeVars[0]}), aryEq (new double[] {10.0}));
+    verify (grbModel, times (2)).set (eq (DoubleAttr.ObjCon), anyDouble ());
+
+    // Adding variables changes the structure of the program, so the native model is recreated
+    p.addVariable ();
+    assertTrue ("Expecting modified program", p.isModified ());
+
+    p.getNativeModel ();
+    verify (grbModel).dispose ();
+    verify (grbModel, times (2)).addVars (any (double[].class),
+                                          any (double[].class),
+                                          any (double[].class),
+                                          any (char[].class),
+                                          any (String[].class),
+                                          anyInt (),
+                                          anyInt ());
+    assertFalse ("Expecting unmodified program after recreation", p.isModified ());
+
+    final GurobiSolverParameters parameters = new GurobiSolverParameters ();
+    parameters.setReleaseAfterTransfer (true);
+    final GurobiProgram released = createProgram (ObjectiveSense.MINIMIZE);
+    released.setNativeEnvironment (grbEnv);
+    released.setSolverParameters (parameters);
+    released.getNativeModel ();
+
+    released.getVariables ().get (0).setUpperBound (10.0);
+    released.getNativeModel ();
+    verify (grbModel, times (1)).dispose ();
+
+    released.addVariable ();
+
+    try {
+      released.getNativeModel ();
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+  }
+
+  @Test
+  @PrepareOnlyThisForTest (GurobiProgram.class)
+  public void testTransferOfModifiedVariables () throws Exception {
+    final GRBEnv grbEnv = mock (GRBEnv.class);
+    final GRBModel grbModel = mock (GRBModel.class);
+    final GRBVar[] grbVars = new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class), mock (GRBVar.class),
+                                           mock (GRBVar.class), mock (GRBVar.class)};
+    PowerMockito.whenNew (GRBModel.class).withAnyArguments ().thenReturn (grbModel);
+
+    when (grbModel.addVars (any (double[].class),
+                            any (double[].class),
+                            any (double[].class),
+                            any (char[].class),
+                            any (String[].class),
+                            anyInt (),
+                            anyInt ())).thenReturn (grbVars);
+
+    when (grbModel.addConstrs (any (GRBLinExpr[].class),
+                               any (char[].class),
+                               any (double[].class),
+                               any (String[].class),
+                               anyInt (),
+                               anyInt ())).thenReturn (new GRBConstr[] {mock (GRBConstr.class),
+                                                                        mock (GRBConstr.class),
+                                                                        mock (GRBConstr.class)});
+
+    final GurobiProgram p = createProgram (ObjectiveSense.MINIMIZE);
+    p.setNativeEnvironment (grbEnv);
+    p.getNativeModel ();
+
+    final GurobiVariable var1 = p.getVariables ().get (1);
+    final GurobiVariable var3 = p.getVariables ().get (3);
+    p.setBounds (new Variable[] {var3, var1}, new double[] {-3.0, -1.0}, new double[] {3.0, 1.0});
+    p.setInitialValues (new Variable[] {var1}, new double[] {0.5});
+
+    p.getNativeModel ();
+
+    verify (grbModel).set (eq (DoubleAttr.LB),
+                           aryEq (new GRBVar[] {grbVars[1], grbVars[3]}),
+                           aryEq (new double[] {-1.0, -3.0}));
+    verify (grbModel).set (eq (DoubleAttr.UB),
+                           aryEq (new GRBVar[] {grbVars[1], grbVars[3]}),
+                           aryEq (new double[] {1.0, 3.0}));
+    verify (grbModel).set (eq (DoubleAttr.Start), aryEq (new GRBVar[] {grbVars[1]}), aryEq (new double[] {0.5}));
+    verify (grbModel, never ()).dispose ();
+
+    p.getNativeModel ();
+
+    verify (grbModel, times (1)).set (eq (DoubleAttr.LB), any (GRBVar[].class), any (double[].class));
+  }
+
+  @Test
+  @PrepareOnlyThisForTest (GurobiProgram.class)
+  public void testTransferOfModifiedObjectiveCoefficients () throws Exception {
+    final GRBEnv grbEnv = mock (GRBEnv.class);
+    final GRBModel grbModel = mock (GRBModel.class);
+    final GRBVar[] grbVars = new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class), mock (GRBVar.class),
+                                           mock (GRBVar.class), mock (GRBVar.class)};
+    PowerMockito.whenNew (GRBModel.class).withAnyArguments ().thenReturn (grbModel);
+
+    when (grbModel.addVars (any (double[].class),
+                            any (double[].class),
+                            any (double[].class),
+                            any (char[].class),
+                            any (String[].class),
+                            anyInt (),
+                            anyInt ())).thenReturn (grbVars);
+
+    when (grbModel.addConstrs (any (GRBLinExpr[].class),
+                               any (char[].class),
+                               any (double[].class),
+                               any (String[].class),
+                               anyInt (),
+                               anyInt ())).thenReturn (new GRBConstr[] {mock (GRBConstr.class),
+                                                                        mock (GRBConstr.class),
+                                                                        mock (GRBConstr.class)});
+
+    final GurobiProgram p = createProgram (ObjectiveSense.MINIMIZE);
+    p.setNativeEnvironment (grbEnv);
+    p.getNativeModel ();
+
+    // Second objective has the opposite sense and is subtracted from the first one
+    final GurobiVariable var1 = p.getVariables ().get (1);
+    p.setObjectiveCoefficients (p.getObjectives ().get (0), new Variable[] {var1}, new double[] {7.0});
+
+    p.getNativeModel ();
+
+    verify (grbModel).set (eq (DoubleAttr.Obj), aryEq (new GRBVar[] {grbVars[1]}), aryEq (new double[] {5.0}));
+    verify (grbModel, never ()).dispose ();
+  }
+
+  @Test
+  public void testSettingObjectiveCoefficients () {
+    final GurobiProgram p = new GurobiProgram ();
+    final Variable var1 = p.addVariable ();
+    final Variable var2 = p.addVariable ();
+    final Objective obj = p.addObjective ();
+    obj.getExpression ().addTerm (1.0, var1).addTerm (2.0, var2);
+
+    p.setObjectiveCoefficients (obj, new Variable[] {var1, var2}, new double[] {3.0, 0.0});
+
+    assertEquals ("Expecting different coefficient", 3.0, obj.getExpression ().getCoefficient (var1), 0.0);
+    assertEquals ("Expecting removed term", 1, obj.getExpression ().getLinearTerms ().size ());
+
+    try {
+      p.setObjectiveCoefficients (obj, new Variable[] {var1}, new double[0]);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      p.setObjectiveCoefficients (new GurobiProgram ().addObjective (), new Variable[0], new double[0]);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testAddingColumns () {
+    final GurobiProgram p = new GurobiProgram ();
+    final Variable var = p.addVariable (VariableType.CONTINUOUS);
+    final Objective obj = p.addObjective (ObjectiveSense.MINIMIZE);
+    final Constraint c1 = p.addConstraint (Operator.GREATER_EQUALS);
+    final Constraint c2 = p.addConstraint (Operator.LESS_EQUALS);
+    c1.getLhs ().addTerm (1.0, var);
+
+    final List<Variable> vars = p.addColumns (Arrays.asList (new Column ("col").setObjectiveCoefficient (2.0)
+                                                                               .setBounds (0.0, 5.0)
+                                                                               .addCoefficient (c1, 3.0)
+                                                                               .addCoefficient (c2, 4.0),
+                                                             new Column ().addCoefficient (c2, 1.0)));
+
+    assertEquals ("Expecting different variables count", 3, p.getVariablesCount ());
+    assertEquals ("Expecting different added variables count", 2, vars.size ());
+    assertEquals ("Expecting different name", "col", vars.get (0).getName ());
+    assertEquals ("Expecting continuous variable", VariableType.CONTINUOUS, vars.get (1).getType ());
+    assertEquals ("Expecting different upper bound", 5.0, vars.get (0).getUpperBound (), 0.0);
+    assertEquals ("Expecting different lower bound", 0.0, vars.get (1).getLowerBound (), 0.0);
+    assertEquals ("Expecting different coefficient", 2.0, obj.getExpression ().getCoefficient (vars.get (0)), 0.0);
+    assertEquals ("Expecting different coefficient", 3.0, c1.getLhs ().getCoefficient (vars.get (0)), 0.0);
+    assertEquals ("Expecting different coefficient", 4.0, c2.getLhs ().getCoefficient (vars.get (0)), 0.0);
+    assertEquals ("Expecting different coefficient", 1.0, c2.getLhs ().getCoefficient (vars.get (1)), 0.0);
+    assertTrue ("Expecting modified program", p.isModified ());
+
+    final Constraint foreign = new GurobiProgram ().addConstraint ();
+    try {
+      p.addColumns (Arrays.asList (new Column ().addCoefficient (c1, 1.0),
+                                   new Column ().addCoefficient (foreign, 1.0)));
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+    assertEquals ("Expecting unchanged variables count", 3, p.getVariablesCount ());
+
+    try {
+      p.addColumns (null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new GurobiProgram ().addColumns (new ArrayList<Column> ());
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+  }
+
+  @Test
+  @PrepareOnlyThisForTest (GurobiProgram.class)
+  public void testAppendingColumnsToNativeModel () throws Exception {
+    final GRBEnv grbEnv = mock (GRBEnv.class);
+    final GRBModel grbModel = mock (GRBModel.class);
+    final GRBVar[] grbVars = new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class), mock (GRBVar.class),
+                                           mock (GRBVar.class), mock (GRBVar.class)};
+    final GRBVar columnVar = mock (GRBVar.class);
+    PowerMockito.whenNew (GRBModel.class).withAnyArguments ().thenReturn (grbModel);
+
+    when (grbModel.addVars (any (double[].class),
+                            any (double[].class),
+                            any (double[].class),
+                            any (char[].class),
+                            any (String[].class),
+                            anyInt (),
+                            anyInt ())).thenReturn (grbVars);
+
+    when (grbModel.addConstrs (any (GRBLinExpr[].class),
+                               any (char[].class),
+                               any (double[].class),
+                               any (String[].class),
+                               anyInt (),
+                               anyInt ())).thenReturn (new GRBConstr[] {mock (GRBConstr.class),
+                                                                        mock (GRBConstr.class),
+                                                                        mock (GRBConstr.class)});
+
+    when (grbModel.addVars (any (double[].class),
+                            any (double[].class),
+                            any (double[].class),
+                            any (char[].class),
+                            any (String[].class),
+                            any (GRBColumn[].class))).thenReturn (new GRBVar[] {columnVar});
+
+    final GurobiProgram p = createProgram (ObjectiveSense.MINIMIZE);
+    p.setNativeEnvironment (grbEnv);
+    p.getNativeModel ();
+
+    final Constraint c1 = p.getConstraints ().get (0);
+    final List<Variable> vars = p.addColumns (Arrays.asList (new Column ("col").setObjectiveCoefficient (2.0)
+                                                                               .addCoefficient (c1, 3.0)));
+
+    verify (grbModel).addVars (aryEq (new double[] {0.0}),
+                               aryEq (new double[] {Double.POSITIVE_INFINITY}),
+                               aryEq (new double[] {2.0}),
+                               aryEq (new char[] {GRB.CONTINUOUS}),
+                               aryEq (new String[] {"col"}),
+                               any (GRBColumn[].class));
+    assertFalse ("Expecting program in sync with native model", p.isModified ());
+    assertEquals ("Expecting appended native index", 5, ((GurobiVariable) vars.get (0)).getNativeIndex ());
+    assertSame ("Expecting same native variable", columnVar, ((GurobiVariable) vars.get (0)).getNativeVariable ());
+
+    p.getNativeModel ();
+
+    verify (grbModel, never ()).dispose ();
+    verify (grbModel, never ()).chgCoeffs (any (GRBConstr[].class), any (GRBVar[].class), any (double[].class));
+  }
+
+  @Test
+  public void testRemovingVariablesAndConstraints () {
+    final GurobiProgram p = createProgram (ObjectiveSense.MINIMIZE);
+    final List<GurobiVariable> vars = p.getVariables ();
+    final Constraint c1 = p.getConstraints ().get (0);
+    final Constraint c2 = p.getConstraints ().get (1);
+
+    p.removeVariables (new Variable[] {vars.get (0), vars.get (1)});
+    p.removeConstraints (new Constraint[] {c2});
+
+    assertEquals ("Expecting removed variables", 3, p.getVariablesCount ());
+    assertEquals ("Expecting removed constraint", 2, p.getConstraintsCount ());
+    assertSame ("Expecting same order of remaining constraints", c1, p.getConstraints ().get (0));
+    assertEquals ("Expecting removed terms", 3, c1.getLhs ().getLinearTerms ().size ());
+    assertEquals ("Expecting removed terms", 0.0, c1.getLhs ().getCoefficient (vars.get (0)), 0.0);
+    assertEquals ("Expecting removed terms", 3,
+                  p.getObjectives ().get (0).getExpression ().getLinearTerms ().size ());
+  }
+
+  @Test
+  @PrepareOnlyThisForTest (GurobiProgram.class)
+  public void testIncrementalChangesOfNativeModel () throws Exception {
+    final GRBEnv grbEnv = mock (GRBEnv.class);
+    final GRBModel grbModel = mock (GRBModel.class);
+    final GRBVar[] grbVars = new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class), mock (GRBVar.class),
+                                           mock (GRBVar.class), mock (GRBVar.class)};
+    final GRBConstr[] grbConstrs = new GRBConstr[] {mock (GRBConstr.class), mock (GRBConstr.class),
+                                                    mock (GRBConstr.class)};
+    PowerMockito.whenNew (GRBModel.class).withAnyArguments ().thenReturn (grbModel);
+
+    when (grbModel.addVars (any (double[].class),
+                            any (double[].class),
+                            any (double[].class),
+                            any (char[].class),
+                            any (String[].class),
+                            anyInt (),
+                            anyInt ())).thenReturn (grbVars);
+
+    when (grbModel.addConstrs (any (GRBLinExpr[].class),
+                               any (char[].class),
+                               any (double[].class),
+                               any (String[].class),
+                               anyInt (),
+                               anyInt ())).thenReturn (grbConstrs);
+
+    final GurobiProgram p = createProgram (ObjectiveSense.MINIMIZE);
+    p.setNativeEnvironment (grbEnv);
+    p.getNativeModel ();
+
+    final List<GurobiVariable> vars = p.getVariables ();
+    p.removeVariables (new Variable[] {vars.get (0)});
+    p.removeConstraints (new Constraint[] {p.getConstraints ().get (0)});
+
+    final GurobiVariable added = (GurobiVariable) p.addVariable ("added", VariableType.CONTINUOUS, 0.0, 3.0);
+    p.getObjectives ().get (0).getExpression ().addTerm (2.0, added);
+    final Constraint constraint = p.addConstraint (Operator.LESS_EQUALS);
+    constraint.getLhs ().addTerm (1.0, added).addTerm (1.0, vars.get (1));
+    assertFalse ("Expecting incremental changes", p.isModified ());
+
+    p.getNativeModel ();
+
+    verify (grbModel).remove (grbVars[0]);
+    verify (grbModel).remove (grbConstrs[0]);
+    verify (grbModel).addVars (aryEq (new double[] {0.0}),
+                               aryEq (new double[] {3.0}),
+                               aryEq (new double[] {2.0}),
+                               aryEq (new char[] {GRB.CONTINUOUS}),
+                               aryEq (new String[] {"added"}),
+                               eq (0),
+                               eq (1));
+    verify (grbModel, times (2)).addConstrs (any (GRBLinExpr[].class),
+                                             any (char[].class),
+                                             any (double[].class),
+                                             any (String[].class),
+                                             anyInt (),
+                                             anyInt ());
+    verify (grbModel, never ()).dispose ();
+    assertEquals ("Expecting renumbered native index", 0, vars.get (1).getNativeIndex ());
+    assertEquals ("Expecting appended native index", 4, added.getNativeIndex ());
+    assertSame ("Expecting appended native constraint", grbConstrs[0],
+                ((GurobiConstraint) constraint).getNativeConstraint ());
+  }
+
   @Test
   @PrepareOnlyThisForTest (GurobiProgram.class)
   public void testCreationOfNativeModelWithGurobiErrors () throws Exception {
@@ -261,7 +897,9 @@ public class GurobiProgramTest {
                                                            any (double[].class),
                                                            any (double[].class),
                                                            any (char[].class),
-                                                           any (String[].class));
+                                                           any (String[].class),
+                                                           anyInt (),
+                                                           anyInt ());
 
     final GurobiProgram p = createProgram (ObjectiveSense.MINIMIZE);
     p.setNativeEnvironment (grbEnv);
@@ -277,12 +915,16 @@ public class GurobiProgramTest {
                                                                            any (double[].class),
                                                                            any (double[].class),
                                                                            any (char[].class),
-                                                                           any (String[].class));
+                                                                           any (String[].class),
+                                                                           anyInt (),
+                                                                           anyInt ());
 
     doThrow (new GRBException ()).when (grbModel).addConstrs (any (GRBLinExpr[].class),
                                                               any (char[].class),
                                                               any (double[].class),
-                                                              any (String[].class));
+                                                              any (String[].class),
+                                                              anyInt (),
+                                                              anyInt ());
 
     try {
       p.getNativeModel ();
@@ -294,7 +936,9 @@ public class GurobiProgramTest {
                                mock (GRBConstr.class)}).when (grbModel).addConstrs (any (GRBLinExpr[].class),
                                                                                     any (char[].class),
                                                                                     any (double[].class),
-                                                                                    any (String[].class));
+                                                                                    any (String[].class),
+                                                                                    anyInt (),
+                                                                                    anyInt ());
 
     doThrow (new GRBException ()).when (grbModel).set (any (DoubleAttr.class), anyDouble ());
     doThrow (new GRBException ()).when (grbModel).set (any (IntAttr.class), anyInt ());
@@ -379,9 +1023,11 @@ public class GurobiProgramTest {
                             any (double[].class),
                             any (double[].class),
                             any (char[].class),
-                            any (String[].class))).thenReturn (new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class),
-                                                                             mock (GRBVar.class), mock (GRBVar.class),
-                                                                             mock (GRBVar.class)});
+                            any (String[].class),
+                            anyInt (),
+                            anyInt ())).thenReturn (new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class),
+                                                                  mock (GRBVar.class), mock (GRBVar.class),
+                                                                  mock (GRBVar.class)});
 
     final GurobiProgram p = createProgram (ObjectiveSense.MINIMIZE);
     p.setNativeEnvironment (grbEnv);
@@ -394,10 +1040,38 @@ public class GurobiProgramTest {
     }
   }
 
+  @Test
+  public void testAggregationOfObjectives () {
+    final GurobiProgram p = new GurobiProgram ();
+    final GurobiVariable var1 = (GurobiVariable) p.addVariable ();
+    final GurobiVariable var2 = (GurobiVariable) p.addVariable ();
+    final GurobiVariable var3 = (GurobiVariable) p.addVariable ();
+    var1.setNativeIndex (0);
+    var2.setNativeIndex (1);
+    var3.setNativeIndex (2);
+
+    p.addObjective (ObjectiveSense.MINIMIZE).getExpression ().addTerm (1.0, var1).addTerm (2.0, var2).addTerm (3.0);
+    p.addObjective (ObjectiveSense.MAXIMIZE).getExpression ().addTerm (4.0, var2).addTerm (5.0, var3).addTerm (1.0);
+    p.addObjective (ObjectiveSense.MINIMIZE).getExpression ().addTerm (6.0, var3);
+    p.getObjectives ().get (2).setWeight (0.5);
+
+    final double[] coefficients = new double[3];
+    final double constant = p.aggregateObjectives (ObjectiveSense.MINIMIZE, coefficients);
+
+    assertEquals ("Expecting different objective constant", 2.0, constant, 0.0);
+    assertEquals ("Expecting different objective coefficient", 1.0, coefficients[0], 0.0);
+    assertEquals ("Expecting different objective coefficient", -2.0, coefficients[1], 0.0);
+    assertEquals ("Expecting different objective coefficient", -2.0, coefficients[2], 0.0);
+  }
+
   @Test
   public void testEqualsAndHashCode () {
     EqualsVerifier.forClass (GurobiProgram.class)
-                  .allFieldsShouldBeUsedExcept ("nativeEnvironment", "nativeModel")
+                  .allFieldsShouldBeUsedExcept ("nativeEnvironment", "nativeModel", "solverParameters", "released",
+                                                "nativeMultiObjective", "modified", "modifiedBounds", "modifiedStarts",
+                                                "modifiedCosts", "modifiedConstrs", "objectiveModified", "timeLimited",
+                                                "appendedVariables", "appendedConstraints", "removedVariables",
+                                                "removedConstraints")
                   .suppress (Warning.NULL_FIELDS, Warning.NONFINAL_FIELDS)
                   .verify ();
   }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.QuadraticTerm;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+
+public class GurobiQuadraticTermsTest {
+
+  @Test
+  public void testMergingDuplicateTerms () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable x = new GurobiVariable (program, "x", VariableType.CONTINUOUS);
+    final GurobiVariable y = new GurobiVariable (program, "y", VariableType.CONTINUOUS);
+    final GurobiQuadraticTerms terms = new GurobiQuadraticTerms ();
+
+    terms.addTerm (1.0, y, x);
+    terms.addTerm (2.0, x, x);
+    terms.addTerm (3.0, x, y);
+    terms.addTerm (-2.0, x, x);
+
+    assertEquals ("Expecting duplicates to be merged", 1, terms.size ());
+    assertEquals ("Expecting different coefficient", 4.0, terms.getCoefficient (x, y), 0.0);
+    assertEquals ("Expecting cancelled term to be dropped", 0.0, terms.getCoefficient (x, x), 0.0);
+
+    final QuadraticTerm term = terms.getTerms ().get (0);
+    assertEquals ("Expecting variables in order of first occurrence", y, term.getVariable1 ());
+    assertEquals ("Expecting variables in order of first occurrence", x, term.getVariable2 ());
+  }
+
+  @Test
+  public void testMergingManyTerms () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable[] variables = new GurobiVariable[20];
+    for (int i = 0; i < variables.length; i++) {
+      variables[i] = new GurobiVariable (program, "x" + (100 + i), VariableType.CONTINUOUS);
+    }
+
+    final GurobiQuadraticTerms terms = new GurobiQuadraticTerms ();
+    final Map<String, Double> expected = new TreeMap<String, Double> ();
+    final Random random = new Random (42);
+    for (int i = 0; i < 5000; i++) {
+      final int index1 = random.nextInt (variables.length);
+      final int index2 = random.nextInt (variables.length);
+      final double coefficient = 1 + random.nextInt (10);
+      terms.addTerm (coefficient, variables[index1], variables[index2]);
+
+      final String key = Math.min (index1, index2) + "/" + Math.max (index1, index2);
+      final Double sum = expected.get (key);
+      expected.put (key, (sum == null) ? coefficient : sum + coefficient);
+    }
+
+    assertEquals ("Expecting different number of merged terms", expected.size (), terms.size ());
+    for (int i = 0; i < variables.length; i++) {
+      for (int j = 0; j < variables.length; j++) {
+        final Double sum = expected.get (Math.min (i, j) + "/" + Math.max (i, j));
+        assertEquals ("Expecting different coefficient", (sum == null) ? 0.0 : sum,
+                      terms.getCoefficient (variables[i], variables[j]), 0.0001);
+      }
+    }
+
+    final List<QuadraticTerm> merged = terms.getTerms ();
+    final List<Variable> occurrences = new ArrayList<Variable> ();
+    for (final QuadraticTerm term: merged) {
+      if (!occurrences.contains (term.getVariable1 ())) {
+        occurrences.add (term.getVariable1 ());
+      }
+      if (!occurrences.contains (term.getVariable2 ())) {
+        occurrences.add (term.getVariable2 ());
+      }
+    }
+    for (int i = 1; i < merged.size (); i++) {
+      final int index1 = occurrences.indexOf (merged.get (i - 1).getVariable1 ());
+      final int index2 = occurrences.indexOf (merged.get (i).getVariable1 ());
+      assertTrue ("Expecting sorted terms",
+                  index1 < index2 || (index1 == index2 &&
+                                      occurrences.indexOf (merged.get (i - 1).getVariable2 ()) <
+                                      occurrences.indexOf (merged.get (i).getVariable2 ())));
+    }
+  }
+
+  @Test
+  public void testRemovingTerms () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable x = new GurobiVariable (program, "x", VariableType.CONTINUOUS);
+    final GurobiVariable y = new GurobiVariable (program, "y", VariableType.CONTINUOUS);
+    final GurobiVariable z = new GurobiVariable (program, "z", VariableType.CONTINUOUS);
+    final GurobiQuadraticTerms terms = new GurobiQuadraticTerms ();
+
+    terms.addTerm (1.0, x, y);
+    terms.addTerm (2.0, y, z);
+    terms.addTerm (3.0, z, z);
+
+    assertTrue ("Expecting term to be removed", terms.removeTerm (y, x));
+    assertFalse ("Expecting term not to be found", terms.removeTerm (x, y));
+    assertEquals ("Expecting different number of terms", 2, terms.size ());
+
+    terms.removeTerms (Collections.singleton (y));
+    assertEquals ("Expecting different number of terms", 1, terms.size ());
+    assertEquals ("Expecting different coefficient", 3.0, terms.getCoefficient (z, z), 0.0);
+
+    terms.addTerm (4.0, y, z);
+    assertEquals ("Expecting term to be added after its variable has been removed", 4.0, terms.getCoefficient (z, y), 0.0);
+
+    terms.clear ();
+    assertTrue ("Expecting no terms", terms.isEmpty ());
+  }
+
+  @Test
+  public void testEvaluatingTerms () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable x = new GurobiVariable (program, "x", VariableType.CONTINUOUS);
+    final GurobiVariable y = new GurobiVariable (program, "y", VariableType.CONTINUOUS);
+    final GurobiQuadraticTerms terms = new GurobiQuadraticTerms ();
+    terms.addTerm (2.0, x, y);
+    terms.addTerm (1.0, y, y);
+
+    final GurobiSolution solution = new GurobiSolution (program);
+    solution.setVariableValue (x, 3.0);
+    solution.setVariableValue (y, 4.0);
+
+    assertEquals ("Expecting different value", 40.0, terms.evaluate (solution), 0.0001);
+  }
+
+  @Test
+  public void testEqualsAndHashCode () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable x = new GurobiVariable (program, "x", VariableType.CONTINUOUS);
+    final GurobiVariable y = new GurobiVariable (program, "y", VariableType.CONTINUOUS);
+    final GurobiQuadraticTerms terms1 = new GurobiQuadraticTerms ();
+    final GurobiQuadraticTerms terms2 = new GurobiQuadraticTerms ();
+
+    terms1.addTerm (2.0, x, y);
+    terms2.addTerm (1.0, y, x);
+    terms2.addTerm (1.0, x, y);
+
+    assertEquals ("Expecting merged terms to be equal", terms1, terms2);
+    assertEquals ("Expecting equal hash codes", terms1.hashCode (), terms2.hashCode ());
+
+    terms2.addTerm (1.0, x, x);
+    assertFalse ("Expecting different terms", terms1.equals (terms2));
+  }
+}
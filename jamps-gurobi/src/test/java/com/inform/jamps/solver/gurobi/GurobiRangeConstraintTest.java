@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.RangeConstraint;
+import com.inform.jamps.modeling.Variable;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import nl.jqno.equalsverifier.Warning;
+
+public class GurobiRangeConstraintTest {
+
+  @Test
+  public void testObjectCreationAndGetters () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiRangeConstraint constraint = new GurobiRangeConstraint (program, "range", 1.0, 3.0);
+
+    assertEquals ("Expected different name", "range", constraint.getName ());
+    assertEquals ("Expected different lower bound", 1.0, constraint.getLowerBound (), 0.0);
+    assertEquals ("Expected different upper bound", 3.0, constraint.getUpperBound (), 0.0);
+    assertTrue ("Expected empty expression", constraint.getExpression ().getLinearTerms ().isEmpty ());
+  }
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    try {
+      new GurobiRangeConstraint (null, 0.0, 1.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      new GurobiRangeConstraint (new GurobiProgram (), 2.0, 1.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testNativeBounds () {
+    final GurobiProgram program = new GurobiProgram ();
+    final Variable var = program.addVariable ();
+    final RangeConstraint constraint = program.addRangeConstraint (1.0, 3.0);
+    constraint.getExpression ().addTerm (2.0, var).addTerm (0.5);
+
+    final GurobiRangeConstraint grbConstraint = (GurobiRangeConstraint) constraint;
+    assertEquals ("Expected lower bound without constant", 0.5, grbConstraint.getNativeLowerBound (), 0.0);
+    assertEquals ("Expected upper bound without constant", 2.5, grbConstraint.getNativeUpperBound (), 0.0);
+
+    constraint.setBounds (-1.0, 1.0);
+
+    assertEquals ("Expected changed lower bound", -1.5, grbConstraint.getNativeLowerBound (), 0.0);
+    assertEquals ("Expected range constraint not to be a row", 0, program.getConstraintsCount ());
+    assertFalse ("Expected range constraint", program.getRangeConstraints ().isEmpty ());
+  }
+
+  @Test
+  public void testEqualsAndHashCode () {
+    final GurobiExpression linExp1 = new GurobiExpression (new GurobiConstraint (new GurobiProgram ()));
+    final GurobiExpression linExp2 = new GurobiExpression (new GurobiConstraint (new GurobiProgram ()));
+
+    linExp1.addTerm (9.0);
+    linExp2.addTerm (10.0);
+
+    EqualsVerifier.forClass (GurobiRangeConstraint.class)
+                  .allFieldsShouldBeUsedExcept ("program", "nativeConstraint", "nativeRangeVariable")
+                  .withPrefabValues (GurobiExpression.class, linExp1, linExp2)
+                  .suppress (Warning.NULL_FIELDS, Warning.NONFINAL_FIELDS)
+                  .verify ();
+  }
+}
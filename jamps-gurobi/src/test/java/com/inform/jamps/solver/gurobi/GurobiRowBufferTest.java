@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.inform.jamps.solver.gurobi;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.VariableType;
+
+import gurobi.GRB;
+import gurobi.GRB.CharAttr;
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRBConstr;
+import gurobi.GRBException;
+import gurobi.GRBLinExpr;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+public class GurobiRowBufferTest {
+
+  @Test
+  public void testObjectCreation () {
+    try {
+      new GurobiRowBuffer (-1, 1);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new GurobiRowBuffer (1, 0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    final GurobiRowBuffer buffer = new GurobiRowBuffer (0, 1);
+    assertEquals ("Expected no rows", 0, buffer.getRowCount ());
+    assertEquals ("Expected no non-zeros", 0, buffer.getNonZeroCount ());
+  }
+
+  @Test
+  public void testMergingOfLhsAndRhs () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable x = (GurobiVariable) program.addVariable ("x", VariableType.CONTINUOUS);
+    final GurobiVariable y = (GurobiVariable) program.addVariable ("y", VariableType.CONTINUOUS);
+    final GurobiVariable z = (GurobiVariable) program.addVariable ("z", VariableType.CONTINUOUS);
+    x.setNativeIndex (0);
+    y.setNativeIndex (1);
+    z.setNativeIndex (2);
+
+    // 2 x + 3 y + 5 <= 3 y - z + 7 results in 2 x + z <= 2
+    final GurobiConstraint constr = new GurobiConstraint (program, Operator.LESS_EQUALS);
+    constr.getLhs ().addTerm (2.0, x).addTerm (3.0, y).addTerm (5.0);
+    constr.getRhs ().addTerm (3.0, y).addTerm (-1.0, z).addTerm (7.0);
+
+    final GurobiRowBuffer buffer = new GurobiRowBuffer (3, 1);
+    buffer.addRow (constr);
+
+    assertEquals ("Expected different number of rows", 1, buffer.getRowCount ());
+    assertEquals ("Expected different number of non-zeros", 2, buffer.getNonZeroCount ());
+    assertEquals ("Expected different row length", 2, buffer.getRowLength (0));
+    assertEquals ("Expected different index", 0, buffer.getIndex (0));
+    assertEquals ("Expected different value", 2.0, buffer.getValue (0), 0.0);
+    assertEquals ("Expected different index", 2, buffer.getIndex (1));
+    assertEquals ("Expected different value", 1.0, buffer.getValue (1), 0.0);
+    assertEquals ("Expected different rhs", 2.0, buffer.getRhs (0), 0.0);
+    assertEquals ("Expected different sense", GRB.LESS_EQUAL, buffer.getSense (0));
+  }
+
+  @Test
+  public void testGrowingAndClearing () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable[] vars = new GurobiVariable[20];
+    for (int i = 0; i < vars.length; i++) {
+      vars[i] = (GurobiVariable) program.addVariable ();
+      vars[i].setNativeIndex (i);
+    }
+
+    final GurobiRowBuffer buffer = new GurobiRowBuffer (vars.length, 1);
+    for (int row = 0; row < 3; row++) {
+      final GurobiConstraint constr = new GurobiConstraint (program, Operator.GREATER_EQUALS);
+      for (final GurobiVariable var: vars) {
+        constr.getLhs ().addTerm (row + 1.0, var);
+      }
+      buffer.addRow (constr);
+    }
+
+    assertEquals ("Expected different number of rows", 3, buffer.getRowCount ());
+    assertEquals ("Expected different number of non-zeros", 60, buffer.getNonZeroCount ());
+    assertEquals ("Expected different row start", 40, buffer.getRowStart (2));
+    assertEquals ("Expected different value", 3.0, buffer.getValue (59), 0.0);
+
+    buffer.clear ();
+
+    assertEquals ("Expected no rows", 0, buffer.getRowCount ());
+    assertEquals ("Expected no non-zeros", 0, buffer.getNonZeroCount ());
+  }
+
+  @Test
+  public void testWritingRowsIncrementally () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable x = (GurobiVariable) program.addVariable ();
+    final GurobiVariable y = (GurobiVariable) program.addVariable ();
+    x.setNativeIndex (0);
+    y.setNativeIndex (12);
+
+    final GurobiRowBuffer buffer = new GurobiRowBuffer (0, 1);
+    buffer.startRow ();
+    buffer.addTerm (x, 1.0);
+    buffer.addTerm (y, 2.0);
+    buffer.addTerm (x, 3.0);
+    buffer.addConstant (4.0);
+    buffer.finishRow (GRB.EQUAL, "row");
+
+    assertEquals ("Expected different number of rows", 1, buffer.getRowCount ());
+    assertEquals ("Expected different row length", 2, buffer.getRowLength (0));
+    assertEquals ("Expected different value", 4.0, buffer.getValue (0), 0.0);
+    assertEquals ("Expected different index", 12, buffer.getIndex (1));
+    assertEquals ("Expected different rhs", -4.0, buffer.getRhs (0), 0.0);
+    assertEquals ("Expected different sense", GRB.EQUAL, buffer.getSense (0));
+  }
+
+  @Test
+  public void testUpdatingRowsInPlace () throws GRBException {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable x = (GurobiVariable) program.addVariable ("x", VariableType.CONTINUOUS);
+    final GurobiVariable y = (GurobiVariable) program.addVariable ("y", VariableType.CONTINUOUS);
+    x.setNativeIndex (0);
+    y.setNativeIndex (1);
+    final GRBVar[] nativeVariables = new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class)};
+
+    // The native row 1 x + 1 y >= 1 is replaced by 3 x <= 4
+    final GRBConstr nativeConstr = mock (GRBConstr.class);
+    final GRBLinExpr previousRow = new GRBLinExpr ();
+    previousRow.addTerm (1.0, nativeVariables[0]);
+    previousRow.addTerm (1.0, nativeVariables[1]);
+    final GRBModel model = mock (GRBModel.class);
+    when (model.getRow (nativeConstr)).thenReturn (previousRow);
+
+    final GurobiConstraint constr = new GurobiConstraint (program, Operator.LESS_EQUALS);
+    constr.getLhs ().addTerm (3.0, x);
+    constr.getRhs ().addTerm (4.0);
+
+    final GurobiRowBuffer buffer = new GurobiRowBuffer (2, 1);
+    buffer.addRow (constr);
+    buffer.update (model, nativeVariables, new GRBConstr[] {nativeConstr});
+
+    final ArgumentCaptor<GRBVar[]> variablesCaptor = ArgumentCaptor.forClass (GRBVar[].class);
+    final ArgumentCaptor<double[]> valuesCaptor = ArgumentCaptor.forClass (double[].class);
+    verify (model).chgCoeffs (any (GRBConstr[].class), variablesCaptor.capture (), valuesCaptor.capture ());
+    final List<GRBVar> changedVariables = Arrays.asList (variablesCaptor.getValue ());
+    final double[] changedValues = valuesCaptor.getValue ();
+    assertEquals ("Expected different number of changed coefficients", 2, changedVariables.size ());
+    assertEquals ("Expected different coefficient", 3.0,
+                  changedValues[changedVariables.indexOf (nativeVariables[0])], 0.0);
+    assertEquals ("Expected removed coefficient", 0.0,
+                  changedValues[changedVariables.indexOf (nativeVariables[1])], 0.0);
+    verify (model).set (eq (DoubleAttr.RHS), aryEq (new GRBConstr[] {nativeConstr}), aryEq (new double[] {4.0}));
+    verify (model).set (eq (CharAttr.Sense), aryEq (new GRBConstr[] {nativeConstr}),
+                        aryEq (new char[] {GRB.LESS_EQUAL}));
+
+    try {
+      buffer.update (model, nativeVariables, new GRBConstr[0]);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testVariableWithoutNativeIndex () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiConstraint constr = new GurobiConstraint (program);
+    constr.getLhs ().addTerm (1.0, program.addVariable ());
+
+    final GurobiRowBuffer buffer = new GurobiRowBuffer (1, 1);
+    try {
+      buffer.addRow (constr);
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.SOSType;
+import com.inform.jamps.modeling.VariableType;
+
+import gurobi.GRB;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import nl.jqno.equalsverifier.Warning;
+
+public class GurobiSOSConstraintTest {
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable[] variables = new GurobiVariable[] {new GurobiVariable (program),
+                                                             new GurobiVariable (program)};
+
+    try {
+      new GurobiSOSConstraint (null, SOSType.TYPE1, variables, new double[] {1.0, 2.0});
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      new GurobiSOSConstraint ("SOS", null, variables, new double[] {1.0, 2.0});
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      new GurobiSOSConstraint ("SOS", SOSType.TYPE1, variables, new double[] {1.0});
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testNativeType () {
+    final GurobiVariable[] variables = new GurobiVariable[] {new GurobiVariable (new GurobiProgram ())};
+
+    assertEquals ("Expected different native type", GRB.SOS_TYPE1,
+                  new GurobiSOSConstraint ("SOS", SOSType.TYPE1, variables, new double[] {1.0}).getNativeType ());
+    assertEquals ("Expected different native type", GRB.SOS_TYPE2,
+                  new GurobiSOSConstraint ("SOS", SOSType.TYPE2, variables, new double[] {1.0}).getNativeType ());
+  }
+
+  @Test
+  public void testEqualsAndHashCode () {
+    final GurobiProgram program = new GurobiProgram ();
+
+    EqualsVerifier.forClass (GurobiSOSConstraint.class)
+                  .withPrefabValues (GurobiVariable.class, new GurobiVariable (program, "x1", VariableType.CONTINUOUS),
+                                     new GurobiVariable (program, "x2", VariableType.CONTINUOUS))
+                  .suppress (Warning.NULL_FIELDS, Warning.NONFINAL_FIELDS)
+                  .verify ();
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.Scenario;
+
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRBConstr;
+import gurobi.GRBException;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+public class GurobiScenarioDeltaTest {
+
+  private final GurobiProgram program = new GurobiProgram ();
+
+  private final Variable      var1    = program.addVariable ("x1", VariableType.CONTINUOUS);
+
+  private final Variable      var2    = program.addVariable ("x2", VariableType.CONTINUOUS);
+
+  private final Objective     obj1    = program.addObjective (ObjectiveSense.MINIMIZE);
+
+  private final Constraint    constr1 = program.addConstraint (Operator.LESS_EQUALS);
+
+  private final Constraint    constr2 = program.addConstraint (Operator.GREATER_EQUALS);
+
+  private final GRBVar[]      vars    = new GRBVar[] {mock (GRBVar.class), mock (GRBVar.class)};
+
+  private final GRBConstr[]   constrs = new GRBConstr[] {mock (GRBConstr.class), mock (GRBConstr.class)};
+
+  @Test
+  public void testApplyingAndRevertingChanges () throws GRBException {
+    obj1.getExpression ().addTerm (4.0, var2);
+    assignNativeIndices ();
+
+    final Scenario scenario = new Scenario ("Scenario");
+    scenario.setRightHandSide (constr2, 5.0).setBounds (var1, 1.0, 2.0).setObjectiveCoefficient (obj1, var2, 7.0);
+
+    final GRBModel model = mock (GRBModel.class);
+    when (model.get (eq (DoubleAttr.RHS), any (GRBConstr[].class))).thenReturn (new double[] {3.0});
+    when (model.get (eq (DoubleAttr.LB), any (GRBVar[].class))).thenReturn (new double[] {0.0});
+    when (model.get (eq (DoubleAttr.UB), any (GRBVar[].class))).thenReturn (new double[] {10.0});
+    when (model.get (eq (DoubleAttr.Obj), any (GRBVar[].class))).thenReturn (new double[] {4.0});
+
+    final GurobiScenarioDelta delta = createDelta (scenario);
+    assertSame ("Expecting same scenario", scenario, delta.getScenario ());
+
+    delta.apply (model, vars, constrs);
+
+    verify (model).set (eq (DoubleAttr.RHS), aryEq (new GRBConstr[] {constrs[1]}), aryEq (new double[] {5.0}));
+    verify (model).set (eq (DoubleAttr.LB), aryEq (new GRBVar[] {vars[0]}), aryEq (new double[] {1.0}));
+    verify (model).set (eq (DoubleAttr.UB), aryEq (new GRBVar[] {vars[0]}), aryEq (new double[] {2.0}));
+    verify (model).set (eq (DoubleAttr.Obj), aryEq (new GRBVar[] {vars[1]}), aryEq (new double[] {7.0}));
+
+    try {
+      delta.apply (model, vars, constrs);
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+
+    delta.revert ();
+
+    verify (model).set (eq (DoubleAttr.RHS), aryEq (new GRBConstr[] {constrs[1]}), aryEq (new double[] {3.0}));
+    verify (model).set (eq (DoubleAttr.LB), aryEq (new GRBVar[] {vars[0]}), aryEq (new double[] {0.0}));
+    verify (model).set (eq (DoubleAttr.UB), aryEq (new GRBVar[] {vars[0]}), aryEq (new double[] {10.0}));
+    verify (model).set (eq (DoubleAttr.Obj), aryEq (new GRBVar[] {vars[1]}), aryEq (new double[] {4.0}));
+
+    try {
+      delta.revert ();
+      fail ("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+  }
+
+  @Test
+  public void testChangingAggregatedObjectives () throws GRBException {
+    final Objective obj2 = program.addObjective (ObjectiveSense.MAXIMIZE);
+    obj1.getExpression ().addTerm (4.0, var2);
+    obj2.getExpression ().addTerm (2.0, var2);
+    assignNativeIndices ();
+
+    final Scenario scenario = new Scenario ("Scenario");
+    scenario.setObjectiveCoefficient (obj2, var2, 5.0).setObjectiveCoefficient (obj1, var2, 6.0);
+
+    final GRBModel model = mock (GRBModel.class);
+    when (model.get (eq (DoubleAttr.Obj), any (GRBVar[].class))).thenReturn (new double[] {2.0, 2.0});
+
+    final GurobiScenarioDelta delta = createDelta (scenario);
+    delta.apply (model, vars, constrs);
+
+    verify (model).set (eq (DoubleAttr.Obj), aryEq (new GRBVar[] {vars[1], vars[1]}), aryEq (new double[] {1.0, 1.0}));
+    verify (model, never ()).set (eq (DoubleAttr.RHS), any (GRBConstr[].class), any (double[].class));
+    verify (model, never ()).set (eq (DoubleAttr.LB), any (GRBVar[].class), any (double[].class));
+  }
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    assignNativeIndices ();
+
+    final GurobiProgram otherProgram = new GurobiProgram ();
+    final Variable otherVar = otherProgram.addVariable ();
+    final Constraint otherConstr = otherProgram.addConstraint ();
+
+    try {
+      createDelta (new Scenario ("Scenario").setRightHandSide (otherConstr, 1.0));
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      createDelta (new Scenario ("Scenario").setBounds (otherVar, 0.0, 1.0));
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      createDelta (new Scenario ("Scenario").setObjectiveCoefficient (obj1, otherVar, 1.0));
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new GurobiScenarioDelta (program, null, new Scenario ("Scenario"));
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  private GurobiScenarioDelta createDelta (final Scenario scenario) {
+    final Map<GurobiConstraint, Integer> positions = GurobiScenarioDelta.determineConstraintPositions (program);
+    return new GurobiScenarioDelta (program, positions, scenario);
+  }
+
+  private void assignNativeIndices () {
+    ((GurobiVariable) var1).setNativeIndex (0);
+    ((GurobiVariable) var2).setNativeIndex (1);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.Scenario;
+
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRB.IntAttr;
+import gurobi.GRB.Status;
+import gurobi.GRBException;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+public class GurobiScenarioResultsTest {
+
+  private final GurobiProgram  program   = new GurobiProgram ();
+
+  private final Variable       var1      = program.addVariable ("x1", VariableType.CONTINUOUS);
+
+  private final Variable       var2      = program.addVariable ("x2", VariableType.CONTINUOUS);
+
+  private final List<Scenario> scenarios = Arrays.asList (new Scenario ("S1"), new Scenario ("S2"));
+
+  @Test
+  public void testRecordingResults () throws GRBException {
+    final GurobiScenarioResults results = new GurobiScenarioResults (scenarios, Arrays.asList (var2));
+    final GRBVar[] trackedNativeVariables = new GRBVar[] {mock (GRBVar.class)};
+
+    assertEquals ("Expecting different scenarios count", 2, results.getScenariosCount ());
+    assertSame ("Expecting different scenario", scenarios.get (1), results.getScenario (1));
+    assertEquals ("Expecting different tracked variables", Arrays.asList (var2), results.getTrackedVariables ());
+    assertFalse ("Expecting no solution", results.hasSolution (0));
+    assertTrue ("Expecting no objective value", Double.isNaN (results.getObjectiveValue (0)));
+    assertTrue ("Expecting no variable value", Double.isNaN (results.getVariableValue (0, var2)));
+
+    final GRBModel model = mock (GRBModel.class);
+    when (model.get (IntAttr.Status)).thenReturn (Status.OPTIMAL);
+    when (model.get (IntAttr.IsMIP)).thenReturn (1);
+    when (model.get (IntAttr.SolCount)).thenReturn (1);
+    when (model.get (DoubleAttr.Runtime)).thenReturn (0.25);
+    when (model.get (DoubleAttr.IterCount)).thenReturn (42.0);
+    when (model.get (DoubleAttr.ObjVal)).thenReturn (10.0);
+    when (model.get (DoubleAttr.ObjBound)).thenReturn (9.5);
+    when (model.get (eq (DoubleAttr.X), aryEq (trackedNativeVariables))).thenReturn (new double[] {3.0});
+
+    results.recordResult (0, model, trackedNativeVariables);
+
+    assertTrue ("Expecting solution", results.hasSolution (0));
+    assertTrue ("Expecting optimal solution", results.isOptimal (0));
+    assertFalse ("Expecting feasible scenario", results.isInfeasible (0));
+    assertEquals ("Expecting different objective value", 10.0, results.getObjectiveValue (0), 0.0);
+    assertEquals ("Expecting different best objective bound", 9.5, results.getBestObjectiveBound (0), 0.0);
+    assertEquals ("Expecting different execution time", 250, results.getExecutionTimeMillis (0));
+    assertEquals ("Expecting different iterations count", 42, results.getIterationsCount (0));
+    assertEquals ("Expecting different variable value", 3.0, results.getVariableValue (0, var2), 0.0);
+
+    when (model.get (IntAttr.Status)).thenReturn (Status.INFEASIBLE);
+    when (model.get (IntAttr.SolCount)).thenReturn (0);
+
+    results.recordResult (1, model, trackedNativeVariables);
+
+    assertFalse ("Expecting no solution", results.hasSolution (1));
+    assertFalse ("Expecting no optimal solution", results.isOptimal (1));
+    assertTrue ("Expecting infeasible scenario", results.isInfeasible (1));
+    assertTrue ("Expecting no objective value", Double.isNaN (results.getObjectiveValue (1)));
+    assertTrue ("Expecting no variable value", Double.isNaN (results.getVariableValue (1, var2)));
+    assertEquals ("Expecting unchanged variable value", 3.0, results.getVariableValue (0, var2), 0.0);
+  }
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    try {
+      new GurobiScenarioResults (null, Collections.<Variable> emptyList ());
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new GurobiScenarioResults (scenarios, null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testAccessWithErrors () {
+    final GurobiScenarioResults results = new GurobiScenarioResults (scenarios, Arrays.asList (var2));
+
+    try {
+      results.getVariableValue (0, var1);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      results.hasSolution (2);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      results.getObjectiveValue (-1);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareOnlyThisForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.solver.Scenario;
+import com.inform.jamps.solver.SolverParameters;
+
+import gurobi.GRB;
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRB.DoubleParam;
+import gurobi.GRB.IntAttr;
+import gurobi.GRB.IntParam;
+import gurobi.GRB.Status;
+import gurobi.GRBConstr;
+import gurobi.GRBEnv;
+import gurobi.GRBException;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+@RunWith (PowerMockRunner.class)
+public class GurobiScenarioRunnerTest {
+
+  private final List<Scenario> scenarios = Arrays.asList (new Scenario ("S1"), new Scenario ("S2"));
+
+  @Test
+  public void testRunningScenarios () throws GRBException {
+    final GRBModel model = mock (GRBModel.class);
+    final GRBVar[] vars = new GRBVar[] {mock (GRBVar.class)};
+    final GRBConstr[] constrs = new GRBConstr[0];
+    final GurobiScenarioDelta[] deltas = new GurobiScenarioDelta[] {mock (GurobiScenarioDelta.class),
+                                                                    mock (GurobiScenarioDelta.class)};
+
+    when (model.get (IntAttr.Status)).thenReturn (Status.OPTIMAL);
+    when (model.get (IntAttr.IsMIP)).thenReturn (1);
+    when (model.get (IntAttr.SolCount)).thenReturn (1);
+    when (model.get (eq (DoubleAttr.X), aryEq (vars))).thenReturn (new double[] {2.0});
+
+    final GurobiScenarioResults results = new GurobiScenarioResults (scenarios, Collections.<Variable> emptyList ());
+    final GurobiScenarioRunner runner = new GurobiScenarioRunner ();
+
+    final boolean injectedStart = runner.runScenarios (model, vars, constrs, deltas, 0, deltas.length, results,
+                                                       new GRBVar[0], true);
+
+    assertTrue ("Expecting injected start values", injectedStart);
+    assertTrue ("Expecting solution", results.hasSolution (0));
+    assertTrue ("Expecting solution", results.hasSolution (1));
+
+    final InOrder inOrder = inOrder (deltas[0], deltas[1], model);
+    inOrder.verify (deltas[0]).apply (model, vars, constrs);
+    inOrder.verify (model).optimize ();
+    inOrder.verify (deltas[0]).revert ();
+    inOrder.verify (model).set (eq (DoubleAttr.Start), aryEq (vars), aryEq (new double[] {2.0}));
+    inOrder.verify (deltas[1]).apply (model, vars, constrs);
+    inOrder.verify (model).optimize ();
+    inOrder.verify (deltas[1]).revert ();
+  }
+
+  @Test
+  public void testRunningScenariosWithoutSolutionWarmStart () throws GRBException {
+    final GRBModel model = mock (GRBModel.class);
+    final GRBVar[] vars = new GRBVar[] {mock (GRBVar.class)};
+    final GurobiScenarioDelta[] deltas = new GurobiScenarioDelta[] {mock (GurobiScenarioDelta.class),
+                                                                    mock (GurobiScenarioDelta.class)};
+
+    when (model.get (IntAttr.Status)).thenReturn (Status.OPTIMAL);
+    when (model.get (IntAttr.IsMIP)).thenReturn (1);
+    when (model.get (IntAttr.SolCount)).thenReturn (1);
+
+    final GurobiScenarioResults results = new GurobiScenarioResults (scenarios, Collections.<Variable> emptyList ());
+    final GurobiScenarioRunner runner = new GurobiScenarioRunner ();
+
+    final boolean injectedStart = runner.runScenarios (model, vars, new GRBConstr[0], deltas, 1, deltas.length,
+                                                       results, new GRBVar[0], false);
+
+    assertFalse ("Expecting no injected start values", injectedStart);
+    assertFalse ("Expecting untouched scenario", results.hasSolution (0));
+    assertTrue ("Expecting solution", results.hasSolution (1));
+
+    verify (deltas[0], never ()).apply (any (GRBModel.class), any (GRBVar[].class), any (GRBConstr[].class));
+    verify (model, times (1)).optimize ();
+    verify (model, never ()).set (eq (DoubleAttr.Start), any (GRBVar[].class), any (double[].class));
+  }
+
+  @Test
+  @PrepareOnlyThisForTest (GurobiScenarioRunner.class)
+  public void testRunningParallelScenarios () throws Exception {
+    final GRBEnv baseEnv = mock (GRBEnv.class);
+    final GRBEnv workerEnv = mock (GRBEnv.class);
+    final GRBModel model = mock (GRBModel.class);
+    final GRBModel copy = mock (GRBModel.class);
+    final GRBVar[] vars = new GRBVar[] {mock (GRBVar.class)};
+    final GRBConstr[] constrs = new GRBConstr[0];
+    final GurobiScenarioDelta[] deltas = new GurobiScenarioDelta[] {mock (GurobiScenarioDelta.class),
+                                                                    mock (GurobiScenarioDelta.class)};
+    PowerMockito.whenNew (GRBModel.class).withAnyArguments ().thenReturn (copy);
+
+    when (model.getEnv ()).thenReturn (baseEnv);
+    when (copy.getVars ()).thenReturn (vars);
+    when (copy.getConstrs ()).thenReturn (constrs);
+    when (copy.get (IntAttr.Status)).thenReturn (Status.OPTIMAL);
+    when (copy.get (IntAttr.SolCount)).thenReturn (1);
+
+    final GurobiSolverParameters parameters = new GurobiSolverParameters () {
+
+      @Override
+      protected GRBEnv getNativeEnvironment () {
+        return workerEnv;
+      }
+    };
+    parameters.setThreadsBudget (4);
+
+    final GurobiScenarioResults results = new GurobiScenarioResults (scenarios, Collections.<Variable> emptyList ());
+    final GurobiScenarioRunner runner = new GurobiScenarioRunner ();
+    runner.runParallelScenarios (parameters, model, deltas, results, new int[0], 2);
+
+    assertTrue ("Expecting solution", results.hasSolution (0));
+    assertTrue ("Expecting solution", results.hasSolution (1));
+
+    verify (model).write (anyString ());
+    verify (baseEnv).writeParams (anyString ());
+    verify (workerEnv, times (2)).readParams (anyString ());
+    verify (workerEnv, times (2)).set (IntParam.Threads, 2);
+    verify (deltas[0]).apply (copy, vars, constrs);
+    verify (deltas[0]).revert ();
+    verify (deltas[1]).apply (copy, vars, constrs);
+    verify (deltas[1]).revert ();
+    verify (copy, times (2)).optimize ();
+    verify (copy, times (2)).dispose ();
+    verify (workerEnv, times (2)).dispose ();
+    verify (model, never ()).optimize ();
+  }
+
+  @Test
+  public void testRevertingScenarioAfterGurobiError () throws GRBException {
+    final GRBModel model = mock (GRBModel.class);
+    final GRBVar[] vars = new GRBVar[] {mock (GRBVar.class)};
+    final GRBConstr[] constrs = new GRBConstr[0];
+    final GurobiScenarioDelta[] deltas = new GurobiScenarioDelta[] {mock (GurobiScenarioDelta.class)};
+    doThrow (new GRBException ()).when (model).optimize ();
+
+    final GurobiScenarioResults results = new GurobiScenarioResults (scenarios, Collections.<Variable> emptyList ());
+    final GurobiScenarioRunner runner = new GurobiScenarioRunner ();
+
+    try {
+      runner.runScenarios (model, vars, constrs, deltas, 0, deltas.length, results, new GRBVar[0], true);
+      fail ("Expected GRBException");
+    } catch (GRBException e) {
+    }
+
+    verify (deltas[0]).revert ();
+  }
+
+  @Test
+  public void testRunningWithTimeLimit () throws GRBException {
+    final GRBEnv grbEnv = mock (GRBEnv.class);
+    final GRBModel model = mock (GRBModel.class);
+    when (model.getEnv ()).thenReturn (grbEnv);
+
+    final GurobiProgram program = spy (new GurobiProgram ());
+    doReturn (model).when (program).getNativeModel ();
+
+    final GurobiSolverParameters parameters = spy (new GurobiSolverParameters ());
+    doReturn (grbEnv).when (parameters).getNativeEnvironment ();
+    parameters.setTimeLimit (5.0);
+
+    final GurobiScenarioRunner runner = new GurobiScenarioRunner ();
+    runner.run (parameters, program, Collections.<Scenario> emptyList (), Collections.<Variable> emptyList ());
+
+    verify (grbEnv).set (DoubleParam.TimeLimit, 5.0);
+    assertTrue ("Expecting time limited program", program.isTimeLimited ());
+
+    parameters.setTimeLimit (0.0);
+    runner.run (parameters, program, Collections.<Scenario> emptyList (), Collections.<Variable> emptyList ());
+
+    verify (grbEnv).set (DoubleParam.TimeLimit, GRB.INFINITY);
+    assertFalse ("Expecting program without time limit", program.isTimeLimited ());
+  }
+
+  @Test
+  public void testPartitioningOfScenarios () {
+    assertEquals ("Expecting different threads per worker", 4, GurobiScenarioRunner.determineThreadsPerWorker (16, 4));
+    assertEquals ("Expecting different threads per worker", 2, GurobiScenarioRunner.determineThreadsPerWorker (7, 3));
+    assertEquals ("Expecting at least one thread", 1, GurobiScenarioRunner.determineThreadsPerWorker (2, 4));
+    assertTrue ("Expecting at least one thread", GurobiScenarioRunner.determineThreadsPerWorker (0, 1000) >= 1);
+
+    assertEquals ("Expecting different workers count", 3, GurobiScenarioRunner.determineWorkersCount (4, 16, 3));
+    assertEquals ("Expecting workers count capped by budget", 2,
+                  GurobiScenarioRunner.determineWorkersCount (8, 2, 10));
+
+    assertEquals ("Expecting different partition start", 0, GurobiScenarioRunner.determinePartitionStart (10, 3, 0));
+    assertEquals ("Expecting different partition start", 3, GurobiScenarioRunner.determinePartitionStart (10, 3, 1));
+    assertEquals ("Expecting different partition start", 6, GurobiScenarioRunner.determinePartitionStart (10, 3, 2));
+    assertEquals ("Expecting different partition end", 10, GurobiScenarioRunner.determinePartitionStart (10, 3, 3));
+  }
+
+  @Test
+  public void testRunningWithArgumentErrors () {
+    final GurobiProgram p = new GurobiProgram ();
+    final SolverParameters parameters = new GurobiSolverParameters ();
+    final List<Variable> trackedVariables = Collections.emptyList ();
+
+    final GurobiScenarioRunner runner = new GurobiScenarioRunner ();
+
+    try {
+      runner.run (null, p, scenarios);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      runner.run (parameters, null, scenarios);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      runner.run (parameters, p, null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      runner.run (parameters, p, scenarios, null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      runner.run (parameters, mock (Program.class), scenarios, trackedVariables);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      runner.run (mock (SolverParameters.class), p, scenarios, trackedVariables);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+}
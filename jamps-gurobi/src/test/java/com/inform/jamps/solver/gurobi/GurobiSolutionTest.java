@@ -98,6 +98,37 @@ public class GurobiSolutionTest {
     assertEquals ("Expecting different variable value", false, sol.getBinaryValue (var3));
   }
 
+  @Test
+  public void testSettingIndexedVariableValues () {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiSolution sol = new GurobiSolution (program);
+
+    final GurobiVariable var1 = new GurobiVariable (program);
+    final GurobiVariable var2 = new GurobiVariable (program);
+    final GurobiVariable var3 = new GurobiVariable (program);
+    final GurobiVariable otherVar = new GurobiVariable (new GurobiProgram ());
+    var1.setNativeIndex (0);
+    var2.setNativeIndex (1);
+    otherVar.setNativeIndex (0);
+
+    sol.setVariableValues (new double[] {10.5, -0.0});
+    sol.setVariableValue (var3, 3.0);
+
+    assertEquals ("Expecting different variable value", 10.5, sol.getVariableValue (var1), 0.00001);
+    assertEquals ("Expecting different variable value", 0.0, sol.getVariableValue (var2), 0.00001);
+    assertEquals ("Expecting different variable value", 3.0, sol.getVariableValue (var3), 0.00001);
+    assertEquals ("Expecting no variable value", 0.0, sol.getVariableValue (otherVar), 0.00001);
+
+    sol.setObjectiveValue (42.0);
+    assertEquals ("Expecting different objective value", 42.0, sol.getObjectiveValue (), 0.00001);
+
+    try {
+      sol.setVariableValues (null);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
   @Test
   public void testSettingVariableValuesWithError () {
     final GurobiProgram program = new GurobiProgram ();
@@ -146,6 +177,41 @@ public class GurobiSolutionTest {
     assertEquals ("Expecting different gap value", 0.0, sol.getRelativeOptimalityGap (), 0.0001);
   }
 
+  @Test
+  public void testCalculatingQuadraticObjectives () {
+    final GurobiProgram program = new GurobiProgram ();
+    final Objective obj = program.addObjective (ObjectiveSense.MINIMIZE);
+    final Variable var1 = program.addVariable ();
+    final Variable var2 = program.addVariable ();
+
+    obj.getExpression ().addTerm (1.0, var1).addTerm (3.0, var1, var1).addTerm (0.5, var1, var2).addTerm (1.0);
+
+    final GurobiSolution sol = new GurobiSolution (program);
+    sol.setVariableValue ((GurobiVariable) var1, 2.0);
+    sol.setVariableValue ((GurobiVariable) var2, 4.0);
+
+    assertEquals ("Expecting different objective value", 19.0, sol.getObjectiveValue (obj), 0.0001);
+  }
+
+  @Test
+  public void testSettingObjectiveValues () {
+    final GurobiProgram program = new GurobiProgram ();
+    final Objective obj1 = program.addObjective (ObjectiveSense.MAXIMIZE);
+    final Objective obj2 = program.addObjective (ObjectiveSense.MINIMIZE);
+    final Variable var1 = program.addVariable ();
+
+    obj1.getExpression ().addTerm (1.0, var1);
+    obj2.getExpression ().addTerm (2.0, var1);
+
+    final GurobiSolution sol = new GurobiSolution (program);
+    sol.setVariableValue ((GurobiVariable) var1, 10.0);
+    sol.setObjectiveValue (obj1, 12.0);
+    sol.setObjectiveValue (obj2, 24.0);
+
+    assertEquals ("Expecting different objective value of obj1", 12.0, sol.getObjectiveValue (obj1), 0.0001);
+    assertEquals ("Expecting different objective value of obj2", 24.0, sol.getObjectiveValue (obj2), 0.0001);
+  }
+
   @Test
   public void testCalculatingObjectivesWithError () {
     final GurobiProgram program = new GurobiProgram ();
@@ -156,6 +222,12 @@ public class GurobiSolutionTest {
       fail ("Expected IllegalArgumentException");
     } catch (IllegalArgumentException e) {
     }
+
+    try {
+      sol.setObjectiveValue (null, 0.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
   }
 
   @Test
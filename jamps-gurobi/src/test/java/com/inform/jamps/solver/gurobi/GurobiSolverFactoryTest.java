@@ -13,11 +13,14 @@
 
 package com.inform.jamps.solver.gurobi;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
+import com.inform.jamps.modeling.ProgramMode;
+
 public class GurobiSolverFactoryTest {
 
   @Test
@@ -28,7 +31,24 @@ public class GurobiSolverFactoryTest {
 
     assertTrue ("Expected object of different class", factory.createProgram () instanceof GurobiProgram);
     assertTrue ("Expected object of different class", factory.createProgram (name) instanceof GurobiProgram);
+    assertTrue ("Expected object of different class",
+                factory.createProgram (ProgramMode.DIRECT) instanceof GurobiDirectProgram);
+    assertTrue ("Expected object of different class",
+                factory.createProgram (name, ProgramMode.DIRECT) instanceof GurobiDirectProgram);
+    assertFalse ("Expected object of different class",
+                 factory.createProgram (ProgramMode.DEFAULT) instanceof GurobiDirectProgram);
+    assertFalse ("Expected object of different class",
+                 factory.createProgram (name, ProgramMode.DEFAULT) instanceof GurobiDirectProgram);
+    assertTrue ("Expected object of different class",
+                factory.createProgram (name, ProgramMode.DIRECT, factory.createParameters ())
+                    instanceof GurobiDirectProgram);
+    assertFalse ("Expected object of different class",
+                 factory.createProgram (name, ProgramMode.DEFAULT, factory.createParameters ())
+                     instanceof GurobiDirectProgram);
     assertNotNull ("Expected object", factory.createParameters ());
     assertNotNull ("Expected object", factory.createSolver ());
+    assertTrue ("Expected object of different class", factory.createScenarioRunner () instanceof GurobiScenarioRunner);
+    assertNotNull ("Expected object", factory.createMasterProblem (factory.createParameters (),
+                                                                   factory.createProgram ()));
   }
 }
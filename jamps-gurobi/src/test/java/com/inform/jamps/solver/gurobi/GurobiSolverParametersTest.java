@@ -13,7 +13,11 @@
 
 package com.inform.jamps.solver.gurobi;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
@@ -23,6 +27,8 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareOnlyThisForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import com.inform.jamps.solver.lazy.LazyConstraintGenerator;
+
 import gurobi.GRBEnv;
 import gurobi.GRBException;
 
@@ -51,4 +57,87 @@ public class GurobiSolverParametersTest {
     } catch (IllegalStateException e) {
     }
   }
+
+  @Test
+  public void testTransferSettings () {
+    final GurobiSolverParameters parameters = new GurobiSolverParameters ();
+    final GurobiTransferListener listener = mock (GurobiTransferListener.class);
+
+    assertEquals ("Expecting default chunk size", GurobiSolverParameters.DEFAULT_TRANSFER_CHUNK_SIZE,
+                  parameters.getTransferChunkSize ());
+    assertNull ("Expecting no listener", parameters.getTransferListener ());
+
+    parameters.setTransferChunkSize (100);
+    parameters.setTransferListener (listener);
+
+    assertEquals ("Expecting different chunk size", 100, parameters.getTransferChunkSize ());
+    assertSame ("Expecting same objects", listener, parameters.getTransferListener ());
+
+    assertFalse ("Expecting no release by default", parameters.isReleaseAfterTransfer ());
+    parameters.setReleaseAfterTransfer (true);
+    assertTrue ("Expecting release after transfer", parameters.isReleaseAfterTransfer ());
+
+    assertFalse ("Expecting no native multi-objective by default", parameters.isNativeMultiObjective ());
+    parameters.setNativeMultiObjective (true);
+    assertTrue ("Expecting native multi-objective", parameters.isNativeMultiObjective ());
+
+    assertFalse ("Expecting no basis warm start by default", parameters.isUseBasisWarmStart ());
+    assertFalse ("Expecting no solution warm start by default", parameters.isUseSolutionWarmStart ());
+    parameters.setUseBasisWarmStart (true);
+    parameters.setUseSolutionWarmStart (true);
+    assertTrue ("Expecting basis warm start", parameters.isUseBasisWarmStart ());
+    assertTrue ("Expecting solution warm start", parameters.isUseSolutionWarmStart ());
+
+    try {
+      parameters.setTransferChunkSize (0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testScenarioSettings () {
+    final GurobiSolverParameters parameters = new GurobiSolverParameters ();
+
+    assertEquals ("Expecting single worker by default", 1, parameters.getScenarioWorkersCount ());
+    assertEquals ("Expecting no threads budget by default", 0, parameters.getThreadsBudget ());
+
+    parameters.setScenarioWorkersCount (4);
+    parameters.setThreadsBudget (16);
+
+    assertEquals ("Expecting different workers count", 4, parameters.getScenarioWorkersCount ());
+    assertEquals ("Expecting different threads budget", 16, parameters.getThreadsBudget ());
+
+    final LazyConstraintGenerator generator = mock (LazyConstraintGenerator.class);
+    assertNull ("Expecting no lazy constraint generator", parameters.getLazyConstraintGenerator ());
+    parameters.setLazyConstraintGenerator (generator);
+    assertSame ("Expecting same objects", generator, parameters.getLazyConstraintGenerator ());
+
+    try {
+      parameters.setScenarioWorkersCount (0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      parameters.setThreadsBudget (-1);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testTimeLimit () {
+    final GurobiSolverParameters parameters = new GurobiSolverParameters ();
+    assertEquals ("Expecting no time limit by default", 0.0, parameters.getTimeLimit (), 0.0);
+
+    parameters.setTimeLimit (2.5);
+    assertEquals ("Expecting different time limit", 2.5, parameters.getTimeLimit (), 0.0);
+
+    try {
+      parameters.setTimeLimit (-1.0);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
 }
@@ -19,6 +19,7 @@ import static org.mockito.Mockito.*;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareOnlyThisForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
@@ -29,8 +30,10 @@ import com.inform.jamps.modeling.Objective;
 import com.inform.jamps.modeling.Program;
 import com.inform.jamps.modeling.Variable;
 import com.inform.jamps.solver.SolverParameters;
+import com.inform.jamps.solver.lazy.LazyConstraintGenerator;
 
 import gurobi.GRB.IntAttr;
+import gurobi.GRB.IntParam;
 import gurobi.GRB.Status;
 import gurobi.GRBConstr;
 import gurobi.GRBEnv;
@@ -54,6 +57,59 @@ public class GurobiSolverTest {
     verify (nativeModel).optimize ();
   }
 
+  @Test
+  public void testReusingNativeEnvironment () throws Exception {
+    final GRBModel nativeModel = mock (GRBModel.class);
+    final GurobiProgram p = (GurobiProgram) createProgram (nativeModel);
+    final GRBEnv grbEnv = mock (GRBEnv.class);
+
+    final GurobiSolverParameters parameters = spy (new GurobiSolverParameters ());
+    doReturn (grbEnv).when (parameters).getNativeEnvironment ();
+
+    final GurobiSolver solver = new GurobiSolver ();
+    solver.solve (parameters, p);
+    solver.solve (parameters, p);
+
+    verify (parameters, times (1)).getNativeEnvironment ();
+    verify (nativeModel, times (2)).optimize ();
+    assertSame ("Expecting environment of the parameters", grbEnv, p.getNativeEnvironment ());
+  }
+
+  @Test
+  public void testSolvingWithLazyConstraintGenerator () throws Exception {
+    final GRBModel nativeModel = mock (GRBModel.class);
+    final Program p = createProgram (nativeModel);
+    final LazyConstraintGenerator generator = mock (LazyConstraintGenerator.class);
+
+    final GurobiSolverParameters parameters = new GurobiSolverParameters ();
+    parameters.setLazyConstraintGenerator (generator);
+
+    final GurobiSolver solver = new GurobiSolver ();
+    solver.solve (parameters, p);
+
+    final GRBEnv grbEnv = nativeModel.getEnv ();
+    final InOrder inOrder = inOrder (grbEnv, nativeModel);
+    inOrder.verify (grbEnv).set (IntParam.LazyConstraints, 1);
+    inOrder.verify (nativeModel).setCallback (any (GurobiLazyConstraintCallback.class));
+    inOrder.verify (nativeModel).optimize ();
+    inOrder.verify (nativeModel).setCallback (null);
+    inOrder.verify (grbEnv).set (IntParam.LazyConstraints, 0);
+    inOrder.verify (grbEnv).set (IntParam.PreCrush, 0);
+    verify (grbEnv, never ()).set (IntParam.PreCrush, 1);
+
+    when (generator.isSeparatingNodeRelaxations ()).thenReturn (true);
+    solver.solve (parameters, p);
+
+    verify (grbEnv).set (IntParam.PreCrush, 1);
+    verify (grbEnv, times (2)).set (IntParam.PreCrush, 0);
+
+    doThrow (new GRBException ()).when (nativeModel).optimize ();
+    solver.solve (parameters, p);
+
+    verify (grbEnv, times (3)).set (IntParam.LazyConstraints, 0);
+    verify (grbEnv, times (3)).set (IntParam.PreCrush, 0);
+  }
+
   @Test
   public void testSolvingWithArgumentErrors () throws Exception {
     final GRBModel nativeModel = mock (GRBModel.class);
@@ -285,12 +341,16 @@ public class GurobiSolverTest {
                             any (double[].class),
                             any (double[].class),
                             any (char[].class),
-                            any (String[].class))).thenReturn (new GRBVar[] {mock (GRBVar.class)});
+                            any (String[].class),
+                            anyInt (),
+                            anyInt ())).thenReturn (new GRBVar[] {mock (GRBVar.class)});
 
     when (grbModel.addConstrs (any (GRBLinExpr[].class),
                                any (char[].class),
                                any (double[].class),
-                               any (String[].class))).thenReturn (new GRBConstr[] {mock (GRBConstr.class)});
+                               any (String[].class),
+                               anyInt (),
+                               anyInt ())).thenReturn (new GRBConstr[] {mock (GRBConstr.class)});
 
     final GurobiProgram p = new GurobiProgram ();
     p.setNativeEnvironment (grbEnv);
@@ -105,6 +105,23 @@ public class GurobiVariableTest {
     }
   }
 
+  @Test
+  public void testSettingNativeIndex () {
+    final GurobiVariable var = new GurobiVariable (new GurobiProgram ());
+
+    assertEquals ("Expected no native index", -1, var.getNativeIndex ());
+
+    var.setNativeIndex (5);
+
+    assertEquals ("Expected different native index", 5, var.getNativeIndex ());
+
+    try {
+      var.setNativeIndex (-1);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
   @Test
   public void testSettingInitialValue () {
     final double initialValue = 10.0;
@@ -127,7 +144,7 @@ public class GurobiVariableTest {
   @Test
   public void testEqualsAndHashCode () {
     EqualsVerifier.forClass (GurobiVariable.class)
-                  .allFieldsShouldBeUsedExcept ("program", "initialValue", "nativeVar")
+                  .allFieldsShouldBeUsedExcept ("program", "initialValue", "nativeVar", "nativeIndex")
                   .suppress (Warning.NULL_FIELDS, Warning.NONFINAL_FIELDS)
                   .verify ();
   }
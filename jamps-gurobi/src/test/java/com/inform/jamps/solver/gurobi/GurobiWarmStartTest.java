@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.VariableType;
+
+import gurobi.GRB;
+import gurobi.GRB.DoubleAttr;
+import gurobi.GRB.IntAttr;
+import gurobi.GRB.Status;
+import gurobi.GRBConstr;
+import gurobi.GRBException;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+
+public class GurobiWarmStartTest {
+
+  @Test
+  public void testObjectCreationWithErrors () {
+    final GurobiProgram program = new GurobiProgram ();
+
+    try {
+      new GurobiWarmStart (null, mock (GRBModel.class), true, true);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+
+    try {
+      new GurobiWarmStart (program, null, true, true);
+      fail ("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testRestoringBasis () throws GRBException {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable var1 = (GurobiVariable) program.addVariable ("x1", VariableType.CONTINUOUS, 0.0, 10.0);
+    final GurobiVariable var2 = (GurobiVariable) program.addVariable ("x2", VariableType.CONTINUOUS, 0.0, 10.0);
+    final GurobiConstraint constr1 = (GurobiConstraint) program.addConstraint (Operator.LESS_EQUALS);
+    assignNativeObjects (program);
+
+    final GRBModel model = mock (GRBModel.class);
+    when (model.get (IntAttr.Status)).thenReturn (Status.OPTIMAL);
+    when (model.get (IntAttr.IsMIP)).thenReturn (0);
+    when (model.get (eq (IntAttr.VBasis), any (GRBVar[].class))).thenReturn (new int[] {0, -2});
+    when (model.get (eq (IntAttr.CBasis), any (GRBConstr[].class))).thenReturn (new int[] {-1});
+
+    final GurobiWarmStart warmStart = new GurobiWarmStart (program, model, true, true);
+
+    assertTrue ("Expecting captured basis", warmStart.hasBasis ());
+    assertFalse ("Expecting no captured solution", warmStart.hasSolution ());
+
+    // The new variable is sorted in front of the captured ones and thereby shifts their native indices
+    final GurobiVariable var0 = (GurobiVariable) program.addVariable ("x0", VariableType.CONTINUOUS);
+    final GurobiConstraint constr2 = (GurobiConstraint) program.addConstraint (Operator.GREATER_EQUALS);
+    assignNativeObjects (program);
+
+    final GRBModel newModel = mock (GRBModel.class);
+    warmStart.applyTo (program, newModel);
+
+    verify (newModel).set (eq (IntAttr.VBasis),
+                           aryEq (new GRBVar[] {var0.getNativeVariable (), var1.getNativeVariable (),
+                                                var2.getNativeVariable ()}),
+                           aryEq (new int[] {-3, 0, -2}));
+    verify (newModel).set (eq (IntAttr.CBasis),
+                           aryEq (new GRBConstr[] {constr1.getNativeConstraint (), constr2.getNativeConstraint ()}),
+                           aryEq (new int[] {-1, 0}));
+    verify (newModel, never ()).set (eq (DoubleAttr.Start), any (GRBVar[].class), any (double[].class));
+  }
+
+  @Test
+  public void testRestoringSolution () throws GRBException {
+    final GurobiProgram program = new GurobiProgram ();
+    program.addVariable ("x1", VariableType.BINARY);
+    program.addVariable ("x2", VariableType.INTEGER, 0.0, 10.0);
+    program.addConstraint (Operator.LESS_EQUALS);
+    assignNativeObjects (program);
+
+    final GRBModel model = mock (GRBModel.class);
+    when (model.get (IntAttr.Status)).thenReturn (Status.TIME_LIMIT);
+    when (model.get (IntAttr.IsMIP)).thenReturn (1);
+    when (model.get (IntAttr.SolCount)).thenReturn (2);
+    when (model.get (eq (DoubleAttr.X), any (GRBVar[].class))).thenReturn (new double[] {1.0, 7.0});
+
+    final GurobiWarmStart warmStart = new GurobiWarmStart (program, model, true, true);
+
+    assertFalse ("Expecting no captured basis", warmStart.hasBasis ());
+    assertTrue ("Expecting captured solution", warmStart.hasSolution ());
+
+    final GurobiVariable var0 = (GurobiVariable) program.addVariable ("x0", VariableType.INTEGER);
+    final GurobiVariable var3 = (GurobiVariable) program.addVariable ("x3", VariableType.INTEGER);
+    var0.setInitialValue (5.0);
+    assignNativeObjects (program);
+
+    final GRBModel newModel = mock (GRBModel.class);
+    warmStart.applyTo (program, newModel);
+
+    verify (newModel).set (eq (DoubleAttr.Start),
+                           any (GRBVar[].class),
+                           aryEq (new double[] {5.0, 1.0, 7.0, GRB.UNDEFINED}));
+    verify (newModel, never ()).set (eq (IntAttr.VBasis), any (GRBVar[].class), any (int[].class));
+    assertNotNull ("Expecting native variable", var3.getNativeVariable ());
+  }
+
+  @Test
+  public void testCapturingWithElementsAddedSinceLastBuild () throws GRBException {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable var1 = (GurobiVariable) program.addVariable ("x1", VariableType.CONTINUOUS, 0.0, 10.0);
+    final GurobiVariable var2 = (GurobiVariable) program.addVariable ("x2", VariableType.CONTINUOUS, 0.0, 10.0);
+    final GurobiConstraint constr1 = (GurobiConstraint) program.addConstraint (Operator.LESS_EQUALS);
+    assignNativeObjects (program);
+
+    // Neither the variable nor the constraint are part of the native model yet
+    final GurobiVariable var3 = (GurobiVariable) program.addVariable ("x3", VariableType.CONTINUOUS, 0.0, 10.0);
+    final GurobiConstraint constr2 = (GurobiConstraint) program.addConstraint (Operator.GREATER_EQUALS);
+
+    final GRBModel model = mock (GRBModel.class);
+    when (model.get (IntAttr.Status)).thenReturn (Status.OPTIMAL);
+    when (model.get (IntAttr.IsMIP)).thenReturn (0);
+    when (model.get (eq (IntAttr.VBasis), any (GRBVar[].class))).thenReturn (new int[] {0, -2});
+    when (model.get (eq (IntAttr.CBasis), any (GRBConstr[].class))).thenReturn (new int[] {-1});
+
+    final GurobiWarmStart warmStart = new GurobiWarmStart (program, model, true, true);
+
+    assertTrue ("Expecting captured basis", warmStart.hasBasis ());
+    verify (model).get (eq (IntAttr.VBasis),
+                        aryEq (new GRBVar[] {var1.getNativeVariable (), var2.getNativeVariable ()}));
+    verify (model).get (eq (IntAttr.CBasis), aryEq (new GRBConstr[] {constr1.getNativeConstraint ()}));
+
+    assignNativeObjects (program);
+
+    final GRBModel newModel = mock (GRBModel.class);
+    warmStart.applyTo (program, newModel);
+
+    verify (newModel).set (eq (IntAttr.VBasis),
+                           aryEq (new GRBVar[] {var1.getNativeVariable (), var2.getNativeVariable (),
+                                                var3.getNativeVariable ()}),
+                           aryEq (new int[] {0, -2, -1}));
+    verify (newModel).set (eq (IntAttr.CBasis),
+                           aryEq (new GRBConstr[] {constr1.getNativeConstraint (), constr2.getNativeConstraint ()}),
+                           aryEq (new int[] {-1, 0}));
+  }
+
+  @Test
+  public void testRestoringBasisWithRanges () throws GRBException {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable var1 = (GurobiVariable) program.addVariable ("x1", VariableType.CONTINUOUS, 0.0, 10.0);
+    final GurobiRangeConstraint range1 = (GurobiRangeConstraint) program.addRangeConstraint (0.0, 5.0);
+    range1.getExpression ().addTerm (1.0, var1);
+    assignNativeObjects (program);
+
+    final GRBModel model = mock (GRBModel.class);
+    when (model.get (IntAttr.Status)).thenReturn (Status.OPTIMAL);
+    when (model.get (IntAttr.IsMIP)).thenReturn (0);
+    when (model.get (eq (IntAttr.VBasis), aryEq (new GRBVar[] {var1.getNativeVariable ()}))).thenReturn (new int[] {0});
+    when (model.get (eq (IntAttr.CBasis), aryEq (new GRBConstr[0]))).thenReturn (new int[0]);
+    when (model.get (eq (IntAttr.VBasis),
+                     aryEq (new GRBVar[] {range1.getNativeRangeVariable ()}))).thenReturn (new int[] {-2});
+    when (model.get (eq (IntAttr.CBasis),
+                     aryEq (new GRBConstr[] {range1.getNativeConstraint ()}))).thenReturn (new int[] {-1});
+
+    final GurobiWarmStart warmStart = new GurobiWarmStart (program, model, true, true);
+
+    assertTrue ("Expecting captured basis", warmStart.hasBasis ());
+
+    final GurobiRangeConstraint range2 = (GurobiRangeConstraint) program.addRangeConstraint (1.0, 2.0);
+    assignNativeObjects (program);
+
+    final GRBModel newModel = mock (GRBModel.class);
+    warmStart.applyTo (program, newModel);
+
+    // The new range row is basic, while its range variable stays at its lower bound
+    verify (newModel).set (eq (IntAttr.CBasis),
+                           aryEq (new GRBConstr[] {range1.getNativeConstraint (), range2.getNativeConstraint ()}),
+                           aryEq (new int[] {-1, 0}));
+    verify (newModel).set (eq (IntAttr.VBasis),
+                           aryEq (new GRBVar[] {range1.getNativeRangeVariable (), range2.getNativeRangeVariable ()}),
+                           aryEq (new int[] {-2, -1}));
+  }
+
+  @Test
+  public void testSkippingBasisWithQuadraticConstraints () throws GRBException {
+    final GurobiProgram program = new GurobiProgram ();
+    final GurobiVariable var1 = (GurobiVariable) program.addVariable ("x1", VariableType.CONTINUOUS, 0.0, 10.0);
+    final GurobiConstraint constr1 = (GurobiConstraint) program.addConstraint (Operator.LESS_EQUALS);
+    assignNativeObjects (program);
+
+    final GRBModel model = mock (GRBModel.class);
+    when (model.get (IntAttr.Status)).thenReturn (Status.OPTIMAL);
+    when (model.get (IntAttr.IsMIP)).thenReturn (0);
+    when (model.get (eq (IntAttr.VBasis), any (GRBVar[].class))).thenReturn (new int[] {0});
+    when (model.get (eq (IntAttr.CBasis), any (GRBConstr[].class))).thenReturn (new int[] {-1});
+
+    final GurobiWarmStart warmStart = new GurobiWarmStart (program, model, true, true);
+    assertTrue ("Expecting captured basis", warmStart.hasBasis ());
+
+    // Quadratic constraints have no basis status, so the captured basis does not apply to the rebuilt model
+    constr1.getLhs ().addTerm (1.0, var1, var1);
+
+    final GRBModel newModel = mock (GRBModel.class);
+    warmStart.applyTo (program, newModel);
+
+    verify (newModel, never ()).set (eq (IntAttr.VBasis), any (GRBVar[].class), any (int[].class));
+    verify (newModel, never ()).set (eq (IntAttr.CBasis), any (GRBConstr[].class), any (int[].class));
+  }
+
+  @Test
+  public void testCapturingFromUnsolvedModel () throws GRBException {
+    final GurobiProgram program = new GurobiProgram ();
+    program.addVariable ("x1", VariableType.CONTINUOUS);
+    assignNativeObjects (program);
+
+    final GRBModel model = mock (GRBModel.class);
+    when (model.get (IntAttr.Status)).thenReturn (Status.LOADED);
+
+    final GurobiWarmStart warmStart = new GurobiWarmStart (program, model, true, true);
+
+    assertFalse ("Expecting no captured basis", warmStart.hasBasis ());
+    assertFalse ("Expecting no captured solution", warmStart.hasSolution ());
+  }
+
+  private void assignNativeObjects (final GurobiProgram program) {
+    int index = 0;
+    for (final GurobiVariable var: program.getVariables ()) {
+      var.setNativeIndex (index++);
+      var.setNativeVariable (mock (GRBVar.class));
+    }
+    for (final GurobiConstraint constr: program.getConstraints ()) {
+      if (constr.getNativeConstraint () == null) {
+        constr.setNativeConstraint (mock (GRBConstr.class));
+      }
+    }
+    for (final GurobiRangeConstraint constr: program.getRangeConstraints ()) {
+      if (constr.getNativeConstraint () == null) {
+        constr.setNativeConstraint (mock (GRBConstr.class));
+        constr.setNativeRangeVariable (mock (GRBVar.class));
+      }
+    }
+  }
+}
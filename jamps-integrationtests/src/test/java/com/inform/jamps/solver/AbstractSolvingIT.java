@@ -29,6 +29,7 @@ import com.inform.jamps.modeling.Objective;
 import com.inform.jamps.modeling.ObjectiveSense;
 import com.inform.jamps.modeling.Operator;
 import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.ProgramMode;
 import com.inform.jamps.modeling.Variable;
 import com.inform.jamps.modeling.VariableType;
 
@@ -45,12 +46,17 @@ public class AbstractSolvingIT {
   }
 
   protected Program createKnapsackMIP (final MathProgrammingSolverFactory<? extends MathProgrammingSolver, ? extends SolverParameters> solverFactory) {
+    return createKnapsackMIP (solverFactory, ProgramMode.DEFAULT);
+  }
+
+  protected Program createKnapsackMIP (final MathProgrammingSolverFactory<? extends MathProgrammingSolver, ? extends SolverParameters> solverFactory,
+                                       final ProgramMode mode) {
     final int[] itemSizes = new int[] {10, 10, 15, 20, 20, 24, 24, 50};
     final int[] itemProfits = new int[] {10, 10, 15, 20, 20, 24, 24, 50};
     final int itemCount = itemSizes.length;
     final int knapsackSize = 100;
 
-    final Program mip = solverFactory.createProgram ("Knapsack");
+    final Program mip = solverFactory.createProgram ("Knapsack", mode);
     final Objective objective = mip.addObjective ("ItemProfit", ObjectiveSense.MAXIMIZE);
     final Constraint constraint = mip.addConstraint ("KnapsackCapacity", Operator.LESS_EQUALS);
     constraint.getRhs ().addTerm (knapsackSize);
@@ -13,17 +13,31 @@
 
 package com.inform.jamps.solver.gurobi;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
 
 import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.Operator;
 import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.ProgramMode;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
 import com.inform.jamps.solver.AbstractSolvingIT;
 import com.inform.jamps.solver.ExecutionResult;
 import com.inform.jamps.solver.MathProgrammingSolver;
 import com.inform.jamps.solver.SolverParameters;
+import com.inform.jamps.solver.decomposition.DecomposedExecutionResult;
+import com.inform.jamps.solver.decomposition.DecomposingSolver;
+import com.inform.jamps.solver.lagrangian.LagrangianDriver;
+import com.inform.jamps.solver.lagrangian.LagrangianResult;
 
 public class GurobiSolvingIT extends AbstractSolvingIT {
 
@@ -47,6 +61,17 @@ public class GurobiSolvingIT extends AbstractSolvingIT {
     verifyKnapsackExecutionResult (result);
   }
 
+  @Test
+  public void solveKnapsackInDirectMode () {
+    final Program mip = createKnapsackMIP (factory, ProgramMode.DIRECT);
+
+    assertNotNull ("Expecting a MIP", mip);
+
+    final MathProgrammingSolver solver = factory.createSolver ();
+    final ExecutionResult<Program> result = solver.solve (parameters, mip);
+    verifyKnapsackExecutionResult (result);
+  }
+
   @Test
   public void solveLargeKnapsack () {
     final Program mip = createLargeKnapsackMIP (factory);
@@ -79,4 +104,43 @@ public class GurobiSolvingIT extends AbstractSolvingIT {
     final ExecutionResult<Program> result = solver.solve (parameters, mip);
     verifyTransportExecutionResult (result);
   }
+
+  @Test
+  public void solveIndependentKnapsacksDecomposed () {
+    final Program mip = createKnapsackMIP (factory);
+    final Objective objective = mip.getObjectives ().get (0);
+    final Constraint constraint = mip.addConstraint ("SecondKnapsackCapacity", Operator.LESS_EQUALS);
+    constraint.getRhs ().addTerm (80);
+
+    final int[] itemSizes = new int[] {30, 40, 50};
+    for (int i = 0; i < itemSizes.length; i++) {
+      final Variable var = mip.addVariable ("secondItem" + i, VariableType.BINARY);
+      objective.getExpression ().addTerm (itemSizes[i], var);
+      constraint.getLhs ().addTerm (itemSizes[i], var);
+    }
+
+    final ExecutionResult<Program> result = new DecomposingSolver (factory).solve (parameters, mip);
+
+    assertTrue ("Expecting a decomposed result", result instanceof DecomposedExecutionResult);
+    assertTrue ("Expecting an optimal solution", result.hasOptimalSolution ());
+    assertEquals ("Expecting different objective value", 180.0, result.getBestSolution ().getObjectiveValue (),
+                  0.0001);
+  }
+
+  @Test
+  public void solveKnapsackLagrangianRelaxation () {
+    final Program mip = createKnapsackMIP (factory);
+    final Constraint capacity = mip.getConstraints ().get (0);
+
+    // Profits equal sizes, so the Lagrangian dual is minimal for multiplier 1 with the capacity as bound
+    final LagrangianDriver<GurobiSolverParameters> driver = new LagrangianDriver<GurobiSolverParameters> (factory,
+                                                                                                          factory.createParameters (),
+                                                                                                          mip,
+                                                                                                          Collections.singleton (capacity));
+    final LagrangianResult result = driver.run ();
+
+    assertTrue ("Expecting a solution", result.hasSolution ());
+    assertTrue ("Expecting a valid bound", result.getBestBound () >= result.getObjectiveValue ());
+    assertEquals ("Expecting different bound", 100.0, result.getBestBound (), 0.01);
+  }
 }
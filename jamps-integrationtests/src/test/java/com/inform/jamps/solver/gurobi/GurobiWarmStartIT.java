@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2015 The Jamps Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.inform.jamps.solver.gurobi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.inform.jamps.modeling.Constraint;
+import com.inform.jamps.modeling.Objective;
+import com.inform.jamps.modeling.ObjectiveSense;
+import com.inform.jamps.modeling.Operator;
+import com.inform.jamps.modeling.Program;
+import com.inform.jamps.modeling.Variable;
+import com.inform.jamps.modeling.VariableType;
+import com.inform.jamps.solver.AbstractSolvingIT;
+import com.inform.jamps.solver.TerminationReason;
+
+import gurobi.GRB.IntParam;
+import gurobi.GRBEnv;
+import gurobi.GRBException;
+
+/**
+ * Compares cold solves of a perturbed multi-dimensional knapsack against warm started re-solves of the original
+ * program after the same perturbation.
+ */
+public class GurobiWarmStartIT extends AbstractSolvingIT {
+
+  private final static int          ITEM_COUNT      = 1000;
+
+  private final static int          DIMENSION_COUNT = 5;
+
+  private final static int          CAPACITY        = 1000;
+
+  private final static int          CAPACITY_CHANGE = 25;
+
+  private final static int          DUAL_SIMPLEX    = 1;
+
+  private final GurobiSolverFactory factory         = new GurobiSolverFactory ();
+
+  private final GurobiSolver        solver          = factory.createSolver ();
+
+  private Objective                 objective;
+
+  private Constraint[]              capacityConstraints;
+
+  @BeforeClass
+  public static void checkForGurobiLib () {
+    Assume.assumeTrue (isClassAvailable ("gurobi.GRB"));
+  }
+
+  @Test
+  public void resolvePerturbedKnapsackRelaxation () {
+    final GurobiSolverParameters coldParameters = new SimplexParameters ();
+    final Program coldProgram = createKnapsack (VariableType.CONTINUOUS);
+    perturbKnapsack (coldProgram, VariableType.CONTINUOUS, false);
+    final GurobiExecutionResult coldResult = solver.solve (coldParameters, coldProgram);
+
+    final GurobiSolverParameters warmParameters = new SimplexParameters ();
+    warmParameters.setUseBasisWarmStart (true);
+    final Program warmProgram = createKnapsack (VariableType.CONTINUOUS);
+    solver.solve (warmParameters, warmProgram);
+    perturbKnapsack (warmProgram, VariableType.CONTINUOUS, false);
+    final GurobiExecutionResult warmResult = solver.solve (warmParameters, warmProgram);
+
+    assertEquals ("Expecting same objective value", coldResult.getBestSolution ().getObjectiveValue (),
+                  warmResult.getBestSolution ().getObjectiveValue (), 0.0001);
+    assertTrue ("Expecting fewer simplex iterations (cold: " + coldResult.getIterationsCount () + ", warm: " +
+                warmResult.getIterationsCount () + ")",
+                warmResult.getIterationsCount () < coldResult.getIterationsCount ());
+  }
+
+  @Test
+  public void resolvePerturbedKnapsack () {
+    final GurobiSolverParameters coldParameters = new SimplexParameters ();
+    final Program coldProgram = createKnapsack (VariableType.BINARY);
+    perturbKnapsack (coldProgram, VariableType.BINARY, true);
+    final GurobiExecutionResult coldResult = solver.solve (coldParameters, coldProgram);
+
+    final SimplexParameters warmParameters = new SimplexParameters ();
+    warmParameters.setUseSolutionWarmStart (true);
+    final Program warmProgram = createKnapsack (VariableType.BINARY);
+    final GurobiExecutionResult firstResult = solver.solve (warmParameters, warmProgram);
+    perturbKnapsack (warmProgram, VariableType.BINARY, true);
+    final GurobiExecutionResult warmResult = solver.solve (warmParameters, warmProgram);
+
+    assertEquals ("Expecting same objective value", coldResult.getBestSolution ().getObjectiveValue (),
+                  warmResult.getBestSolution ().getObjectiveValue (), 0.0001);
+    assertTrue ("Expecting optimal solution", warmResult.hasOptimalSolution ());
+
+    // The previous optimum stays feasible for the relaxed capacities, so an accepted MIP start is the first solution
+    final Program limitedProgram = createKnapsack (VariableType.BINARY);
+    solver.solve (warmParameters, limitedProgram);
+    perturbKnapsack (limitedProgram, VariableType.BINARY, true);
+    warmParameters.setSolutionLimit (1);
+    final GurobiExecutionResult limitedResult = solver.solve (warmParameters, limitedProgram);
+
+    assertEquals ("Expecting solution limit to be reached", TerminationReason.SOLUTION_LIMIT_REACHED,
+                  limitedResult.getTerminationReason ());
+    final double previousOptimum = firstResult.getBestSolution ().getObjectiveValue ();
+    assertTrue ("Expecting MIP start to be accepted",
+                limitedResult.getBestSolution ().getObjectiveValue () >= previousOptimum - 0.0001);
+  }
+
+  private Program createKnapsack (final VariableType type) {
+    final Random rand = new Random (0);
+
+    final Program program = factory.createProgram ("PerturbedKnapsack");
+    objective = program.addObjective ("ItemProfit", ObjectiveSense.MAXIMIZE);
+
+    capacityConstraints = new Constraint[DIMENSION_COUNT];
+    for (int d = 0; d < DIMENSION_COUNT; d++) {
+      capacityConstraints[d] = program.addConstraint ("KnapsackCapacity" + d, Operator.LESS_EQUALS);
+      capacityConstraints[d].getRhs ().addTerm (CAPACITY);
+    }
+
+    for (int i = 0; i < ITEM_COUNT; i++) {
+      final Variable item = program.addVariable ("item" + i, type, 0.0, 1.0);
+      objective.getExpression ().addTerm (rand.nextInt (10) + 5, item);
+
+      for (int d = 0; d < DIMENSION_COUNT; d++) {
+        capacityConstraints[d].getLhs ().addTerm (rand.nextInt (30) + 20, item);
+      }
+    }
+
+    return program;
+  }
+
+  /**
+   * Adds an item, which requires a rebuild of the native model, and changes the capacities in place. With relaxed
+   * capacities every solution of the original knapsack stays feasible.
+   */
+  private void perturbKnapsack (final Program program,
+                                final VariableType type,
+                                final boolean relaxOnly) {
+    final Variable item = program.addVariable ("item" + ITEM_COUNT, type, 0.0, 1.0);
+    objective.getExpression ().addTerm (10.0, item);
+
+    for (int d = 0; d < DIMENSION_COUNT; d++) {
+      capacityConstraints[d].getLhs ().addTerm (25.0, item);
+      capacityConstraints[d].getRhs ().addTerm ((relaxOnly || d % 2 == 0) ? CAPACITY_CHANGE : -CAPACITY_CHANGE);
+    }
+  }
+
+  /**
+   * Simplex is required to benefit from a basis, so the concurrent default method is replaced.
+   */
+  private static class SimplexParameters extends GurobiSolverParameters {
+
+    private int solutionLimit;
+
+    protected void setSolutionLimit (final int solutionLimit) {
+      this.solutionLimit = solutionLimit;
+    }
+
+    @Override
+    protected GRBEnv getNativeEnvironment () {
+      final GRBEnv env = super.getNativeEnvironment ();
+      try {
+        env.set (IntParam.Method, DUAL_SIMPLEX);
+        if (solutionLimit > 0) {
+          env.set (IntParam.SolutionLimit, solutionLimit);
+        }
+      } catch (GRBException e) {
+        throw new IllegalStateException ("Unable to set simplex parameters", e);
+      }
+      return env;
+    }
+  }
+}